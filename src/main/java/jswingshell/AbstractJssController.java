@@ -1,20 +1,40 @@
 package jswingshell;
 
-import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.Serializable;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.NavigableSet;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.ObjectName;
+import javax.swing.SwingUtilities;
 
 import jswingshell.action.AbstractJssAction;
+import jswingshell.action.AbstractJssComboAction;
+import jswingshell.action.AbstractJssSwitchAction;
 import jswingshell.action.AbstractThreadedJssAction;
 import jswingshell.action.IJssAction;
+import jswingshell.action.IJssOffloadableAction;
+import jswingshell.action.IJssStreamAction;
+import jswingshell.action.JssCancellationToken;
+import jswingshell.action.JssOffloadedAction;
+import jswingshell.action.JssPipeline;
 
 /**
  * The base for Shell controllers.
@@ -54,6 +74,13 @@ public abstract class AbstractJssController extends java.awt.event.KeyAdapter
   public static final String COMMAND_PARAMETER_ENCLOSURE =
       Character.toString(COMMAND_PARAMETER_ENCLOSURE_CHARACTER);
 
+  /**
+   * The character separating the commands of a pipeline.
+   *
+   * @since 1.4.5
+   */
+  public static final char COMMAND_PIPE_CHARACTER = '|';
+
   /**
    * Prefix used to indicate the start of command line.
    */
@@ -102,6 +129,20 @@ public abstract class AbstractJssController extends java.awt.event.KeyAdapter
    */
   public static final PublicationLevel DEFAULT_LEVEL = PublicationLevel.WARNING;
 
+  /**
+   * The percentile of an action's latencies compared to the offload threshold.
+   *
+   * @since 1.4.5
+   */
+  public static final int OFFLOAD_PERCENTILE = 95;
+
+  /**
+   * The number of invocations of an action recorded before it can be offloaded.
+   *
+   * @since 1.4.5
+   */
+  public static final int OFFLOAD_MINIMUM_INVOCATIONS = 5;
+
   /**
    * The shell's command line history.
    */
@@ -140,6 +181,92 @@ public abstract class AbstractJssController extends java.awt.event.KeyAdapter
   private transient List<PropertyChangeListener> actionsPropertyChangeListeners =
       new ArrayList<>();
 
+  /**
+   * The cache of parsed commands.
+   *
+   * @since 1.4.5
+   */
+  private transient JssCommandCache commandCache;
+
+  /**
+   * The index of the help of the available actions.
+   *
+   * @since 1.4.5
+   */
+  private transient JssHelpIndex helpIndex;
+
+  /**
+   * The metrics of interpreted commands.
+   *
+   * @since 1.4.5
+   */
+  private transient JssCommandMetrics commandMetrics;
+
+  /**
+   * The object name of the controller's MBean, if registered.
+   *
+   * @since 1.4.5
+   */
+  private transient ObjectName mbeanName;
+
+  /**
+   * The watchdog reporting the actions blocking the <i>Event Dispatch Thread</i>, if any.
+   *
+   * @since 1.4.5
+   */
+  private transient JssEdtWatchdog edtWatchdog;
+
+  /**
+   * The latency above which synchronous actions are run off the <i>Event Dispatch Thread</i>, in
+   * milliseconds, {@code 0} if disabled.
+   *
+   * @since 1.4.5
+   */
+  private transient long offloadThresholdMillis = 0;
+
+  /**
+   * The last command chain which was suspended while waiting for a threaded action.
+   *
+   * @since 1.4.5
+   */
+  private transient CommandChain lastSuspendedChain;
+
+  /**
+   * The parent of the cancellation tokens given to the threaded actions, cancelled to cancel them
+   * all at once.
+   *
+   * @since 1.4.5
+   */
+  private transient JssCancellationToken cancellationScope;
+
+  /**
+   * The deadline of the command being interpreted, {@code null} if none.
+   *
+   * @since 1.4.5
+   */
+  private transient JssCancellationToken commandDeadline;
+
+  /**
+   * The policy giving the timeout of the threaded actions, {@code null} if they never time out.
+   *
+   * @since 1.4.5
+   */
+  private transient JssTimeoutPolicy timeoutPolicy;
+
+  /**
+   * The timer wheel enforcing the timeouts.
+   *
+   * @since 1.4.5
+   */
+  private transient JssTimerWheel timerWheel;
+
+  /**
+   * The completion callback of the last worker started by this shell, until it is done.
+   *
+   * @since 1.4.5
+   */
+  private transient WorkerCompletion lastWorkerCompletion;
+
   // #########################################################################
   // Constructors
   /**
@@ -261,6 +388,26 @@ public abstract class AbstractJssController extends java.awt.event.KeyAdapter
     return new CommandHistory(commandHistory);
   }
 
+  /**
+   * Replace the command history.
+   *
+   * <p>
+   * The command history is used as is, not copied.
+   * </p>
+   *
+   * @param anotherHistory the new command history.
+   *
+   * @throws IllegalArgumentException if the command history is {@code null}.
+   *
+   * @since 1.4.5
+   */
+  protected void setCommandHistory(CommandHistory anotherHistory) {
+    if (anotherHistory == null) {
+      throw new IllegalArgumentException("A command history is required!");
+    }
+    this.commandHistory = anotherHistory;
+  }
+
   /**
    * Reset command history and current position.
    */
@@ -379,6 +526,23 @@ public abstract class AbstractJssController extends java.awt.event.KeyAdapter
     return getView().getShellText();
   }
 
+  /**
+   * Get the number of characters of the shell text.
+   *
+   * <p>
+   * Views backed by a document or a line store should override this method so that the shell text
+   * is not built only to be measured.
+   * </p>
+   *
+   * @return the number of characters of the shell text.
+   *
+   * @since 1.4.5
+   */
+  public long getShellTextLength() {
+    String shellText = getShellText();
+    return shellText != null ? shellText.length() : 0;
+  }
+
   /**
    * {@inheritDoc }.
    */
@@ -395,6 +559,52 @@ public abstract class AbstractJssController extends java.awt.event.KeyAdapter
     setShellText(null);
   }
 
+  /**
+   * Export the shell text to a file, encoded in {@code UTF-8}.
+   *
+   * @param file the file to write. It is created or overwritten.
+   *
+   * @return the number of bytes written.
+   *
+   * @throws IOException if the file could not be written.
+   *
+   * @see #exportShellText(File, Charset)
+   *
+   * @since 1.4.5
+   */
+  public long exportShellText(File file) throws IOException {
+    return exportShellText(file, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Export the shell text to a file.
+   *
+   * <p>
+   * This implementation writes the result of {@link #getShellText()}, and thus builds the whole
+   * shell text in memory. Controllers able to read their view by chunks should override it to
+   * stream the shell text instead.
+   * </p>
+   *
+   * @param file the file to write. It is created or overwritten.
+   * @param charset the charset of the file.
+   *
+   * @return the number of bytes written.
+   *
+   * @throws IOException if the file could not be written.
+   *
+   * @since 1.4.5
+   */
+  public long exportShellText(File file, Charset charset) throws IOException {
+    String shellText = getShellText();
+    try (FileOutputStream output = new FileOutputStream(file);
+        Writer writer = Channels.newWriter(output.getChannel(), charset.newEncoder(), -1)) {
+      if (shellText != null) {
+        writer.write(shellText);
+      }
+    }
+    return file.length();
+  }
+
   /**
    * {@inheritDoc }.
    */
@@ -473,6 +683,155 @@ public abstract class AbstractJssController extends java.awt.event.KeyAdapter
     return commandLineParser;
   }
 
+  /**
+   * Get the cache of parsed commands.
+   *
+   * @return the cache of parsed commands.
+   *
+   * @since 1.4.5
+   */
+  public JssCommandCache getCommandCache() {
+    if (commandCache == null) {
+      commandCache = new JssCommandCache();
+    }
+    return commandCache;
+  }
+
+  /**
+   * Set the cache of parsed commands.
+   *
+   * @param commandCache the new cache of parsed commands, {@code null} for a default cache.
+   *
+   * @since 1.4.5
+   */
+  public void setCommandCache(JssCommandCache commandCache) {
+    this.commandCache = commandCache;
+  }
+
+  /**
+   * Get the index of the help of the available actions.
+   *
+   * @return the help index.
+   *
+   * @since 1.4.5
+   */
+  public JssHelpIndex getHelpIndex() {
+    if (helpIndex == null) {
+      helpIndex = new JssHelpIndex();
+    }
+    return helpIndex;
+  }
+
+  /**
+   * Set the index of the help of the available actions.
+   *
+   * @param helpIndex the new help index, {@code null} for a default index.
+   *
+   * @since 1.4.5
+   */
+  public void setHelpIndex(JssHelpIndex helpIndex) {
+    this.helpIndex = helpIndex;
+  }
+
+  /**
+   * Render a page of the index of the help of the available actions.
+   *
+   * @param page the index of the page, starting at {@code 0}.
+   *
+   * @return the rendered page, {@code null} if the page is out of the index.
+   *
+   * @see #getHelpIndex()
+   *
+   * @since 1.4.5
+   */
+  public String renderHelpIndex(int page) {
+    return getHelpIndex().renderPage(getModel(), page);
+  }
+
+  /**
+   * Get the metrics of interpreted commands.
+   *
+   * @return the metrics of interpreted commands.
+   *
+   * @since 1.4.5
+   */
+  public JssCommandMetrics getCommandMetrics() {
+    if (commandMetrics == null) {
+      commandMetrics = new JssCommandMetrics();
+    }
+    return commandMetrics;
+  }
+
+  /**
+   * Set the metrics of interpreted commands.
+   *
+   * @param commandMetrics the new metrics of interpreted commands, {@code null} for new metrics.
+   *
+   * @since 1.4.5
+   */
+  public void setCommandMetrics(JssCommandMetrics commandMetrics) {
+    this.commandMetrics = commandMetrics;
+  }
+
+  /**
+   * Get the watchdog reporting the actions blocking the <i>Event Dispatch Thread</i>.
+   *
+   * @return the watchdog, {@code null} if actions are not watched.
+   *
+   * @since 1.4.5
+   */
+  public JssEdtWatchdog getEdtWatchdog() {
+    return edtWatchdog;
+  }
+
+  /**
+   * Set the watchdog reporting the actions blocking the <i>Event Dispatch Thread</i>.
+   *
+   * <p>
+   * The watchdog is not started nor stopped by the controller, so that it can be shared between
+   * several shells.
+   * </p>
+   *
+   * @param edtWatchdog the new watchdog, {@code null} to stop watching actions.
+   *
+   * @since 1.4.5
+   */
+  public void setEdtWatchdog(JssEdtWatchdog edtWatchdog) {
+    this.edtWatchdog = edtWatchdog;
+  }
+
+  /**
+   * Register the controller's MBean in the platform MBean server, so that the shell can be
+   * inspected with a JMX console.
+   *
+   * @return the object name of the MBean.
+   *
+   * @throws IllegalStateException if the MBean could not be registered.
+   *
+   * @see JssControllerMXBean
+   *
+   * @since 1.4.5
+   */
+  public synchronized ObjectName registerMBean() {
+    if (mbeanName == null) {
+      mbeanName = JssControllerManagement.register(this);
+    }
+    return mbeanName;
+  }
+
+  /**
+   * Unregister the controller's MBean from the platform MBean server.
+   *
+   * @return {@code true} if the MBean was unregistered.
+   *
+   * @since 1.4.5
+   */
+  public synchronized boolean unregisterMBean() {
+    boolean unregistered = JssControllerManagement.unregister(mbeanName);
+    mbeanName = null;
+    return unregistered;
+  }
+
   /**
    * {@inheritDoc }.
    */
@@ -508,52 +867,505 @@ public abstract class AbstractJssController extends java.awt.event.KeyAdapter
   }
 
   /**
-   * {@inheritDoc }.
-   */
-  @Override
-  public int interpretCommand(String command) {
-    return interpretCommand(command, true);
+   * {@inheritDoc }.
+   */
+  @Override
+  public int interpretCommand(String command) {
+    return interpretCommand(command, true);
+  }
+
+  /**
+   * Interpret a command, with a deadline for the threaded actions it runs.
+   *
+   * <p>
+   * The threaded actions started by the command get a {@link JssCancellationToken cancellation
+   * token} requesting their cancellation once the timeout has elapsed. Synchronous actions are not
+   * affected by the timeout.
+   * </p>
+   *
+   * @param command the command to interpret. Action and arguments will be extracted from it.
+   * @param timeout the time after which the threaded actions should stop.
+   * @param unit the unit of the timeout.
+   * @return the action's return code.
+   *
+   * @throws IllegalArgumentException if the timeout is negative or the unit is {@code null}.
+   *
+   * @since 1.4.5
+   */
+  public int interpretCommand(String command, long timeout, TimeUnit unit) {
+    if (unit == null) {
+      throw new IllegalArgumentException("A time unit is required!");
+    }
+    if (timeout < 0) {
+      throw new IllegalArgumentException("Timeout must be positive: " + timeout);
+    }
+    JssCancellationToken previousDeadline = commandDeadline;
+    commandDeadline = new JssCancellationToken(null, timeout, unit);
+    try {
+      return interpretCommand(command);
+    } finally {
+      commandDeadline = previousDeadline;
+    }
+  }
+
+  /**
+   * Interpret a command.
+   *
+   * <p>
+   * The arguments and the action of a single command are kept in the {@link #getCommandCache()
+   * command cache}, so that interpreting the same command again neither parses it nor looks up its
+   * action.
+   * </p>
+   *
+   * @param command the command to interpret. Action and arguments will be extracted from it.
+   * @param addCommandToHistory Should we add the command to the history?
+   * @return the action's return code.
+   */
+  public int interpretCommand(String command, boolean addCommandToHistory) {
+    if (command == null || command.isEmpty()) {
+      publish(PublicationLevel.ERROR, "Empty command");
+      return COMMAND_EMPTY_STATUS;
+    }
+    int commandReturnStatus;
+    String[] args;
+    IJssAction action;
+
+    JssCommandCache.ParsedCommand parsedCommand = getCommandCache().get(command, getModel());
+    if (parsedCommand != null) {
+      args = parsedCommand.getArguments();
+      action = parsedCommand.getAction();
+    } else {
+      List<ChainedCommand> chainedCommands =
+          getCommandLineParser().extractChainedCommands(command);
+      if (chainedCommands.size() > 1) {
+        if (addCommandToHistory) {
+          addToCommandHistory(command);
+        }
+        return interpretChain(command, chainedCommands);
+      }
+      // Ignore a trailing command separator
+      String singleCommand = chainedCommands.get(0).getCommand();
+
+      List<String> pipelineCommands =
+          getCommandLineParser().extractPipelineCommands(singleCommand);
+      if (pipelineCommands.size() > 1) {
+        if (addCommandToHistory) {
+          addToCommandHistory(command);
+        }
+        return interpretPipeline(command, pipelineCommands);
+      }
+
+      args = extractCommandParameters(singleCommand);
+      action = args != null && args.length > 0 ? getActionForCommandIdentifier(args[0]) : null;
+      if (action != null) {
+        getCommandCache().put(command, getModel(), args, action);
+      }
+    }
+
+    if (args == null || args.length == 0) {
+      publish(PublicationLevel.ERROR,
+          "No command and/or arguments found: " + command);
+      commandReturnStatus = COMMAND_EMPTY_STATUS;
+    } else {
+      // Store the command in history and reset position
+      if (addCommandToHistory) {
+        addToCommandHistory(command);
+      }
+
+      if (action != null) {
+        commandReturnStatus = runAction(action, args);
+      } else {
+        publish(PublicationLevel.ERROR, "Command not found: " + args[0]);
+        commandReturnStatus = COMMAND_NOT_FOUND_STATUS;
+      }
+    }
+
+    return commandReturnStatus;
+  }
+
+  /**
+   * Interpret a chain of commands, such as {@code cmd1 && cmd2 || cmd3 ; cmd4}.
+   *
+   * <p>
+   * Each command is interpreted, or skipped, depending on its {@link ChainOperator operator} and
+   * on the return status of the previous command. Commands are interpreted one after the other
+   * without going back to the caller, except for threaded actions: the chain is then suspended and
+   * resumed once the action ends, with the return status of its worker. If a threaded action is
+   * cancelled, the rest of the chain is skipped.
+   * </p>
+   *
+   * @param command the whole command line.
+   * @param chainedCommands the commands of the chain.
+   * @return the return code of the last command interpreted, or {@link #COMMAND_IN_PROGRESS} if
+   *         the chain is waiting for a threaded action.
+   *
+   * @since 1.4.5
+   */
+  protected int interpretChain(String command, List<ChainedCommand> chainedCommands) {
+    for (ChainedCommand chainedCommand : chainedCommands) {
+      if (chainedCommand.getCommand().isEmpty()) {
+        publish(PublicationLevel.ERROR, "Empty command in chain: " + command);
+        return COMMAND_EMPTY_STATUS;
+      }
+    }
+    return new CommandChain(chainedCommands).resume();
+  }
+
+  /**
+   * Interpret the commands of a pipeline.
+   *
+   * <p>
+   * Each command must be an {@link IJssStreamAction}. The pipeline is run as a threaded action:
+   * like any other, it unlocks the command line and resumes its chain once done, it is cancelled
+   * once its timeout has elapsed and its metrics are recorded.
+   * </p>
+   *
+   * @param command the whole command line.
+   * @param pipelineCommands the commands of the pipeline.
+   * @return the pipeline's return code.
+   *
+   * @see JssPipeline
+   *
+   * @since 1.4.5
+   */
+  protected int interpretPipeline(String command, List<String> pipelineCommands) {
+    JssPipeline pipeline = new JssPipeline();
+    for (String pipelineCommand : pipelineCommands) {
+      String[] args = extractCommandParameters(pipelineCommand);
+      if (args == null || args.length == 0) {
+        publish(PublicationLevel.ERROR, "Empty command in pipeline: " + command);
+        return COMMAND_EMPTY_STATUS;
+      }
+
+      IJssAction action = getActionForCommandIdentifier(args[0]);
+      if (action == null) {
+        publish(PublicationLevel.ERROR, "Command not found: " + args[0]);
+        return COMMAND_NOT_FOUND_STATUS;
+      } else if (!(action instanceof IJssStreamAction)) {
+        publish(PublicationLevel.ERROR, "Command cannot be piped: " + args[0]);
+        return COMMAND_ERROR;
+      }
+      pipeline.addStage((IJssStreamAction) action, args);
+    }
+
+    return runAction(pipeline, new String[] {JssPipeline.COMMAND_IDENTIFIER});
+  }
+
+  /**
+   * Prepare a command to execute it many times.
+   *
+   * @param template the command line, in which each {@value JssPreparedCommand#PLACEHOLDER}
+   *        argument is bound to a value on each execution.
+   * @return the prepared command.
+   *
+   * @throws IllegalArgumentException if the template is not a single command or if its command is
+   *         not found.
+   *
+   * @see #prepareCommand(String, boolean)
+   *
+   * @since 1.4.5
+   */
+  public JssPreparedCommand prepareCommand(String template) {
+    return prepareCommand(template, false);
+  }
+
+  /**
+   * Prepare a command to execute it many times.
+   *
+   * <p>
+   * The template is parsed and its action is resolved once, so that executing the prepared command
+   * does neither.
+   * </p>
+   *
+   * @param template the command line, in which each {@value JssPreparedCommand#PLACEHOLDER}
+   *        argument is bound to a value on each execution.
+   * @param validate should the value argument of a combo or switch action be checked against the
+   *        values accepted by the action?
+   * @return the prepared command.
+   *
+   * @throws IllegalArgumentException if the template is not a single command, if its command is not
+   *         found or if a constant value is not accepted by the action.
+   *
+   * @see JssPreparedCommand
+   *
+   * @since 1.4.5
+   */
+  public JssPreparedCommand prepareCommand(String template, boolean validate) {
+    return new JssPreparedCommand(this, template, validate);
+  }
+
+  /**
+   * Run the action of a prepared command.
+   *
+   * @param action the action resolved for the command.
+   * @param args the arguments of the command, with their values bound.
+   * @return the action's return code.
+   */
+  int runPreparedCommand(IJssAction action, String[] args) {
+    if (action == null) {
+      publish(PublicationLevel.ERROR, "Command not found: " + args[0]);
+      return COMMAND_NOT_FOUND_STATUS;
+    }
+    return runAction(action, args);
+  }
+
+  /**
+   * Should an action be run off the <i>Event Dispatch Thread</i>?
+   *
+   * <p>
+   * When {@link #setOffloadThresholdMillis(long) enabled}, a synchronous {@link AbstractJssAction}
+   * interpreted on the <i>Event Dispatch Thread</i> is offloaded once the
+   * {@value #OFFLOAD_PERCENTILE}th percentile of its recorded latencies exceeds the threshold,
+   * after at least {@value #OFFLOAD_MINIMUM_INVOCATIONS} invocations.
+   * </p>
+   *
+   * <p>
+   * Only the actions implementing {@link IJssOffloadableAction} are offloaded. Switch and combo
+   * actions never are, since running them changes their selection, which is bound to Swing
+   * components.
+   * </p>
+   *
+   * @param action the action to run.
+   * @return {@code true} if the action should be run in a worker.
+   *
+   * @see JssOffloadedAction
+   *
+   * @since 1.4.5
+   */
+  protected boolean shouldOffload(IJssAction action) {
+    if (offloadThresholdMillis <= 0 || !(action instanceof AbstractJssAction)
+        || !(action instanceof IJssOffloadableAction)
+        || action instanceof AbstractThreadedJssAction
+        || action instanceof AbstractJssSwitchAction || action instanceof AbstractJssComboAction
+        || !SwingUtilities.isEventDispatchThread()) {
+      return false;
+    }
+    JssCommandMetrics.Snapshot snapshot =
+        getCommandMetrics().getSnapshot(action.getDefaultCommandIdentifier());
+    return snapshot != null && snapshot.getInvocationCount() >= OFFLOAD_MINIMUM_INVOCATIONS
+        && snapshot.getPercentile(OFFLOAD_PERCENTILE) > TimeUnit.MILLISECONDS
+            .toNanos(offloadThresholdMillis);
+  }
+
+  /**
+   * Get the latency above which synchronous actions are run off the <i>Event Dispatch Thread</i>.
+   *
+   * @return the latency threshold, in milliseconds, {@code 0} if disabled.
+   *
+   * @since 1.4.5
+   */
+  public long getOffloadThresholdMillis() {
+    return offloadThresholdMillis;
+  }
+
+  /**
+   * Set the latency above which synchronous actions are run off the <i>Event Dispatch Thread</i>.
+   *
+   * @param offloadThresholdMillis the latency threshold, in milliseconds, {@code 0} to disable
+   *        offloading.
+   *
+   * @throws IllegalArgumentException if the threshold is negative.
+   *
+   * @see #shouldOffload(IJssAction)
+   *
+   * @since 1.4.5
+   */
+  public void setOffloadThresholdMillis(long offloadThresholdMillis) {
+    if (offloadThresholdMillis < 0) {
+      throw new IllegalArgumentException(
+          "Threshold must be positive: " + offloadThresholdMillis);
+    }
+    this.offloadThresholdMillis = offloadThresholdMillis;
+  }
+
+  /**
+   * Get the policy giving the timeout of the threaded actions.
+   *
+   * @return the timeout policy, {@code null} if threaded actions never time out.
+   *
+   * @since 1.4.5
+   */
+  public JssTimeoutPolicy getTimeoutPolicy() {
+    return timeoutPolicy;
+  }
+
+  /**
+   * Set the policy giving the timeout of the threaded actions.
+   *
+   * <p>
+   * Once its timeout has elapsed, the worker of a threaded action is cancelled, which unlocks the
+   * command line, and the timeout is recorded in the {@link #getCommandMetrics() command metrics}.
+   * </p>
+   *
+   * @param timeoutPolicy the new timeout policy, {@code null} if threaded actions never time out.
+   *
+   * @since 1.4.5
+   */
+  public void setTimeoutPolicy(JssTimeoutPolicy timeoutPolicy) {
+    this.timeoutPolicy = timeoutPolicy;
+  }
+
+  /**
+   * Get the timer wheel enforcing the timeouts.
+   *
+   * @return the timer wheel, the {@link JssTimerWheel#getDefault() default one} if none was set.
+   *
+   * @since 1.4.5
+   */
+  public JssTimerWheel getTimerWheel() {
+    if (timerWheel == null) {
+      timerWheel = JssTimerWheel.getDefault();
+    }
+    return timerWheel;
+  }
+
+  /**
+   * Set the timer wheel enforcing the timeouts.
+   *
+   * @param timerWheel the new timer wheel, {@code null} to use the default one.
+   *
+   * @since 1.4.5
+   */
+  public void setTimerWheel(JssTimerWheel timerWheel) {
+    this.timerWheel = timerWheel;
+  }
+
+  /**
+   * Run an action and record its metrics.
+   *
+   * <p>
+   * Slow synchronous actions may be {@link #shouldOffload(IJssAction) offloaded} to a worker. The
+   * metrics of a threaded action are recorded by its worker, once done. Synchronous actions
+   * run on the <i>Event Dispatch Thread</i> are watched by the {@link #getEdtWatchdog() watchdog},
+   * if any. Threaded actions are cancelled once their timeout has elapsed.
+   * </p>
+   *
+   * @param action the action to run.
+   * @param args the arguments of the command.
+   * @return the action's return code.
+   */
+  private int runAction(IJssAction action, String[] args) {
+    if (shouldOffload(action)) {
+      action = new JssOffloadedAction(action);
+    }
+    // Keep track of the last action
+    currentAction = action;
+    JssEdtWatchdog watchdog = edtWatchdog;
+    Object watchdogToken = watchdog != null && SwingUtilities.isEventDispatchThread()
+        ? watchdog.actionStarted(action, args) : null;
+    long start = System.nanoTime();
+    int commandReturnStatus = COMMAND_ERROR;
+    try {
+      commandReturnStatus = action.run(this, args);
+    } finally {
+      if (watchdogToken != null) {
+        watchdog.actionEnded(watchdogToken);
+      }
+      if (commandReturnStatus != IJssAction.IN_PROGRESS) {
+        getCommandMetrics().record(action.getDefaultCommandIdentifier(),
+            System.nanoTime() - start, commandReturnStatus != IJssAction.SUCCESS);
+      }
+    }
+    if (commandReturnStatus == IJssAction.IN_PROGRESS
+        && action instanceof AbstractThreadedJssAction) {
+      watchStartedWorker((AbstractThreadedJssAction) action, args);
+    }
+    return commandReturnStatus;
+  }
+
+  /**
+   * Set the completion callback of the worker just started by a threaded action, and schedule its
+   * timeout.
+   *
+   * @param action the threaded action.
+   * @param args the arguments of the command.
+   */
+  private void watchStartedWorker(AbstractThreadedJssAction action, String[] args) {
+    lastWorkerCompletion = null;
+    // The worker just started is the last one of this shell
+    List<AbstractThreadedJssAction.AbstractJssActionWorker> workers = action.getActiveWorkers();
+    AbstractThreadedJssAction.AbstractJssActionWorker startedWorker = null;
+    for (int i = workers.size() - 1; i >= 0 && startedWorker == null; i--) {
+      if (workers.get(i).getShellController() == this) {
+        startedWorker = workers.get(i);
+      }
+    }
+    if (startedWorker == null) {
+      return;
+    }
+    WorkerCompletion completion = new WorkerCompletion(action, startedWorker);
+    completion.timeout = scheduleTimeout(action, startedWorker, args);
+    lastWorkerCompletion = completion;
+    startedWorker.setCompletionCallback(completion);
   }
 
   /**
-   * Interpret a command.
+   * Schedule the cancellation of a worker.
    *
-   * @param command the command to interpret. Action and arguments will be extracted from it.
-   * @param addCommandToHistory Should we add the command to the history?
-   * @return the action's return code.
-   */
-  public int interpretCommand(String command, boolean addCommandToHistory) {
-    if (command == null || command.isEmpty()) {
-      publish(PublicationLevel.ERROR, "Empty command");
-      return COMMAND_EMPTY_STATUS;
+   * <p>
+   * The timeout is given by the {@link #getTimeoutPolicy() timeout policy}, or by the deadline of
+   * the command being {@link #interpretCommand(String, long, TimeUnit) interpreted} if it is
+   * shorter. The scheduled cancellation is dropped once the worker is done.
+   * </p>
+   *
+   * @param action the threaded action.
+   * @param worker the worker just started by the action.
+   * @param args the arguments of the command.
+   * @return the scheduled cancellation, {@code null} if the worker never times out.
+   */
+  private JssTimerWheel.Timeout scheduleTimeout(AbstractThreadedJssAction action,
+      final AbstractThreadedJssAction.AbstractJssActionWorker worker, String[] args) {
+    long timeoutNanos = Long.MAX_VALUE;
+    JssTimeoutPolicy policy = timeoutPolicy;
+    if (policy != null) {
+      long timeoutMillis = policy.getTimeoutMillis(action, args);
+      if (timeoutMillis > 0) {
+        timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+      }
+    }
+    if (commandDeadline != null) {
+      timeoutNanos =
+          Math.min(timeoutNanos, commandDeadline.getRemainingTime(TimeUnit.NANOSECONDS));
+    }
+    if (timeoutNanos == Long.MAX_VALUE || worker.isDone()) {
+      return null;
     }
-    int commandReturnStatus;
 
-    String[] args = extractCommandParameters(command);
+    final long timeoutMillis = TimeUnit.NANOSECONDS.toMillis(timeoutNanos);
+    return getTimerWheel().schedule(new Runnable() {
 
-    if (args == null || args.length == 0) {
-      publish(PublicationLevel.ERROR,
-          "No command and/or arguments found: " + command);
-      commandReturnStatus = COMMAND_EMPTY_STATUS;
-    } else {
-      // Store the command in history and reset position
-      if (addCommandToHistory) {
-        addToCommandHistory(command);
-      }
+      @Override
+      public void run() {
+        SwingUtilities.invokeLater(new Runnable() {
 
-      // Search for the action
-      IJssAction action = getActionForCommandIdentifier(args[0]);
-      if (action != null) {
-        // Keep track of the last action
-        currentAction = action;
-        commandReturnStatus = action.run(this, args);
-      } else {
-        publish(PublicationLevel.ERROR, "Command not found: " + args[0]);
-        commandReturnStatus = COMMAND_NOT_FOUND_STATUS;
+          @Override
+          public void run() {
+            timeoutWorker(worker, timeoutMillis);
+          }
+
+        });
       }
-    }
 
-    return commandReturnStatus;
+    }, timeoutNanos, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Cancel a worker whose timeout has elapsed.
+   *
+   * @param worker the worker.
+   * @param timeoutMillis the timeout of the worker, in milliseconds.
+   */
+  private void timeoutWorker(AbstractThreadedJssAction.AbstractJssActionWorker worker,
+      long timeoutMillis) {
+    if (worker.isDone()) {
+      return;
+    }
+    String commandIdentifier = worker.getParentAction().getDefaultCommandIdentifier();
+    getCommandMetrics().recordTimeout(commandIdentifier);
+    publish(PublicationLevel.ERROR,
+        "Command timed out after " + timeoutMillis + " ms: " + commandIdentifier);
+    // Once cancelled, the worker is done and the command line is unlocked
+    worker.cancel(true);
   }
 
   /**
@@ -566,6 +1378,7 @@ public abstract class AbstractJssController extends java.awt.event.KeyAdapter
     String cmd = extractCommand();
 
     int commandReturnStatus = AbstractJssAction.SUCCESS;
+    lastSuspendedChain = null;
     if (cmd != null && !cmd.isEmpty()) {
       commandReturnStatus = interpretCommand(cmd);
       addNewLineToShell();
@@ -576,31 +1389,15 @@ public abstract class AbstractJssController extends java.awt.event.KeyAdapter
       case AbstractThreadedJssAction.IN_PROGRESS:
         // Do not add command line for actions still in progress
         // But store the action for later thread management
-        if (currentAction instanceof AbstractThreadedJssAction) {
-          AbstractThreadedJssAction threadedAction =
-              (AbstractThreadedJssAction) currentAction;
-          actionsInProgress.add(threadedAction);
-          for (final AbstractThreadedJssAction.AbstractJssActionWorker worker : threadedAction
-              .getActiveWorkers()) {
-            if (worker.getShellController() == this) {
-              // Add a listener to manage the workers changes
-              worker.addPropertyChangeListener(new PropertyChangeListener() {
-
-                @Override
-                public void propertyChange(PropertyChangeEvent evt) {
-                  if ("state".equals(evt.getPropertyName())
-                      && AbstractThreadedJssAction.AbstractJssActionWorker.StateValue.DONE == evt
-                          .getNewValue()) {
-                    // Remove action from the "in progress" list
-                    AbstractJssController.this
-                        .removeEndedAction(worker.getParentAction());
-                    AbstractJssController.this.addNewCommandLine();
-                    AbstractJssController.this.unlockCommandLine();
-                  }
-                }
-
-              });
-            }
+        if (lastSuspendedChain != null) {
+          // The command line will be added once the whole chain has ended
+          lastSuspendedChain.restoreCommandLine = true;
+        } else if (currentAction instanceof AbstractThreadedJssAction) {
+          actionsInProgress.add((AbstractThreadedJssAction) currentAction);
+          WorkerCompletion completion = lastWorkerCompletion;
+          if (completion != null && completion.action == currentAction) {
+            // The command line will be added once the worker is done
+            completion.restoreCommandLine();
           }
         }
         break;
@@ -662,6 +1459,62 @@ public abstract class AbstractJssController extends java.awt.event.KeyAdapter
     return Collections.unmodifiableList(actionsInProgress);
   }
 
+  /**
+   * Create the cancellation token of a threaded action started by this shell.
+   *
+   * <p>
+   * The token is cancelled by {@link #cancelActionsInProgress()} and has the deadline of the
+   * command being {@link #interpretCommand(String, long, TimeUnit) interpreted}, if any.
+   * </p>
+   *
+   * @return a new cancellation token.
+   *
+   * @since 1.4.5
+   */
+  public JssCancellationToken createCancellationToken() {
+    if (cancellationScope == null) {
+      cancellationScope = new JssCancellationToken();
+    }
+    JssCancellationToken deadline = commandDeadline;
+    if (deadline == null) {
+      return new JssCancellationToken(cancellationScope);
+    }
+    return new JssCancellationToken(cancellationScope,
+        deadline.getRemainingTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Cancel all the actions in progress.
+   *
+   * <p>
+   * The workers of the actions in progress are cancelled, then the cancellation tokens of all the
+   * threaded actions started by this shell are cancelled at once.
+   * </p>
+   *
+   * @return the number of actions cancelled.
+   *
+   * @since 1.4.5
+   */
+  public int cancelActionsInProgress() {
+    // Cancelled workers may be removed from the actions in progress while cancelling them
+    int cancelled = actionsInProgress.size();
+    Set<AbstractThreadedJssAction> cancelledActions = new LinkedHashSet<>(actionsInProgress);
+    for (AbstractThreadedJssAction action : cancelledActions) {
+      action.cancel(this, true);
+    }
+    actionsInProgress.removeAll(cancelledActions);
+    // Then stop the workers which are not tracked by the shell
+    if (cancellationScope != null) {
+      cancellationScope.cancel();
+      cancellationScope = null;
+    }
+    if (currentAction instanceof AbstractThreadedJssAction
+        && cancelledActions.contains(currentAction)) {
+      currentAction = null;
+    }
+    return cancelled;
+  }
+
   /**
    * Alert the shell of an action that was in progress.
    *
@@ -718,6 +1571,267 @@ public abstract class AbstractJssController extends java.awt.event.KeyAdapter
     return getModel().getActionForCommandIdentifier(commandIdentifier);
   }
 
+  // #########################################################################
+  // Command chains
+  /**
+   * The operator placed before a command of a chain.
+   *
+   * @since 1.4.5
+   */
+  public static enum ChainOperator {
+
+    /**
+     * {@code ;}: the command is always interpreted.
+     */
+    SEQUENCE(";"),
+    /**
+     * {@code &&}: the command is interpreted if the previous one succeeded.
+     */
+    AND("&&"),
+    /**
+     * {@code ||}: the command is interpreted if the previous one did not succeed.
+     */
+    OR("||");
+
+    private final String symbol;
+
+    private ChainOperator(String symbol) {
+      this.symbol = symbol;
+    }
+
+    public String getSymbol() {
+      return symbol;
+    }
+
+    /**
+     * Should a command placed after this operator be interpreted?
+     *
+     * @param previousStatus the return status of the previous command.
+     *
+     * @return {@code true} if the command should be interpreted.
+     */
+    public boolean accepts(int previousStatus) {
+      switch (this) {
+        case AND:
+          return previousStatus == COMMAND_SUCCESS;
+        case OR:
+          return previousStatus != COMMAND_SUCCESS;
+        default:
+          return true;
+      }
+    }
+
+  }
+
+  /**
+   * A command of a chain, with the operator placed before it.
+   *
+   * @since 1.4.5
+   */
+  public static class ChainedCommand implements Serializable {
+
+    /**
+     * The {@code serialVersionUID}.
+     */
+    private static final long serialVersionUID = 5140233520306693453L;
+
+    private final ChainOperator operator;
+
+    private final String command;
+
+    public ChainedCommand(ChainOperator operator, String command) {
+      this.operator = operator;
+      this.command = command;
+    }
+
+    public ChainOperator getOperator() {
+      return operator;
+    }
+
+    public String getCommand() {
+      return command;
+    }
+
+    @Override
+    public String toString() {
+      return operator.getSymbol() + " " + command;
+    }
+
+  }
+
+  /**
+   * The state of a chain of commands being interpreted.
+   */
+  private final class CommandChain {
+
+    private final List<ChainedCommand> commands;
+
+    private int nextCommand = 0;
+
+    private int status = COMMAND_SUCCESS;
+
+    /**
+     * Should the command line be added and unlocked when the chain ends?
+     */
+    boolean restoreCommandLine = false;
+
+    CommandChain(List<ChainedCommand> commands) {
+      this.commands = commands;
+    }
+
+    /**
+     * Interpret the next commands of the chain, until the end of the chain or a threaded action.
+     *
+     * @return the return status of the last command, or {@link #COMMAND_IN_PROGRESS} if the chain
+     *         was suspended.
+     */
+    int resume() {
+      while (nextCommand < commands.size()) {
+        ChainedCommand chainedCommand = commands.get(nextCommand++);
+        if (chainedCommand.getOperator().accepts(status)) {
+          status = interpretCommand(chainedCommand.getCommand(), false);
+          if (status == COMMAND_IN_PROGRESS && suspend()) {
+            return COMMAND_IN_PROGRESS;
+          }
+        }
+      }
+      return status;
+    }
+
+    /**
+     * Wait for the threaded action which was just started to end.
+     *
+     * @return {@code true} if the chain will be resumed once the action ends.
+     */
+    private boolean suspend() {
+      if (!(currentAction instanceof AbstractThreadedJssAction)) {
+        // Nothing to wait for
+        return false;
+      }
+      WorkerCompletion completion = lastWorkerCompletion;
+      if (completion == null || completion.action != currentAction) {
+        // The action did not start a worker, its status cannot be known
+        status = COMMAND_SUCCESS;
+        return false;
+      }
+
+      actionsInProgress.add(completion.action);
+      lastSuspendedChain = this;
+      completion.resumeChain(this);
+      return true;
+    }
+
+    private void resumeAfter(AbstractThreadedJssAction.AbstractJssActionWorker worker) {
+      try {
+        Integer workerStatus = worker.get();
+        status = workerStatus != null ? workerStatus : COMMAND_SUCCESS;
+        status = resume();
+      } catch (CancellationException e) {
+        // Skip the rest of the chain
+        status = COMMAND_ERROR;
+      } catch (ExecutionException e) {
+        status = COMMAND_ERROR;
+        status = resume();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        status = COMMAND_ERROR;
+      }
+
+      if (status != COMMAND_IN_PROGRESS && restoreCommandLine) {
+        publish(PublicationLevel.DEBUG, "Return status: " + status);
+        addNewCommandLine();
+        unlockCommandLine();
+      }
+    }
+
+  }
+
+  /**
+   * The single completion callback of a worker started by this shell.
+   *
+   * <p>
+   * It cancels the timeout of the worker, then resumes the command chain waiting for the worker or
+   * restores the command line, if requested. The worker releases its callback once run, so that it
+   * does not keep the shell reachable.
+   * </p>
+   *
+   * @since 1.4.5
+   */
+  private final class WorkerCompletion implements Runnable {
+
+    final AbstractThreadedJssAction action;
+
+    private final AbstractThreadedJssAction.AbstractJssActionWorker worker;
+
+    JssTimerWheel.Timeout timeout;
+
+    private CommandChain chain;
+
+    private boolean restoreCommandLine = false;
+
+    private boolean done = false;
+
+    WorkerCompletion(AbstractThreadedJssAction action,
+        AbstractThreadedJssAction.AbstractJssActionWorker worker) {
+      this.action = action;
+      this.worker = worker;
+    }
+
+    /**
+     * Add the command line and unlock it once the worker is done.
+     */
+    void restoreCommandLine() {
+      restoreCommandLine = true;
+      if (done) {
+        complete();
+      }
+    }
+
+    /**
+     * Resume a command chain once the worker is done.
+     *
+     * @param suspendedChain the command chain waiting for the worker.
+     */
+    void resumeChain(CommandChain suspendedChain) {
+      chain = suspendedChain;
+      if (done) {
+        complete();
+      }
+    }
+
+    @Override
+    public void run() {
+      done = true;
+      if (timeout != null) {
+        // Release the worker from the timer wheel
+        timeout.cancel();
+        timeout = null;
+      }
+      complete();
+    }
+
+    private void complete() {
+      if (chain == null && !restoreCommandLine) {
+        // Nothing requested yet
+        return;
+      }
+      if (lastWorkerCompletion == this) {
+        lastWorkerCompletion = null;
+      }
+      removeEndedAction(action);
+      if (chain != null) {
+        CommandChain suspendedChain = chain;
+        chain = null;
+        suspendedChain.resumeAfter(worker);
+      } else {
+        restoreCommandLine = false;
+        addNewCommandLine();
+        unlockCommandLine();
+      }
+    }
+
+  }
+
   // #########################################################################
   // Command history
   /**
@@ -1065,6 +2179,52 @@ public abstract class AbstractJssController extends java.awt.event.KeyAdapter
       return added;
     }
 
+    /**
+     * Add commands to the history at once, as if they were added one by one.
+     *
+     * <p>
+     * When duplication is allowed, the commands are appended in bulk and only the most recent
+     * commands fitting in the history are kept.
+     * </p>
+     *
+     * @param commands the commands to add to the history, from the oldest to the most recent.
+     * @return {@code true} if this action changed the command history.
+     *
+     * @since 1.4.5
+     */
+    public boolean addAll(List<String> commands) {
+      if (commands == null || commands.isEmpty() || getMaximumSizeAllowed() == 0
+          || getCommandBuffer() == null) {
+        return false;
+      }
+      if (!(getCommandBuffer() instanceof List)) {
+        boolean added = false;
+        for (String command : commands) {
+          added |= add(command);
+        }
+        return added;
+      }
+
+      List<String> localCommandBuffer = (List<String>) getCommandBuffer();
+      List<String> addedCommands = commands;
+      if (!isSizeUnlimited()) {
+        int maximumSize = getMaximumSizeAllowed();
+        if (addedCommands.size() >= maximumSize) {
+          localCommandBuffer.clear();
+          addedCommands = addedCommands.subList(addedCommands.size() - maximumSize,
+              addedCommands.size());
+        } else if (localCommandBuffer.size() + addedCommands.size() > maximumSize) {
+          // Remove "oldest" elements to make some place
+          localCommandBuffer
+              .subList(0, localCommandBuffer.size() + addedCommands.size() - maximumSize)
+              .clear();
+        }
+      }
+      localCommandBuffer.addAll(addedCommands);
+      currentHistoryPosition = -1;
+      return true;
+    }
+
     /**
      * Clear command history anc current position.
      */
@@ -1283,6 +2443,133 @@ public abstract class AbstractJssController extends java.awt.event.KeyAdapter
       return argv;
     }
 
+    /**
+     * Split a command line into the commands of a chain.
+     *
+     * <p>
+     * Commands are separated by the {@link ChainOperator chain operators} {@code ;}, {@code &&} and
+     * {@code ||} which are not part of a double quoted part. A single {@code |} is left in the
+     * command, as it separates the commands of a pipeline. A trailing {@code ;} is ignored.
+     * </p>
+     *
+     * @param commandLine The command line to split
+     *
+     * @return the commands of the chain, trimmed. The first command has the
+     *         {@link ChainOperator#SEQUENCE SEQUENCE} operator. A command line without chain
+     *         operator gives a single command, and an empty command line gives an empty list.
+     *
+     * @since 1.4.5
+     */
+    public List<ChainedCommand> extractChainedCommands(String commandLine) {
+      if (commandLine == null || commandLine.isEmpty()) {
+        return Collections.emptyList();
+      }
+
+      List<ChainedCommand> commands = new ArrayList<>(1);
+      ChainOperator operator = ChainOperator.SEQUENCE;
+      boolean quoted = false;
+      int backslashes = 0;
+      int commandStart = 0;
+      for (int i = 0, n = commandLine.length(); i < n; i++) {
+        char c = commandLine.charAt(i);
+        ChainOperator nextOperator = null;
+        switch (c) {
+          case '\\':
+            backslashes++;
+            continue;
+          case COMMAND_PARAMETER_ENCLOSURE_CHARACTER:
+            // An odd number of backslashes escapes the double quotation mark
+            if ((0x01 & backslashes) == 0) {
+              quoted = !quoted;
+            }
+            break;
+          case ';':
+            nextOperator = ChainOperator.SEQUENCE;
+            break;
+          case '&':
+            if (i + 1 < n && commandLine.charAt(i + 1) == '&') {
+              nextOperator = ChainOperator.AND;
+            }
+            break;
+          case COMMAND_PIPE_CHARACTER:
+            if (i + 1 < n && commandLine.charAt(i + 1) == COMMAND_PIPE_CHARACTER) {
+              nextOperator = ChainOperator.OR;
+            }
+            break;
+          default:
+            break;
+        }
+        backslashes = 0;
+
+        if (nextOperator != null && !quoted) {
+          commands.add(new ChainedCommand(operator, commandLine.substring(commandStart, i).trim()));
+          operator = nextOperator;
+          i += nextOperator.getSymbol().length() - 1;
+          commandStart = i + 1;
+        }
+      }
+
+      String lastCommand = commandLine.substring(commandStart).trim();
+      if (commands.isEmpty() || !lastCommand.isEmpty() || operator != ChainOperator.SEQUENCE) {
+        commands.add(new ChainedCommand(operator, lastCommand));
+      }
+      return commands;
+    }
+
+    /**
+     * Split a command line into the commands of a pipeline.
+     *
+     * <p>
+     * Commands are separated by a {@link AbstractJssController#COMMAND_PIPE_CHARACTER pipe}
+     * character which is not part of a double quoted part. Double quotation marks are detected the
+     * same way as in {@link #extractCommandArguments(String)}.
+     * </p>
+     *
+     * @param commandLine The command line to split
+     *
+     * @return the commands of the pipeline, trimmed. A command line without pipe gives a single
+     *         command, and an empty command line gives an empty list.
+     *
+     * @since 1.4.5
+     */
+    public List<String> extractPipelineCommands(String commandLine) {
+      if (commandLine == null || commandLine.isEmpty()) {
+        return Collections.emptyList();
+      }
+
+      List<String> commands = new ArrayList<>(1);
+      boolean quoted = false;
+      int backslashes = 0;
+      int commandStart = 0;
+      for (int i = 0, n = commandLine.length(); i < n; i++) {
+        char c = commandLine.charAt(i);
+        switch (c) {
+          case '\\':
+            backslashes++;
+            break;
+          case COMMAND_PARAMETER_ENCLOSURE_CHARACTER:
+            // An odd number of backslashes escapes the double quotation mark
+            if ((0x01 & backslashes) == 0) {
+              quoted = !quoted;
+            }
+            backslashes = 0;
+            break;
+          case COMMAND_PIPE_CHARACTER:
+            if (!quoted) {
+              commands.add(commandLine.substring(commandStart, i).trim());
+              commandStart = i + 1;
+            }
+            backslashes = 0;
+            break;
+          default:
+            backslashes = 0;
+            break;
+        }
+      }
+      commands.add(commandLine.substring(commandStart).trim());
+      return commands;
+    }
+
     /**
      * Parse command line and extract arguments.
      *
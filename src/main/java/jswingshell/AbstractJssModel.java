@@ -4,12 +4,14 @@ import java.io.Serializable;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
 
 import jswingshell.action.IJssAction;
+import jswingshell.action.JssActionStateSnapshot;
 
 /**
  * The base for Shell models.
@@ -53,6 +55,20 @@ public abstract class AbstractJssModel implements IJssModel, Serializable {
    */
   private transient Map<String, IJssAction> actionsByCommandIdentifier;
 
+  /**
+   * The number of times the available actions were modified.
+   *
+   * @since 1.4.5
+   */
+  private transient int modificationCount = 0;
+
+  /**
+   * The full-text index of the help of the available actions, {@code null} until searched.
+   *
+   * @since 1.4.5
+   */
+  private transient JssHelpSearchIndex helpSearchIndex = null;
+
   /**
    * Should the actions and identifiers be sorted?
    *
@@ -276,6 +292,10 @@ public abstract class AbstractJssModel implements IJssModel, Serializable {
     getAvailableActions().clear();
     getActionsByCommandIdentifier().clear();
     actionsByCommandIdentifierInitialized = true;
+    modificationCount++;
+    if (helpSearchIndex != null) {
+      helpSearchIndex.clear();
+    }
   }
 
   /**
@@ -284,7 +304,12 @@ public abstract class AbstractJssModel implements IJssModel, Serializable {
   @Override
   public boolean add(IJssAction action) {
     boolean added = getAvailableActions().add(action);
-    actionsByCommandIdentifierInitialized = !added;
+    if (added) {
+      actionsModified();
+      if (helpSearchIndex != null) {
+        helpSearchIndex.add(action, getController());
+      }
+    }
     return added;
   }
 
@@ -294,7 +319,16 @@ public abstract class AbstractJssModel implements IJssModel, Serializable {
   @Override
   public boolean addAll(Collection<? extends IJssAction> actions) {
     boolean added = getAvailableActions().addAll(actions);
-    actionsByCommandIdentifierInitialized = !added;
+    if (added) {
+      actionsModified();
+      if (helpSearchIndex != null) {
+        for (IJssAction action : actions) {
+          if (!helpSearchIndex.contains(action)) {
+            helpSearchIndex.add(action, getController());
+          }
+        }
+      }
+    }
     return added;
   }
 
@@ -304,7 +338,12 @@ public abstract class AbstractJssModel implements IJssModel, Serializable {
   @Override
   public boolean remove(IJssAction action) {
     boolean removed = getAvailableActions().remove(action);
-    actionsByCommandIdentifierInitialized = !removed;
+    if (removed) {
+      actionsModified();
+      if (helpSearchIndex != null) {
+        helpSearchIndex.remove(action);
+      }
+    }
     return removed;
   }
 
@@ -314,7 +353,14 @@ public abstract class AbstractJssModel implements IJssModel, Serializable {
   @Override
   public boolean removeAll(Collection<? extends IJssAction> actions) {
     boolean removed = getAvailableActions().removeAll(actions);
-    actionsByCommandIdentifierInitialized = !removed;
+    if (removed) {
+      actionsModified();
+      if (helpSearchIndex != null) {
+        for (IJssAction action : actions) {
+          helpSearchIndex.remove(action);
+        }
+      }
+    }
     return removed;
   }
 
@@ -339,7 +385,18 @@ public abstract class AbstractJssModel implements IJssModel, Serializable {
    */
   @Override
   public boolean retainAll(Collection<? extends IJssAction> actions) {
-    return getAvailableActions().retainAll(actions);
+    boolean removed = getAvailableActions().retainAll(actions);
+    if (removed) {
+      actionsModified();
+      if (helpSearchIndex != null) {
+        for (IJssAction action : helpSearchIndex.getActions()) {
+          if (!getAvailableActions().contains(action)) {
+            helpSearchIndex.remove(action);
+          }
+        }
+      }
+    }
+    return removed;
   }
 
   /**
@@ -358,6 +415,32 @@ public abstract class AbstractJssModel implements IJssModel, Serializable {
     return getAvailableActions().size();
   }
 
+  /**
+   * Get the number of times the available actions were modified.
+   *
+   * <p>
+   * This allows to detect that some information computed from the available actions, such as a
+   * cache of resolved commands, is not up to date anymore.
+   * </p>
+   *
+   * @return the number of times the available actions were modified.
+   *
+   * @since 1.4.5
+   */
+  public int getModificationCount() {
+    return modificationCount;
+  }
+
+  /**
+   * Signal that the available actions were modified.
+   *
+   * @since 1.4.5
+   */
+  protected void actionsModified() {
+    actionsByCommandIdentifierInitialized = false;
+    modificationCount++;
+  }
+
   protected Map<String, IJssAction> getActionsByCommandIdentifier() {
     if (!actionsByCommandIdentifierInitialized) {
       initActionsByCommandIdentifier();
@@ -414,4 +497,98 @@ public abstract class AbstractJssModel implements IJssModel, Serializable {
     return sorted;
   }
 
+  // #########################################################################
+  // Help search methods
+  /**
+   * Get the full-text index of the help of the available actions.
+   *
+   * <p>
+   * The index is built on the first call, then kept up to date as actions are added or removed.
+   * </p>
+   *
+   * @return the help search index.
+   *
+   * @since 1.4.5
+   */
+  public JssHelpSearchIndex getHelpSearchIndex() {
+    if (helpSearchIndex == null) {
+      JssHelpSearchIndex index = new JssHelpSearchIndex();
+      for (IJssAction action : getAvailableActions()) {
+        index.add(action, getController());
+      }
+      helpSearchIndex = index;
+    }
+    return helpSearchIndex;
+  }
+
+  /**
+   * Index the help of an available action again, once it changed.
+   *
+   * @param action the action.
+   *
+   * @return {@code true} if the action is available.
+   *
+   * @since 1.4.5
+   */
+  public boolean reindexHelp(IJssAction action) {
+    if (action == null || !contains(action)) {
+      return false;
+    }
+    if (helpSearchIndex != null) {
+      helpSearchIndex.add(action, getController());
+    }
+    return true;
+  }
+
+  /**
+   * Search the available actions whose help matches some keywords.
+   *
+   * @param query the keywords, separated by spaces or punctuation.
+   * @param maxResults the maximum number of matches returned.
+   *
+   * @return the matching actions, from the best to the worst match.
+   *
+   * @see JssHelpSearchIndex#search(String, int)
+   *
+   * @since 1.4.5
+   */
+  public List<JssHelpSearchIndex.Match> apropos(String query, int maxResults) {
+    return getHelpSearchIndex().search(query, maxResults);
+  }
+
+  // #########################################################################
+  // State methods
+  /**
+   * Capture the state of the switch and combo actions available in this model.
+   *
+   * @return the snapshot of the actions.
+   *
+   * @see #restoreActionStates(JssActionStateSnapshot)
+   *
+   * @since 1.4.5
+   */
+  public JssActionStateSnapshot captureActionStates() {
+    return JssActionStateSnapshot.capture(getAvailableActions());
+  }
+
+  /**
+   * Restore the state of actions captured by a snapshot, switching them for the controller of this
+   * model.
+   *
+   * @param snapshot the snapshot of the actions.
+   *
+   * @return {@link IJssAction#SUCCESS} if all actions were restored, {@link IJssAction#ERROR}
+   *         otherwise.
+   *
+   * @see JssActionStateSnapshot#restore(IJssController)
+   *
+   * @since 1.4.5
+   */
+  public int restoreActionStates(JssActionStateSnapshot snapshot) {
+    if (snapshot == null) {
+      return IJssAction.ERROR;
+    }
+    return snapshot.restore(getController());
+  }
+
 }
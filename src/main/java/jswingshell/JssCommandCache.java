@@ -0,0 +1,221 @@
+package jswingshell;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import jswingshell.action.IJssAction;
+
+/**
+ * A bounded cache of parsed command lines.
+ *
+ * <p>
+ * This cache maps a raw command line to its arguments and to the action resolved for its command
+ * identifier, so that interpreting the same command line again does not parse it nor look up its
+ * action. The least recently used command lines are evicted once the cache is full.
+ * </p>
+ *
+ * <p>
+ * Resolved actions depend on the shell model: the cache is cleared whenever it is used with another
+ * model, or once the actions of the model were {@link AbstractJssModel#getModificationCount()
+ * modified}.
+ * </p>
+ *
+ * @author Mathieu Brunot
+ *
+ * @since 1.4.5
+ */
+public class JssCommandCache {
+
+  /**
+   * The default number of command lines kept in the cache.
+   */
+  public static final int DEFAULT_CAPACITY = 512;
+
+  private final int capacity;
+
+  private final Map<String, ParsedCommand> parsedCommands;
+
+  /**
+   * The model for which actions were resolved.
+   */
+  private AbstractJssModel model;
+
+  /**
+   * The modification count of the model when actions were resolved.
+   */
+  private int modelModificationCount;
+
+  private long hitCount = 0;
+
+  private long missCount = 0;
+
+  private long evictionCount = 0;
+
+  // #########################################################################
+  // Constructors
+  public JssCommandCache() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Create a command line cache.
+   *
+   * @param capacity the number of command lines kept in the cache, {@code 0} to disable the cache.
+   *
+   * @throws IllegalArgumentException if the capacity is negative.
+   */
+  public JssCommandCache(final int capacity) {
+    if (capacity < 0) {
+      throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+    }
+    this.capacity = capacity;
+    this.parsedCommands = new LinkedHashMap<String, ParsedCommand>(16, 0.75f, true) {
+
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, ParsedCommand> eldest) {
+        boolean evicted = size() > capacity;
+        if (evicted) {
+          evictionCount++;
+        }
+        return evicted;
+      }
+
+    };
+  }
+
+  // #########################################################################
+  // Cache methods
+  /**
+   * Get a parsed command line.
+   *
+   * @param commandLine the raw command line.
+   * @param currentModel the model used to resolve actions.
+   *
+   * @return the parsed command line, {@code null} if it is not in the cache.
+   */
+  public synchronized ParsedCommand get(String commandLine, AbstractJssModel currentModel) {
+    validate(currentModel);
+    ParsedCommand parsedCommand = commandLine != null ? parsedCommands.get(commandLine) : null;
+    if (parsedCommand != null) {
+      hitCount++;
+    } else {
+      missCount++;
+    }
+    return parsedCommand;
+  }
+
+  /**
+   * Put a parsed command line in the cache.
+   *
+   * @param commandLine the raw command line.
+   * @param currentModel the model used to resolve the action.
+   * @param arguments the arguments of the command line.
+   * @param action the action resolved for the command identifier.
+   */
+  public synchronized void put(String commandLine, AbstractJssModel currentModel,
+      String[] arguments, IJssAction action) {
+    if (capacity == 0 || commandLine == null || currentModel == null) {
+      return;
+    }
+    validate(currentModel);
+    parsedCommands.put(commandLine, new ParsedCommand(arguments, action));
+  }
+
+  /**
+   * Remove all command lines from the cache.
+   */
+  public synchronized void clear() {
+    parsedCommands.clear();
+  }
+
+  /**
+   * Clear the cache if it was filled for another model or for previous actions.
+   *
+   * @param currentModel the model used to resolve actions.
+   */
+  private void validate(AbstractJssModel currentModel) {
+    int currentModificationCount = currentModel != null ? currentModel.getModificationCount() : 0;
+    if (currentModel != model || currentModificationCount != modelModificationCount) {
+      parsedCommands.clear();
+      model = currentModel;
+      modelModificationCount = currentModificationCount;
+    }
+  }
+
+  public int getCapacity() {
+    return capacity;
+  }
+
+  public synchronized int size() {
+    return parsedCommands.size();
+  }
+
+  /**
+   * Get the number of command lines found in the cache.
+   *
+   * @return the number of command lines found in the cache.
+   */
+  public synchronized long getHitCount() {
+    return hitCount;
+  }
+
+  /**
+   * Get the number of command lines not found in the cache.
+   *
+   * @return the number of command lines not found in the cache.
+   */
+  public synchronized long getMissCount() {
+    return missCount;
+  }
+
+  /**
+   * Get the number of command lines evicted from the cache because it was full.
+   *
+   * @return the number of command lines evicted from the cache.
+   */
+  public synchronized long getEvictionCount() {
+    return evictionCount;
+  }
+
+  /**
+   * Reset the hit, miss and eviction counters.
+   */
+  public synchronized void resetStatistics() {
+    hitCount = 0;
+    missCount = 0;
+    evictionCount = 0;
+  }
+
+  // #########################################################################
+  /**
+   * A parsed command line: its arguments and the action resolved for its command identifier.
+   */
+  public static final class ParsedCommand {
+
+    private final String[] arguments;
+
+    private final IJssAction action;
+
+    ParsedCommand(String[] arguments, IJssAction action) {
+      this.arguments = arguments != null ? arguments.clone() : null;
+      this.action = action;
+    }
+
+    /**
+     * Get the arguments of the command line.
+     *
+     * @return a copy of the arguments, which can be modified by the caller.
+     */
+    public String[] getArguments() {
+      return arguments != null ? arguments.clone() : null;
+    }
+
+    public IJssAction getAction() {
+      return action;
+    }
+
+  }
+
+}
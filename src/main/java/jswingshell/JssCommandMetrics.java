@@ -0,0 +1,386 @@
+package jswingshell;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Invocation counts, error counts and latencies of the commands interpreted by a shell controller.
+ *
+ * <p>
+ * Latencies are recorded in log-linear histograms: each power of two is split into
+ * {@value #SUB_BUCKET_COUNT} buckets, so that a percentile is known within 12.5% of its value
+ * whatever its magnitude. Counters are striped across threads so that recording from workers does
+ * not contend on a single memory location.
+ * </p>
+ *
+ * @author Mathieu Brunot
+ *
+ * @since 1.4.5
+ */
+public class JssCommandMetrics {
+
+  /**
+   * The number of histogram buckets in each power of two.
+   */
+  public static final int SUB_BUCKET_COUNT = 8;
+
+  private static final int SUB_BUCKET_BITS = 3;
+
+  /**
+   * The highest power of two with its own buckets, about 18 minutes in nanoseconds. Longer
+   * latencies are recorded in the last bucket.
+   */
+  private static final int MAX_EXPONENT = 40;
+
+  private static final int BUCKET_COUNT = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKET_COUNT;
+
+  private final ConcurrentMap<String, CommandMetrics> metricsByCommand =
+      new ConcurrentHashMap<>();
+
+  private volatile boolean enabled = true;
+
+  // #########################################################################
+  /**
+   * Record an invocation of a command.
+   *
+   * @param commandIdentifier the identifier of the command.
+   * @param durationNanos the time taken by the command, in nanoseconds.
+   * @param failed did the command fail?
+   */
+  public void record(String commandIdentifier, long durationNanos, boolean failed) {
+    if (!enabled || commandIdentifier == null) {
+      return;
+    }
+    getOrCreateMetrics(commandIdentifier).record(Math.max(durationNanos, 0), failed);
+  }
+
+  private CommandMetrics getOrCreateMetrics(String commandIdentifier) {
+    CommandMetrics metrics = metricsByCommand.get(commandIdentifier);
+    if (metrics == null) {
+      CommandMetrics newMetrics = new CommandMetrics();
+      metrics = metricsByCommand.putIfAbsent(commandIdentifier, newMetrics);
+      if (metrics == null) {
+        metrics = newMetrics;
+      }
+    }
+    return metrics;
+  }
+
+  /**
+   * Record a timeout of a command.
+   *
+   * <p>
+   * The cancelled invocation itself is recorded, as an error, by {@link #record(String, long,
+   * boolean)}.
+   * </p>
+   *
+   * @param commandIdentifier the identifier of the command.
+   */
+  public void recordTimeout(String commandIdentifier) {
+    if (!enabled || commandIdentifier == null) {
+      return;
+    }
+    getOrCreateMetrics(commandIdentifier).timeouts.increment();
+  }
+
+  /**
+   * Get the metrics of a command.
+   *
+   * @param commandIdentifier the identifier of the command.
+   *
+   * @return a snapshot of the metrics of the command, {@code null} if it was never recorded.
+   */
+  public Snapshot getSnapshot(String commandIdentifier) {
+    CommandMetrics metrics =
+        commandIdentifier != null ? metricsByCommand.get(commandIdentifier) : null;
+    return metrics != null ? metrics.snapshot(commandIdentifier) : null;
+  }
+
+  /**
+   * Get the metrics of all recorded commands.
+   *
+   * @return snapshots of the metrics, sorted by command identifier.
+   */
+  public List<Snapshot> getSnapshots() {
+    List<Snapshot> snapshots = new ArrayList<>(metricsByCommand.size());
+    for (Map.Entry<String, CommandMetrics> entry : metricsByCommand.entrySet()) {
+      snapshots.add(entry.getValue().snapshot(entry.getKey()));
+    }
+    Collections.sort(snapshots, new Comparator<Snapshot>() {
+
+      @Override
+      public int compare(Snapshot o1, Snapshot o2) {
+        return o1.getCommandIdentifier().compareTo(o2.getCommandIdentifier());
+      }
+
+    });
+    return snapshots;
+  }
+
+  /**
+   * Get the metrics of the slowest commands.
+   *
+   * @param count the maximum number of commands.
+   *
+   * @return snapshots of the metrics, sorted by decreasing mean latency.
+   */
+  public List<Snapshot> getSlowestCommands(int count) {
+    List<Snapshot> snapshots = getSnapshots();
+    Collections.sort(snapshots, new Comparator<Snapshot>() {
+
+      @Override
+      public int compare(Snapshot o1, Snapshot o2) {
+        return Double.compare(o2.getMeanNanos(), o1.getMeanNanos());
+      }
+
+    });
+    return snapshots.subList(0, Math.max(0, Math.min(count, snapshots.size())));
+  }
+
+  /**
+   * Forget all recorded commands.
+   */
+  public void reset() {
+    metricsByCommand.clear();
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Enable or disable recording.
+   *
+   * @param enabled should invocations be recorded?
+   */
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  // #########################################################################
+  /**
+   * Get the histogram bucket of a latency.
+   *
+   * @param value the latency, in nanoseconds.
+   *
+   * @return the index of the bucket.
+   */
+  static int bucketIndex(long value) {
+    if (value < SUB_BUCKET_COUNT) {
+      return (int) value;
+    }
+    int exponent = 63 - Long.numberOfLeadingZeros(value);
+    if (exponent > MAX_EXPONENT) {
+      return BUCKET_COUNT - 1;
+    }
+    int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1);
+    return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT + subBucket;
+  }
+
+  /**
+   * Get the highest latency of a histogram bucket.
+   *
+   * @param index the index of the bucket.
+   *
+   * @return the highest latency recorded in the bucket, in nanoseconds.
+   */
+  static long bucketUpperBound(int index) {
+    if (index < SUB_BUCKET_COUNT) {
+      return index;
+    }
+    int exponent = index / SUB_BUCKET_COUNT + SUB_BUCKET_BITS - 1;
+    int shift = exponent - SUB_BUCKET_BITS;
+    long lowerBound = (long) (SUB_BUCKET_COUNT + index % SUB_BUCKET_COUNT) << shift;
+    return lowerBound + (1L << shift) - 1;
+  }
+
+  /**
+   * The metrics of a single command.
+   */
+  private static final class CommandMetrics {
+
+    private final StripedCounter invocations = new StripedCounter();
+
+    private final StripedCounter errors = new StripedCounter();
+
+    private final StripedCounter timeouts = new StripedCounter();
+
+    private final StripedCounter totalNanos = new StripedCounter();
+
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    private final AtomicLongArray histogram = new AtomicLongArray(BUCKET_COUNT);
+
+    void record(long durationNanos, boolean failed) {
+      invocations.increment();
+      if (failed) {
+        errors.increment();
+      }
+      totalNanos.add(durationNanos);
+      histogram.incrementAndGet(bucketIndex(durationNanos));
+      long max = maxNanos.get();
+      while (durationNanos > max && !maxNanos.compareAndSet(max, durationNanos)) {
+        max = maxNanos.get();
+      }
+    }
+
+    Snapshot snapshot(String commandIdentifier) {
+      long[] bucketCounts = new long[BUCKET_COUNT];
+      for (int i = 0; i < BUCKET_COUNT; i++) {
+        bucketCounts[i] = histogram.get(i);
+      }
+      return new Snapshot(commandIdentifier, invocations.sum(), errors.sum(), timeouts.sum(),
+          totalNanos.sum(), maxNanos.get(), bucketCounts);
+    }
+
+  }
+
+  /**
+   * A counter spread over several cells, each thread adding to its own cell.
+   */
+  private static final class StripedCounter {
+
+    private static final int STRIPE_COUNT;
+
+    /**
+     * The distance between two cells, so that they do not share a cache line.
+     */
+    private static final int PADDING = 8;
+
+    static {
+      int processors = Math.min(Runtime.getRuntime().availableProcessors(), 64);
+      STRIPE_COUNT = Integer.highestOneBit(Math.max(processors * 2 - 1, 1));
+    }
+
+    private final AtomicLongArray cells = new AtomicLongArray(STRIPE_COUNT * PADDING);
+
+    void increment() {
+      add(1);
+    }
+
+    void add(long value) {
+      int stripe = (int) Thread.currentThread().getId() & (STRIPE_COUNT - 1);
+      cells.addAndGet(stripe * PADDING, value);
+    }
+
+    long sum() {
+      long sum = 0;
+      for (int i = 0; i < STRIPE_COUNT; i++) {
+        sum += cells.get(i * PADDING);
+      }
+      return sum;
+    }
+
+  }
+
+  // #########################################################################
+  /**
+   * The metrics of a command at a given time.
+   */
+  public static final class Snapshot {
+
+    private final String commandIdentifier;
+
+    private final long invocationCount;
+
+    private final long errorCount;
+
+    private final long timeoutCount;
+
+    private final long totalNanos;
+
+    private final long maxNanos;
+
+    private final long[] bucketCounts;
+
+    Snapshot(String commandIdentifier, long invocationCount, long errorCount, long timeoutCount,
+        long totalNanos, long maxNanos, long[] bucketCounts) {
+      this.commandIdentifier = commandIdentifier;
+      this.invocationCount = invocationCount;
+      this.errorCount = errorCount;
+      this.timeoutCount = timeoutCount;
+      this.totalNanos = totalNanos;
+      this.maxNanos = maxNanos;
+      this.bucketCounts = bucketCounts;
+    }
+
+    public String getCommandIdentifier() {
+      return commandIdentifier;
+    }
+
+    public long getInvocationCount() {
+      return invocationCount;
+    }
+
+    public long getErrorCount() {
+      return errorCount;
+    }
+
+    /**
+     * Get the number of invocations cancelled once their timeout had elapsed.
+     *
+     * @return the number of timeouts, also counted as errors.
+     */
+    public long getTimeoutCount() {
+      return timeoutCount;
+    }
+
+    public long getTotalNanos() {
+      return totalNanos;
+    }
+
+    public long getMaxNanos() {
+      return maxNanos;
+    }
+
+    public double getMeanNanos() {
+      return invocationCount > 0 ? (double) totalNanos / invocationCount : 0;
+    }
+
+    /**
+     * Get a latency percentile.
+     *
+     * @param percentile the percentile, between {@code 0} and {@code 100}.
+     *
+     * @return the latency below which the given percentage of invocations fall, in nanoseconds.
+     *
+     * @throws IllegalArgumentException if the percentile is not between {@code 0} and {@code 100}.
+     */
+    public long getPercentile(double percentile) {
+      if (percentile < 0 || percentile > 100) {
+        throw new IllegalArgumentException("Percentile must be between 0 and 100: " + percentile);
+      }
+      long recorded = 0;
+      for (long bucketCount : bucketCounts) {
+        recorded += bucketCount;
+      }
+      if (recorded == 0) {
+        return 0;
+      }
+      long rank = Math.max(1, (long) Math.ceil(percentile / 100 * recorded));
+      long count = 0;
+      for (int i = 0; i < bucketCounts.length; i++) {
+        count += bucketCounts[i];
+        if (count >= rank) {
+          return Math.min(bucketUpperBound(i), maxNanos);
+        }
+      }
+      return maxNanos;
+    }
+
+    @Override
+    public String toString() {
+      return commandIdentifier + ": " + invocationCount + " invocations, " + errorCount
+          + " errors, mean " + (long) getMeanNanos() + "ns, max " + maxNanos + "ns";
+    }
+
+  }
+
+}
@@ -0,0 +1,176 @@
+package jswingshell;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * Management interface of a live shell controller, to inspect it with a JMX console such as
+ * {@code jconsole}.
+ *
+ * @see AbstractJssController#registerMBean()
+ *
+ * @author Mathieu Brunot
+ *
+ * @since 1.4.5
+ */
+public interface JssControllerMXBean {
+
+  /**
+   * Get the class name of the shell controller.
+   *
+   * @return the class name of the shell controller.
+   */
+  public String getControllerClassName();
+
+  /**
+   * Get the number of commands in the shell's history.
+   *
+   * @return the number of commands in the shell's history.
+   */
+  public int getCommandHistorySize();
+
+  /**
+   * Get the command identifiers of the actions in progress.
+   *
+   * @return the default command identifiers of the actions in progress.
+   */
+  public String[] getActionsInProgress();
+
+  /**
+   * Get the name of the shell's publication level.
+   *
+   * @return the name of the shell's publication level.
+   */
+  public String getPublicationLevel();
+
+  /**
+   * Set the shell's publication level.
+   *
+   * @param levelName the name of the new publication level.
+   *
+   * @throws IllegalArgumentException if there is no publication level with the specified name.
+   */
+  public void setPublicationLevel(String levelName);
+
+  /**
+   * Get the number of characters of the shell text.
+   *
+   * @return the number of characters of the shell text.
+   */
+  public long getShellTextLength();
+
+  /**
+   * Get the metrics of the commands interpreted by the shell.
+   *
+   * @return the metrics of each command, sorted by command identifier.
+   */
+  public CommandStatistics[] getCommandStatistics();
+
+  /**
+   * Cancel all the actions in progress.
+   *
+   * @return the number of actions cancelled.
+   */
+  public int cancelActionsInProgress();
+
+  /**
+   * Cancel an action in progress.
+   *
+   * @param commandIdentifier the default command identifier of the action.
+   *
+   * @return {@code true} if an action in progress was cancelled.
+   */
+  public boolean cancelAction(String commandIdentifier);
+
+  /**
+   * Forget the metrics of the commands interpreted by the shell.
+   */
+  public void resetCommandMetrics();
+
+  // #########################################################################
+  /**
+   * The metrics of a command, with latencies in milliseconds.
+   */
+  public static final class CommandStatistics {
+
+    private static final double NANOS_PER_MILLI = 1000000d;
+
+    private final String commandIdentifier;
+
+    private final long invocationCount;
+
+    private final long errorCount;
+
+    private final long timeoutCount;
+
+    private final double meanMillis;
+
+    private final double medianMillis;
+
+    private final double percentile99Millis;
+
+    private final double maxMillis;
+
+    @ConstructorProperties({"commandIdentifier", "invocationCount", "errorCount", "timeoutCount",
+        "meanMillis", "medianMillis", "percentile99Millis", "maxMillis"})
+    public CommandStatistics(String commandIdentifier, long invocationCount, long errorCount,
+        long timeoutCount, double meanMillis, double medianMillis, double percentile99Millis,
+        double maxMillis) {
+      this.commandIdentifier = commandIdentifier;
+      this.invocationCount = invocationCount;
+      this.errorCount = errorCount;
+      this.timeoutCount = timeoutCount;
+      this.meanMillis = meanMillis;
+      this.medianMillis = medianMillis;
+      this.percentile99Millis = percentile99Millis;
+      this.maxMillis = maxMillis;
+    }
+
+    /**
+     * Create the statistics of a snapshot of command metrics.
+     *
+     * @param snapshot the snapshot of command metrics.
+     */
+    public CommandStatistics(JssCommandMetrics.Snapshot snapshot) {
+      this(snapshot.getCommandIdentifier(), snapshot.getInvocationCount(),
+          snapshot.getErrorCount(), snapshot.getTimeoutCount(),
+          snapshot.getMeanNanos() / NANOS_PER_MILLI,
+          snapshot.getPercentile(50) / NANOS_PER_MILLI,
+          snapshot.getPercentile(99) / NANOS_PER_MILLI,
+          snapshot.getMaxNanos() / NANOS_PER_MILLI);
+    }
+
+    public String getCommandIdentifier() {
+      return commandIdentifier;
+    }
+
+    public long getInvocationCount() {
+      return invocationCount;
+    }
+
+    public long getErrorCount() {
+      return errorCount;
+    }
+
+    public long getTimeoutCount() {
+      return timeoutCount;
+    }
+
+    public double getMeanMillis() {
+      return meanMillis;
+    }
+
+    public double getMedianMillis() {
+      return medianMillis;
+    }
+
+    public double getPercentile99Millis() {
+      return percentile99Millis;
+    }
+
+    public double getMaxMillis() {
+      return maxMillis;
+    }
+
+  }
+
+}
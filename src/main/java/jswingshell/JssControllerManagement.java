@@ -0,0 +1,306 @@
+package jswingshell;
+
+import java.lang.management.ManagementFactory;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import javax.swing.SwingUtilities;
+
+import jswingshell.action.AbstractThreadedJssAction;
+
+/**
+ * The {@link JssControllerMXBean} of a shell controller, registered in the platform MBean server.
+ *
+ * <p>
+ * The MBean only keeps a weak reference on its controller, so that registering a controller does
+ * not prevent it from being garbage collected. The MBeans of collected controllers are unregistered
+ * the next time a controller is registered.
+ * </p>
+ *
+ * <p>
+ * Attributes and operations touching the command history or the actions in progress are run on the
+ * <i>Event Dispatch Thread</i>. They fail with an {@link IllegalStateException} if the <i>Event
+ * Dispatch Thread</i> does not run them within {@value #EVENT_DISPATCH_TIMEOUT_SECONDS} seconds,
+ * so that a blocked shell can still be diagnosed.
+ * </p>
+ *
+ * @author Mathieu Brunot
+ *
+ * @since 1.4.5
+ */
+public class JssControllerManagement implements JssControllerMXBean {
+
+  /**
+   * The domain of the shell controllers' object names.
+   */
+  public static final String DOMAIN = "jswingshell";
+
+  /**
+   * The maximum time to wait for the <i>Event Dispatch Thread</i>, in seconds.
+   */
+  public static final long EVENT_DISPATCH_TIMEOUT_SECONDS = 5;
+
+  private static final AtomicInteger CONTROLLER_COUNT = new AtomicInteger();
+
+  private static final Map<ObjectName, JssControllerManagement> REGISTERED_MBEANS =
+      new ConcurrentHashMap<>();
+
+  private final WeakReference<AbstractJssController> controllerReference;
+
+  private final String controllerClassName;
+
+  // #########################################################################
+  /**
+   * Create the management interface of a shell controller.
+   *
+   * @param controller the shell controller.
+   *
+   * @throws IllegalArgumentException if the controller is {@code null}.
+   */
+  public JssControllerManagement(AbstractJssController controller) {
+    if (controller == null) {
+      throw new IllegalArgumentException("A shell controller is required!");
+    }
+    this.controllerReference = new WeakReference<>(controller);
+    this.controllerClassName = controller.getClass().getName();
+  }
+
+  // #########################################################################
+  /**
+   * Register the MBean of a shell controller in the platform MBean server.
+   *
+   * @param controller the shell controller.
+   *
+   * @return the object name of the MBean.
+   *
+   * @throws IllegalArgumentException if the controller is {@code null}.
+   * @throws IllegalStateException if the MBean could not be registered.
+   */
+  public static ObjectName register(AbstractJssController controller) {
+    unregisterCollected();
+    JssControllerManagement mbean = new JssControllerManagement(controller);
+    try {
+      ObjectName name = new ObjectName(DOMAIN + ":type=ShellController,class="
+          + mbean.controllerClassName + ",id=" + CONTROLLER_COUNT.incrementAndGet());
+      getMBeanServer().registerMBean(mbean, name);
+      REGISTERED_MBEANS.put(name, mbean);
+      return name;
+    } catch (MalformedObjectNameException e) {
+      throw new IllegalStateException("Invalid MBean name", e);
+    } catch (JMException e) {
+      throw new IllegalStateException("MBean could not be registered", e);
+    }
+  }
+
+  /**
+   * Unregister the MBean of a shell controller from the platform MBean server.
+   *
+   * @param name the object name of the MBean.
+   *
+   * @return {@code true} if the MBean was unregistered.
+   */
+  public static boolean unregister(ObjectName name) {
+    if (name == null || REGISTERED_MBEANS.remove(name) == null) {
+      return false;
+    }
+    try {
+      getMBeanServer().unregisterMBean(name);
+      return true;
+    } catch (JMException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Unregister the MBeans whose shell controller was garbage collected.
+   */
+  private static void unregisterCollected() {
+    for (Map.Entry<ObjectName, JssControllerManagement> entry : REGISTERED_MBEANS.entrySet()) {
+      if (entry.getValue().controllerReference.get() == null) {
+        unregister(entry.getKey());
+      }
+    }
+  }
+
+  private static MBeanServer getMBeanServer() {
+    return ManagementFactory.getPlatformMBeanServer();
+  }
+
+  /**
+   * Get the shell controller.
+   *
+   * @return the shell controller.
+   *
+   * @throws IllegalStateException if the shell controller was garbage collected.
+   */
+  private AbstractJssController getController() {
+    AbstractJssController controller = controllerReference.get();
+    if (controller == null) {
+      throw new IllegalStateException("The shell controller is no longer available");
+    }
+    return controller;
+  }
+
+  /**
+   * Call a task on the <i>Event Dispatch Thread</i> and wait for its result.
+   *
+   * @param task the task to call.
+   *
+   * @return the result of the task.
+   *
+   * @throws IllegalStateException if the <i>Event Dispatch Thread</i> did not run the task in time.
+   */
+  private static <T> T callOnEventDispatchThread(Callable<T> task) {
+    FutureTask<T> futureTask = new FutureTask<>(task);
+    if (SwingUtilities.isEventDispatchThread()) {
+      futureTask.run();
+    } else {
+      SwingUtilities.invokeLater(futureTask);
+    }
+    try {
+      return futureTask.get(EVENT_DISPATCH_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    } catch (TimeoutException e) {
+      futureTask.cancel(false);
+      throw new IllegalStateException("The Event Dispatch Thread is unresponsive", e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for the shell", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+
+  // #########################################################################
+  @Override
+  public String getControllerClassName() {
+    return controllerClassName;
+  }
+
+  @Override
+  public int getCommandHistorySize() {
+    final AbstractJssController controller = getController();
+    return callOnEventDispatchThread(new Callable<Integer>() {
+
+      @Override
+      public Integer call() {
+        return controller.commandHistorySize();
+      }
+
+    });
+  }
+
+  @Override
+  public String[] getActionsInProgress() {
+    final AbstractJssController controller = getController();
+    return callOnEventDispatchThread(new Callable<String[]>() {
+
+      @Override
+      public String[] call() {
+        List<AbstractThreadedJssAction> actions = controller.getActionsInProgress();
+        String[] identifiers = new String[actions.size()];
+        for (int i = 0; i < identifiers.length; i++) {
+          identifiers[i] = actions.get(i).getDefaultCommandIdentifier();
+        }
+        return identifiers;
+      }
+
+    });
+  }
+
+  @Override
+  public String getPublicationLevel() {
+    return getController().getPublicationLevel().name();
+  }
+
+  @Override
+  public void setPublicationLevel(String levelName) {
+    if (levelName == null) {
+      throw new IllegalArgumentException("A publication level is required!");
+    }
+    getController()
+        .setPublicationLevel(IJssController.PublicationLevel.valueOf(levelName.trim()));
+  }
+
+  @Override
+  public long getShellTextLength() {
+    return getController().getShellTextLength();
+  }
+
+  @Override
+  public CommandStatistics[] getCommandStatistics() {
+    List<JssCommandMetrics.Snapshot> snapshots =
+        getController().getCommandMetrics().getSnapshots();
+    CommandStatistics[] statistics = new CommandStatistics[snapshots.size()];
+    for (int i = 0; i < statistics.length; i++) {
+      statistics[i] = new CommandStatistics(snapshots.get(i));
+    }
+    return statistics;
+  }
+
+  @Override
+  public int cancelActionsInProgress() {
+    final AbstractJssController controller = getController();
+    return callOnEventDispatchThread(new Callable<Integer>() {
+
+      @Override
+      public Integer call() {
+        return controller.cancelActionsInProgress();
+      }
+
+    });
+  }
+
+  @Override
+  public boolean cancelAction(String commandIdentifier) {
+    return commandIdentifier != null && cancelActions(commandIdentifier) > 0;
+  }
+
+  /**
+   * Cancel the actions in progress.
+   *
+   * @param commandIdentifier the default command identifier of the actions to cancel.
+   *
+   * @return the number of actions cancelled.
+   */
+  private int cancelActions(final String commandIdentifier) {
+    final AbstractJssController controller = getController();
+    return callOnEventDispatchThread(new Callable<Integer>() {
+
+      @Override
+      public Integer call() {
+        int cancelled = 0;
+        for (AbstractThreadedJssAction action : new ArrayList<>(
+            controller.getActionsInProgress())) {
+          if (commandIdentifier.equals(action.getDefaultCommandIdentifier())
+              && action.cancel(controller, true)) {
+            cancelled++;
+          }
+        }
+        return cancelled;
+      }
+
+    });
+  }
+
+  @Override
+  public void resetCommandMetrics() {
+    getController().getCommandMetrics().reset();
+  }
+
+}
@@ -0,0 +1,314 @@
+package jswingshell;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import jswingshell.action.IJssAction;
+
+/**
+ * A watchdog reporting the synchronous actions which block the <i>Event Dispatch Thread</i>.
+ *
+ * <p>
+ * The shell controller tells the watchdog when a synchronous action starts and ends on the
+ * <i>Event Dispatch Thread</i>. While started, the watchdog samples the running action and reports
+ * it once it has been running longer than the threshold, with its command line and the stack of the
+ * <i>Event Dispatch Thread</i> at that time. Such actions should rather extend
+ * {@link jswingshell.action.AbstractThreadedJssAction}.
+ * </p>
+ *
+ * <p>
+ * Stalls are logged as warnings and the most recent ones are kept for inspection.
+ * </p>
+ *
+ * @see AbstractJssController#setEdtWatchdog(JssEdtWatchdog)
+ *
+ * @author Mathieu Brunot
+ *
+ * @since 1.4.5
+ */
+public class JssEdtWatchdog {
+
+  /**
+   * Logger.
+   */
+  private static final Logger LOGGER = Logger.getLogger(JssEdtWatchdog.class.getName());
+
+  /**
+   * The default duration after which an action is reported, in milliseconds.
+   */
+  public static final long DEFAULT_THRESHOLD_MILLIS = 250;
+
+  /**
+   * The number of stalls kept for inspection.
+   */
+  public static final int RECENT_STALLS_CAPACITY = 16;
+
+  private static final long MIN_SAMPLING_PERIOD_MILLIS = 5;
+
+  private final long thresholdMillis;
+
+  private final long samplingPeriodMillis;
+
+  private final AtomicLong stallCount = new AtomicLong();
+
+  private final LinkedList<Stall> recentStalls = new LinkedList<>();
+
+  /**
+   * The action running on the <i>Event Dispatch Thread</i>.
+   */
+  private volatile RunningAction runningAction;
+
+  private ScheduledExecutorService sampler;
+
+  // #########################################################################
+  public JssEdtWatchdog() {
+    this(DEFAULT_THRESHOLD_MILLIS);
+  }
+
+  /**
+   * Create a watchdog.
+   *
+   * @param thresholdMillis the duration after which an action is reported, in milliseconds.
+   *
+   * @throws IllegalArgumentException if the threshold is not strictly positive.
+   */
+  public JssEdtWatchdog(long thresholdMillis) {
+    if (thresholdMillis <= 0) {
+      throw new IllegalArgumentException("Threshold must be strictly positive: " + thresholdMillis);
+    }
+    this.thresholdMillis = thresholdMillis;
+    this.samplingPeriodMillis = Math.max(thresholdMillis / 4, MIN_SAMPLING_PERIOD_MILLIS);
+  }
+
+  // #########################################################################
+  /**
+   * Start sampling the running actions.
+   */
+  public synchronized void start() {
+    if (sampler != null) {
+      return;
+    }
+    sampler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+
+      @Override
+      public Thread newThread(Runnable r) {
+        Thread thread = new Thread(r, "jss-edt-watchdog");
+        thread.setDaemon(true);
+        return thread;
+      }
+
+    });
+    sampler.scheduleAtFixedRate(new Runnable() {
+
+      @Override
+      public void run() {
+        sample();
+      }
+
+    }, samplingPeriodMillis, samplingPeriodMillis, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Stop sampling the running actions.
+   */
+  public synchronized void stop() {
+    if (sampler != null) {
+      sampler.shutdownNow();
+      sampler = null;
+    }
+  }
+
+  public synchronized boolean isStarted() {
+    return sampler != null;
+  }
+
+  /**
+   * Signal that an action started on the current thread.
+   *
+   * @param action the action.
+   * @param args the arguments given to the action.
+   *
+   * @return the running action, to give back to {@link #actionEnded(Object)}.
+   */
+  public Object actionStarted(IJssAction action, String... args) {
+    RunningAction started =
+        new RunningAction(runningAction, Thread.currentThread(), action, args);
+    runningAction = started;
+    return started;
+  }
+
+  /**
+   * Signal that an action ended.
+   *
+   * @param token the running action returned by {@link #actionStarted(IJssAction, String...)}.
+   */
+  public void actionEnded(Object token) {
+    if (!(token instanceof RunningAction)) {
+      return;
+    }
+    RunningAction ended = (RunningAction) token;
+    runningAction = ended.previous;
+    if (ended.reported) {
+      LOGGER.log(Level.WARNING, "Command blocked the Event Dispatch Thread for {0} ms: {1}",
+          new Object[] {elapsedMillis(ended), ended.commandLine});
+    }
+  }
+
+  /**
+   * Report the running action if it exceeded the threshold.
+   */
+  void sample() {
+    RunningAction running = runningAction;
+    if (running == null || running.reported) {
+      return;
+    }
+    long elapsedMillis = elapsedMillis(running);
+    if (elapsedMillis < thresholdMillis) {
+      return;
+    }
+    running.reported = true;
+    Stall stall = new Stall(running.commandIdentifier, running.commandLine, elapsedMillis,
+        running.thread.getStackTrace());
+    stallCount.incrementAndGet();
+    synchronized (recentStalls) {
+      recentStalls.addLast(stall);
+      if (recentStalls.size() > RECENT_STALLS_CAPACITY) {
+        recentStalls.removeFirst();
+      }
+    }
+    LOGGER.log(Level.WARNING, stall.toString());
+  }
+
+  private static long elapsedMillis(RunningAction running) {
+    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - running.startNanos);
+  }
+
+  public long getThresholdMillis() {
+    return thresholdMillis;
+  }
+
+  /**
+   * Get the number of actions reported since the watchdog was created.
+   *
+   * @return the number of actions reported.
+   */
+  public long getStallCount() {
+    return stallCount.get();
+  }
+
+  /**
+   * Get the most recent stalls.
+   *
+   * @return the {@value #RECENT_STALLS_CAPACITY} most recent stalls, from the oldest to the newest.
+   */
+  public List<Stall> getRecentStalls() {
+    synchronized (recentStalls) {
+      return Collections.unmodifiableList(new ArrayList<>(recentStalls));
+    }
+  }
+
+  // #########################################################################
+  /**
+   * An action running on the <i>Event Dispatch Thread</i>.
+   */
+  private static final class RunningAction {
+
+    final RunningAction previous;
+
+    final Thread thread;
+
+    final String commandIdentifier;
+
+    final String commandLine;
+
+    final long startNanos = System.nanoTime();
+
+    volatile boolean reported = false;
+
+    RunningAction(RunningAction previous, Thread thread, IJssAction action, String[] args) {
+      this.previous = previous;
+      this.thread = thread;
+      this.commandIdentifier = action != null ? action.getDefaultCommandIdentifier() : null;
+      StringBuilder commandLineBuilder = new StringBuilder();
+      if (args != null) {
+        for (String arg : args) {
+          if (commandLineBuilder.length() > 0) {
+            commandLineBuilder.append(AbstractJssController.COMMAND_PARAMETER_SEPARATOR);
+          }
+          commandLineBuilder.append(arg);
+        }
+      }
+      this.commandLine = commandLineBuilder.toString();
+    }
+
+  }
+
+  /**
+   * An action which blocked the <i>Event Dispatch Thread</i> longer than the threshold.
+   */
+  public static final class Stall {
+
+    private final String commandIdentifier;
+
+    private final String commandLine;
+
+    private final long durationMillis;
+
+    private final StackTraceElement[] stackTrace;
+
+    Stall(String commandIdentifier, String commandLine, long durationMillis,
+        StackTraceElement[] stackTrace) {
+      this.commandIdentifier = commandIdentifier;
+      this.commandLine = commandLine;
+      this.durationMillis = durationMillis;
+      this.stackTrace = stackTrace;
+    }
+
+    public String getCommandIdentifier() {
+      return commandIdentifier;
+    }
+
+    public String getCommandLine() {
+      return commandLine;
+    }
+
+    /**
+     * Get the time the action had been running when it was reported.
+     *
+     * @return the duration, in milliseconds.
+     */
+    public long getDurationMillis() {
+      return durationMillis;
+    }
+
+    /**
+     * Get the stack of the <i>Event Dispatch Thread</i> when the action was reported.
+     *
+     * @return a copy of the stack trace.
+     */
+    public StackTraceElement[] getStackTrace() {
+      return stackTrace.clone();
+    }
+
+    @Override
+    public String toString() {
+      StringBuilder stringBuilder = new StringBuilder("Command running on the Event Dispatch Thread"
+          + " for " + durationMillis + " ms: " + commandLine);
+      for (StackTraceElement element : stackTrace) {
+        stringBuilder.append("\n\tat ").append(element);
+      }
+      return stringBuilder.toString();
+    }
+
+  }
+
+}
@@ -0,0 +1,195 @@
+package jswingshell;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import jswingshell.action.IJssAction;
+
+/**
+ * An index of the help of all the actions of a shell, rendered in pages.
+ *
+ * <p>
+ * The index lists each action with its command identifiers and its brief help, ordered by default
+ * command identifier. Only the requested page is rendered, so that the index of a shell with
+ * thousands of actions is displayed without rendering the help of every action.
+ * </p>
+ *
+ * <p>
+ * The order of the actions depends on the shell model: it is computed again whenever the index is
+ * used with another model, or once the actions of the model were
+ * {@link AbstractJssModel#getModificationCount() modified}.
+ * </p>
+ *
+ * @author Mathieu Brunot
+ *
+ * @since 1.4.5
+ */
+public class JssHelpIndex {
+
+  /**
+   * The default number of actions in a page.
+   */
+  public static final int DEFAULT_PAGE_SIZE = 20;
+
+  private static final Comparator<IJssAction> BY_COMMAND_IDENTIFIER =
+      new Comparator<IJssAction>() {
+
+        @Override
+        public int compare(IJssAction action1, IJssAction action2) {
+          String identifier1 = action1.getDefaultCommandIdentifier();
+          String identifier2 = action2.getDefaultCommandIdentifier();
+          if (identifier1 == null) {
+            return identifier2 == null ? 0 : -1;
+          } else if (identifier2 == null) {
+            return 1;
+          }
+          return identifier1.compareToIgnoreCase(identifier2);
+        }
+
+      };
+
+  private final int pageSize;
+
+  /**
+   * The actions ordered by default command identifier, {@code null} until they are needed.
+   */
+  private List<IJssAction> sortedActions;
+
+  /**
+   * The model for which actions were ordered.
+   */
+  private AbstractJssModel model;
+
+  /**
+   * The modification count of the model when actions were ordered.
+   */
+  private int modelModificationCount;
+
+  // #########################################################################
+  // Constructors
+  public JssHelpIndex() {
+    this(DEFAULT_PAGE_SIZE);
+  }
+
+  /**
+   * Create a help index.
+   *
+   * @param pageSize the number of actions in a page.
+   *
+   * @throws IllegalArgumentException if the page size is not strictly positive.
+   */
+  public JssHelpIndex(int pageSize) {
+    if (pageSize <= 0) {
+      throw new IllegalArgumentException("Page size must be strictly positive: " + pageSize);
+    }
+    this.pageSize = pageSize;
+  }
+
+  // #########################################################################
+  // Index methods
+  public int getPageSize() {
+    return pageSize;
+  }
+
+  /**
+   * Get the number of pages of the index.
+   *
+   * @param currentModel the model of the shell.
+   *
+   * @return the number of pages, {@code 0} if the model has no action.
+   */
+  public synchronized int getPageCount(AbstractJssModel currentModel) {
+    int actionCount = getSortedActions(currentModel).size();
+    return (actionCount + pageSize - 1) / pageSize;
+  }
+
+  /**
+   * Get the actions of a page of the index.
+   *
+   * @param currentModel the model of the shell.
+   * @param page the index of the page, starting at {@code 0}.
+   *
+   * @return the actions of the page, empty if the page is out of the index.
+   */
+  public synchronized List<IJssAction> getPageActions(AbstractJssModel currentModel, int page) {
+    List<IJssAction> actions = getSortedActions(currentModel);
+    if (page < 0 || (long) page * pageSize >= actions.size()) {
+      return Collections.emptyList();
+    }
+    int fromIndex = page * pageSize;
+    int toIndex = Math.min(fromIndex + pageSize, actions.size());
+    return Collections.unmodifiableList(new ArrayList<>(actions.subList(fromIndex, toIndex)));
+  }
+
+  /**
+   * Render a page of the index.
+   *
+   * <p>
+   * Each action of the page is rendered on a line, with its command identifiers and its brief help.
+   * The last line tells which page is rendered.
+   * </p>
+   *
+   * @param currentModel the model of the shell.
+   * @param page the index of the page, starting at {@code 0}.
+   *
+   * @return the rendered page, {@code null} if the page is out of the index.
+   */
+  public String renderPage(AbstractJssModel currentModel, int page) {
+    List<IJssAction> actions;
+    int pageCount;
+    synchronized (this) {
+      actions = getPageActions(currentModel, page);
+      pageCount = getPageCount(currentModel);
+    }
+    if (actions.isEmpty()) {
+      return null;
+    }
+
+    // Render the help outside of the lock, actions may take time to do so
+    StringBuilder stringBuilder = new StringBuilder();
+    for (IJssAction action : actions) {
+      stringBuilder.append(action.getCommandIdentifiersAsString());
+      String briefHelp = action.getBriefHelp();
+      if (briefHelp != null && !briefHelp.isEmpty()) {
+        stringBuilder.append("\t").append(briefHelp);
+      }
+      stringBuilder.append("\n");
+    }
+    stringBuilder.append("Page ").append(page + 1).append("/").append(pageCount);
+    return stringBuilder.toString();
+  }
+
+  /**
+   * Order the actions again the next time the index is used.
+   */
+  public synchronized void invalidate() {
+    sortedActions = null;
+  }
+
+  /**
+   * Get the actions ordered by default command identifier, ordering them again if they were
+   * ordered for another model or for previous actions.
+   *
+   * @param currentModel the model of the shell.
+   *
+   * @return the ordered actions.
+   */
+  private List<IJssAction> getSortedActions(AbstractJssModel currentModel) {
+    int currentModificationCount = currentModel != null ? currentModel.getModificationCount() : 0;
+    if (sortedActions == null || currentModel != model
+        || currentModificationCount != modelModificationCount) {
+      if (currentModel != null) {
+        sortedActions = new ArrayList<>(currentModel.getAvailableActions());
+        Collections.sort(sortedActions, BY_COMMAND_IDENTIFIER);
+      } else {
+        sortedActions = Collections.emptyList();
+      }
+      model = currentModel;
+      modelModificationCount = currentModificationCount;
+    }
+    return sortedActions;
+  }
+
+}
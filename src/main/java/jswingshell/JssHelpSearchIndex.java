@@ -0,0 +1,351 @@
+package jswingshell;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+import jswingshell.action.IJssAction;
+
+/**
+ * A full-text index of the help of actions, searched by keywords like the {@code apropos} command.
+ *
+ * <p>
+ * The command identifiers, brief help and help of each action are split into lowercase terms. The
+ * index maps each term to the actions using it, so that a search only reads the actions matching
+ * its keywords. Actions are added and removed one by one, without indexing the other actions again.
+ * </p>
+ *
+ * <p>
+ * Matching actions are ranked by TF-IDF: a keyword weighs more when it is frequent in the action's
+ * help and rare among the indexed actions. Terms of the command identifiers weigh more than terms
+ * of the brief help, which weigh more than terms of the help. Keywords of at least
+ * {@value #MIN_PREFIX_LENGTH} characters also match the longer terms they start, with a lower
+ * weight.
+ * </p>
+ *
+ * @see AbstractJssModel#apropos(String, int)
+ *
+ * @author Mathieu Brunot
+ *
+ * @since 1.4.5
+ */
+public class JssHelpSearchIndex {
+
+  /**
+   * The minimum length of a keyword to match the terms it starts.
+   */
+  public static final int MIN_PREFIX_LENGTH = 3;
+
+  private static final int IDENTIFIER_WEIGHT = 4;
+
+  private static final int BRIEF_HELP_WEIGHT = 2;
+
+  private static final int HELP_WEIGHT = 1;
+
+  private static final double PREFIX_MATCH_FACTOR = 0.5;
+
+  /**
+   * The indexed actions, with their weighted term frequencies.
+   */
+  private final Map<IJssAction, IndexedAction> indexedActions = new HashMap<>();
+
+  /**
+   * The actions using each term, with the weighted frequency of the term in their help.
+   */
+  private final NavigableMap<String, Map<IJssAction, Integer>> postings = new TreeMap<>();
+
+  // #########################################################################
+  // Index methods
+  /**
+   * Index the help of an action.
+   *
+   * <p>
+   * If the action is already indexed, it is indexed again from its current help.
+   * </p>
+   *
+   * @param action the action.
+   * @param shellController the shell controller for which the help is retrieved.
+   */
+  public synchronized void add(IJssAction action, IJssController shellController) {
+    if (action == null) {
+      return;
+    }
+    remove(action);
+
+    IndexedAction indexedAction = new IndexedAction();
+    String[] commandIdentifiers = action.getCommandIdentifiers();
+    if (commandIdentifiers != null) {
+      for (String commandIdentifier : commandIdentifiers) {
+        indexedAction.addTerms(commandIdentifier, IDENTIFIER_WEIGHT);
+      }
+    }
+    indexedAction.addTerms(action.getBriefHelp(), BRIEF_HELP_WEIGHT);
+    indexedAction.addTerms(action.getHelp(shellController), HELP_WEIGHT);
+
+    indexedActions.put(action, indexedAction);
+    for (Map.Entry<String, Integer> entry : indexedAction.termFrequencies.entrySet()) {
+      Map<IJssAction, Integer> termPostings = postings.get(entry.getKey());
+      if (termPostings == null) {
+        termPostings = new HashMap<>();
+        postings.put(entry.getKey(), termPostings);
+      }
+      termPostings.put(action, entry.getValue());
+    }
+  }
+
+  /**
+   * Remove an action from the index.
+   *
+   * @param action the action.
+   *
+   * @return {@code true} if the action was indexed.
+   */
+  public synchronized boolean remove(IJssAction action) {
+    IndexedAction indexedAction = indexedActions.remove(action);
+    if (indexedAction == null) {
+      return false;
+    }
+    for (String term : indexedAction.termFrequencies.keySet()) {
+      Map<IJssAction, Integer> termPostings = postings.get(term);
+      if (termPostings != null) {
+        termPostings.remove(action);
+        if (termPostings.isEmpty()) {
+          postings.remove(term);
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Remove all actions from the index.
+   */
+  public synchronized void clear() {
+    indexedActions.clear();
+    postings.clear();
+  }
+
+  /**
+   * Get the indexed actions.
+   *
+   * @return a copy of the indexed actions.
+   */
+  public synchronized List<IJssAction> getActions() {
+    return new ArrayList<>(indexedActions.keySet());
+  }
+
+  public synchronized boolean contains(IJssAction action) {
+    return indexedActions.containsKey(action);
+  }
+
+  public synchronized int size() {
+    return indexedActions.size();
+  }
+
+  /**
+   * Get the number of distinct terms in the index.
+   *
+   * @return the number of distinct terms.
+   */
+  public synchronized int getTermCount() {
+    return postings.size();
+  }
+
+  // #########################################################################
+  // Search methods
+  /**
+   * Search the actions whose help matches some keywords.
+   *
+   * @param query the keywords, separated by spaces or punctuation.
+   * @param maxResults the maximum number of matches returned.
+   *
+   * @return the matching actions, from the best to the worst match.
+   */
+  public synchronized List<Match> search(String query, int maxResults) {
+    List<String> keywords = tokenize(query);
+    if (keywords.isEmpty() || maxResults <= 0 || indexedActions.isEmpty()) {
+      return Collections.emptyList();
+    }
+
+    Map<IJssAction, double[]> scores = new HashMap<>();
+    for (int i = 0, n = keywords.size(); i < n; i++) {
+      String keyword = keywords.get(i);
+      scoreTerm(scores, postings.get(keyword), 1, i, n);
+      if (keyword.length() >= MIN_PREFIX_LENGTH) {
+        // The terms starting with the keyword, except the keyword itself
+        for (Map.Entry<String, Map<IJssAction, Integer>> entry : postings
+            .subMap(keyword, false, keyword + Character.MAX_VALUE, false).entrySet()) {
+          scoreTerm(scores, entry.getValue(), PREFIX_MATCH_FACTOR, i, n);
+        }
+      }
+    }
+
+    // Keep the best matches only
+    PriorityQueue<Match> bestMatches =
+        new PriorityQueue<>(Math.max(1, Math.min(maxResults, scores.size())));
+    for (Map.Entry<IJssAction, double[]> entry : scores.entrySet()) {
+      double[] actionScores = entry.getValue();
+      int matchedKeywords = 0;
+      double score = 0;
+      for (int i = 0; i < keywords.size(); i++) {
+        if (actionScores[i] > 0) {
+          matchedKeywords++;
+          score += actionScores[i];
+        }
+      }
+      // Actions matching more keywords come first
+      score *= (double) matchedKeywords / keywords.size();
+      Match match = new Match(entry.getKey(), score);
+      if (bestMatches.size() < maxResults) {
+        bestMatches.add(match);
+      } else if (bestMatches.peek().compareTo(match) < 0) {
+        bestMatches.poll();
+        bestMatches.add(match);
+      }
+    }
+
+    List<Match> matches = new ArrayList<>(bestMatches);
+    Collections.sort(matches, Collections.reverseOrder());
+    return matches;
+  }
+
+  /**
+   * Add the score of a term to the actions using it.
+   *
+   * @param scores the scores of each action, by keyword.
+   * @param termPostings the actions using the term.
+   * @param factor the factor of the score.
+   * @param keywordIndex the index of the keyword in the query.
+   * @param keywordCount the number of keywords in the query.
+   */
+  private void scoreTerm(Map<IJssAction, double[]> scores, Map<IJssAction, Integer> termPostings,
+      double factor, int keywordIndex, int keywordCount) {
+    if (termPostings == null || termPostings.isEmpty()) {
+      return;
+    }
+    double idf = Math.log(1 + (double) indexedActions.size() / termPostings.size());
+    for (Map.Entry<IJssAction, Integer> posting : termPostings.entrySet()) {
+      IJssAction action = posting.getKey();
+      double tf = posting.getValue() / Math.sqrt(indexedActions.get(action).length);
+      double[] actionScores = scores.get(action);
+      if (actionScores == null) {
+        actionScores = new double[keywordCount];
+        scores.put(action, actionScores);
+      }
+      actionScores[keywordIndex] += factor * tf * idf;
+    }
+  }
+
+  /**
+   * Split a text into lowercase terms, made of letters and digits.
+   *
+   * @param text the text.
+   *
+   * @return the terms of the text, in order.
+   */
+  static List<String> tokenize(String text) {
+    List<String> terms = new ArrayList<>();
+    if (text == null) {
+      return terms;
+    }
+    int start = -1;
+    for (int i = 0, n = text.length(); i <= n; i++) {
+      boolean termChar = i < n && Character.isLetterOrDigit(text.charAt(i));
+      if (termChar && start < 0) {
+        start = i;
+      } else if (!termChar && start >= 0) {
+        terms.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+        start = -1;
+      }
+    }
+    return terms;
+  }
+
+  // #########################################################################
+  /**
+   * The weighted term frequencies of an indexed action.
+   */
+  private static final class IndexedAction {
+
+    final Map<String, Integer> termFrequencies = new HashMap<>();
+
+    /**
+     * The weighted number of terms, at least {@code 1}.
+     */
+    int length = 1;
+
+    void addTerms(String text, int weight) {
+      for (String term : tokenize(text)) {
+        Integer frequency = termFrequencies.get(term);
+        termFrequencies.put(term, frequency != null ? frequency + weight : weight);
+        length += weight;
+      }
+    }
+
+  }
+
+  /**
+   * An action matching a search, with its score.
+   */
+  public static final class Match implements Comparable<Match> {
+
+    private final IJssAction action;
+
+    private final double score;
+
+    Match(IJssAction action, double score) {
+      this.action = action;
+      this.score = score;
+    }
+
+    public IJssAction getAction() {
+      return action;
+    }
+
+    /**
+     * Get the score of the action: the higher, the better the action matches the search.
+     *
+     * @return the score of the action.
+     */
+    public double getScore() {
+      return score;
+    }
+
+    /**
+     * Compare the scores of two matches. Matches with the same score are ordered by reverse order
+     * of their default command identifier, so that the best matches sorted in reverse order are
+     * listed alphabetically.
+     *
+     * @param other the other match.
+     *
+     * @return a negative integer, zero, or a positive integer as this match is worse than, as good
+     *         as, or better than the other match.
+     */
+    @Override
+    public int compareTo(Match other) {
+      int comparison = Double.compare(score, other.score);
+      if (comparison == 0) {
+        String identifier = action != null ? action.getDefaultCommandIdentifier() : null;
+        String otherIdentifier =
+            other.action != null ? other.action.getDefaultCommandIdentifier() : null;
+        if (identifier != null && otherIdentifier != null) {
+          comparison = otherIdentifier.compareTo(identifier);
+        }
+      }
+      return comparison;
+    }
+
+    @Override
+    public String toString() {
+      return (action != null ? action.getDefaultCommandIdentifier() : null) + " (" + score + ")";
+    }
+
+  }
+
+}
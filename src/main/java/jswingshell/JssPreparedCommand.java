@@ -0,0 +1,228 @@
+package jswingshell;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import jswingshell.action.AbstractJssComboAction;
+import jswingshell.action.AbstractJssSwitchAction;
+import jswingshell.action.IJssAction;
+
+/**
+ * A command prepared once and executed many times with different values.
+ *
+ * <p>
+ * The command line template is parsed and its action resolved when the command is
+ * {@link AbstractJssController#prepareCommand(String, boolean) prepared}. Each argument of the
+ * template which is exactly {@value #PLACEHOLDER} is a placeholder, bound to a value on each
+ * {@link #execute(String...) execution}. Executing a prepared command does not parse any command
+ * line nor look up its action, unless the actions of the shell model were modified since then.
+ * </p>
+ *
+ * <p>
+ * When prepared with validation, the value argument of a {@link AbstractJssComboAction combo} or
+ * {@link AbstractJssSwitchAction switch} action is checked against the values accepted by the
+ * action, once for a constant value and on each execution for a bound value. The accepted values
+ * are the ones of the action when the command was prepared.
+ * </p>
+ *
+ * <p>
+ * Prepared commands are not added to the command history.
+ * </p>
+ *
+ * @author Mathieu Brunot
+ *
+ * @since 1.4.5
+ */
+public class JssPreparedCommand {
+
+  /**
+   * The argument to bind to a value on each execution.
+   */
+  public static final String PLACEHOLDER = "?";
+
+  private final AbstractJssController controller;
+
+  private final String template;
+
+  private final String[] arguments;
+
+  private final int[] placeholderIndexes;
+
+  /**
+   * The values accepted by the action's value argument, {@code null} if not validated.
+   */
+  private final Set<String> acceptedValues;
+
+  private IJssAction action;
+
+  private int modelModificationCount;
+
+  // #########################################################################
+  /**
+   * Prepare a command.
+   *
+   * @param controller the controller executing the command.
+   * @param template the command line template.
+   * @param validate should the value argument be checked against the values accepted by the
+   *        action?
+   *
+   * @throws IllegalArgumentException if the template is empty, is not a single command, if its
+   *         command is not found or if a constant value is not accepted by the action.
+   */
+  JssPreparedCommand(AbstractJssController controller, String template, boolean validate) {
+    if (template == null || template.trim().isEmpty()) {
+      throw new IllegalArgumentException("Empty command");
+    }
+    AbstractJssController.CommandLineParser parser = controller.getCommandLineParser();
+    if (parser.extractChainedCommands(template).size() > 1
+        || parser.extractPipelineCommands(template).size() > 1) {
+      throw new IllegalArgumentException("Only a single command can be prepared: " + template);
+    }
+    String[] args = controller.extractCommandParameters(template);
+    if (args == null || args.length == 0 || args[0].isEmpty()) {
+      throw new IllegalArgumentException("No command found: " + template);
+    } else if (PLACEHOLDER.equals(args[0])) {
+      throw new IllegalArgumentException("The command identifier cannot be bound: " + template);
+    }
+
+    this.controller = controller;
+    this.template = template;
+    this.arguments = args;
+    this.modelModificationCount = controller.getModel().getModificationCount();
+    this.action = controller.getActionForCommandIdentifier(args[0]);
+    if (action == null) {
+      throw new IllegalArgumentException("Command not found: " + args[0]);
+    }
+
+    int placeholderCount = 0;
+    for (int i = 1; i < args.length; i++) {
+      if (PLACEHOLDER.equals(args[i])) {
+        placeholderCount++;
+      }
+    }
+    this.placeholderIndexes = new int[placeholderCount];
+    for (int i = 1, j = 0; i < args.length; i++) {
+      if (PLACEHOLDER.equals(args[i])) {
+        placeholderIndexes[j++] = i;
+      }
+    }
+
+    this.acceptedValues = validate ? getAcceptedValues(action) : null;
+    if (acceptedValues != null) {
+      if (args.length > 2) {
+        throw new IllegalArgumentException("Too many arguments for " + args[0] + ": " + template);
+      } else if (args.length == 2 && !PLACEHOLDER.equals(args[1])) {
+        checkValue(args[1]);
+      }
+    }
+  }
+
+  /**
+   * Get the values accepted by the value argument of an action.
+   *
+   * @param action the action.
+   *
+   * @return the upper case values accepted by the action, {@code null} if the action does not
+   *         restrict its values.
+   */
+  private static Set<String> getAcceptedValues(IJssAction action) {
+    Set<String> values = null;
+    if (action instanceof AbstractJssComboAction) {
+      values = new HashSet<>(((AbstractJssComboAction<?>) action).getSwitchValuesByArgument()
+          .keySet());
+    } else if (action instanceof AbstractJssSwitchAction) {
+      AbstractJssSwitchAction switchAction = (AbstractJssSwitchAction) action;
+      values = new HashSet<>();
+      addUpperCase(values, switchAction.getOnArguments());
+      addUpperCase(values, switchAction.getOffArguments());
+    }
+    return values != null ? Collections.unmodifiableSet(values) : null;
+  }
+
+  private static void addUpperCase(Set<String> values, Collection<String> arguments) {
+    if (arguments != null) {
+      for (String argument : arguments) {
+        values.add(argument.trim().toUpperCase());
+      }
+    }
+  }
+
+  private void checkValue(String value) {
+    if (value == null || !acceptedValues.contains(value.trim().toUpperCase())) {
+      throw new IllegalArgumentException(
+          "\"" + value + "\" is not a valid value for " + arguments[0]);
+    }
+  }
+
+  // #########################################################################
+  /**
+   * Execute the command with the given values.
+   *
+   * @param values the values bound to the placeholders, in order.
+   *
+   * @return the return status code of the action.
+   *
+   * @throws IllegalArgumentException if the number of values does not match the number of
+   *         placeholders or if a value is not accepted by the action.
+   */
+  public int execute(String... values) {
+    int valueCount = values != null ? values.length : 0;
+    if (valueCount != placeholderIndexes.length) {
+      throw new IllegalArgumentException("Expected " + placeholderIndexes.length
+          + " values but got " + valueCount + ": " + template);
+    }
+
+    String[] args = arguments.clone();
+    for (int i = 0; i < valueCount; i++) {
+      if (values[i] == null) {
+        throw new IllegalArgumentException("A value cannot be null: " + template);
+      }
+      if (acceptedValues != null) {
+        checkValue(values[i]);
+      }
+      args[placeholderIndexes[i]] = values[i];
+    }
+
+    // Resolve the action again if the model was modified
+    AbstractJssModel model = controller.getModel();
+    if (model.getModificationCount() != modelModificationCount) {
+      action = controller.getActionForCommandIdentifier(arguments[0]);
+      modelModificationCount = model.getModificationCount();
+    }
+    return controller.runPreparedCommand(action, args);
+  }
+
+  public String getTemplate() {
+    return template;
+  }
+
+  /**
+   * Get the number of values to bind on each execution.
+   *
+   * @return the number of placeholders in the template.
+   */
+  public int getPlaceholderCount() {
+    return placeholderIndexes.length;
+  }
+
+  /**
+   * Get the action executed by the command.
+   *
+   * @return the action executed by the command, {@code null} if it was removed from the model.
+   */
+  public IJssAction getAction() {
+    return action;
+  }
+
+  public boolean isValidated() {
+    return acceptedValues != null;
+  }
+
+  @Override
+  public String toString() {
+    return template;
+  }
+
+}
@@ -0,0 +1,625 @@
+package jswingshell;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StreamCorruptedException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import jswingshell.AbstractJssController.CommandHistory;
+import jswingshell.action.AbstractJssComboAction;
+import jswingshell.action.AbstractJssSwitchAction;
+import jswingshell.action.ActionGroup;
+import jswingshell.action.IJssAction;
+import jswingshell.action.JssActionStateSnapshot;
+import jswingshell.action.JssPropertyChangeBatch;
+
+/**
+ * A compact binary format saving and restoring the state of a shell.
+ *
+ * <p>
+ * The state of a shell is made of the publication level and the command history of its controller,
+ * the selection of the switch and combo actions of its model, and the members and selection of
+ * some {@link ActionGroup}s. Actions are referred to by their default command identifier, so that
+ * the state is restored in the live objects of another session: their indexes are kept up to date
+ * instead of being built again, as with the default Java serialization. Likewise, the selected
+ * item of a combo action is referred to by its switch argument, not by its position in the combo
+ * model, which may differ in another session.
+ * </p>
+ *
+ * <p>
+ * The format starts with the {@value #MAGIC} magic number and the version of the format. It is
+ * followed by a table of the distinct strings, written once and referred to by their index, and by
+ * the sections of the state. Integers are written as variable-length quantities, 7 bits per byte.
+ * Each section starts with its tag and its length, so that the sections unknown to a reader are
+ * skipped.
+ * </p>
+ *
+ * @author Mathieu Brunot
+ *
+ * @since 1.4.5
+ */
+public final class JssStateSerializer {
+
+  /**
+   * The magic number starting the format, {@code JSST} in ASCII.
+   */
+  public static final int MAGIC = 0x4A535354;
+
+  /**
+   * The version of the format written.
+   */
+  public static final int VERSION = 1;
+
+  private static final int END_SECTION = 0;
+
+  private static final int LEVEL_SECTION = 1;
+
+  private static final int HISTORY_SECTION = 2;
+
+  private static final int ACTIONS_SECTION = 3;
+
+  private static final int GROUP_SECTION = 4;
+
+  private static final int HISTORY_DUPLICATION_ALLOWED = 1;
+
+  private static final int HISTORY_SIZE_UNLIMITED = 2;
+
+  private static final int SWITCH_UNSELECTED = 0;
+
+  private static final int SWITCH_SELECTED = 1;
+
+  private static final int COMBO_ITEM = 2;
+
+  private JssStateSerializer() {}
+
+  // #########################################################################
+  // Write methods
+  /**
+   * Save the state of a shell.
+   *
+   * @param controller the controller of the shell.
+   * @param groups the action groups to save, in the order they will be restored.
+   *
+   * @return the saved state.
+   *
+   * @throws IllegalArgumentException if the controller is {@code null}.
+   */
+  public static byte[] toByteArray(AbstractJssController controller, ActionGroup... groups) {
+    if (controller == null) {
+      throw new IllegalArgumentException("A shell controller is required!");
+    }
+    Encoder sections = new Encoder();
+    Map<String, Integer> stringIds = new HashMap<>();
+    List<String> strings = new ArrayList<>();
+    Encoder section = new Encoder();
+
+    // Publication level
+    IJssController.PublicationLevel level = controller.getPublicationLevel();
+    section.writeVarint(level != null ? level.ordinal() + 1 : 0);
+    sections.writeSection(LEVEL_SECTION, section);
+
+    // Command history
+    CommandHistory history = controller.getCommandHistory();
+    section.writeVarint((history.isDuplicationAllowed() ? HISTORY_DUPLICATION_ALLOWED : 0)
+        | (history.isSizeUnlimited() ? HISTORY_SIZE_UNLIMITED : 0));
+    section.writeVarint(history.getMaximumSizeAllowed());
+    Collection<String> commands = history.getCommandBuffer();
+    section.writeVarint(commands != null ? commands.size() : 0);
+    if (commands != null) {
+      for (String command : commands) {
+        section.writeVarint(stringId(command, stringIds, strings));
+      }
+    }
+    sections.writeSection(HISTORY_SECTION, section);
+
+    // Switch and combo actions
+    AbstractJssModel model = controller.getModel();
+    if (model != null) {
+      List<IJssAction> actions = new ArrayList<>(model.getAvailableActions());
+      int count = 0;
+      Encoder actionStates = new Encoder();
+      for (IJssAction action : actions) {
+        String identifier = action.getDefaultCommandIdentifier();
+        if (identifier != null
+            && writeActionState(action, identifier, actionStates, stringIds, strings)) {
+          count++;
+        }
+      }
+      section.writeVarint(count);
+      section.writeBytes(actionStates);
+      sections.writeSection(ACTIONS_SECTION, section);
+    }
+
+    // Action groups
+    if (groups != null) {
+      for (ActionGroup group : groups) {
+        writeGroup(group, section, stringIds, strings);
+        sections.writeSection(GROUP_SECTION, section);
+      }
+    }
+    sections.writeVarint(END_SECTION);
+
+    Encoder encoder = new Encoder();
+    encoder.writeInt(MAGIC);
+    encoder.writeVarint(VERSION);
+    encoder.writeVarint(strings.size());
+    for (String string : strings) {
+      byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+      encoder.writeVarint(bytes.length);
+      encoder.write(bytes, 0, bytes.length);
+    }
+    encoder.writeBytes(sections);
+    return encoder.toByteArray();
+  }
+
+  /**
+   * Save the state of a shell to a stream.
+   *
+   * @param controller the controller of the shell.
+   * @param out the stream. It is not closed.
+   * @param groups the action groups to save, in the order they will be restored.
+   *
+   * @throws IOException if the state could not be written.
+   * @throws IllegalArgumentException if the controller is {@code null}.
+   *
+   * @see #toByteArray(AbstractJssController, ActionGroup...)
+   */
+  public static void write(AbstractJssController controller, OutputStream out,
+      ActionGroup... groups) throws IOException {
+    out.write(toByteArray(controller, groups));
+  }
+
+  private static int stringId(String string, Map<String, Integer> stringIds,
+      List<String> strings) {
+    Integer id = stringIds.get(string);
+    if (id == null) {
+      id = strings.size();
+      stringIds.put(string, id);
+      strings.add(string);
+    }
+    return id;
+  }
+
+  /**
+   * Write the state of an action, if it is a switch or combo action.
+   *
+   * @return {@code true} if the state was written.
+   */
+  private static boolean writeActionState(IJssAction action, String identifier, Encoder encoder,
+      Map<String, Integer> stringIds, List<String> strings) {
+    if (action instanceof AbstractJssComboAction) {
+      AbstractJssComboAction<?> comboAction = (AbstractJssComboAction<?>) action;
+      Object item = comboAction.getSelectedItem();
+      String argument = item != null ? getSwitchArgument(comboAction, item) : null;
+      if (item != null && argument == null) {
+        // The selected item cannot be switched to
+        return false;
+      }
+      encoder.writeVarint(stringId(identifier, stringIds, strings));
+      encoder.writeVarint(COMBO_ITEM);
+      encoder.writeVarint(argument != null ? stringId(argument, stringIds, strings) + 1 : 0);
+      return true;
+    } else if (action instanceof AbstractJssSwitchAction
+        && !(action instanceof AbstractJssComboAction.ComboElementAction)) {
+      Boolean selected = ((AbstractJssSwitchAction) action).isSelected();
+      if (selected == null) {
+        return false;
+      }
+      encoder.writeVarint(stringId(identifier, stringIds, strings));
+      encoder.writeVarint(selected ? SWITCH_SELECTED : SWITCH_UNSELECTED);
+      return true;
+    }
+    return false;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static String getSwitchArgument(AbstractJssComboAction<?> comboAction, Object item) {
+    return ((AbstractJssComboAction<Object>) comboAction).getSwitchArgumentByValue(item);
+  }
+
+  private static void writeGroup(ActionGroup group, Encoder encoder,
+      Map<String, Integer> stringIds, List<String> strings) {
+    List<Integer> memberIds = new ArrayList<>();
+    int selectionIndex = -1;
+    if (group != null) {
+      for (AbstractJssSwitchAction action : group.getElements()) {
+        String identifier = action.getDefaultCommandIdentifier();
+        if (identifier != null) {
+          if (action == group.getSelection()) {
+            selectionIndex = memberIds.size();
+          }
+          memberIds.add(stringId(identifier, stringIds, strings));
+        }
+      }
+    }
+    encoder.writeVarint(memberIds.size());
+    for (Integer memberId : memberIds) {
+      encoder.writeVarint(memberId);
+    }
+    encoder.writeVarint(selectionIndex + 1);
+  }
+
+  // #########################################################################
+  // Read methods
+  /**
+   * Restore the state of a shell.
+   *
+   * <p>
+   * The publication level and the command history of the controller are replaced. The state of
+   * the switch and combo actions of its model is restored through a {@link JssActionStateSnapshot},
+   * which switches the actions whose state changed. The actions saved in the n-th group section are
+   * then set as the members of the n-th given group, the other sections being skipped. Actions are
+   * looked up in the model by command identifier: the saved actions missing from the model are
+   * ignored. All the property changes of the actions are fired once the state is restored.
+   * </p>
+   *
+   * <p>
+   * The whole state is decoded and validated before it is restored: an invalid state leaves the
+   * shell unchanged.
+   * </p>
+   *
+   * @param data the saved state.
+   * @param controller the controller of the shell.
+   * @param groups the action groups to restore, in the order they were saved.
+   *
+   * @return {@link IJssAction#SUCCESS} if all the actions were switched, {@link IJssAction#ERROR}
+   *         if some of them kept their current state.
+   *
+   * @throws IOException if the state is not valid, or was saved with a newer version of the format.
+   * @throws IllegalArgumentException if the controller is {@code null}.
+   */
+  public static int fromByteArray(byte[] data, AbstractJssController controller,
+      ActionGroup... groups) throws IOException {
+    if (controller == null) {
+      throw new IllegalArgumentException("A shell controller is required!");
+    }
+    if (data == null) {
+      throw new IllegalArgumentException("A saved state is required!");
+    }
+    Decoder decoder = new Decoder(data, 0, data.length);
+    if (decoder.readInt() != MAGIC) {
+      throw new StreamCorruptedException("Not a shell state");
+    }
+    int version = decoder.readVarint();
+    if (version > VERSION) {
+      throw new IOException("Unsupported shell state version: " + version);
+    }
+    String[] strings = new String[decoder.readCount()];
+    for (int i = 0; i < strings.length; i++) {
+      int length = decoder.readVarint();
+      strings[i] = new String(data, decoder.skip(length), length, StandardCharsets.UTF_8);
+    }
+
+    // Decode all the sections before restoring any of them
+    AbstractJssModel model = controller.getModel();
+    boolean levelRead = false;
+    IJssController.PublicationLevel level = null;
+    CommandHistory history = null;
+    List<JssActionStateSnapshot> snapshots = new ArrayList<>();
+    List<GroupState> groupStates = new ArrayList<>();
+    int groupIndex = 0;
+    for (int tag = decoder.readVarint(); tag != END_SECTION; tag = decoder.readVarint()) {
+      int length = decoder.readVarint();
+      Decoder section = new Decoder(data, decoder.skip(length), length);
+      switch (tag) {
+        case LEVEL_SECTION:
+          level = readLevel(section);
+          levelRead = true;
+          break;
+        case HISTORY_SECTION:
+          history = readHistory(section, strings);
+          break;
+        case ACTIONS_SECTION:
+          snapshots.add(readActionStates(section, strings, model));
+          break;
+        case GROUP_SECTION:
+          GroupState groupState = readGroup(section, strings, model);
+          if (groups != null && groupIndex < groups.length && groups[groupIndex] != null) {
+            groupState.group = groups[groupIndex];
+            groupStates.add(groupState);
+          }
+          groupIndex++;
+          break;
+        default:
+          // Section of a newer version
+          break;
+      }
+    }
+
+    int status = IJssAction.SUCCESS;
+    JssPropertyChangeBatch.begin();
+    try {
+      if (levelRead) {
+        controller.setPublicationLevel(level);
+      }
+      if (history != null) {
+        controller.setCommandHistory(history);
+      }
+      for (JssActionStateSnapshot snapshot : snapshots) {
+        if (snapshot.restore(controller) != IJssAction.SUCCESS) {
+          status = IJssAction.ERROR;
+        }
+      }
+      for (GroupState groupState : groupStates) {
+        groupState.restore();
+      }
+    } finally {
+      JssPropertyChangeBatch.end();
+    }
+    return status;
+  }
+
+  /**
+   * Restore the state of a shell from a stream.
+   *
+   * @param controller the controller of the shell.
+   * @param in the stream, read until its end. It is not closed.
+   * @param groups the action groups to restore, in the order they were saved.
+   *
+   * @return {@link IJssAction#SUCCESS} if all the actions were switched, {@link IJssAction#ERROR}
+   *         if some of them kept their current state.
+   *
+   * @throws IOException if the state could not be read, is not valid, or was saved with a newer
+   *         version of the format.
+   * @throws IllegalArgumentException if the controller is {@code null}.
+   *
+   * @see #fromByteArray(byte[], AbstractJssController, ActionGroup...)
+   */
+  public static int read(AbstractJssController controller, InputStream in, ActionGroup... groups)
+      throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    byte[] buffer = new byte[8192];
+    int read;
+    while ((read = in.read(buffer)) >= 0) {
+      bytes.write(buffer, 0, read);
+    }
+    return fromByteArray(bytes.toByteArray(), controller, groups);
+  }
+
+  private static IJssController.PublicationLevel readLevel(Decoder decoder)
+      throws IOException {
+    int ordinal = decoder.readVarint() - 1;
+    IJssController.PublicationLevel[] levels =
+        IJssController.PublicationLevel.values();
+    if (ordinal >= levels.length) {
+      throw new StreamCorruptedException("Unknown publication level: " + ordinal);
+    }
+    return ordinal >= 0 ? levels[ordinal] : null;
+  }
+
+  private static CommandHistory readHistory(Decoder decoder, String[] strings)
+      throws IOException {
+    int flags = decoder.readVarint();
+    int maximumSize = decoder.readVarint();
+    String[] commands = new String[decoder.readCount()];
+    for (int i = 0; i < commands.length; i++) {
+      commands[i] = readString(decoder, strings);
+    }
+    CommandHistory history = new CommandHistory(maximumSize,
+        (flags & HISTORY_DUPLICATION_ALLOWED) != 0, (flags & HISTORY_SIZE_UNLIMITED) != 0);
+    history.addAll(Arrays.asList(commands));
+    return history;
+  }
+
+  private static JssActionStateSnapshot readActionStates(Decoder decoder, String[] strings,
+      AbstractJssModel model) throws IOException {
+    List<IJssAction> actions = new ArrayList<>();
+    List<Object> states = new ArrayList<>();
+    for (int count = decoder.readVarint(); count > 0; count--) {
+      IJssAction action = getAction(model, readString(decoder, strings));
+      int kind = decoder.readVarint();
+      if (kind == COMBO_ITEM) {
+        String argument = readOptionalString(decoder, strings);
+        if (action instanceof AbstractJssComboAction) {
+          AbstractJssComboAction<?> comboAction = (AbstractJssComboAction<?>) action;
+          Object item = argument != null
+              ? comboAction.getSwitchValuesByArgument().get(argument.trim().toUpperCase()) : null;
+          // The items missing from the model are ignored
+          if (argument == null || item != null) {
+            actions.add(comboAction);
+            states.add(item);
+          }
+        }
+      } else if (kind == SWITCH_SELECTED || kind == SWITCH_UNSELECTED) {
+        if (action instanceof AbstractJssSwitchAction
+            && !(action instanceof AbstractJssComboAction.ComboElementAction)) {
+          actions.add(action);
+          states.add(kind == SWITCH_SELECTED);
+        }
+      } else {
+        throw new StreamCorruptedException("Unknown action state: " + kind);
+      }
+    }
+    return JssActionStateSnapshot.of(actions, states);
+  }
+
+  private static GroupState readGroup(Decoder decoder, String[] strings, AbstractJssModel model)
+      throws IOException {
+    AbstractJssSwitchAction[] members = new AbstractJssSwitchAction[decoder.readCount()];
+    for (int i = 0; i < members.length; i++) {
+      IJssAction action = getAction(model, readString(decoder, strings));
+      if (action instanceof AbstractJssSwitchAction) {
+        members[i] = (AbstractJssSwitchAction) action;
+      }
+    }
+    int selectionIndex = decoder.readVarint() - 1;
+    if (selectionIndex >= members.length) {
+      throw new StreamCorruptedException("Invalid group selection: " + selectionIndex);
+    }
+    return new GroupState(members, selectionIndex);
+  }
+
+  private static IJssAction getAction(AbstractJssModel model, String identifier) {
+    return model != null ? model.getActionForCommandIdentifier(identifier) : null;
+  }
+
+  private static String readString(Decoder decoder, String[] strings) throws IOException {
+    return getString(decoder.readVarint(), strings);
+  }
+
+  /**
+   * Read a string written as its index plus one, {@code 0} standing for {@code null}.
+   */
+  private static String readOptionalString(Decoder decoder, String[] strings) throws IOException {
+    int id = decoder.readVarint();
+    return id > 0 ? getString(id - 1, strings) : null;
+  }
+
+  private static String getString(int id, String[] strings) throws IOException {
+    if (id >= strings.length) {
+      throw new StreamCorruptedException("Unknown string: " + id);
+    }
+    return strings[id];
+  }
+
+  // #########################################################################
+  /**
+   * The decoded members and selection of an action group, restored once the whole state is valid.
+   */
+  private static final class GroupState {
+
+    private final AbstractJssSwitchAction[] members;
+
+    private final int selectionIndex;
+
+    private ActionGroup group;
+
+    GroupState(AbstractJssSwitchAction[] members, int selectionIndex) {
+      this.members = members;
+      this.selectionIndex = selectionIndex;
+    }
+
+    void restore() {
+      group.clear();
+      for (AbstractJssSwitchAction member : members) {
+        group.add(member);
+      }
+      if (selectionIndex >= 0 && members[selectionIndex] != null) {
+        group.setSelected(members[selectionIndex], true);
+      }
+    }
+
+  }
+
+  /**
+   * A growable buffer of bytes, writing variable-length integers.
+   */
+  private static final class Encoder extends ByteArrayOutputStream {
+
+    Encoder() {
+      super(256);
+    }
+
+    void writeVarint(int value) {
+      while ((value & ~0x7F) != 0) {
+        write((value & 0x7F) | 0x80);
+        value >>>= 7;
+      }
+      write(value);
+    }
+
+    void writeInt(int value) {
+      write(value >>> 24);
+      write(value >>> 16);
+      write(value >>> 8);
+      write(value);
+    }
+
+    void writeBytes(Encoder encoder) {
+      write(encoder.buf, 0, encoder.count);
+    }
+
+    /**
+     * Write a section with its tag and length, and reset the section to write the next one.
+     */
+    void writeSection(int tag, Encoder section) {
+      writeVarint(tag);
+      writeVarint(section.count);
+      writeBytes(section);
+      section.reset();
+    }
+
+  }
+
+  /**
+   * A reader of a range of bytes, reading variable-length integers.
+   */
+  private static final class Decoder {
+
+    private final byte[] data;
+
+    private final int end;
+
+    private int position;
+
+    Decoder(byte[] data, int offset, int length) {
+      this.data = data;
+      this.position = offset;
+      this.end = offset + length;
+    }
+
+    int readByte() throws IOException {
+      if (position >= end) {
+        throw new EOFException("Truncated shell state");
+      }
+      return data[position++] & 0xFF;
+    }
+
+    int readVarint() throws IOException {
+      int value = 0;
+      for (int shift = 0; shift < 32; shift += 7) {
+        int b = readByte();
+        value |= (b & 0x7F) << shift;
+        if ((b & 0x80) == 0) {
+          if (value < 0) {
+            throw new StreamCorruptedException("Negative length or index: " + value);
+          }
+          return value;
+        }
+      }
+      throw new StreamCorruptedException("Malformed variable-length integer");
+    }
+
+    /**
+     * Read the number of the entries following, each of them taking at least one byte.
+     *
+     * @throws StreamCorruptedException if there are less bytes left than entries.
+     */
+    int readCount() throws IOException {
+      int count = readVarint();
+      if (count > end - position) {
+        throw new StreamCorruptedException("Invalid number of entries: " + count);
+      }
+      return count;
+    }
+
+    int readInt() throws IOException {
+      return readByte() << 24 | readByte() << 16 | readByte() << 8 | readByte();
+    }
+
+    /**
+     * Skip some bytes.
+     *
+     * @return the position of the skipped bytes.
+     */
+    int skip(int length) throws IOException {
+      if (length > end - position) {
+        throw new EOFException("Truncated shell state");
+      }
+      int offset = position;
+      position += length;
+      return offset;
+    }
+
+  }
+
+}
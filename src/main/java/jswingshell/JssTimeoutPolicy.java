@@ -0,0 +1,125 @@
+package jswingshell;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import jswingshell.action.IJssAction;
+
+/**
+ * The time after which the threaded actions of a shell are cancelled.
+ *
+ * <p>
+ * A default timeout applies to all the commands, unless a timeout was set for the command itself.
+ * A timeout of {@code 0} means that the command never times out. Subclasses may compute the timeout
+ * of a command from its arguments.
+ * </p>
+ *
+ * @see AbstractJssController#setTimeoutPolicy(JssTimeoutPolicy)
+ *
+ * @author Mathieu Brunot
+ *
+ * @since 1.4.5
+ */
+public class JssTimeoutPolicy {
+
+  private volatile long defaultTimeoutMillis;
+
+  private final ConcurrentMap<String, Long> timeoutsByCommand = new ConcurrentHashMap<>();
+
+  // #########################################################################
+  /**
+   * Create a policy without default timeout.
+   */
+  public JssTimeoutPolicy() {
+    this.defaultTimeoutMillis = 0;
+  }
+
+  /**
+   * Create a policy with a default timeout.
+   *
+   * @param defaultTimeout the timeout of the commands, {@code 0} if they never time out.
+   * @param unit the unit of the timeout.
+   *
+   * @throws IllegalArgumentException if the timeout is negative or the unit is {@code null}.
+   */
+  public JssTimeoutPolicy(long defaultTimeout, TimeUnit unit) {
+    setDefaultTimeout(defaultTimeout, unit);
+  }
+
+  // #########################################################################
+  private static long toMillis(long timeout, TimeUnit unit) {
+    if (unit == null) {
+      throw new IllegalArgumentException("A time unit is required!");
+    }
+    if (timeout < 0) {
+      throw new IllegalArgumentException("Timeout must be positive: " + timeout);
+    }
+    return unit.toMillis(timeout);
+  }
+
+  public long getDefaultTimeoutMillis() {
+    return defaultTimeoutMillis;
+  }
+
+  /**
+   * Set the timeout of the commands without timeout of their own.
+   *
+   * @param defaultTimeout the timeout of the commands, {@code 0} if they never time out.
+   * @param unit the unit of the timeout.
+   *
+   * @throws IllegalArgumentException if the timeout is negative or the unit is {@code null}.
+   */
+  public void setDefaultTimeout(long defaultTimeout, TimeUnit unit) {
+    this.defaultTimeoutMillis = toMillis(defaultTimeout, unit);
+  }
+
+  /**
+   * Set the timeout of a command, overriding the default timeout.
+   *
+   * @param commandIdentifier the default command identifier of the action.
+   * @param timeout the timeout of the command, {@code 0} if it never times out.
+   * @param unit the unit of the timeout.
+   *
+   * @throws IllegalArgumentException if the command identifier or the unit is {@code null}, or if
+   *         the timeout is negative.
+   */
+  public void setCommandTimeout(String commandIdentifier, long timeout, TimeUnit unit) {
+    if (commandIdentifier == null) {
+      throw new IllegalArgumentException("A command identifier is required!");
+    }
+    timeoutsByCommand.put(commandIdentifier, toMillis(timeout, unit));
+  }
+
+  /**
+   * Remove the timeout of a command, so that the default timeout applies.
+   *
+   * @param commandIdentifier the default command identifier of the action.
+   *
+   * @return {@code true} if the command had a timeout of its own.
+   */
+  public boolean removeCommandTimeout(String commandIdentifier) {
+    return commandIdentifier != null && timeoutsByCommand.remove(commandIdentifier) != null;
+  }
+
+  /**
+   * Get the timeout of a command.
+   *
+   * @param action the action of the command.
+   * @param args the arguments of the command.
+   *
+   * @return the timeout of the command in milliseconds, {@code 0} if it never times out.
+   */
+  public long getTimeoutMillis(IJssAction action, String... args) {
+    if (action != null) {
+      String commandIdentifier = action.getDefaultCommandIdentifier();
+      Long timeoutMillis =
+          commandIdentifier != null ? timeoutsByCommand.get(commandIdentifier) : null;
+      if (timeoutMillis != null) {
+        return timeoutMillis;
+      }
+    }
+    return defaultTimeoutMillis;
+  }
+
+}
@@ -0,0 +1,418 @@
+package jswingshell;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A hierarchical timer wheel, running tasks once their delay has elapsed.
+ *
+ * <p>
+ * Time is divided in ticks. Each level of the wheel has {@value #WHEEL_SIZE} buckets: a bucket of
+ * the first level holds the timeouts expiring during one tick, and a bucket of the next levels
+ * spans a whole turn of the level below. When a level completes a turn, the next bucket of the
+ * level above is cascaded into it. Scheduling and cancelling a timeout thus take a constant time,
+ * whatever the number of pending timeouts, at the cost of a precision of one tick.
+ * </p>
+ *
+ * <p>
+ * The wheel is advanced by a single daemon thread, started with the first timeout and parked while
+ * no timeout is pending. Tasks are run on that thread, so they should be short: tasks touching the
+ * shell should be handed to the <i>Event Dispatch Thread</i>.
+ * </p>
+ *
+ * @author Mathieu Brunot
+ *
+ * @since 1.4.5
+ */
+public class JssTimerWheel {
+
+  /**
+   * Logger.
+   */
+  private static final Logger LOGGER = Logger.getLogger(JssTimerWheel.class.getName());
+
+  /**
+   * The default duration of a tick, in milliseconds.
+   */
+  public static final long DEFAULT_TICK_MILLIS = 10;
+
+  private static final int WHEEL_BITS = 6;
+
+  /**
+   * The number of buckets of each level.
+   */
+  public static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+
+  private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+
+  /**
+   * The number of levels, covering {@code WHEEL_SIZE^LEVEL_COUNT} ticks. Longer timeouts are
+   * cascaded from the last level until they fit.
+   */
+  public static final int LEVEL_COUNT = 4;
+
+  private static final long MAX_RANGE = 1L << (WHEEL_BITS * LEVEL_COUNT);
+
+  private static final int PENDING = 0;
+
+  private static final int CANCELLED = 1;
+
+  private static final int EXPIRED = 2;
+
+  private static JssTimerWheel defaultWheel;
+
+  private final long tickNanos;
+
+  private final long startNanos = System.nanoTime();
+
+  private final Bucket[][] buckets = new Bucket[LEVEL_COUNT][WHEEL_SIZE];
+
+  private final Queue<Timeout> scheduledTimeouts = new ConcurrentLinkedQueue<>();
+
+  private final Queue<Timeout> cancelledTimeouts = new ConcurrentLinkedQueue<>();
+
+  private final AtomicInteger pendingCount = new AtomicInteger();
+
+  /**
+   * The next tick to process, only used by the wheel's thread.
+   */
+  private long currentTick = 0;
+
+  /**
+   * The number of timeouts in the buckets, only used by the wheel's thread.
+   */
+  private int bucketedCount = 0;
+
+  private volatile Thread thread;
+
+  private volatile boolean stopped = false;
+
+  // #########################################################################
+  public JssTimerWheel() {
+    this(DEFAULT_TICK_MILLIS, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Create a timer wheel.
+   *
+   * @param tickDuration the duration of a tick.
+   * @param unit the unit of the tick duration.
+   *
+   * @throws IllegalArgumentException if the tick duration is not strictly positive or the unit is
+   *         {@code null}.
+   */
+  public JssTimerWheel(long tickDuration, TimeUnit unit) {
+    if (unit == null) {
+      throw new IllegalArgumentException("A time unit is required!");
+    }
+    if (tickDuration <= 0) {
+      throw new IllegalArgumentException(
+          "Tick duration must be strictly positive: " + tickDuration);
+    }
+    this.tickNanos = unit.toNanos(tickDuration);
+    for (int level = 0; level < LEVEL_COUNT; level++) {
+      for (int index = 0; index < WHEEL_SIZE; index++) {
+        buckets[level][index] = new Bucket();
+      }
+    }
+  }
+
+  /**
+   * Get the timer wheel shared by the shell controllers.
+   *
+   * @return the default timer wheel.
+   */
+  public static synchronized JssTimerWheel getDefault() {
+    if (defaultWheel == null) {
+      defaultWheel = new JssTimerWheel();
+    }
+    return defaultWheel;
+  }
+
+  // #########################################################################
+  /**
+   * Schedule a task.
+   *
+   * @param task the task to run once the delay has elapsed.
+   * @param delay the delay before running the task.
+   * @param unit the unit of the delay.
+   *
+   * @return the timeout, to cancel the task.
+   *
+   * @throws IllegalArgumentException if the task or the unit is {@code null}.
+   * @throws IllegalStateException if the wheel was stopped.
+   */
+  public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+    if (task == null) {
+      throw new IllegalArgumentException("A task is required!");
+    }
+    if (unit == null) {
+      throw new IllegalArgumentException("A time unit is required!");
+    }
+    if (stopped) {
+      throw new IllegalStateException("The timer wheel was stopped");
+    }
+    long deadlineNanos = System.nanoTime() - startNanos + unit.toNanos(Math.max(delay, 0));
+    // Round up, so that the task never runs before its delay
+    Timeout timeout = new Timeout(this, task, (deadlineNanos + tickNanos - 1) / tickNanos);
+    pendingCount.incrementAndGet();
+    scheduledTimeouts.add(timeout);
+    ensureStarted();
+    return timeout;
+  }
+
+  /**
+   * Stop the wheel. Pending timeouts are dropped.
+   */
+  public synchronized void stop() {
+    stopped = true;
+    if (thread != null) {
+      thread.interrupt();
+      thread = null;
+    }
+  }
+
+  public boolean isStopped() {
+    return stopped;
+  }
+
+  public long getTickNanos() {
+    return tickNanos;
+  }
+
+  /**
+   * Get the number of timeouts neither expired nor cancelled.
+   *
+   * @return the number of pending timeouts.
+   */
+  public int getPendingCount() {
+    return pendingCount.get();
+  }
+
+  private void ensureStarted() {
+    Thread wheelThread = thread;
+    if (wheelThread != null) {
+      LockSupport.unpark(wheelThread);
+      return;
+    }
+    synchronized (this) {
+      if (thread != null || stopped) {
+        return;
+      }
+      thread = new Thread(new Runnable() {
+
+        @Override
+        public void run() {
+          runWheel();
+        }
+
+      }, "jss-timer-wheel");
+      thread.setDaemon(true);
+      thread.start();
+    }
+  }
+
+  // #########################################################################
+  private void runWheel() {
+    while (!stopped) {
+      if (bucketedCount == 0 && scheduledTimeouts.isEmpty()) {
+        // Nothing to wait for: sleep until a timeout is scheduled
+        cancelledTimeouts.clear();
+        LockSupport.park(this);
+        // No timeout in the buckets, so the ticks elapsed meanwhile can be skipped
+        currentTick = Math.max(currentTick, elapsedTicks());
+        continue;
+      }
+      long waitNanos = startNanos + currentTick * tickNanos - System.nanoTime();
+      if (waitNanos > 0) {
+        LockSupport.parkNanos(this, waitNanos);
+        continue;
+      }
+      processTick();
+    }
+  }
+
+  private long elapsedTicks() {
+    return (System.nanoTime() - startNanos) / tickNanos;
+  }
+
+  /**
+   * Process the current tick: add the scheduled timeouts, remove the cancelled ones, cascade the
+   * upper levels and expire the timeouts of the tick.
+   */
+  private void processTick() {
+    Timeout timeout;
+    while ((timeout = scheduledTimeouts.poll()) != null) {
+      if (timeout.state.get() == PENDING) {
+        add(timeout);
+      }
+    }
+    while ((timeout = cancelledTimeouts.poll()) != null) {
+      if (timeout.bucket != null) {
+        timeout.bucket.remove(timeout);
+        bucketedCount--;
+      }
+    }
+
+    for (int level = LEVEL_COUNT - 1; level > 0; level--) {
+      if ((currentTick & ((1L << (WHEEL_BITS * level)) - 1)) == 0) {
+        cascade(buckets[level][(int) (currentTick >>> (WHEEL_BITS * level)) & WHEEL_MASK]);
+      }
+    }
+
+    Bucket bucket = buckets[0][(int) currentTick & WHEEL_MASK];
+    while ((timeout = bucket.poll()) != null) {
+      bucketedCount--;
+      timeout.expire();
+    }
+    currentTick++;
+  }
+
+  private void cascade(Bucket bucket) {
+    Timeout timeout;
+    while ((timeout = bucket.poll()) != null) {
+      bucketedCount--;
+      add(timeout);
+    }
+  }
+
+  private void add(Timeout timeout) {
+    long delta = timeout.deadlineTick - currentTick;
+    long slotTick = timeout.deadlineTick;
+    if (delta < 0) {
+      // Already late: expire it with the current tick
+      delta = 0;
+      slotTick = currentTick;
+    } else if (delta >= MAX_RANGE) {
+      // Too far away: wait in the last bucket reachable, to be cascaded again
+      delta = MAX_RANGE - 1;
+      slotTick = currentTick + delta;
+    }
+    int level = 0;
+    while (delta >= 1L << (WHEEL_BITS * (level + 1))) {
+      level++;
+    }
+    buckets[level][(int) (slotTick >>> (WHEEL_BITS * level)) & WHEEL_MASK].add(timeout);
+    bucketedCount++;
+  }
+
+  // #########################################################################
+  /**
+   * A list of timeouts, linked through the timeouts themselves so that they are removed in a
+   * constant time.
+   */
+  private static final class Bucket {
+
+    private Timeout head;
+
+    private Timeout tail;
+
+    void add(Timeout timeout) {
+      timeout.bucket = this;
+      timeout.previous = tail;
+      timeout.next = null;
+      if (tail == null) {
+        head = timeout;
+      } else {
+        tail.next = timeout;
+      }
+      tail = timeout;
+    }
+
+    void remove(Timeout timeout) {
+      if (timeout.previous == null) {
+        head = timeout.next;
+      } else {
+        timeout.previous.next = timeout.next;
+      }
+      if (timeout.next == null) {
+        tail = timeout.previous;
+      } else {
+        timeout.next.previous = timeout.previous;
+      }
+      timeout.bucket = null;
+      timeout.previous = null;
+      timeout.next = null;
+    }
+
+    Timeout poll() {
+      Timeout timeout = head;
+      if (timeout != null) {
+        remove(timeout);
+      }
+      return timeout;
+    }
+
+  }
+
+  /**
+   * A task scheduled in a timer wheel.
+   */
+  public static final class Timeout {
+
+    private final JssTimerWheel wheel;
+
+    private final long deadlineTick;
+
+    private final AtomicInteger state = new AtomicInteger(PENDING);
+
+    private volatile Runnable task;
+
+    // Only used by the wheel's thread
+    private Bucket bucket;
+
+    private Timeout previous;
+
+    private Timeout next;
+
+    Timeout(JssTimerWheel wheel, Runnable task, long deadlineTick) {
+      this.wheel = wheel;
+      this.task = task;
+      this.deadlineTick = deadlineTick;
+    }
+
+    /**
+     * Cancel the task, if it has not run yet.
+     *
+     * @return {@code true} if the task will not run.
+     */
+    public boolean cancel() {
+      if (!state.compareAndSet(PENDING, CANCELLED)) {
+        return false;
+      }
+      task = null;
+      wheel.pendingCount.decrementAndGet();
+      wheel.cancelledTimeouts.add(this);
+      return true;
+    }
+
+    public boolean isCancelled() {
+      return state.get() == CANCELLED;
+    }
+
+    public boolean isExpired() {
+      return state.get() == EXPIRED;
+    }
+
+    private void expire() {
+      if (!state.compareAndSet(PENDING, EXPIRED)) {
+        return;
+      }
+      wheel.pendingCount.decrementAndGet();
+      Runnable expiredTask = task;
+      task = null;
+      try {
+        expiredTask.run();
+      } catch (RuntimeException e) {
+        LOGGER.log(Level.WARNING, "Timeout task failed", e);
+      }
+    }
+
+  }
+
+}
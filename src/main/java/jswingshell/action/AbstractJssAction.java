@@ -1,9 +1,11 @@
 package jswingshell.action;
 
 import java.awt.event.ActionEvent;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.Map;
+import java.util.WeakHashMap;
 
 import javax.swing.AbstractAction;
 import javax.swing.Icon;
@@ -29,23 +31,58 @@ public abstract class AbstractJssAction extends AbstractAction
   private static final long serialVersionUID = 6767042370184801343L;
   /**
    * A map of actions with their full list of identifiers stored as a displayable {@code String}.
+   *
+   * <p>
+   * Actions are weakly referenced, so that discarded actions are not kept by the cache.
+   * </p>
    */
-  protected static final Map<IJssAction, String> COMMAND_IDENTIFIERS_AS_STRING =
-      new HashMap<>();
+  private static final Map<IJssAction, CommandIdentifiersString> COMMAND_IDENTIFIERS_AS_STRING =
+      Collections.synchronizedMap(new WeakHashMap<IJssAction, CommandIdentifiersString>());
 
   /**
    * Get the full list of identifiers stored as a displayable {@code String} of a given action.
    *
+   * <p>
+   * The {@code String} is cached until the identifiers of the action change.
+   * </p>
+   *
    * @param action the action for which to retrieve the command identifiers
    * @return the full list of identifiers of the action
    */
   protected static final String getCommandIdentifiersAsString(
       IJssAction action) {
-    if (action != null && !COMMAND_IDENTIFIERS_AS_STRING.containsKey(action)) {
-      StringBuilder stringBuilder = new StringBuilder();
+    if (action == null) {
+      return null;
+    }
+    String[] commandIdentifiers = action.getCommandIdentifiers();
+    CommandIdentifiersString cached = COMMAND_IDENTIFIERS_AS_STRING.get(action);
+    if (cached == null || !cached.isBuiltFrom(commandIdentifiers)) {
+      cached = new CommandIdentifiersString(commandIdentifiers);
+      COMMAND_IDENTIFIERS_AS_STRING.put(action, cached);
+    }
+    return cached.value;
+  }
 
+  /**
+   * The displayable {@code String} of a list of identifiers, with a copy of the identifiers to
+   * detect their changes.
+   *
+   * <p>
+   * It must not reference the action, which would then never be reclaimed from the cache.
+   * </p>
+   */
+  private static final class CommandIdentifiersString {
+
+    private final String[] commandIdentifiers;
+
+    private final String value;
+
+    CommandIdentifiersString(String[] commandIdentifiers) {
+      this.commandIdentifiers =
+          commandIdentifiers != null ? commandIdentifiers.clone() : null;
+
+      StringBuilder stringBuilder = new StringBuilder();
       stringBuilder.append("{ ");
-      String[] commandIdentifiers = action.getCommandIdentifiers();
       if (commandIdentifiers != null) {
         for (int i = 0, n = commandIdentifiers.length; i < n; i++) {
           String identifier = commandIdentifiers[i];
@@ -56,11 +93,13 @@ public abstract class AbstractJssAction extends AbstractAction
         }
       }
       stringBuilder.append(" }");
+      this.value = stringBuilder.toString();
+    }
 
-      COMMAND_IDENTIFIERS_AS_STRING.put(action, stringBuilder.toString());
+    boolean isBuiltFrom(String[] identifiers) {
+      return Arrays.equals(commandIdentifiers, identifiers);
     }
 
-    return COMMAND_IDENTIFIERS_AS_STRING.get(action);
   }
 
   /**
@@ -107,6 +146,10 @@ public abstract class AbstractJssAction extends AbstractAction
    * Action's default arguments.
    */
   private String[] args;
+  /**
+   * The help rendered for each shell controller.
+   */
+  private transient Map<IJssController, RenderedHelp> renderedHelpByController;
 
   // #########################################################################
   /**
@@ -243,6 +286,117 @@ public abstract class AbstractJssAction extends AbstractAction
     return getHelp(this.shellController);
   }
 
+  /**
+   * Get the help of this action rendered for a shell controller, if it is still up to date.
+   *
+   * <p>
+   * Actions with a costly help cache it with {@link #cacheHelp(IJssController, String)} and render
+   * it again only when this method returns {@code null}. A cached help is out of date once the
+   * command identifiers of the action changed or once {@link #invalidateHelp()} was called.
+   * </p>
+   *
+   * @param shellController the shell controller for which the help was rendered.
+   *
+   * @return the cached help, {@code null} if the help must be rendered.
+   *
+   * @since 1.4.5
+   */
+  protected final synchronized String getCachedHelp(IJssController shellController) {
+    if (renderedHelpByController == null) {
+      return null;
+    }
+    RenderedHelp renderedHelp = renderedHelpByController.get(shellController);
+    // The identifiers string is cached until the identifiers change
+    if (renderedHelp == null
+        || renderedHelp.commandIdsAsString != getCommandIdentifiersAsString()) {
+      return null;
+    }
+    return renderedHelp.help;
+  }
+
+  /**
+   * Cache the help of this action rendered for a shell controller.
+   *
+   * <p>
+   * Shell controllers are weakly referenced, so that discarded shells are not kept by the cache.
+   * </p>
+   *
+   * @param shellController the shell controller for which the help was rendered.
+   * @param help the rendered help.
+   *
+   * @return the rendered help.
+   *
+   * @since 1.4.5
+   */
+  protected final synchronized String cacheHelp(IJssController shellController, String help) {
+    if (renderedHelpByController == null) {
+      renderedHelpByController = new WeakHashMap<>();
+    }
+    renderedHelpByController.put(shellController,
+        new RenderedHelp(getCommandIdentifiersAsString(), help));
+    return help;
+  }
+
+  /**
+   * Discard the help cached for all the shell controllers, so that it is rendered again.
+   *
+   * <p>
+   * This should be called whenever the help of the action changes, for instance when its values
+   * are modified.
+   * </p>
+   *
+   * @since 1.4.5
+   */
+  public synchronized void invalidateHelp() {
+    renderedHelpByController = null;
+  }
+
+  /**
+   * A help rendered with the identifiers string of the action.
+   */
+  private static final class RenderedHelp {
+
+    private final String commandIdsAsString;
+
+    private final String help;
+
+    RenderedHelp(String commandIdsAsString, String help) {
+      this.commandIdsAsString = commandIdsAsString;
+      this.help = help;
+    }
+
+  }
+
+  // #########################################################################
+  // Property change methods
+  /**
+   * Fire a property change, or defer it until the end of the {@link JssPropertyChangeBatch batch}
+   * open on the current thread.
+   *
+   * @param propertyName the name of the property.
+   * @param oldValue the old value of the property.
+   * @param newValue the new value of the property.
+   *
+   * @since 1.4.5
+   */
+  @Override
+  protected void firePropertyChange(String propertyName, Object oldValue, Object newValue) {
+    if (!JssPropertyChangeBatch.defer(this, propertyName, oldValue, newValue)) {
+      super.firePropertyChange(propertyName, oldValue, newValue);
+    }
+  }
+
+  /**
+   * Fire a property change deferred by a batch.
+   *
+   * @param propertyName the name of the property.
+   * @param oldValue the value of the property before the batch.
+   * @param newValue the value of the property after the batch.
+   */
+  final void firePropertyChangeNow(String propertyName, Object oldValue, Object newValue) {
+    super.firePropertyChange(propertyName, oldValue, newValue);
+  }
+
   /**
    * {@inheritDoc }.
    */
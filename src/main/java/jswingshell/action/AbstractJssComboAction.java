@@ -1,10 +1,13 @@
 package jswingshell.action;
 
 import java.awt.event.ActionEvent;
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
@@ -14,6 +17,7 @@ import javax.swing.Icon;
 import javax.swing.JComboBox;
 import javax.swing.JRadioButton;
 import javax.swing.JRadioButtonMenuItem;
+import javax.swing.event.ListDataEvent;
 import javax.swing.event.ListDataListener;
 
 import jswingshell.IJssController;
@@ -74,6 +78,36 @@ public abstract class AbstractJssComboAction<T> extends AbstractJssAction
    */
   private transient Collection<ComboElementAction<T>> innerElementActions =
       null;
+  /**
+   * The listener of the combo model, updating the item index and invalidating the help when items
+   * change.
+   *
+   * @since 1.4.5
+   */
+  private transient ListDataListener dataModelListener = null;
+  /**
+   * The index of the items of the combo model, {@code null} until needed.
+   *
+   * @since 1.4.5
+   */
+  private transient ItemIndex itemIndex = null;
+  /**
+   * The internal {@link ComboElementAction}s by item, {@code null} until needed.
+   *
+   * @since 1.4.5
+   */
+  private transient Map<Object, ComboElementAction<T>> innerElementActionsByItem = null;
+  /**
+   * The collection of internal {@link ComboElementAction}s indexed by item, and its size.
+   */
+  private transient Collection<ComboElementAction<T>> indexedInnerElementActions = null;
+  private transient int indexedInnerElementActionCount = 0;
+  /**
+   * Are the internal {@link ComboElementAction}s created on demand?
+   *
+   * @since 1.4.5
+   */
+  private boolean lazyInnerElements = false;
 
   // #########################################################################
   /**
@@ -100,7 +134,7 @@ public abstract class AbstractJssComboAction<T> extends AbstractJssAction
    */
   public AbstractJssComboAction(ComboBoxModel<T> model) {
     super();
-    this.dataModel = model;
+    setModel(model);
   }
 
   /**
@@ -133,7 +167,7 @@ public abstract class AbstractJssComboAction<T> extends AbstractJssAction
   public AbstractJssComboAction(ComboBoxModel<T> model,
       IJssController shellController) {
     super(shellController);
-    this.dataModel = model;
+    setModel(model);
   }
 
   /**
@@ -172,7 +206,7 @@ public abstract class AbstractJssComboAction<T> extends AbstractJssAction
   public AbstractJssComboAction(ComboBoxModel<T> model,
       IJssController shellController, String... args) {
     super(shellController, args);
-    this.dataModel = model;
+    setModel(model);
   }
 
   /**
@@ -214,7 +248,7 @@ public abstract class AbstractJssComboAction<T> extends AbstractJssAction
   public AbstractJssComboAction(ComboBoxModel<T> model, String name,
       IJssController shellController, String... args) {
     super(name, shellController, args);
-    this.dataModel = model;
+    setModel(model);
   }
 
   /**
@@ -263,7 +297,7 @@ public abstract class AbstractJssComboAction<T> extends AbstractJssAction
   public AbstractJssComboAction(ComboBoxModel<T> model, String name, Icon icon,
       IJssController shellController, String... args) {
     super(name, icon, shellController, args);
-    this.dataModel = model;
+    setModel(model);
   }
 
   // #########################################################################
@@ -273,7 +307,39 @@ public abstract class AbstractJssComboAction<T> extends AbstractJssAction
    * @param model the {@code ComboBoxModel} that provides the list of items
    */
   public final void setModel(ComboBoxModel<T> model) {
+    if (dataModel != null && dataModelListener != null) {
+      dataModel.removeListDataListener(dataModelListener);
+    }
     this.dataModel = model;
+    resetItemIndex();
+    if (model != null) {
+      if (dataModelListener == null) {
+        dataModelListener = new DataModelListener();
+      }
+      model.addListDataListener(dataModelListener);
+    }
+    invalidateHelp();
+  }
+
+  /**
+   * Listen to the combo model again once deserialized: the model does not serialize the listener,
+   * which is not {@code Serializable}.
+   *
+   * @param in the stream to read the action from.
+   *
+   * @throws IOException if the action could not be read.
+   * @throws ClassNotFoundException if the class of a field of the action could not be found.
+   *
+   * @since 1.4.5
+   */
+  private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+    in.defaultReadObject();
+    resetItemIndex();
+    if (dataModel != null) {
+      dataModelListener = new DataModelListener();
+      dataModel.addListDataListener(dataModelListener);
+    }
+    invalidateHelp();
   }
 
   /**
@@ -293,24 +359,22 @@ public abstract class AbstractJssComboAction<T> extends AbstractJssAction
    */
   @Override
   public void setSelectedItem(Object anItem) {
-    dataModel.setSelectedItem(anItem);
-    // If this is action has a default argument that corresponds to a value
-    if (getDefaultArguments() != null && getDefaultArguments().length > 1) {
-      String name = getDefaultArguments()[1];
-      if (name instanceof String) {
-        super.putValue(SELECTED_KEY,
-            getSwitchValuesByArgument().containsKey(name));
-      }
-    }
-    // If this action has a inner group and element actions
-    if (innerGroup != null) {
-      for (ComboElementAction<T> elementAction : innerElementActions) {
-        T elementActionItem = elementAction.getDataItem();
-        if ((anItem == null && anItem == elementActionItem)
-            || (anItem != null && anItem.equals(elementActionItem))) {
-          innerGroup.setSelected(elementAction, true);
+    // Fire the changes of this action and its element actions once all are selected
+    JssPropertyChangeBatch.begin();
+    try {
+      dataModel.setSelectedItem(anItem);
+      // If this is action has a default argument that corresponds to a value
+      if (getDefaultArguments() != null && getDefaultArguments().length > 1) {
+        String name = getDefaultArguments()[1];
+        if (name instanceof String) {
+          super.putValue(SELECTED_KEY,
+              getSwitchValuesByArgument().containsKey(name));
         }
       }
+      // If this action has a inner group and element actions
+      selectInnerElement(anItem);
+    } finally {
+      JssPropertyChangeBatch.end();
     }
   }
 
@@ -359,26 +423,27 @@ public abstract class AbstractJssComboAction<T> extends AbstractJssAction
   public void putValue(String key, Object newValue) {
     Object oldValue = getValue(key);
     if (oldValue == null || !oldValue.equals(newValue)) {
-      super.putValue(key, newValue);
-      // If this action has a default argument that corresponds to value
-      if (SELECTED_KEY.equals(key) && getDefaultArguments() != null
-          && getDefaultArguments().length > 1) {
-        String name = getDefaultArguments()[1];
-        Map<String, T> argumentsByValue = getSwitchValuesByArgument();
-        if (argumentsByValue != null && argumentsByValue.containsKey(name)) {
-          T item = argumentsByValue.get(name);
-          dataModel.setSelectedItem(item);
-          // If this action has a inner group and element actions
-          if (innerGroup != null) {
-            for (ComboElementAction<T> elementAction : innerElementActions) {
-              T elementActionItem = elementAction.getDataItem();
-              if ((item == null && item == elementActionItem)
-                  || (item != null && item.equals(elementActionItem))) {
-                innerGroup.setSelected(elementAction, true);
-              }
-            }
+      if (!SELECTED_KEY.equals(key)) {
+        super.putValue(key, newValue);
+        return;
+      }
+      // Fire the changes of this action and its element actions once all are selected
+      JssPropertyChangeBatch.begin();
+      try {
+        super.putValue(key, newValue);
+        // If this action has a default argument that corresponds to value
+        if (getDefaultArguments() != null && getDefaultArguments().length > 1) {
+          String name = getDefaultArguments()[1];
+          Map<String, T> argumentsByValue = getSwitchValuesByArgument();
+          if (argumentsByValue != null && argumentsByValue.containsKey(name)) {
+            T item = argumentsByValue.get(name);
+            dataModel.setSelectedItem(item);
+            // If this action has a inner group and element actions
+            selectInnerElement(item);
           }
         }
+      } finally {
+        JssPropertyChangeBatch.end();
       }
     }
   }
@@ -403,6 +468,29 @@ public abstract class AbstractJssComboAction<T> extends AbstractJssAction
    */
   @Override
   public String getHelp(IJssController shellController) {
+    String help = getCachedHelp(shellController);
+    if (help == null) {
+      help = cacheHelp(shellController, renderHelp(shellController));
+    }
+    return help;
+  }
+
+  /**
+   * Render the help of this shell command, listing all its values.
+   *
+   * <p>
+   * The rendered help is cached until the items of the combo model change.
+   * </p>
+   *
+   * @param shellController The shell controller for which we should render the action's help.
+   *
+   * @return a string describing the use of this shell command.
+   *
+   * @see #getHelp(IJssController)
+   *
+   * @since 1.4.5
+   */
+  protected String renderHelp(IJssController shellController) {
     StringBuilder stringBuilder = new StringBuilder();
 
     String commandIdsAsString = this.getCommandIdentifiersAsString();
@@ -478,6 +566,10 @@ public abstract class AbstractJssComboAction<T> extends AbstractJssAction
   /**
    * Returns the index-position of the specified object in the list.
    *
+   * <p>
+   * The index of each item is kept in a map, updated with the changes of the combo model.
+   * </p>
+   *
    * @param item a object to be found in the list
    * @return an {@code int} representing the index position, where 0 is the first position.
    *         {@code -1} if not found.
@@ -486,18 +578,10 @@ public abstract class AbstractJssComboAction<T> extends AbstractJssAction
    */
   public int getIndexOf(T item) {
     ComboBoxModel<T> model = getModel();
-    if (model instanceof DefaultComboBoxModel) {
-      return ((DefaultComboBoxModel<T>) getModel()).getIndexOf(item);
-    } else if (model != null) {
-      for (int i = 0, n = model.getSize(); i < n; i++) {
-        T currentItem = model.getElementAt(i);
-        if ((currentItem == null && item == null)
-            || (currentItem != null && currentItem.equals(item))) {
-          return i;
-        }
-      }
+    if (model == null) {
+      return -1;
     }
-    return -1;
+    return getItemIndex().getIndexOf(item);
   }
 
   @Override
@@ -570,11 +654,32 @@ public abstract class AbstractJssComboAction<T> extends AbstractJssAction
 
   protected Map<T, Collection<String>> getSwitchArgumentsByValue() {
     if (switchArgumentsByValue == null) {
+      // Index the items to follow the changes of the model from now on
+      if (dataModel != null) {
+        getItemIndex();
+      }
       switchArgumentsByValue = constructArgumentsByValue();
     }
     return switchArgumentsByValue;
   }
 
+  /**
+   * Get the argument switching this action to an item.
+   *
+   * @param value the item.
+   *
+   * @return the first argument of the item, {@code null} if the item has no argument.
+   *
+   * @see #getSwitchValuesByArgument()
+   *
+   * @since 1.4.5
+   */
+  public final String getSwitchArgumentByValue(T value) {
+    Map<T, Collection<String>> argumentsByValue = getSwitchArgumentsByValue();
+    Collection<String> arguments = argumentsByValue != null ? argumentsByValue.get(value) : null;
+    return arguments != null && !arguments.isEmpty() ? arguments.iterator().next() : null;
+  }
+
   /**
    * The actual switch operation for this action.
    *
@@ -598,21 +703,126 @@ public abstract class AbstractJssComboAction<T> extends AbstractJssAction
   protected abstract boolean doSwitch(IJssController shellController,
       T switchValue);
 
+  /**
+   * Construct the map of the items of the model with their arguments.
+   *
+   * <p>
+   * Once constructed, the map is kept up to date with the changes of the model: the arguments of
+   * the items added later are constructed with {@link #constructArgumentsForValue(Object)}. Both
+   * methods should thus be overridden together.
+   * </p>
+   *
+   * @return the map of the items with their arguments.
+   */
   protected Map<T, Collection<String>> constructArgumentsByValue() {
     Map<T, Collection<String>> argumentsByValue = new HashMap<>(this.getSize());
 
     for (int i = 0, n = this.getSize(); i < n; i++) {
       T data = this.getElementAt(i);
-      if (data != null) {
-        argumentsByValue.put(data, Collections.singleton(data.toString()));
-      } else {
-        argumentsByValue.put(data, Collections.singleton(""));
-      }
+      argumentsByValue.put(data, constructArgumentsForValue(data));
     }
 
     return argumentsByValue;
   }
 
+  /**
+   * Construct the arguments selecting an item of the model.
+   *
+   * @param value the item.
+   *
+   * @return the arguments selecting the item.
+   *
+   * @see #constructArgumentsByValue()
+   *
+   * @since 1.4.5
+   */
+  protected Collection<String> constructArgumentsForValue(T value) {
+    if (value != null) {
+      return Collections.singleton(value.toString());
+    } else {
+      return Collections.singleton("");
+    }
+  }
+
+  // #########################################################################
+  /**
+   * Get the index of the items of the model, building it if needed.
+   *
+   * @return the index of the items.
+   */
+  private ItemIndex getItemIndex() {
+    if (itemIndex == null) {
+      itemIndex = new ItemIndex(dataModel);
+    }
+    return itemIndex;
+  }
+
+  /**
+   * Drop the index of the items and the switch maps, after a change of the model which could not
+   * be followed. They are built again when next needed.
+   */
+  private void resetItemIndex() {
+    itemIndex = null;
+    switchArgumentsByValue = null;
+    switchValuesByArgument = null;
+  }
+
+  /**
+   * Add items new to the model to the switch maps.
+   *
+   * @param values the items which were not in the model before.
+   */
+  @SuppressWarnings("unchecked")
+  private void switchValuesAdded(List<Object> values) {
+    if (values.isEmpty() || switchArgumentsByValue == null) {
+      return;
+    }
+    try {
+      for (Object value : values) {
+        T item = (T) value;
+        Collection<String> arguments = constructArgumentsForValue(item);
+        switchArgumentsByValue.put(item, arguments);
+        if (switchValuesByArgument != null && arguments != null) {
+          for (String arg : arguments) {
+            switchValuesByArgument.put(arg.trim().toUpperCase(), item);
+          }
+        }
+      }
+    } catch (UnsupportedOperationException e) {
+      // The maps cannot be modified: build them again
+      switchArgumentsByValue = null;
+      switchValuesByArgument = null;
+    }
+  }
+
+  /**
+   * Remove items not in the model anymore from the switch maps.
+   *
+   * @param values the items which are not in the model anymore.
+   */
+  private void switchValuesRemoved(List<Object> values) {
+    if (values.isEmpty() || switchArgumentsByValue == null) {
+      return;
+    }
+    try {
+      for (Object value : values) {
+        Collection<String> arguments = switchArgumentsByValue.remove(value);
+        if (switchValuesByArgument != null && arguments != null) {
+          for (String arg : arguments) {
+            String key = arg.trim().toUpperCase();
+            if (Objects.equals(switchValuesByArgument.get(key), value)) {
+              switchValuesByArgument.remove(key);
+            }
+          }
+        }
+      }
+    } catch (UnsupportedOperationException e) {
+      // The maps cannot be modified: build them again
+      switchArgumentsByValue = null;
+      switchValuesByArgument = null;
+    }
+  }
+
   // #########################################################################
   /**
    * The inner action group that the internal {@link ComboElementAction} belongs to.
@@ -658,6 +868,11 @@ public abstract class AbstractJssComboAction<T> extends AbstractJssAction
    * </p>
    *
    * <p>
+   * If the inner elements are {@link #isLazyInnerElements() lazy}, only the element actions created
+   * so far by {@link #getInnerElementAction(int)} are returned.
+   * </p>
+   *
+   * <p>
    * If you need to update the model for this combo action, make sure to reset the inner elements
    * actions ({@link #resetInnerElements() }) to reflect the changes on the model.
    * </p>
@@ -670,11 +885,94 @@ public abstract class AbstractJssComboAction<T> extends AbstractJssAction
    */
   public final Collection<ComboElementAction<T>> getInnerElementActions() {
     if (innerElementActions == null) {
-      innerElementActions = initInnerElements();
+      if (lazyInnerElements) {
+        innerGroup = new ActionGroup();
+        innerElementActions = new ArrayList<>();
+      } else {
+        innerElementActions = initInnerElements();
+      }
     }
     return innerElementActions;
   }
 
+  /**
+   * Get the internal {@link ComboElementAction} referencing a combo item.
+   *
+   * <p>
+   * If the inner elements are {@link #isLazyInnerElements() lazy}, the element action is created
+   * on demand, for instance when a menu item is shown for this combo item.
+   * </p>
+   *
+   * @param index the index of the combo item.
+   *
+   * @return the element action of the item, {@code null} if the index is out of the model or the
+   *         item is {@code null}.
+   *
+   * @see #setLazyInnerElements(boolean)
+   *
+   * @since 1.4.5
+   */
+  public final ComboElementAction<T> getInnerElementAction(int index) {
+    if (dataModel == null || index < 0 || index >= dataModel.getSize()) {
+      return null;
+    }
+    T item = dataModel.getElementAt(index);
+    if (item == null) {
+      return null;
+    }
+    getInnerElementActions();
+    ComboElementAction<T> elementAction = getInnerElementActionsByItem().get(item);
+    if (elementAction == null && lazyInnerElements) {
+      elementAction = this.new ComboElementAction<>(this, item);
+      elementAction.setEnabled(this.isEnabled());
+      innerElementActions.add(elementAction);
+      innerGroup.add(elementAction);
+      innerElementActionsByItem.put(item, elementAction);
+      indexedInnerElementActionCount = innerElementActions.size();
+      if (item.equals(getSelectedItem())) {
+        // The element action of the selected item is created last
+        innerGroup.setSelected(elementAction, true);
+      }
+    }
+    return elementAction;
+  }
+
+  /**
+   * Are the internal {@link ComboElementAction}s created on demand?
+   *
+   * @return {@code true} if the element actions are created on demand.
+   *
+   * @since 1.4.5
+   */
+  public final boolean isLazyInnerElements() {
+    return lazyInnerElements;
+  }
+
+  /**
+   * Set whether the internal {@link ComboElementAction}s are created on demand.
+   *
+   * <p>
+   * By default, all the element actions are created together. For combos with many items, lazy
+   * element actions are only created by {@link #getInnerElementAction(int)}, when needed, and
+   * released together with {@link #resetInnerElements()}, for instance once a menu is hidden. The
+   * memory used by element actions thus depends on the items shown, not on the size of the combo.
+   * </p>
+   *
+   * <p>
+   * Changing the mode resets the current element actions.
+   * </p>
+   *
+   * @param lazyInnerElements {@code true} to create the element actions on demand.
+   *
+   * @since 1.4.5
+   */
+  public final void setLazyInnerElements(boolean lazyInnerElements) {
+    if (this.lazyInnerElements != lazyInnerElements) {
+      resetInnerElements();
+      this.lazyInnerElements = lazyInnerElements;
+    }
+  }
+
   /**
    * Does this action has any switch actions?
    *
@@ -712,6 +1010,50 @@ public abstract class AbstractJssComboAction<T> extends AbstractJssAction
     return innerElementActions;
   }
 
+  /**
+   * Select the internal {@link ComboElementAction} of an item in the internal {@link ActionGroup}.
+   *
+   * <p>
+   * The element actions are looked up by item in a map, built again only when the internal
+   * element actions change. If the item has no element action, for instance because the element
+   * actions are {@link #isLazyInnerElements() lazy}, the selection of the group is cleared.
+   * </p>
+   *
+   * @param item the selected item.
+   *
+   * @since 1.4.5
+   */
+  private void selectInnerElement(Object item) {
+    if (innerGroup == null || innerElementActions == null) {
+      return;
+    }
+    ComboElementAction<T> elementAction = getInnerElementActionsByItem().get(item);
+    if (elementAction != null) {
+      innerGroup.setSelected(elementAction, true);
+    } else {
+      innerGroup.clearSelection();
+    }
+  }
+
+  /**
+   * Get the internal {@link ComboElementAction}s by item, building the map again if the element
+   * actions changed.
+   *
+   * @return the element actions by item.
+   */
+  private Map<Object, ComboElementAction<T>> getInnerElementActionsByItem() {
+    if (innerElementActionsByItem == null || indexedInnerElementActions != innerElementActions
+        || indexedInnerElementActionCount != innerElementActions.size()) {
+      innerElementActionsByItem = new HashMap<>(innerElementActions.size() * 4 / 3 + 1);
+      for (ComboElementAction<T> elementAction : innerElementActions) {
+        innerElementActionsByItem.put(elementAction.getDataItem(), elementAction);
+      }
+      indexedInnerElementActions = innerElementActions;
+      indexedInnerElementActionCount = innerElementActions.size();
+    }
+    return innerElementActionsByItem;
+  }
+
   /**
    * Reset the internal {@link ComboElementAction}s and internal {@link ActionGroup}.
    *
@@ -719,21 +1061,29 @@ public abstract class AbstractJssComboAction<T> extends AbstractJssAction
    * @since 1.3
    */
   public void resetInnerElements() {
-    if (innerElementActions != null) {
-      for (ComboElementAction<T> elementAction : innerElementActions) {
-        elementAction.setSelected(false);
-        if (elementAction.getGroup() != null
-            && elementAction.getGroup() == innerGroup) {
-          elementAction.getGroup().remove(elementAction);
-          elementAction.setGroup(null);
+    // Fire the unselection of the element actions once all are released
+    JssPropertyChangeBatch.begin();
+    try {
+      if (innerElementActions != null) {
+        for (ComboElementAction<T> elementAction : innerElementActions) {
+          elementAction.setSelected(false);
+          if (elementAction.getGroup() != null
+              && elementAction.getGroup() == innerGroup) {
+            elementAction.getGroup().remove(elementAction);
+            elementAction.setGroup(null);
+          }
         }
+        innerElementActions.clear();
+        innerElementActions = null;
       }
-      innerElementActions.clear();
-      innerElementActions = null;
-    }
-    if (innerGroup != null) {
-      innerGroup.clearSelection();
-      innerGroup = null;
+      innerElementActionsByItem = null;
+      indexedInnerElementActions = null;
+      if (innerGroup != null) {
+        innerGroup.clearSelection();
+        innerGroup = null;
+      }
+    } finally {
+      JssPropertyChangeBatch.end();
     }
   }
 
@@ -895,4 +1245,237 @@ public abstract class AbstractJssComboAction<T> extends AbstractJssAction
     }
 
   }
+
+  // #########################################################################
+  /**
+   * The index of the items of a combo model.
+   *
+   * <p>
+   * The index mirrors the items of the model and counts the occurrences of each item, both updated
+   * with each change of the model. It also maps each item to the index of its first occurrence.
+   * Items added or removed at the end of the model keep that map up to date. Other changes shift
+   * the index of the following items, so the map is built again from the mirror when next needed.
+   * </p>
+   */
+  private static final class ItemIndex {
+
+    /**
+     * The indexed items, in the order of the model.
+     */
+    private final ArrayList<Object> items;
+
+    /**
+     * The number of occurrences of each item.
+     */
+    private final Map<Object, Integer> countByItem;
+
+    /**
+     * The index of the first occurrence of each item, {@code null} until needed.
+     */
+    private Map<Object, Integer> indexByItem;
+
+    ItemIndex(ComboBoxModel<?> model) {
+      int size = model.getSize();
+      items = new ArrayList<>(size);
+      countByItem = new HashMap<>(size * 4 / 3 + 1);
+      for (int i = 0; i < size; i++) {
+        Object item = model.getElementAt(i);
+        items.add(item);
+        increment(item);
+      }
+    }
+
+    int getIndexOf(Object item) {
+      if (indexByItem == null) {
+        indexByItem = new HashMap<>(countByItem.size() * 4 / 3 + 1);
+        for (int i = 0, n = items.size(); i < n; i++) {
+          Object currentItem = items.get(i);
+          if (!indexByItem.containsKey(currentItem)) {
+            indexByItem.put(currentItem, i);
+          }
+        }
+      }
+      Integer index = indexByItem.get(item);
+      return index != null ? index : -1;
+    }
+
+    /**
+     * Count an occurrence of an item.
+     *
+     * @param item the item.
+     *
+     * @return {@code true} if it is the first occurrence of the item.
+     */
+    private boolean increment(Object item) {
+      Integer count = countByItem.get(item);
+      countByItem.put(item, count != null ? count + 1 : 1);
+      return count == null;
+    }
+
+    /**
+     * Uncount an occurrence of an item.
+     *
+     * @param item the item.
+     *
+     * @return {@code true} if it was the last occurrence of the item.
+     */
+    private boolean decrement(Object item) {
+      Integer count = countByItem.get(item);
+      if (count == null || count <= 1) {
+        countByItem.remove(item);
+        return true;
+      }
+      countByItem.put(item, count - 1);
+      return false;
+    }
+
+    /**
+     * Index the items added to the model.
+     *
+     * @param model the combo model.
+     * @param index0 the index of the first added item.
+     * @param index1 the index of the last added item.
+     *
+     * @return the items which were not in the model before.
+     */
+    List<Object> intervalAdded(ComboBoxModel<?> model, int index0, int index1) {
+      boolean appended = index0 == items.size();
+      List<Object> newItems = new ArrayList<>(index1 - index0 + 1);
+      for (int i = index0; i <= index1; i++) {
+        Object item = model.getElementAt(i);
+        items.add(i, item);
+        if (increment(item)) {
+          newItems.add(item);
+        }
+        if (appended && indexByItem != null && !indexByItem.containsKey(item)) {
+          indexByItem.put(item, i);
+        }
+      }
+      if (!appended) {
+        indexByItem = null;
+      }
+      return newItems;
+    }
+
+    /**
+     * Remove the items removed from the model.
+     *
+     * @param index0 the index of the first removed item.
+     * @param index1 the index of the last removed item.
+     *
+     * @return the items which are not in the model anymore.
+     */
+    List<Object> intervalRemoved(int index0, int index1) {
+      boolean truncated = index1 == items.size() - 1;
+      List<Object> oldItems = new ArrayList<>(index1 - index0 + 1);
+      for (int i = index1; i >= index0; i--) {
+        Object item = items.remove(i);
+        if (decrement(item)) {
+          oldItems.add(item);
+        }
+        if (truncated && indexByItem != null) {
+          Integer index = indexByItem.get(item);
+          if (index != null && index == i) {
+            indexByItem.remove(item);
+          }
+        }
+      }
+      if (!truncated) {
+        indexByItem = null;
+      }
+      return oldItems;
+    }
+
+    /**
+     * Replace the items changed in the model.
+     *
+     * @param model the combo model.
+     * @param index the index of the changed item.
+     * @param oldItems the items which are not in the model anymore.
+     * @param newItems the items which were not in the model before.
+     */
+    void contentsChanged(ComboBoxModel<?> model, int index, List<Object> oldItems,
+        List<Object> newItems) {
+      Object item = model.getElementAt(index);
+      Object oldItem = items.set(index, item);
+      if (Objects.equals(item, oldItem)) {
+        return;
+      }
+      if (decrement(oldItem)) {
+        oldItems.add(oldItem);
+      }
+      if (increment(item)) {
+        newItems.add(item);
+      }
+      indexByItem = null;
+    }
+
+    int size() {
+      return items.size();
+    }
+
+  }
+
+  // #########################################################################
+  /**
+   * A listener of the combo model, updating the item index, the switch maps and invalidating the
+   * help when items change.
+   *
+   * <p>
+   * Changes of the selection alone do not invalidate the help.
+   * </p>
+   */
+  private final class DataModelListener implements ListDataListener {
+
+    @Override
+    public void intervalAdded(ListDataEvent e) {
+      int index0 = Math.min(e.getIndex0(), e.getIndex1());
+      int index1 = Math.max(e.getIndex0(), e.getIndex1());
+      if (itemIndex != null && index0 >= 0 && index0 <= itemIndex.size()
+          && itemIndex.size() + index1 - index0 + 1 == dataModel.getSize()) {
+        switchValuesAdded(itemIndex.intervalAdded(dataModel, index0, index1));
+      } else {
+        resetItemIndex();
+      }
+      invalidateHelp();
+    }
+
+    @Override
+    public void intervalRemoved(ListDataEvent e) {
+      int index0 = Math.min(e.getIndex0(), e.getIndex1());
+      int index1 = Math.max(e.getIndex0(), e.getIndex1());
+      if (itemIndex != null && index0 >= 0 && index1 < itemIndex.size()
+          && itemIndex.size() - index1 + index0 - 1 == dataModel.getSize()) {
+        switchValuesRemoved(itemIndex.intervalRemoved(index0, index1));
+      } else {
+        resetItemIndex();
+      }
+      invalidateHelp();
+    }
+
+    @Override
+    public void contentsChanged(ListDataEvent e) {
+      // A combo model signals a selection change with an interval of -1
+      int index0 = Math.min(e.getIndex0(), e.getIndex1());
+      int index1 = Math.max(e.getIndex0(), e.getIndex1());
+      if (index1 < 0) {
+        return;
+      }
+      if (itemIndex != null && index0 >= 0 && index1 < itemIndex.size()
+          && itemIndex.size() == dataModel.getSize()) {
+        List<Object> oldItems = new ArrayList<>();
+        List<Object> newItems = new ArrayList<>();
+        for (int i = index0; i <= index1; i++) {
+          itemIndex.contentsChanged(dataModel, i, oldItems, newItems);
+        }
+        switchValuesRemoved(oldItems);
+        switchValuesAdded(newItems);
+      } else {
+        resetItemIndex();
+      }
+      invalidateHelp();
+    }
+
+  }
+
 }
@@ -0,0 +1,96 @@
+package jswingshell.action;
+
+import javax.swing.Icon;
+
+import jswingshell.IJssController;
+
+/**
+ * A {@code AbstractJssStreamAction} is an action producing and/or consuming records, which can be
+ * chained with other stream actions through pipes.
+ *
+ * <p>
+ * When the action is run on its own, its input is empty and the records it writes are published to
+ * the shell.
+ * </p>
+ *
+ * @see IJssStreamAction
+ *
+ * @author Mathieu Brunot
+ *
+ * @since 1.4.5
+ */
+public abstract class AbstractJssStreamAction extends AbstractJssAction
+    implements IJssStreamAction {
+
+  /**
+   * The {@code serialVersionUID}.
+   */
+  private static final long serialVersionUID = -2404566452932213085L;
+
+  // #########################################################################
+  public AbstractJssStreamAction(String name, Icon icon, IJssController shellController,
+      String... args) {
+    super(name, icon, shellController, args);
+  }
+
+  public AbstractJssStreamAction(String name, IJssController shellController, String... args) {
+    super(name, shellController, args);
+  }
+
+  public AbstractJssStreamAction(IJssController shellController, String... args) {
+    super(shellController, args);
+  }
+
+  public AbstractJssStreamAction(IJssController shellController) {
+    super(shellController);
+  }
+
+  public AbstractJssStreamAction() {
+    super();
+  }
+
+  // #########################################################################
+  /**
+   * Run the action on its own, publishing its records to the shell.
+   *
+   * @param shellController the shell controller for which to execute the action
+   *
+   * @param args the arguments given to the action.
+   *
+   * @return the return status code of the action.
+   */
+  @Override
+  public int run(final IJssController shellController, String... args) {
+    JssPipe input = new JssPipe(1);
+    input.closeWriter();
+    IJssRecordWriter output = new IJssRecordWriter() {
+
+      @Override
+      public boolean write(String record) {
+        if (record == null) {
+          throw new IllegalArgumentException("A record cannot be null!");
+        }
+        if (shellController != null) {
+          shellController.publish(IJssController.PublicationLevel.SUCCESS, record);
+        }
+        return true;
+      }
+
+    };
+
+    try {
+      return run(shellController, input, output, args);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return IJssAction.ERROR;
+    }
+  }
+
+  /**
+   * {@inheritDoc }.
+   */
+  @Override
+  public abstract int run(IJssController shellController, IJssRecordReader input,
+      IJssRecordWriter output, String... args) throws InterruptedException;
+
+}
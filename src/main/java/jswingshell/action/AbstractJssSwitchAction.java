@@ -255,8 +255,8 @@ public abstract class AbstractJssSwitchAction extends AbstractJssAction {
    * Get an extensive text describing the use of this shell command in regards to a given shell.
    *
    * <p>
-   * It is highly recommended when extending {@code AbstractJssSwitchAction} to cache the command
-   * help generated in order to <strong>not</strong> construct it again on each call.
+   * The help is cached for each shell controller until the command identifiers change or the help
+   * is {@link #invalidateHelp() invalidated}.
    * </p>
    *
    * @param shellController The shell controller for which we should retrieve the action's help.
@@ -266,7 +266,11 @@ public abstract class AbstractJssSwitchAction extends AbstractJssAction {
    */
   @Override
   public String getHelp(IJssController shellController) {
-    return getHelp(this, shellController);
+    String help = getCachedHelp(shellController);
+    if (help == null) {
+      help = cacheHelp(shellController, getHelp(this, shellController));
+    }
+    return help;
   }
 
   @Override
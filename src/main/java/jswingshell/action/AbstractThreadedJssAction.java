@@ -1,12 +1,16 @@
 package jswingshell.action;
 
-import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
 
 import javax.swing.Icon;
 import javax.swing.SwingWorker;
 
+import jswingshell.AbstractJssController;
 import jswingshell.IJssController;
 
 /**
@@ -28,10 +32,15 @@ public abstract class AbstractThreadedJssAction extends AbstractJssAction {
   /**
    * List of all currently active threads of this action.
    *
+   * <p>
+   * Workers are added by the thread running the action and removed on the <i>Event Dispatch
+   * Thread</i>, so the list is safe for concurrent use.
+   * </p>
+   *
    * @since 1.4
    */
   private final transient List<AbstractJssActionWorker> activeWorkers =
-      new ArrayList<>();
+      new CopyOnWriteArrayList<>();
 
   // #########################################################################
   public AbstractThreadedJssAction(String name, Icon icon,
@@ -85,6 +94,10 @@ public abstract class AbstractThreadedJssAction extends AbstractJssAction {
       if (shellController != null) {
         shellController.lockCommandLine();
       }
+      worker.cancellationToken = shellController instanceof AbstractJssController
+          ? ((AbstractJssController) shellController).createCancellationToken()
+          : new JssCancellationToken();
+      worker.startNanos = System.nanoTime();
       worker.execute();
     } else {
       commandReturnStatus = IJssAction.ERROR;
@@ -134,13 +147,15 @@ public abstract class AbstractThreadedJssAction extends AbstractJssAction {
   public final boolean cancel(IJssController shellController,
       boolean mayInterruptIfRunning) {
     boolean cancelled = true;
-    List<AbstractJssActionWorker> workers = new ArrayList<>(activeWorkers);
-    for (AbstractThreadedJssAction.AbstractJssActionWorker worker : workers) {
+    Set<AbstractJssActionWorker> cancelledWorkers = new HashSet<>();
+    for (AbstractThreadedJssAction.AbstractJssActionWorker worker : activeWorkers) {
       if (worker.getShellController() == shellController) {
         cancelled &= worker.cancel(mayInterruptIfRunning);
-        activeWorkers.remove(worker);
+        worker.getCancellationToken().cancel();
+        cancelledWorkers.add(worker);
       }
     }
+    activeWorkers.removeAll(cancelledWorkers);
     return cancelled;
   }
 
@@ -272,6 +287,23 @@ public abstract class AbstractThreadedJssAction extends AbstractJssAction {
      */
     final IJssController shellController;
 
+    /**
+     * The time at which the worker was executed, in nanoseconds.
+     */
+    long startNanos;
+
+    /**
+     * The token polled by the worker to stop its computation.
+     */
+    volatile JssCancellationToken cancellationToken;
+
+    /**
+     * The callback run once the worker is done, released afterwards.
+     */
+    private Runnable completionCallback;
+
+    private boolean completed = false;
+
     /**
      * Construct a worker for a shell environment.
      *
@@ -306,6 +338,115 @@ public abstract class AbstractThreadedJssAction extends AbstractJssAction {
       super.done();
       // Remove the current worker from the action's active workers list
       AbstractThreadedJssAction.this.activeWorkers.remove(this);
+      recordMetrics();
+      // Release the resources of a worker cancelled directly through SwingWorker#cancel
+      JssCancellationToken token = getCancellationToken();
+      if (isCancelled()) {
+        token.cancel();
+      }
+      token.detach();
+
+      Runnable callback;
+      synchronized (this) {
+        completed = true;
+        callback = completionCallback;
+        completionCallback = null;
+      }
+      if (callback != null) {
+        callback.run();
+      }
+    }
+
+    /**
+     * Set the callback run once the worker is done.
+     *
+     * <p>
+     * A worker has a single completion callback, run on the <i>Event Dispatch Thread</i> once the
+     * worker is done, even if it was cancelled, and then released. Unlike a property change
+     * listener, a completion callback thus does not keep its owner reachable from ended workers.
+     * If the worker is already done, the callback is run immediately.
+     * </p>
+     *
+     * @param callback the new completion callback, replacing the previous one, {@code null} to
+     *        remove it.
+     *
+     * @since 1.4.5
+     */
+    public void setCompletionCallback(Runnable callback) {
+      synchronized (this) {
+        if (!completed) {
+          completionCallback = callback;
+          return;
+        }
+      }
+      if (callback != null) {
+        callback.run();
+      }
+    }
+
+    /**
+     * Get the token polled by the worker to stop its computation.
+     *
+     * <p>
+     * The token is cancelled when the action is {@link AbstractThreadedJssAction#cancel(
+     * IJssController, boolean) cancelled}, and its deadline is the timeout given to
+     * {@link AbstractJssController#interpretCommand(String, long, java.util.concurrent.TimeUnit)}
+     * , if any.
+     * </p>
+     *
+     * @return the cancellation token of the worker.
+     *
+     * @since 1.4.5
+     */
+    public JssCancellationToken getCancellationToken() {
+      if (cancellationToken == null) {
+        synchronized (this) {
+          if (cancellationToken == null) {
+            cancellationToken = new JssCancellationToken();
+          }
+        }
+      }
+      return cancellationToken;
+    }
+
+    /**
+     * Should the worker stop its computation?
+     *
+     * <p>
+     * Long computations should poll this method regularly rather than relying on thread
+     * interruption, so that they stop promptly and release their resources.
+     * </p>
+     *
+     * @return {@code true} if the worker was cancelled or its cancellation token requests
+     *         cancellation.
+     *
+     * @since 1.4.5
+     */
+    public boolean isCancellationRequested() {
+      return isCancelled() || getCancellationToken().isCancellationRequested();
+    }
+
+    /**
+     * Record the latency of the worker in the metrics of its shell controller.
+     *
+     * @since 1.4.5
+     */
+    private void recordMetrics() {
+      if (!(shellController instanceof AbstractJssController) || startNanos == 0) {
+        return;
+      }
+      boolean failed = isCancelled();
+      if (!failed) {
+        try {
+          Integer status = get();
+          failed = status == null || status != IJssAction.SUCCESS;
+        } catch (InterruptedException | ExecutionException e) {
+          failed = true;
+        }
+      }
+      ((AbstractJssController) shellController).getCommandMetrics().record(
+          getParentAction().getDefaultCommandIdentifier(), System.nanoTime() - startNanos,
+          failed);
     }
 
     /**
@@ -1,9 +1,9 @@
 package jswingshell.action;
 
 import java.io.Serializable;
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 
 /**
  * This class is used to create a multiple-exclusion scope for a set of actions.
@@ -19,6 +19,10 @@ import java.util.Collections;
  * <p>
  * Initially, all actions in the group are unselected.
  * </p>
+ * <p>
+ * Actions are kept in a hash set, in the order they were added: adding, removing or looking up an
+ * action takes a constant time, whatever the size of the group.
+ * </p>
  *
  * @author Mathieu Brunot
  *
@@ -33,9 +37,9 @@ public class ActionGroup implements Serializable {
   private static final long serialVersionUID = -5167756801967255818L;
 
   /**
-   * The list of actions participating in this group.
+   * The actions participating in this group.
    */
-  protected Collection<AbstractJssSwitchAction> actions = new ArrayList<>();
+  protected Collection<AbstractJssSwitchAction> actions = new LinkedHashSet<>();
 
   /**
    * The current selection.
@@ -85,6 +89,38 @@ public class ActionGroup implements Serializable {
     a.setGroup(null);
   }
 
+  /**
+   * Removes all the actions from the group.
+   *
+   * <p>
+   * The selection of the actions is left unchanged, as when they are removed one by one.
+   * </p>
+   *
+   * @since 1.4.5
+   */
+  public void clear() {
+    if (actions == null || actions.isEmpty()) {
+      return;
+    }
+    for (AbstractJssSwitchAction action : actions) {
+      action.setGroup(null);
+    }
+    actions.clear();
+    selection = null;
+  }
+
+  /**
+   * Returns whether an action participates in this group.
+   *
+   * @param a the action
+   * @return {@code true} if the action is in the group
+   *
+   * @since 1.4.5
+   */
+  public boolean contains(AbstractJssSwitchAction a) {
+    return a != null && actions != null && actions.contains(a);
+  }
+
   /**
    * Clears the selection such that none of the actions in the {@code ActionGroup} are selected.
    */
@@ -118,17 +154,28 @@ public class ActionGroup implements Serializable {
    * Sets the selected value for the {@code AbstractJssSwitchAction}. Only one action in the group
    * may be selected at a time.
    *
+   * <p>
+   * The property changes of the actions are fired in a {@link JssPropertyChangeBatch}, once both
+   * the previous and the new selection are updated.
+   * </p>
+   *
    * @param a the {@code AbstractJssSwitchAction}
    * @param b {@code true} if this action is to be selected, otherwise {@code false}
    */
   public void setSelected(AbstractJssSwitchAction a, boolean b) {
     if (b && a != null && a != selection) {
-      AbstractJssSwitchAction oldSelection = selection;
-      selection = a;
-      if (oldSelection != null) {
-        oldSelection.setSelected(false);
+      // Fire the changes once both actions are updated
+      JssPropertyChangeBatch.begin();
+      try {
+        AbstractJssSwitchAction oldSelection = selection;
+        selection = a;
+        if (oldSelection != null) {
+          oldSelection.setSelected(false);
+        }
+        a.setSelected(true);
+      } finally {
+        JssPropertyChangeBatch.end();
       }
-      a.setSelected(true);
     }
   }
 
@@ -172,8 +219,14 @@ public class ActionGroup implements Serializable {
       return;
     }
 
-    for (AbstractJssSwitchAction action : actions) {
-      action.setEnabled(newValue);
+    // Fire the changes once all the actions are updated
+    JssPropertyChangeBatch.begin();
+    try {
+      for (AbstractJssSwitchAction action : actions) {
+        action.setEnabled(newValue);
+      }
+    } finally {
+      JssPropertyChangeBatch.end();
     }
   }
 }
@@ -0,0 +1,20 @@
+package jswingshell.action;
+
+/**
+ * Marker interface for switch and combo actions whose switch does not depend on other actions.
+ *
+ * <p>
+ * When a {@link JssActionStateSnapshot snapshot} is restored, the switches of independent actions
+ * run concurrently, on other threads than the <i>Event Dispatch Thread</i>. Their
+ * {@code doSwitch} method should thus be thread-safe, should not access any Swing component, and
+ * should not publish messages to the shell controller. The selection of the actions is updated
+ * afterwards, on the thread restoring the snapshot.
+ * </p>
+ *
+ * @author Mathieu Brunot
+ *
+ * @since 1.4.5
+ */
+public interface IJssIndependentAction extends IJssAction {
+
+}
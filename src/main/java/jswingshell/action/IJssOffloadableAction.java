@@ -0,0 +1,23 @@
+package jswingshell.action;
+
+/**
+ * Marker interface for synchronous actions which may be run off the <i>Event Dispatch Thread</i>.
+ *
+ * <p>
+ * A slow synchronous action is only {@link JssOffloadedAction offloaded} to a worker if it opts in
+ * by implementing this interface. Its {@code run} method is then called on the worker thread: it
+ * may publish messages and read the shell through the given controller, but it should not change
+ * any state bound to Swing components, such as the values of an action, since their property
+ * changes would be fired off the <i>Event Dispatch Thread</i>. Switch and combo actions, which
+ * update their selection when run, are thus never offloaded.
+ * </p>
+ *
+ * @see jswingshell.AbstractJssController#shouldOffload(IJssAction)
+ *
+ * @author Mathieu Brunot
+ *
+ * @since 1.4.5
+ */
+public interface IJssOffloadableAction extends IJssAction {
+
+}
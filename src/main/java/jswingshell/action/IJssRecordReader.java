@@ -0,0 +1,23 @@
+package jswingshell.action;
+
+/**
+ * The input of a stream action: a source of records read one at a time.
+ *
+ * @see IJssStreamAction
+ *
+ * @author Mathieu Brunot
+ *
+ * @since 1.4.5
+ */
+public interface IJssRecordReader {
+
+  /**
+   * Read the next record, waiting for it to be available if needed.
+   *
+   * @return the next record, or {@code null} once all records were read.
+   *
+   * @throws InterruptedException if interrupted while waiting.
+   */
+  public String read() throws InterruptedException;
+
+}
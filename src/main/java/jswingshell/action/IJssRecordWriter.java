@@ -0,0 +1,27 @@
+package jswingshell.action;
+
+/**
+ * The output of a stream action: a sink of records written one at a time.
+ *
+ * @see IJssStreamAction
+ *
+ * @author Mathieu Brunot
+ *
+ * @since 1.4.5
+ */
+public interface IJssRecordWriter {
+
+  /**
+   * Write a record, waiting for some room to be available if needed.
+   *
+   * @param record the record to write.
+   *
+   * @return {@code true} if the record was written, {@code false} if the records are not read
+   *         anymore, in which case the writer should stop producing records.
+   *
+   * @throws InterruptedException if interrupted while waiting.
+   * @throws IllegalArgumentException if the record is {@code null}.
+   */
+  public boolean write(String record) throws InterruptedException;
+
+}
@@ -0,0 +1,48 @@
+package jswingshell.action;
+
+import jswingshell.IJssController;
+
+/**
+ * Interface for shell actions which can be chained through pipes.
+ *
+ * <p>
+ * In a command line such as {@code cmd1 args | cmd2 args}, each command is a stage of a
+ * {@link JssPipeline}: the records written by a stage are read by the next one, and the records
+ * written by the last stage are published to the shell. Stages run concurrently, each on its own
+ * thread, and are connected by bounded {@link JssPipe pipes} so that memory usage does not depend
+ * on the number of records going through the pipeline.
+ * </p>
+ *
+ * @author Mathieu Brunot
+ *
+ * @since 1.4.5
+ */
+public interface IJssStreamAction extends IJssAction {
+
+  /**
+   * Run the action as a stage of a pipeline.
+   *
+   * <p>
+   * This method is not called on the <i>Event Dispatch Thread</i>: it should not access any Swing
+   * component, nor publish messages to the shell controller. Results are written to the output,
+   * and failures are reported through the return status code.
+   * </p>
+   *
+   * <p>
+   * The action should stop as soon as the output returns {@code false}, since its records will
+   * not be read anymore.
+   * </p>
+   *
+   * @param shellController the shell controller for which to execute the action.
+   * @param input the records written by the previous stage. It is empty for the first stage.
+   * @param output the records read by the next stage.
+   * @param args the arguments given to the action.
+   *
+   * @return the return status code of the action.
+   *
+   * @throws InterruptedException if the pipeline was cancelled.
+   */
+  public int run(IJssController shellController, IJssRecordReader input, IJssRecordWriter output,
+      String... args) throws InterruptedException;
+
+}
@@ -0,0 +1,368 @@
+package jswingshell.action;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import jswingshell.IJssController;
+
+/**
+ * A snapshot of the state of switch and combo actions, restored at once.
+ *
+ * <p>
+ * The snapshot keeps the selection of each {@link AbstractJssSwitchAction} and the selected item
+ * of each {@link AbstractJssComboAction}, in two arrays. Restoring the snapshot only switches the
+ * actions whose state changed since, without parsing any command. The switches of the
+ * {@link IJssIndependentAction independent actions} run concurrently, while the other actions are
+ * switched one by one on the thread restoring the snapshot. The selection of the switched actions
+ * is then updated in a single {@link JssPropertyChangeBatch batch}.
+ * </p>
+ *
+ * <p>
+ * The element actions of a combo action are not captured: their state follows the selected item of
+ * their combo.
+ * </p>
+ *
+ * @author Mathieu Brunot
+ *
+ * @since 1.4.5
+ */
+public final class JssActionStateSnapshot {
+
+  /**
+   * Logger.
+   */
+  private static final Logger LOGGER = Logger.getLogger(JssActionStateSnapshot.class.getName());
+
+  private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+  /**
+   * The captured actions, switch or combo actions.
+   */
+  private final AbstractJssAction[] actions;
+
+  /**
+   * The state of each captured action: its selection or its selected item.
+   */
+  private final Object[] states;
+
+  private JssActionStateSnapshot(AbstractJssAction[] actions, Object[] states) {
+    this.actions = actions;
+    this.states = states;
+  }
+
+  // #########################################################################
+  /**
+   * Capture the state of the switch and combo actions of a collection. Other actions are ignored.
+   *
+   * @param actions the actions.
+   *
+   * @return the snapshot of the actions.
+   */
+  public static JssActionStateSnapshot capture(Collection<? extends IJssAction> actions) {
+    if (actions == null || actions.isEmpty()) {
+      return new JssActionStateSnapshot(new AbstractJssAction[0], new Object[0]);
+    }
+    AbstractJssAction[] capturedActions = new AbstractJssAction[actions.size()];
+    Object[] capturedStates = new Object[actions.size()];
+    int count = 0;
+    for (IJssAction action : actions) {
+      if (action instanceof AbstractJssComboAction) {
+        capturedActions[count] = (AbstractJssAction) action;
+        capturedStates[count++] = ((AbstractJssComboAction<?>) action).getSelectedItem();
+      } else if (action instanceof AbstractJssSwitchAction
+          && !(action instanceof AbstractJssComboAction.ComboElementAction)) {
+        Boolean selected = ((AbstractJssSwitchAction) action).isSelected();
+        if (selected != null) {
+          capturedActions[count] = (AbstractJssAction) action;
+          capturedStates[count++] = selected;
+        }
+      }
+    }
+    return new JssActionStateSnapshot(Arrays.copyOf(capturedActions, count),
+        Arrays.copyOf(capturedStates, count));
+  }
+
+  /**
+   * Create a snapshot of given states of switch and combo actions, such as states saved in a
+   * previous session.
+   *
+   * @param actions the switch and combo actions.
+   * @param states the state of each action: the selection of a switch action, or the selected item
+   *        of a combo action.
+   *
+   * @return the snapshot of the actions.
+   *
+   * @throws IllegalArgumentException if there is not one state for each action, if an action is
+   *         neither a switch nor a combo action, or if the state of a switch action is not a
+   *         {@link Boolean}.
+   */
+  public static JssActionStateSnapshot of(List<? extends IJssAction> actions, List<?> states) {
+    if (actions == null || states == null || actions.size() != states.size()) {
+      throw new IllegalArgumentException("One state is required for each action!");
+    }
+    AbstractJssAction[] snapshotActions = new AbstractJssAction[actions.size()];
+    Object[] snapshotStates = new Object[states.size()];
+    for (int i = 0; i < snapshotActions.length; i++) {
+      IJssAction action = actions.get(i);
+      Object state = states.get(i);
+      if (!(action instanceof AbstractJssComboAction)
+          && (!(action instanceof AbstractJssSwitchAction)
+              || action instanceof AbstractJssComboAction.ComboElementAction)) {
+        throw new IllegalArgumentException("Not a switch or combo action: " + action);
+      }
+      if (!(action instanceof AbstractJssComboAction) && !(state instanceof Boolean)) {
+        throw new IllegalArgumentException("Invalid state of switch action: " + state);
+      }
+      snapshotActions[i] = (AbstractJssAction) action;
+      snapshotStates[i] = state;
+    }
+    return new JssActionStateSnapshot(snapshotActions, snapshotStates);
+  }
+
+  /**
+   * Get the number of captured actions.
+   *
+   * @return the number of captured actions.
+   */
+  public int size() {
+    return actions.length;
+  }
+
+  /**
+   * Get the captured actions.
+   *
+   * @return the captured actions, in the order they were captured.
+   */
+  public List<IJssAction> getActions() {
+    return Collections.<IJssAction>unmodifiableList(Arrays.asList(actions));
+  }
+
+  /**
+   * Get the captured state of an action.
+   *
+   * @param index the index of the action, in the order they were captured.
+   *
+   * @return the selection of a switch action, or the selected item of a combo action.
+   */
+  public Object getState(int index) {
+    return states[index];
+  }
+
+  /**
+   * Is an action in the same state as when it was captured?
+   *
+   * @param index the index of the action, in the order they were captured.
+   *
+   * @return {@code true} if the action is in its captured state.
+   */
+  private boolean isRestored(int index) {
+    AbstractJssAction action = actions[index];
+    Object currentState = action instanceof AbstractJssComboAction
+        ? ((AbstractJssComboAction<?>) action).getSelectedItem()
+        : ((AbstractJssSwitchAction) action).isSelected();
+    return Objects.equals(currentState, states[index]);
+  }
+
+  // #########################################################################
+  /**
+   * Restore the captured state of the actions.
+   *
+   * <p>
+   * The switches of the independent actions run on a pool of threads created for the restore.
+   * </p>
+   *
+   * @param shellController the shell controller for which to switch the actions.
+   *
+   * @return {@link IJssAction#SUCCESS} if all actions were restored, {@link IJssAction#ERROR}
+   *         otherwise.
+   *
+   * @see #restore(IJssController, ExecutorService)
+   */
+  public int restore(IJssController shellController) {
+    return restore(shellController, null);
+  }
+
+  /**
+   * Restore the captured state of the actions.
+   *
+   * <p>
+   * Only the actions whose state changed since the capture are switched. The switches of the
+   * independent actions are submitted to the executor, while the other actions are switched one by
+   * one on the current thread. Once all switches are done, the selection of the switched actions is
+   * updated in a single batch. The actions whose switch failed keep their current state.
+   * </p>
+   *
+   * @param shellController the shell controller for which to switch the actions.
+   * @param executor the executor running the switches of the independent actions, or
+   *        {@code null} to run them on a pool of threads created for the restore.
+   *
+   * @return {@link IJssAction#SUCCESS} if all actions were restored, {@link IJssAction#ERROR}
+   *         otherwise.
+   */
+  public int restore(IJssController shellController, ExecutorService executor) {
+    List<Integer> independentIndexes = new ArrayList<>();
+    List<Integer> dependentIndexes = new ArrayList<>();
+    for (int i = 0; i < actions.length; i++) {
+      if (!isRestored(i)) {
+        if (actions[i] instanceof IJssIndependentAction) {
+          independentIndexes.add(i);
+        } else {
+          dependentIndexes.add(i);
+        }
+      }
+    }
+    if (independentIndexes.isEmpty() && dependentIndexes.isEmpty()) {
+      return IJssAction.SUCCESS;
+    }
+
+    boolean[] switched = new boolean[actions.length];
+    ExecutorService ownExecutor = null;
+    List<Future<Boolean>> futures = new ArrayList<>(independentIndexes.size());
+    try {
+      if (independentIndexes.size() > 1) {
+        if (executor == null) {
+          ownExecutor = Executors.newFixedThreadPool(
+              Math.min(independentIndexes.size(), Runtime.getRuntime().availableProcessors()),
+              new RestoreThreadFactory());
+          executor = ownExecutor;
+        }
+        for (Integer index : independentIndexes) {
+          futures.add(executor.submit(new SwitchTask(shellController, actions[index],
+              states[index])));
+        }
+      } else {
+        // A single independent action is not worth another thread
+        dependentIndexes.addAll(independentIndexes);
+        independentIndexes.clear();
+      }
+
+      for (Integer index : dependentIndexes) {
+        switched[index] = doSwitch(shellController, actions[index], states[index]);
+      }
+      for (int i = 0; i < futures.size(); i++) {
+        switched[independentIndexes.get(i)] = getSwitchResult(futures.get(i));
+      }
+    } finally {
+      if (ownExecutor != null) {
+        ownExecutor.shutdownNow();
+      }
+    }
+
+    // Update the selection of all the switched actions at once
+    JssPropertyChangeBatch.begin();
+    try {
+      for (int i = 0; i < actions.length; i++) {
+        if (switched[i]) {
+          if (actions[i] instanceof AbstractJssComboAction) {
+            ((AbstractJssComboAction<?>) actions[i]).setSelectedItem(states[i]);
+          } else {
+            ((AbstractJssSwitchAction) actions[i]).setSelected((Boolean) states[i]);
+          }
+        }
+      }
+    } finally {
+      JssPropertyChangeBatch.end();
+    }
+    int switchedCount = 0;
+    for (boolean actionSwitched : switched) {
+      if (actionSwitched) {
+        switchedCount++;
+      }
+    }
+    return switchedCount == dependentIndexes.size() + independentIndexes.size()
+        ? IJssAction.SUCCESS : IJssAction.ERROR;
+  }
+
+  /**
+   * Wait for the switch of an independent action.
+   *
+   * @param future the result of the switch.
+   *
+   * @return {@code true} if the switch was done.
+   */
+  private static boolean getSwitchResult(Future<Boolean> future) {
+    try {
+      return future.get();
+    } catch (ExecutionException e) {
+      LOGGER.log(Level.WARNING, "Action switch failed", e.getCause());
+      return false;
+    } catch (InterruptedException e) {
+      future.cancel(true);
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  /**
+   * Run the switch of an action.
+   *
+   * @param shellController the shell controller for which to switch the action.
+   * @param action the switch or combo action.
+   * @param state the state to switch to.
+   *
+   * @return {@code true} if the switch was done.
+   */
+  @SuppressWarnings("unchecked")
+  private static boolean doSwitch(IJssController shellController, AbstractJssAction action,
+      Object state) {
+    try {
+      if (action instanceof AbstractJssComboAction) {
+        return ((AbstractJssComboAction<Object>) action).doSwitch(shellController, state);
+      }
+      return ((AbstractJssSwitchAction) action).doSwitch(shellController, (Boolean) state);
+    } catch (RuntimeException e) {
+      LOGGER.log(Level.WARNING, "Action switch failed", e);
+      return false;
+    }
+  }
+
+  // #########################################################################
+  /**
+   * The switch of an independent action.
+   */
+  private static final class SwitchTask implements Callable<Boolean> {
+
+    private final IJssController shellController;
+
+    private final AbstractJssAction action;
+
+    private final Object state;
+
+    SwitchTask(IJssController shellController, AbstractJssAction action, Object state) {
+      this.shellController = shellController;
+      this.action = action;
+      this.state = state;
+    }
+
+    @Override
+    public Boolean call() {
+      return doSwitch(shellController, action, state);
+    }
+
+  }
+
+  private static final class RestoreThreadFactory implements ThreadFactory {
+
+    @Override
+    public Thread newThread(Runnable r) {
+      Thread thread = new Thread(r, "jss-restore-" + THREAD_COUNT.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+
+  }
+
+}
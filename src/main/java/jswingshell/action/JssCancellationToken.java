@@ -0,0 +1,222 @@
+package jswingshell.action;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A token telling a long computation that it should stop.
+ *
+ * <p>
+ * Cancellation is cooperative: the computation polls {@link #isCancellationRequested()}, which only
+ * reads a few fields, and stops by itself, releasing its resources. Cancellation is requested once
+ * the token is {@link #cancel() cancelled}, once its deadline has passed, or once its parent token
+ * requests cancellation, so that a whole group of computations can be cancelled at once.
+ * </p>
+ *
+ * <p>
+ * Cancellation listeners are run when the token, or its parent, is cancelled. They are not run when
+ * the deadline passes.
+ * </p>
+ *
+ * @author Mathieu Brunot
+ *
+ * @since 1.4.5
+ */
+public class JssCancellationToken {
+
+  private final JssCancellationToken parent;
+
+  private final boolean hasDeadline;
+
+  private final long deadlineNanos;
+
+  private final AtomicBoolean cancelled = new AtomicBoolean();
+
+  private final Set<Runnable> listeners =
+      Collections.newSetFromMap(new ConcurrentHashMap<Runnable, Boolean>());
+
+  /**
+   * The listener cancelling this token with its parent.
+   */
+  private Runnable parentListener;
+
+  // #########################################################################
+  /**
+   * Create a token without deadline.
+   */
+  public JssCancellationToken() {
+    this(null);
+  }
+
+  /**
+   * Create a token without deadline, cancelled with its parent.
+   *
+   * @param parent the parent token, {@code null} if none.
+   */
+  public JssCancellationToken(JssCancellationToken parent) {
+    this.parent = parent;
+    this.hasDeadline = false;
+    this.deadlineNanos = 0;
+    registerOnParent();
+  }
+
+  /**
+   * Create a token with a deadline, cancelled with its parent.
+   *
+   * <p>
+   * A timeout too large for a deadline to be represented, such as {@link Long#MAX_VALUE}, creates
+   * a token without deadline.
+   * </p>
+   *
+   * @param parent the parent token, {@code null} if none.
+   * @param timeout the time after which cancellation is requested.
+   * @param unit the unit of the timeout.
+   *
+   * @throws IllegalArgumentException if the unit is {@code null}.
+   */
+  public JssCancellationToken(JssCancellationToken parent, long timeout, TimeUnit unit) {
+    if (unit == null) {
+      throw new IllegalArgumentException("A time unit is required!");
+    }
+    this.parent = parent;
+    long now = System.nanoTime();
+    long timeoutNanos = unit.toNanos(Math.max(timeout, 0));
+    // A deadline overflowing the range of System.nanoTime() is no deadline
+    this.hasDeadline = now <= 0 || timeoutNanos <= Long.MAX_VALUE - now;
+    this.deadlineNanos = hasDeadline ? now + timeoutNanos : 0;
+    registerOnParent();
+  }
+
+  private void registerOnParent() {
+    if (parent != null) {
+      parentListener = new Runnable() {
+
+        @Override
+        public void run() {
+          cancel();
+        }
+
+      };
+      parent.addCancellationListener(parentListener);
+    }
+  }
+
+  /**
+   * Stop listening to the cancellation of the parent token, once the computation has ended.
+   *
+   * <p>
+   * The token still requests cancellation when its parent does, but its listeners will not be run
+   * anymore when its parent is cancelled. This releases the token from a long-lived parent.
+   * </p>
+   */
+  public void detach() {
+    if (parent != null && parentListener != null) {
+      parent.removeCancellationListener(parentListener);
+    }
+  }
+
+  // #########################################################################
+  /**
+   * Request the cancellation of the computation, running the cancellation listeners.
+   *
+   * @return {@code true} if the token was not already cancelled.
+   */
+  public boolean cancel() {
+    if (!cancelled.compareAndSet(false, true)) {
+      return false;
+    }
+    for (Runnable listener : listeners) {
+      // A listener is run by whoever removes it first
+      if (listeners.remove(listener)) {
+        listener.run();
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Is the cancellation of the computation requested?
+   *
+   * @return {@code true} if the token was cancelled or its deadline has passed.
+   */
+  public boolean isCancellationRequested() {
+    return cancelled.get() || isDeadlineExceeded()
+        || (parent != null && parent.isCancellationRequested());
+  }
+
+  /**
+   * Has the deadline of this token passed?
+   *
+   * @return {@code true} if the token has a deadline which has passed.
+   */
+  public boolean isDeadlineExceeded() {
+    return hasDeadline && System.nanoTime() - deadlineNanos >= 0;
+  }
+
+  /**
+   * Stop the computation if its cancellation is requested.
+   *
+   * @throws CancellationException if the cancellation of the computation is requested.
+   */
+  public void throwIfCancellationRequested() {
+    if (isCancellationRequested()) {
+      throw new CancellationException(
+          isDeadlineExceeded() ? "Deadline exceeded" : "Computation cancelled");
+    }
+  }
+
+  /**
+   * Get the time left before the deadline.
+   *
+   * @param unit the unit of the result.
+   *
+   * @return the time left before the deadline, {@code 0} if it has passed, {@link Long#MAX_VALUE}
+   *         if the token has no deadline.
+   */
+  public long getRemainingTime(TimeUnit unit) {
+    if (!hasDeadline) {
+      return Long.MAX_VALUE;
+    }
+    return unit.convert(Math.max(deadlineNanos - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+  }
+
+  public boolean hasDeadline() {
+    return hasDeadline;
+  }
+
+  /**
+   * Add a listener run once when the token is cancelled, typically to release resources.
+   *
+   * <p>
+   * If the token is already cancelled, the listener is run immediately.
+   * </p>
+   *
+   * @param listener the listener.
+   *
+   * @throws IllegalArgumentException if the listener is {@code null}.
+   */
+  public void addCancellationListener(Runnable listener) {
+    if (listener == null) {
+      throw new IllegalArgumentException("A listener is required!");
+    }
+    listeners.add(listener);
+    // Run it if the token was cancelled while the listener was added
+    if (cancelled.get() && listeners.remove(listener)) {
+      listener.run();
+    }
+  }
+
+  /**
+   * Remove a cancellation listener.
+   *
+   * @param listener the listener.
+   */
+  public void removeCancellationListener(Runnable listener) {
+    listeners.remove(listener);
+  }
+
+}
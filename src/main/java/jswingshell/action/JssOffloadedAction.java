@@ -0,0 +1,190 @@
+package jswingshell.action;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import javax.swing.SwingUtilities;
+
+import jswingshell.IJssController;
+
+/**
+ * A synchronous action run off the <i>Event Dispatch Thread</i>, in a worker.
+ *
+ * <p>
+ * The wrapped action is given a shell controller whose methods are all called on the
+ * <i>Event Dispatch Thread</i>, in order: messages are published asynchronously, and the other
+ * methods wait for their result. The wrapped action can thus publish messages and read the shell as
+ * usual, but it only sees the {@link IJssController} interface of the shell controller.
+ * </p>
+ *
+ * <p>
+ * Only the actions implementing {@link IJssOffloadableAction} are offloaded by the shell
+ * controller.
+ * </p>
+ *
+ * <p>
+ * Cancelling the worker does not interrupt the wrapped action, but its messages are not published
+ * anymore.
+ * </p>
+ *
+ * @author Mathieu Brunot
+ *
+ * @since 1.4.5
+ */
+public class JssOffloadedAction extends AbstractThreadedJssAction {
+
+  /**
+   * The {@code serialVersionUID}.
+   */
+  private static final long serialVersionUID = -6140372212826447165L;
+
+  private final transient IJssAction action;
+
+  // #########################################################################
+  /**
+   * Wrap an action to run it off the <i>Event Dispatch Thread</i>.
+   *
+   * @param action the synchronous action.
+   *
+   * @throws IllegalArgumentException if the action is {@code null}.
+   */
+  public JssOffloadedAction(IJssAction action) {
+    super();
+    if (action == null) {
+      throw new IllegalArgumentException("An action is required!");
+    }
+    this.action = action;
+  }
+
+  // #########################################################################
+  /**
+   * Get the wrapped action.
+   *
+   * @return the synchronous action.
+   */
+  public IJssAction getAction() {
+    return action;
+  }
+
+  @Override
+  public String[] getCommandIdentifiers() {
+    return action.getCommandIdentifiers();
+  }
+
+  @Override
+  public String getBriefHelp() {
+    return action.getBriefHelp();
+  }
+
+  @Override
+  public String getHelp(IJssController shellController) {
+    return action.getHelp(shellController);
+  }
+
+  @Override
+  protected AbstractJssActionWorker prepareWorker(IJssController shellController,
+      final String... args) {
+    return new AbstractJssActionWorker(shellController) {
+
+      @Override
+      protected Integer doInBackground() throws Exception {
+        return action.run(createEdtController(this), args);
+      }
+
+    };
+  }
+
+  /**
+   * Create a shell controller calling the worker's controller on the <i>Event Dispatch
+   * Thread</i>.
+   *
+   * @param worker the worker running the action.
+   *
+   * @return the shell controller given to the wrapped action.
+   */
+  private static IJssController createEdtController(final AbstractJssActionWorker worker) {
+    final IJssController shellController = worker.getShellController();
+    if (shellController == null) {
+      return null;
+    }
+    return (IJssController) Proxy.newProxyInstance(IJssController.class.getClassLoader(),
+        new Class<?>[] {IJssController.class}, new InvocationHandler() {
+
+          @Override
+          public Object invoke(Object proxy, final Method method, final Object[] args)
+              throws Throwable {
+            if (method.getDeclaringClass() == Object.class) {
+              return method.invoke(shellController, args);
+            } else if ("publish".equals(method.getName())) {
+              return publishLater(worker, (IJssController.PublicationLevel) args[0],
+                  (String) args[1]);
+            }
+            return callOnEventDispatchThread(new Callable<Object>() {
+
+              @Override
+              public Object call() throws Exception {
+                return method.invoke(shellController, args);
+              }
+
+            });
+          }
+
+        });
+  }
+
+  /**
+   * Publish a message on the <i>Event Dispatch Thread</i>, unless the worker was cancelled.
+   *
+   * @param worker the worker running the action.
+   * @param level the level of the message.
+   * @param message the message.
+   *
+   * @return {@code true} if the message will be published.
+   */
+  private static boolean publishLater(final AbstractJssActionWorker worker,
+      final IJssController.PublicationLevel level, final String message) {
+    final IJssController shellController = worker.getShellController();
+    if (worker.isCancelled() || level == null
+        || level.compareTo(shellController.getPublicationLevel()) > 0) {
+      return false;
+    }
+    SwingUtilities.invokeLater(new Runnable() {
+
+      @Override
+      public void run() {
+        if (!worker.isCancelled()) {
+          shellController.publish(level, message);
+        }
+      }
+
+    });
+    return true;
+  }
+
+  private static Object callOnEventDispatchThread(Callable<Object> task) throws Throwable {
+    FutureTask<Object> futureTask = new FutureTask<>(task);
+    SwingUtilities.invokeLater(futureTask);
+    try {
+      return futureTask.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for the shell", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof InvocationTargetException) {
+        cause = cause.getCause();
+      }
+      if (cause instanceof RuntimeException || cause instanceof Error) {
+        throw cause;
+      }
+      throw new UndeclaredThrowableException(cause);
+    }
+  }
+
+}
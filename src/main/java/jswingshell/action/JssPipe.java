@@ -0,0 +1,183 @@
+package jswingshell.action;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A bounded buffer of records between two stages of a pipeline.
+ *
+ * <p>
+ * Writing to a full pipe waits for the reader to catch up, and reading from an empty pipe waits for
+ * the writer. Once the writer is {@link #closeWriter() closed}, the remaining records can still be
+ * read and {@link #read()} then returns {@code null}. Once the reader is {@link #closeReader()
+ * closed}, the pending records are discarded and {@link #write(String)} returns {@code false}.
+ * </p>
+ *
+ * @author Mathieu Brunot
+ *
+ * @since 1.4.5
+ */
+public class JssPipe implements IJssRecordReader, IJssRecordWriter {
+
+  /**
+   * The default number of records a pipe can hold.
+   */
+  public static final int DEFAULT_CAPACITY = 256;
+
+  private final String[] records;
+
+  private int head = 0;
+
+  private int count = 0;
+
+  private boolean writerClosed = false;
+
+  private boolean readerClosed = false;
+
+  private final ReentrantLock lock = new ReentrantLock();
+
+  private final Condition notEmpty = lock.newCondition();
+
+  private final Condition notFull = lock.newCondition();
+
+  // #########################################################################
+  // Constructors
+  public JssPipe() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Create a pipe.
+   *
+   * @param capacity the number of records the pipe can hold.
+   *
+   * @throws IllegalArgumentException if the capacity is not strictly positive.
+   */
+  public JssPipe(int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("Capacity must be strictly positive: " + capacity);
+    }
+    this.records = new String[capacity];
+  }
+
+  // #########################################################################
+  // Pipe methods
+  /**
+   * {@inheritDoc }.
+   *
+   * @throws IllegalStateException if the writer was closed.
+   */
+  @Override
+  public boolean write(String record) throws InterruptedException {
+    if (record == null) {
+      throw new IllegalArgumentException("A record cannot be null!");
+    }
+    lock.lockInterruptibly();
+    try {
+      if (writerClosed) {
+        throw new IllegalStateException("Pipe is closed for writing");
+      }
+      while (count == records.length && !readerClosed) {
+        notFull.await();
+      }
+      if (readerClosed) {
+        return false;
+      }
+      records[(head + count) % records.length] = record;
+      count++;
+      notEmpty.signal();
+      return true;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public String read() throws InterruptedException {
+    lock.lockInterruptibly();
+    try {
+      while (count == 0 && !writerClosed && !readerClosed) {
+        notEmpty.await();
+      }
+      if (count == 0) {
+        return null;
+      }
+      String record = records[head];
+      records[head] = null;
+      head = (head + 1) % records.length;
+      count--;
+      notFull.signal();
+      return record;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Signal that no more records will be written.
+   */
+  public void closeWriter() {
+    lock.lock();
+    try {
+      writerClosed = true;
+      notEmpty.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Signal that no more records will be read, discarding the pending ones.
+   */
+  public void closeReader() {
+    lock.lock();
+    try {
+      readerClosed = true;
+      for (int i = 0; i < count; i++) {
+        records[(head + i) % records.length] = null;
+      }
+      count = 0;
+      notFull.signalAll();
+      notEmpty.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public boolean isWriterClosed() {
+    lock.lock();
+    try {
+      return writerClosed;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public boolean isReaderClosed() {
+    lock.lock();
+    try {
+      return readerClosed;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Get the number of records waiting to be read.
+   *
+   * @return the number of records waiting to be read.
+   */
+  public int size() {
+    lock.lock();
+    try {
+      return count;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public int getCapacity() {
+    return records.length;
+  }
+
+}
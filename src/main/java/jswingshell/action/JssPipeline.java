@@ -0,0 +1,310 @@
+package jswingshell.action;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jswingshell.IJssController;
+
+/**
+ * A pipeline of stream actions, such as {@code cmd1 args | cmd2 args}.
+ *
+ * <p>
+ * Each stage runs on its own thread and reads the records written by the previous one through a
+ * bounded {@link JssPipe}. The last stage runs on the worker thread and its records are published
+ * to the shell with the {@link IJssController.PublicationLevel#SUCCESS SUCCESS} level. The number
+ * of records waiting to be published is bounded as well.
+ * </p>
+ *
+ * <p>
+ * When a stage stops reading its input, the previous stages are notified through their output and
+ * should stop as well. The return status of the pipeline is the one of its last stage, unless
+ * a previous stage failed.
+ * </p>
+ *
+ * @see IJssStreamAction
+ *
+ * @author Mathieu Brunot
+ *
+ * @since 1.4.5
+ */
+public class JssPipeline extends AbstractThreadedJssAction {
+
+  /**
+   * The {@code serialVersionUID}.
+   */
+  private static final long serialVersionUID = 2553718815284390472L;
+
+  /**
+   * The command identifier of the pipelines, under which their metrics and timeout are recorded.
+   */
+  public static final String COMMAND_IDENTIFIER = "pipeline";
+
+  private static final String[] IDENTIFIERS = {COMMAND_IDENTIFIER};
+
+  private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+  private final transient List<Stage> stages = new ArrayList<>();
+
+  private final int pipeCapacity;
+
+  // #########################################################################
+  public JssPipeline() {
+    this(JssPipe.DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Create an empty pipeline.
+   *
+   * @param pipeCapacity the number of records each pipe between two stages can hold.
+   *
+   * @throws IllegalArgumentException if the capacity is not strictly positive.
+   */
+  public JssPipeline(int pipeCapacity) {
+    super();
+    if (pipeCapacity <= 0) {
+      throw new IllegalArgumentException("Capacity must be strictly positive: " + pipeCapacity);
+    }
+    this.pipeCapacity = pipeCapacity;
+  }
+
+  // #########################################################################
+  /**
+   * Add a stage at the end of the pipeline.
+   *
+   * @param action the action of the stage.
+   * @param args the arguments given to the action.
+   *
+   * @throws IllegalArgumentException if the action is {@code null}.
+   */
+  public void addStage(IJssStreamAction action, String... args) {
+    if (action == null) {
+      throw new IllegalArgumentException("A stage action is required!");
+    }
+    stages.add(new Stage(action, args));
+  }
+
+  /**
+   * Get the actions of the pipeline stages.
+   *
+   * @return an unmodifiable list of the actions, in the order of the stages.
+   */
+  public List<IJssStreamAction> getStageActions() {
+    List<IJssStreamAction> actions = new ArrayList<>(stages.size());
+    for (Stage stage : stages) {
+      actions.add(stage.action);
+    }
+    return Collections.unmodifiableList(actions);
+  }
+
+  public int getPipeCapacity() {
+    return pipeCapacity;
+  }
+
+  // #########################################################################
+  @Override
+  public String[] getCommandIdentifiers() {
+    return IDENTIFIERS;
+  }
+
+  @Override
+  public String getBriefHelp() {
+    return "Pipeline of " + stages.size() + " commands.";
+  }
+
+  @Override
+  public String getHelp(IJssController shellController) {
+    StringBuilder stringBuilder = new StringBuilder(getBriefHelp());
+    for (Stage stage : stages) {
+      stringBuilder.append("\n\t").append(stage.action.getDefaultCommandIdentifier());
+    }
+    return stringBuilder.toString();
+  }
+
+  @Override
+  protected AbstractJssActionWorker prepareWorker(IJssController shellController,
+      String... args) {
+    if (stages.isEmpty()) {
+      return null;
+    }
+    return new PipelineWorker(shellController, new ArrayList<>(stages));
+  }
+
+  // #########################################################################
+  /**
+   * A stage of the pipeline: an action and its arguments.
+   */
+  private static final class Stage {
+
+    final IJssStreamAction action;
+
+    final String[] args;
+
+    Stage(IJssStreamAction action, String[] args) {
+      this.action = action;
+      this.args = args;
+    }
+
+  }
+
+  /**
+   * The worker running the stages of the pipeline.
+   */
+  private final class PipelineWorker extends AbstractJssActionWorker {
+
+    private final List<Stage> workerStages;
+
+    /**
+     * The chunks which can be published before the previous ones are processed, so that records
+     * do not pile up when the <i>Event Dispatch Thread</i> cannot keep up with the pipeline.
+     */
+    private final Semaphore publishPermits = new Semaphore(pipeCapacity);
+
+    PipelineWorker(IJssController shellController, List<Stage> workerStages) {
+      super(shellController);
+      this.workerStages = workerStages;
+    }
+
+    private void publishChunk(IJssController.PublicationLevel level, String message)
+        throws InterruptedException {
+      publishPermits.acquire();
+      publish(new JssActionWorkerChunk(level, message));
+    }
+
+    /**
+     * {@inheritDoc }.
+     *
+     * <p>
+     * The state of the worker is already {@code DONE} when the last chunks are processed, so they
+     * are published unless the worker was cancelled.
+     * </p>
+     */
+    @Override
+    protected void process(List<JssActionWorkerChunk> chunks) {
+      try {
+        if (!isCancelled()) {
+          for (JssActionWorkerChunk chunk : chunks) {
+            shellController.publish(chunk.getChunkLevel(), chunk.getMessage());
+          }
+        }
+      } finally {
+        publishPermits.release(chunks.size());
+      }
+    }
+
+    @Override
+    protected Integer doInBackground() throws Exception {
+      int lastIndex = workerStages.size() - 1;
+      ExecutorService executor = null;
+      List<Future<Integer>> upstreamResults = new ArrayList<>(lastIndex);
+
+      JssPipe input = new JssPipe(1);
+      input.closeWriter();
+      try {
+        if (lastIndex > 0) {
+          executor = Executors.newFixedThreadPool(lastIndex, new StageThreadFactory());
+          for (int i = 0; i < lastIndex; i++) {
+            JssPipe output = new JssPipe(pipeCapacity);
+            upstreamResults.add(executor
+                .submit(new StageTask(shellController, workerStages.get(i), input, output)));
+            input = output;
+          }
+        }
+
+        Stage lastStage = workerStages.get(lastIndex);
+        int status;
+        try {
+          status = lastStage.action.run(shellController, input, new IJssRecordWriter() {
+
+            @Override
+            public boolean write(String record) throws InterruptedException {
+              if (record == null) {
+                throw new IllegalArgumentException("A record cannot be null!");
+              }
+              publishChunk(IJssController.PublicationLevel.SUCCESS, record);
+              return !isCancelled();
+            }
+
+          }, lastStage.args);
+        } finally {
+          input.closeReader();
+        }
+
+        for (int i = 0; i < lastIndex; i++) {
+          int stageStatus;
+          try {
+            stageStatus = upstreamResults.get(i).get();
+          } catch (ExecutionException e) {
+            publishChunk(IJssController.PublicationLevel.ERROR,
+                "Pipeline command failed: " + e.getCause());
+            stageStatus = IJssAction.ERROR;
+          }
+          if (stageStatus != IJssAction.SUCCESS && status == IJssAction.SUCCESS) {
+            status = stageStatus;
+          }
+        }
+        return status;
+      } finally {
+        if (executor != null) {
+          executor.shutdownNow();
+        }
+      }
+    }
+
+  }
+
+  /**
+   * Run an intermediate stage, closing its pipes once done.
+   */
+  private static final class StageTask implements Callable<Integer> {
+
+    private final IJssController shellController;
+
+    private final Stage stage;
+
+    private final JssPipe input;
+
+    private final JssPipe output;
+
+    StageTask(IJssController shellController, Stage stage, JssPipe input, JssPipe output) {
+      this.shellController = shellController;
+      this.stage = stage;
+      this.input = input;
+      this.output = output;
+    }
+
+    @Override
+    public Integer call() throws Exception {
+      try {
+        return stage.action.run(shellController, input, output, stage.args);
+      } finally {
+        output.closeWriter();
+        input.closeReader();
+      }
+    }
+
+  }
+
+  /**
+   * Create daemon threads for the intermediate stages.
+   */
+  private static final class StageThreadFactory implements ThreadFactory {
+
+    @Override
+    public Thread newThread(Runnable r) {
+      Thread thread = new Thread(r, "jss-pipeline-" + THREAD_COUNT.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+
+  }
+
+}
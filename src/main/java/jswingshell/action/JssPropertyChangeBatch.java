@@ -0,0 +1,153 @@
+package jswingshell.action;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A batch of property changes of actions, fired together once the batch ends.
+ *
+ * <p>
+ * While a batch is open on the current thread, the property changes of the actions extending
+ * {@link AbstractJssAction} are not fired. When the outermost batch ends, a single change is fired
+ * for each property of each action, from its value before the batch to its value after the batch,
+ * unless the property got its initial value back. Bulk operations, such as selecting an action of a
+ * group or resetting the element actions of a combo, thus update the bound components once.
+ * </p>
+ *
+ * <p>
+ * Batches are used as follow, usually on the <i>Event Dispatch Thread</i>, and may be nested:
+ * </p>
+ *
+ * <pre>
+ * JssPropertyChangeBatch.begin();
+ * try {
+ *   // Change the properties of actions
+ * } finally {
+ *   JssPropertyChangeBatch.end();
+ * }
+ * </pre>
+ *
+ * @author Mathieu Brunot
+ *
+ * @since 1.4.5
+ */
+public final class JssPropertyChangeBatch {
+
+  private static final ThreadLocal<JssPropertyChangeBatch> CURRENT_BATCH = new ThreadLocal<>();
+
+  /**
+   * The number of nested batches.
+   */
+  private int depth = 0;
+
+  /**
+   * The changed properties of each action, in the order of their first change.
+   */
+  private final Map<AbstractJssAction, Map<String, PendingChange>> pendingChanges =
+      new LinkedHashMap<>();
+
+  private JssPropertyChangeBatch() {}
+
+  // #########################################################################
+  /**
+   * Open a batch on the current thread, nested in the current batch if any.
+   */
+  public static void begin() {
+    JssPropertyChangeBatch batch = CURRENT_BATCH.get();
+    if (batch == null) {
+      batch = new JssPropertyChangeBatch();
+      CURRENT_BATCH.set(batch);
+    }
+    batch.depth++;
+  }
+
+  /**
+   * Close the current batch of the current thread. Closing the outermost batch fires the pending
+   * property changes.
+   *
+   * @throws IllegalStateException if no batch is open on the current thread.
+   */
+  public static void end() {
+    JssPropertyChangeBatch batch = CURRENT_BATCH.get();
+    if (batch == null) {
+      throw new IllegalStateException("No property change batch is open");
+    }
+    if (--batch.depth > 0) {
+      return;
+    }
+    // Changes made by the listeners are fired immediately
+    CURRENT_BATCH.remove();
+    batch.fire();
+  }
+
+  /**
+   * Is a batch open on the current thread?
+   *
+   * @return {@code true} if the property changes are currently deferred.
+   */
+  public static boolean isActive() {
+    return CURRENT_BATCH.get() != null;
+  }
+
+  /**
+   * Defer a property change if a batch is open on the current thread.
+   *
+   * @param source the action whose property changed.
+   * @param propertyName the name of the property.
+   * @param oldValue the old value of the property.
+   * @param newValue the new value of the property.
+   *
+   * @return {@code true} if the change was deferred, {@code false} if it must be fired.
+   */
+  static boolean defer(AbstractJssAction source, String propertyName, Object oldValue,
+      Object newValue) {
+    JssPropertyChangeBatch batch = CURRENT_BATCH.get();
+    if (batch == null) {
+      return false;
+    }
+    Map<String, PendingChange> actionChanges = batch.pendingChanges.get(source);
+    if (actionChanges == null) {
+      actionChanges = new LinkedHashMap<>();
+      batch.pendingChanges.put(source, actionChanges);
+    }
+    PendingChange change = actionChanges.get(propertyName);
+    if (change == null) {
+      actionChanges.put(propertyName, new PendingChange(oldValue, newValue));
+    } else {
+      change.newValue = newValue;
+    }
+    return true;
+  }
+
+  private void fire() {
+    for (Map.Entry<AbstractJssAction, Map<String, PendingChange>> actionChanges : pendingChanges
+        .entrySet()) {
+      AbstractJssAction action = actionChanges.getKey();
+      for (Map.Entry<String, PendingChange> entry : actionChanges.getValue().entrySet()) {
+        PendingChange change = entry.getValue();
+        if (!Objects.equals(change.oldValue, change.newValue)) {
+          action.firePropertyChangeNow(entry.getKey(), change.oldValue, change.newValue);
+        }
+      }
+    }
+  }
+
+  // #########################################################################
+  /**
+   * A property change, from the value before the batch to the latest value.
+   */
+  private static final class PendingChange {
+
+    private final Object oldValue;
+
+    private Object newValue;
+
+    PendingChange(Object oldValue, Object newValue) {
+      this.oldValue = oldValue;
+      this.newValue = newValue;
+    }
+
+  }
+
+}
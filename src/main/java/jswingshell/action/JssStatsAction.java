@@ -0,0 +1,151 @@
+package jswingshell.action;
+
+import java.util.List;
+import java.util.Locale;
+
+import javax.swing.Icon;
+
+import jswingshell.AbstractJssController;
+import jswingshell.IJssController;
+import jswingshell.JssCommandMetrics;
+
+/**
+ * Print the slowest commands interpreted by the shell, or reset the command metrics.
+ *
+ * <p>
+ * The latencies are the ones recorded in the {@link AbstractJssController#getCommandMetrics()
+ * command metrics} of the shell controller.
+ * </p>
+ *
+ * @author Mathieu Brunot
+ *
+ * @since 1.4.5
+ */
+public class JssStatsAction extends AbstractJssAction {
+
+  /**
+   * The {@code serialVersionUID}.
+   */
+  private static final long serialVersionUID = -4187370126523340152L;
+
+  /**
+   * The default number of commands printed.
+   */
+  public static final int DEFAULT_COMMAND_COUNT = 10;
+
+  /**
+   * The argument resetting the command metrics.
+   */
+  public static final String RESET_ARGUMENT = "reset";
+
+  private static final String[] IDENTIFIERS = {"stats"};
+
+  private static final String ROW_FORMAT = "%-20s %8s %8s %8s %10s %10s %10s %10s";
+
+  private static final double NANOS_PER_MILLI = 1000000d;
+
+  // #########################################################################
+  public JssStatsAction(String name, Icon icon, IJssController shellController,
+      String... args) {
+    super(name, icon, shellController, args);
+  }
+
+  public JssStatsAction(String name, IJssController shellController, String... args) {
+    super(name, shellController, args);
+  }
+
+  public JssStatsAction(IJssController shellController, String... args) {
+    super(shellController, args);
+  }
+
+  public JssStatsAction(IJssController shellController) {
+    super(shellController);
+  }
+
+  public JssStatsAction() {
+    super();
+  }
+
+  // #########################################################################
+  @Override
+  public String[] getCommandIdentifiers() {
+    return IDENTIFIERS;
+  }
+
+  @Override
+  public String getBriefHelp() {
+    return "Print the slowest commands.";
+  }
+
+  @Override
+  public String getHelp(IJssController shellController) {
+    StringBuilder stringBuilder = new StringBuilder();
+
+    String commandIdsAsString = getCommandIdentifiersAsString();
+    stringBuilder.append(getBriefHelp()).append("\n");
+    stringBuilder.append("\t").append(commandIdsAsString).append(" [count]").append("\n");
+    stringBuilder.append("\n");
+    stringBuilder.append("Latencies are in milliseconds. The ").append(DEFAULT_COMMAND_COUNT)
+        .append(" slowest commands are printed by default.").append("\n");
+    stringBuilder.append("You can reset the statistics as follow:").append("\n");
+    stringBuilder.append("\t").append(commandIdsAsString).append(" ").append(RESET_ARGUMENT);
+
+    return stringBuilder.toString();
+  }
+
+  @Override
+  public int run(IJssController shellController, String... args) {
+    if (!(shellController instanceof AbstractJssController)) {
+      if (shellController != null) {
+        shellController.publish(IJssController.PublicationLevel.ERROR,
+            "No command metrics for this shell");
+      }
+      return AbstractJssAction.ERROR;
+    }
+    JssCommandMetrics metrics = ((AbstractJssController) shellController).getCommandMetrics();
+
+    int count = DEFAULT_COMMAND_COUNT;
+    if (args != null && args.length > 1) {
+      if (args.length == 2 && RESET_ARGUMENT.equalsIgnoreCase(args[1].trim())) {
+        metrics.reset();
+        shellController.publish(IJssController.PublicationLevel.SUCCESS,
+            "Command statistics reset");
+        return AbstractJssAction.SUCCESS;
+      }
+      try {
+        count = args.length == 2 ? Integer.parseInt(args[1].trim()) : -1;
+      } catch (NumberFormatException e) {
+        count = -1;
+      }
+      if (count <= 0) {
+        shellController.publish(IJssController.PublicationLevel.WARNING,
+            getHelp(shellController));
+        return AbstractJssAction.ERROR;
+      }
+    }
+
+    List<JssCommandMetrics.Snapshot> snapshots = metrics.getSlowestCommands(count);
+    if (snapshots.isEmpty()) {
+      shellController.publish(IJssController.PublicationLevel.SUCCESS, "No command recorded");
+      return AbstractJssAction.SUCCESS;
+    }
+
+    StringBuilder stringBuilder = new StringBuilder(
+        String.format(Locale.ROOT, ROW_FORMAT, "command", "count", "errors", "timeouts", "mean",
+            "p50", "p99", "max"));
+    for (JssCommandMetrics.Snapshot snapshot : snapshots) {
+      stringBuilder.append("\n").append(String.format(Locale.ROOT, ROW_FORMAT,
+          snapshot.getCommandIdentifier(), snapshot.getInvocationCount(),
+          snapshot.getErrorCount(), snapshot.getTimeoutCount(),
+          toMillis(snapshot.getMeanNanos()), toMillis(snapshot.getPercentile(50)),
+          toMillis(snapshot.getPercentile(99)), toMillis(snapshot.getMaxNanos())));
+    }
+    shellController.publish(IJssController.PublicationLevel.SUCCESS, stringBuilder.toString());
+    return AbstractJssAction.SUCCESS;
+  }
+
+  private static String toMillis(double nanos) {
+    return String.format(Locale.ROOT, "%.3f", nanos / NANOS_PER_MILLI);
+  }
+
+}
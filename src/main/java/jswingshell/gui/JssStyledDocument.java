@@ -0,0 +1,137 @@
+package jswingshell.gui;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.swing.text.AttributeSet;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.DefaultStyledDocument;
+
+/**
+ * The default document of a {@link JssTextPane}.
+ *
+ * <p>
+ * On top of {@link DefaultStyledDocument}, this document can append several runs of styled text in
+ * a single structural change, instead of going through
+ * {@link #insertString(int, String, AttributeSet)} for each run.
+ * </p>
+ *
+ * @author Mathieu Brunot
+ *
+ * @see JssTextPaneController#flushShell()
+ *
+ * @since 1.4.5
+ */
+public class JssStyledDocument extends DefaultStyledDocument {
+
+  /**
+   * The {@code serialVersionUID}.
+   */
+  private static final long serialVersionUID = -1735009541658637912L;
+
+  private static final char NEW_LINE = '\n';
+
+  public JssStyledDocument() {
+    super();
+  }
+
+  /**
+   * Append runs of styled text at the end of the document.
+   *
+   * <p>
+   * The document is only locked and restructured once for all the runs, and a single
+   * {@code DocumentEvent} is fired.
+   * </p>
+   *
+   * @param texts the text of each run.
+   * @param styles the style of each run.
+   *
+   * @throws BadLocationException if the runs could not be inserted.
+   * @throws IllegalArgumentException if there are not as many styles as texts.
+   */
+  public void appendRuns(List<? extends CharSequence> texts,
+      List<? extends AttributeSet> styles) throws BadLocationException {
+    if (texts.size() != styles.size()) {
+      throw new IllegalArgumentException("Each run of text must have a style");
+    }
+    int length = 0;
+    for (CharSequence text : texts) {
+      length += text.length();
+    }
+    if (length == 0) {
+      return;
+    }
+
+    int offset = getLength();
+    // New paragraphs share the attributes of the last one
+    AttributeSet paragraphStyle =
+        getParagraphElement(offset).getAttributes().copyAttributes();
+    AttributeSet characterStyle = getCharacterElement(offset).getAttributes();
+    List<ElementSpec> specs = new ArrayList<>();
+    ElementSpec lastStartSpec = null;
+    boolean afterNewLine =
+        offset > 0 && getText(offset - 1, 1).charAt(0) == NEW_LINE;
+    if (afterNewLine) {
+      // Position the insertion in the last paragraph
+      specs.add(new ElementSpec(paragraphStyle, ElementSpec.EndTagType));
+      lastStartSpec =
+          new ElementSpec(paragraphStyle, ElementSpec.StartTagType);
+      specs.add(lastStartSpec);
+    }
+    for (int i = 0, n = texts.size(); i < n; i++) {
+      ElementSpec startSpec =
+          addSpecs(specs, texts.get(i), styles.get(i), paragraphStyle);
+      if (startSpec != null) {
+        lastStartSpec = startSpec;
+      }
+    }
+    // Text is always inserted before the implicit new line ending the document: the last
+    // paragraph has to be joined with the last existing one, or with what remains of it once
+    // fractured
+    if (lastStartSpec != null) {
+      lastStartSpec.setDirection(afterNewLine ? ElementSpec.JoinNextDirection
+          : ElementSpec.JoinFractureDirection);
+    }
+    // Merge the last run with the fractured remainder if they look the same
+    ElementSpec lastSpec = specs.get(specs.size() - 1);
+    if (lastStartSpec != null && !afterNewLine
+        && lastSpec.getType() == ElementSpec.ContentType
+        && lastSpec.getAttributes() != null
+        && lastSpec.getAttributes().isEqual(characterStyle)) {
+      lastSpec.setDirection(ElementSpec.JoinNextDirection);
+    }
+    insert(offset, specs.toArray(new ElementSpec[specs.size()]));
+  }
+
+  /**
+   * Convert a run of text in element specifications: a content for each line, each new line
+   * closing the current paragraph and opening a new one.
+   *
+   * @return the last paragraph start specification added, {@code null} if none.
+   */
+  private static ElementSpec addSpecs(List<ElementSpec> specs, CharSequence text,
+      AttributeSet style, AttributeSet paragraphStyle) {
+    ElementSpec lastStartSpec = null;
+    int length = text.length();
+    int start = 0;
+    for (int i = 0; i < length; i++) {
+      if (text.charAt(i) == NEW_LINE) {
+        char[] line = text.subSequence(start, i + 1).toString().toCharArray();
+        specs.add(new ElementSpec(style, ElementSpec.ContentType, line, 0,
+            line.length));
+        specs.add(new ElementSpec(null, ElementSpec.EndTagType));
+        lastStartSpec =
+            new ElementSpec(paragraphStyle, ElementSpec.StartTagType);
+        specs.add(lastStartSpec);
+        start = i + 1;
+      }
+    }
+    if (start < length) {
+      char[] tail = text.subSequence(start, length).toString().toCharArray();
+      specs.add(new ElementSpec(style, ElementSpec.ContentType, tail, 0,
+          tail.length));
+    }
+    return lastStartSpec;
+  }
+
+}
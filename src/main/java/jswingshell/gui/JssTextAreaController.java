@@ -3,6 +3,9 @@ package jswingshell.gui;
 import java.awt.Color;
 import java.awt.Font;
 import java.awt.event.KeyEvent;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -250,6 +253,27 @@ public class JssTextAreaController extends AbstractJssController {
     commandLineStart = -1;
   }
 
+  /**
+   * {@inheritDoc }.
+   *
+   * @since 1.4.5
+   */
+  @Override
+  public long getShellTextLength() {
+    return getView().getJShellTextArea().getDocument().getLength();
+  }
+
+  /**
+   * Export the shell text to a file, reading the shell document by chunks.
+   *
+   * @since 1.4.5
+   */
+  @Override
+  public long exportShellText(File file, Charset charset) throws IOException {
+    return new JssTranscriptExporter(charset).export(getView().getJShellTextArea().getDocument(),
+        file);
+  }
+
   @Override
   public void addNewLineToShell() {
     boolean isEditable = getView().isEditable();
@@ -0,0 +1,145 @@
+package jswingshell.gui;
+
+import javax.swing.JTextPane;
+import javax.swing.text.StyledDocument;
+
+import jswingshell.IJssController;
+import jswingshell.IJssView;
+
+/**
+ * A styled Shell {@code TextPane} view.
+ *
+ * <p>
+ * Contrary to {@link JssTextArea}, this view is backed by a {@code StyledDocument} which allows its
+ * controller to render each publication level with its own attributes.
+ * </p>
+ *
+ * @author Mathieu Brunot
+ *
+ * @see JssTextPaneController
+ *
+ * @since 1.4.5
+ */
+public class JssTextPane extends JTextPane implements IJssView {
+
+  /**
+   * The {@code serialVersionUID}.
+   */
+  private static final long serialVersionUID = -2830567010372926370L;
+
+  private transient IJssController controller;
+
+  // #########################################################################
+  // Constructors
+  public JssTextPane() {
+    super(new JssStyledDocument());
+  }
+
+  public JssTextPane(JssTextPaneController controller) {
+    super(new JssStyledDocument());
+    this.controller = controller;
+  }
+
+  public JssTextPane(IJssController controller, StyledDocument doc) {
+    super(doc);
+    this.controller = controller;
+  }
+
+  // #########################################################################
+  // MVC methods
+  @Override
+  public JssTextPaneController getController() {
+    return (JssTextPaneController) controller;
+  }
+
+  public void setController(IJssController controller) {
+    // Remove previous controller from key listeners
+    if (getController() != null) {
+      removeKeyListener(getController());
+    }
+
+    this.controller = controller;
+
+    // Initialize key listener for the new controller
+    if (controller instanceof JssTextPaneController) {
+      addKeyListener((JssTextPaneController) controller);
+    }
+  }
+
+  // #########################################################################
+  // Specific implementation methods
+  @Override
+  public void cut() {
+    // Make sure the shell line itself is never compromised
+    getController().fixSelection();
+    super.cut();
+  }
+
+  @Override
+  public void paste() {
+    // Make sure the shell line itself is never compromised
+    getController().fixSelection();
+    super.paste();
+  }
+
+  // #########################################################################
+  // Shell related methods
+  @Override
+  public String getShellText() {
+    return getText();
+  }
+
+  @Override
+  public void setShellText(String newShellText) {
+    setText(newShellText);
+  }
+
+  @Override
+  public boolean isShellTextAreaLocked() {
+    return !isEditable();
+  }
+
+  @Override
+  public void lockShellTextArea() {
+    setEditable(false);
+    getCaret().setVisible(false);
+  }
+
+  @Override
+  public void unlockShellTextArea() {
+    setEditable(true);
+    getCaret().setVisible(true);
+  }
+
+  // #########################################################################
+  // Command line related methods
+  @Override
+  public String getCommandLine() {
+    // For this kind of complicated view, delegate to controller
+    return getController().getCommandLine();
+  }
+
+  @Override
+  public void setCommandLine(String newCommandLine) {
+    // For this kind of complicated view, delegate to controller
+    getController().setCommandLine(newCommandLine);
+  }
+
+  @Override
+  public boolean isCommandLineLocked() {
+    return !isEditable();
+  }
+
+  @Override
+  public void lockCommandLine() {
+    setEditable(false);
+    getCaret().setVisible(false);
+  }
+
+  @Override
+  public void unlockCommandLine() {
+    setEditable(true);
+    getCaret().setVisible(true);
+  }
+
+}
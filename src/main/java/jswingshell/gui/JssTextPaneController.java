@@ -0,0 +1,820 @@
+package jswingshell.gui;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.event.KeyEvent;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.swing.SwingUtilities;
+import javax.swing.text.AttributeSet;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Style;
+import javax.swing.text.StyleConstants;
+import javax.swing.text.StyleContext;
+import javax.swing.text.StyledDocument;
+
+import jswingshell.AbstractJssController;
+import jswingshell.AbstractJssModel;
+import jswingshell.IJssView;
+import jswingshell.JssSimpleModel;
+import jswingshell.action.AbstractThreadedJssAction;
+
+/**
+ * A styled Shell controller for {@link JssTextPane}.
+ *
+ * <p>
+ * Each {@link PublicationLevel} is rendered with its own {@code Style}, registered in the view's
+ * {@code StyledDocument}. Styles can be customized through
+ * {@link #getLevelStyle(PublicationLevel)}.
+ * </p>
+ *
+ * <p>
+ * To keep the output throughput on par with {@link JssTextAreaController}, text is not inserted in
+ * the document as soon as it is published: consecutive messages sharing the same style are
+ * coalesced in a single run, and pending runs are inserted in bulk, either once the current event
+ * has been processed or as soon as the document needs to be read or edited.
+ * </p>
+ *
+ * @author Mathieu Brunot
+ *
+ * @since 1.4.5
+ */
+public class JssTextPaneController extends AbstractJssController {
+
+  /**
+   * The {@code serialVersionUID}.
+   */
+  private static final long serialVersionUID = 4385117627813306893L;
+
+  /**
+   * Logger.
+   */
+  private static final Logger LOGGER =
+      Logger.getLogger(JssTextPaneController.class.getName());
+
+  /**
+   * The new line separator.
+   *
+   * <p>
+   * Swing documents always use {@code \n} as line separator, whatever the system.
+   * </p>
+   */
+  protected static final String NEW_LINE = "\n";
+
+  /**
+   * The default shell font.
+   */
+  protected static final Font DEFAULT_FONT =
+      new Font("LucidaSans", Font.BOLD, 11);
+
+  /**
+   * Number of pending characters above which pending runs are inserted without waiting for the
+   * current event to end.
+   */
+  protected static final int FLUSH_THRESHOLD = 64 * 1024;
+
+  /**
+   * Name of the style used for the command lines and the text not published with a level.
+   */
+  public static final String COMMAND_STYLE_NAME = "jss-command";
+
+  private transient JssTextPane view;
+
+  private JssSimpleModel model;
+
+  private transient int commandLineStart = -1;
+
+  /**
+   * The style used for the command lines.
+   */
+  private transient Style commandStyle;
+
+  /**
+   * The styles used for each publication level.
+   */
+  private transient Map<PublicationLevel, Style> levelStyles;
+
+  /**
+   * The runs of text waiting to be inserted in the document.
+   */
+  private transient List<StyledRun> pendingRuns = new ArrayList<>();
+
+  /**
+   * Number of characters waiting to be inserted in the document.
+   */
+  private transient int pendingLength = 0;
+
+  /**
+   * Has a flush of the pending runs been scheduled on the EDT?
+   */
+  private transient boolean flushScheduled = false;
+
+  // #########################################################################
+  // Constructors
+  public JssTextPaneController() {
+    super();
+    this.view = new JssTextPane(this);
+    this.model = new JssSimpleModel(this);
+    initView();
+  }
+
+  public JssTextPaneController(JssTextPane anotherView) {
+    super();
+    this.view = anotherView;
+    this.model = new JssSimpleModel(this);
+    initView();
+  }
+
+  public JssTextPaneController(StyledDocument doc) {
+    super();
+    this.view = new JssTextPane(this, doc);
+    this.model = new JssSimpleModel(this);
+    initView();
+  }
+
+  public JssTextPaneController(JssSimpleModel anotherModel) {
+    super();
+    this.view = new JssTextPane(this);
+    this.model = anotherModel;
+    initView();
+  }
+
+  public JssTextPaneController(JssTextPane anotherView,
+      JssSimpleModel anotherModel) {
+    super();
+    this.view = anotherView;
+    this.model = anotherModel;
+    initView();
+  }
+
+  public JssTextPaneController(JssTextPaneController anotherController) {
+    super();
+    this.view = new JssTextPane(this);
+    this.model = new JssSimpleModel(this, anotherController.model);
+    initView();
+  }
+
+  // #########################################################################
+  // MVC methods
+  @Override
+  public JssTextPane getView() {
+    return view;
+  }
+
+  private void initView() {
+    if (getView() == null) {
+      return;
+    }
+
+    initStyles();
+
+    // Init display properties
+    setBackground(Color.black);
+    setForeground(Color.white);
+    setFont(DEFAULT_FONT);
+
+    addNewCommandLine();
+    unlockShellTextArea();
+
+    // Ensure the view is linked to this shell controller
+    getView().setController(this);
+  }
+
+  /**
+   * Register the command and publication levels styles in the view's document.
+   */
+  private void initStyles() {
+    StyledDocument doc = getView().getStyledDocument();
+    Style defaultStyle = doc.getStyle(StyleContext.DEFAULT_STYLE);
+
+    commandStyle = doc.addStyle(COMMAND_STYLE_NAME, defaultStyle);
+
+    levelStyles = new EnumMap<>(PublicationLevel.class);
+    for (PublicationLevel publicationLevel : PublicationLevel.values()) {
+      Style levelStyle = doc.addStyle(
+          COMMAND_STYLE_NAME + "-" + publicationLevel.name().toLowerCase(),
+          defaultStyle);
+      levelStyles.put(publicationLevel, levelStyle);
+    }
+
+    StyleConstants.setForeground(levelStyles.get(PublicationLevel.SUCCESS),
+        new Color(0x80, 0xFF, 0x80));
+    StyleConstants.setForeground(levelStyles.get(PublicationLevel.FATAL_ERROR),
+        new Color(0xFF, 0x40, 0x40));
+    StyleConstants.setBold(levelStyles.get(PublicationLevel.FATAL_ERROR), true);
+    StyleConstants.setForeground(levelStyles.get(PublicationLevel.ERROR),
+        new Color(0xFF, 0x60, 0x60));
+    StyleConstants.setForeground(levelStyles.get(PublicationLevel.WARNING),
+        new Color(0xFF, 0xC0, 0x40));
+    StyleConstants.setForeground(levelStyles.get(PublicationLevel.DEBUG),
+        Color.lightGray);
+    StyleConstants.setForeground(levelStyles.get(PublicationLevel.TRACE),
+        Color.gray);
+  }
+
+  /**
+   * {@inheritDoc }.
+   */
+  @Override
+  protected void setView(IJssView anotherView) {
+    if (!(anotherView instanceof JssTextPane)) {
+      throw new IllegalArgumentException("Not an instance of JssTextPane!");
+    }
+    flushShell();
+    if (getView() != null) {
+      getView().setController(null);
+    }
+    this.view = (JssTextPane) anotherView;
+    initView();
+  }
+
+  @Override
+  public AbstractJssModel getModel() {
+    return model;
+  }
+
+  /**
+   * {@inheritDoc }.
+   */
+  @Override
+  protected void setModel(AbstractJssModel anotherModel) {
+    if (!(anotherModel instanceof JssSimpleModel)) {
+      throw new IllegalArgumentException("Not an instance of JssSimpleModel!");
+    }
+    this.model = (JssSimpleModel) anotherModel;
+  }
+
+  // #########################################################################
+  // Styles methods
+  /**
+   * Get the style used to render the messages of a given publication level.
+   *
+   * <p>
+   * The returned {@code Style} belongs to the view's document: any change made to it is applied to
+   * the text already published with this level.
+   * </p>
+   *
+   * @param publicationLevel the publication level
+   * @return the style of the publication level, {@code null} if {@code publicationLevel} is
+   *         {@code null}.
+   */
+  public Style getLevelStyle(PublicationLevel publicationLevel) {
+    return publicationLevel != null ? levelStyles.get(publicationLevel) : null;
+  }
+
+  /**
+   * Get the style used to render the command lines and the text added without publication level.
+   *
+   * @return the command style.
+   */
+  public Style getCommandStyle() {
+    return commandStyle;
+  }
+
+  // #########################################################################
+  // Shell methods
+  @Override
+  public boolean publish(PublicationLevel level, String message) {
+    boolean added = false;
+    // If the message has a level greater or equal to the shell's
+    if (level != null && level.compareTo(getPublicationLevel()) <= 0) {
+      appendToShell(NEW_LINE + message, getLevelStyle(level));
+      added = true;
+    }
+    return added;
+  }
+
+  @Override
+  public String getShellText() {
+    flushShell();
+    return super.getShellText();
+  }
+
+  /**
+   * {@inheritDoc }.
+   *
+   * <p>
+   * Pending output is counted without being flushed.
+   * </p>
+   *
+   * @since 1.4.5
+   */
+  @Override
+  public long getShellTextLength() {
+    synchronized (this) {
+      return getView().getDocument().getLength() + pendingLength;
+    }
+  }
+
+  /**
+   * Export the shell text to a file, reading the shell document by chunks.
+   *
+   * <p>
+   * Pending output is flushed to the document first.
+   * </p>
+   *
+   * @since 1.4.5
+   */
+  @Override
+  public long exportShellText(File file, Charset charset) throws IOException {
+    flushShell();
+    return new JssTranscriptExporter(charset).export(getView().getDocument(), file);
+  }
+
+  @Override
+  public void setShellText(String newShellText) {
+    discardPendingRuns();
+    StyledDocument doc = getView().getStyledDocument();
+    try {
+      doc.remove(0, doc.getLength());
+      if (newShellText != null && !newShellText.isEmpty()) {
+        doc.insertString(0, newShellText, commandStyle);
+      }
+    } catch (BadLocationException e) {
+      LOGGER.log(Level.SEVERE, "Could not set the shell text: {0}",
+          e.getMessage());
+    }
+    commandLineStart = -1;
+  }
+
+  @Override
+  public void addNewLineToShell() {
+    appendToShell(NEW_LINE, commandStyle);
+  }
+
+  @Override
+  public void addNewLineToShell(String text) {
+    appendToShell(NEW_LINE + text, commandStyle);
+  }
+
+  /**
+   * Queue some text to be appended to the shell with a given style.
+   *
+   * <p>
+   * The text is coalesced with the previous pending run if they share the same style. Pending runs
+   * are inserted at the end of the current event, or as soon as {@link #FLUSH_THRESHOLD} characters
+   * are pending.
+   * </p>
+   *
+   * @param text the text to append.
+   * @param style the style of the text.
+   */
+  protected void appendToShell(String text, AttributeSet style) {
+    if (text == null || text.isEmpty()) {
+      return;
+    }
+    boolean flushNow;
+    synchronized (this) {
+      StyledRun lastRun = pendingRuns.isEmpty() ? null
+          : pendingRuns.get(pendingRuns.size() - 1);
+      if (lastRun != null && lastRun.style == style) {
+        lastRun.text.append(text);
+      } else {
+        pendingRuns.add(new StyledRun(style, text));
+      }
+      pendingLength += text.length();
+      flushNow = pendingLength >= FLUSH_THRESHOLD;
+      if (!flushNow && !flushScheduled) {
+        flushScheduled = true;
+        SwingUtilities.invokeLater(new Runnable() {
+
+          @Override
+          public void run() {
+            flushShell();
+          }
+
+        });
+      }
+    }
+    if (flushNow) {
+      flushShell();
+    }
+  }
+
+  /**
+   * Insert all the pending runs of text in the view's document.
+   *
+   * <p>
+   * With a {@link JssStyledDocument}, all the runs are appended in a single structural change of
+   * the document. Otherwise, each run is inserted with a single call to
+   * {@code StyledDocument.insertString}.
+   * </p>
+   */
+  public void flushShell() {
+    List<StyledRun> runs;
+    // The runs are inserted while holding the lock, so that a concurrent flush returns only once
+    // they are in the document
+    synchronized (this) {
+      flushScheduled = false;
+      if (pendingRuns.isEmpty()) {
+        return;
+      }
+      runs = new ArrayList<>(pendingRuns);
+      pendingRuns.clear();
+      pendingLength = 0;
+      insertRuns(runs);
+    }
+  }
+
+  private void insertRuns(List<StyledRun> runs) {
+    boolean isEditable = getView().isEditable();
+    StyledDocument doc = getView().getStyledDocument();
+    try {
+      if (doc instanceof JssStyledDocument) {
+        List<CharSequence> texts = new ArrayList<>(runs.size());
+        List<AttributeSet> styles = new ArrayList<>(runs.size());
+        for (StyledRun run : runs) {
+          texts.add(run.text);
+          styles.add(run.style);
+        }
+        ((JssStyledDocument) doc).appendRuns(texts, styles);
+      } else {
+        for (StyledRun run : runs) {
+          doc.insertString(doc.getLength(), run.text.toString(), run.style);
+        }
+      }
+    } catch (BadLocationException e) {
+      LOGGER.log(Level.SEVERE, "Could not append text to the shell: {0}",
+          e.getMessage());
+    }
+    getView().setEditable(isEditable);
+    commandLineStart = -1;
+  }
+
+  /**
+   * Drop all the runs of text waiting to be inserted.
+   */
+  private void discardPendingRuns() {
+    synchronized (this) {
+      pendingRuns.clear();
+      pendingLength = 0;
+    }
+  }
+
+  // #########################################################################
+  // Command line methods
+  private String getNewCommandLine() {
+    return NEW_LINE + getCommandLinePrefix();
+  }
+
+  @Override
+  public void addNewCommandLine() {
+    this.addNewCommandLine("");
+  }
+
+  @Override
+  public void addNewCommandLine(String newCommandLine) {
+    flushShell();
+    StyledDocument doc = getView().getStyledDocument();
+    try {
+      doc.insertString(doc.getLength(), getNewCommandLine(), commandStyle);
+      commandLineStart = doc.getLength();
+      if (newCommandLine != null && !newCommandLine.isEmpty()) {
+        doc.insertString(doc.getLength(), newCommandLine, commandStyle);
+      }
+    } catch (BadLocationException e) {
+      LOGGER.log(Level.SEVERE, "Could not add a new command line: {0}",
+          e.getMessage());
+    }
+    // Set caret to the end of the document
+    setCaretToEndOfDocument();
+  }
+
+  @Override
+  public String getCommandLine() {
+    flushShell();
+    StyledDocument doc = getView().getStyledDocument();
+    int commandLinePosition = getCommandLinePosition();
+    if (commandLinePosition < 0 || commandLinePosition > doc.getLength()) {
+      return null;
+    }
+    try {
+      return doc.getText(commandLinePosition,
+          doc.getLength() - commandLinePosition);
+    } catch (BadLocationException e) {
+      LOGGER.log(Level.SEVERE, "Could not read the command line: {0}",
+          e.getMessage());
+      return null;
+    }
+  }
+
+  @Override
+  public void setCommandLine(String newCommandLine) {
+    flushShell();
+    StyledDocument doc = getView().getStyledDocument();
+    int commandLinePosition = getCommandLinePosition();
+    if (commandLinePosition < 0) {
+      // If we could not find the shell line, do nothing
+      return;
+    }
+    try {
+      doc.remove(commandLinePosition, doc.getLength() - commandLinePosition);
+      if (newCommandLine != null && !newCommandLine.isEmpty()) {
+        doc.insertString(commandLinePosition, newCommandLine, commandStyle);
+      }
+    } catch (BadLocationException e) {
+      LOGGER.log(Level.SEVERE, "Could not set the command line: {0}",
+          e.getMessage());
+    }
+  }
+
+  /**
+   * Get the position of the start of the command line in the document.
+   *
+   * <p>
+   * If the position is unknown (i.e. some text was added after the last command line), the document
+   * is searched backward for the last command line prefix.
+   * </p>
+   *
+   * @return the position of the command line, {@code -1} if not found.
+   */
+  public int getCommandLinePosition() {
+    if (commandLineStart == -1) {
+      String shellText = super.getShellText();
+      String newCommandLineStart = getNewCommandLine();
+      int indexOfLastShellLine = shellText.lastIndexOf(newCommandLineStart);
+      if (indexOfLastShellLine > -1
+          && shellText.indexOf(NEW_LINE, indexOfLastShellLine + 1) == -1) {
+        commandLineStart = indexOfLastShellLine + newCommandLineStart.length();
+      }
+    }
+    return commandLineStart;
+  }
+
+  protected int getCaretPosition() {
+    return getView().getCaretPosition();
+  }
+
+  protected void setCaretPosition(int caretPosition) {
+    getView().setCaretPosition(caretPosition);
+  }
+
+  protected void setCaretToEndOfDocument() {
+    setCaretPosition(getView().getDocument().getLength());
+  }
+
+  protected void moveCaretPosition(int caretPosition) {
+    getView().moveCaretPosition(caretPosition);
+  }
+
+  protected boolean isCaretAtStartOfCommandLine() {
+    return getCaretPosition() == getCommandLinePosition();
+  }
+
+  // #########################################################################
+  // Key handler methods
+  @Override
+  public void keyPressed(KeyEvent evt) {
+    if (evt == null) {
+      return;
+    }
+    flushShell();
+    // Ctrl+K shall kill every thread of the current action running in this shell
+    if (getCurrentAction() instanceof AbstractThreadedJssAction
+        && (evt.getKeyCode() == KeyEvent.VK_K
+            && ((KeyEvent.CTRL_MASK | KeyEvent.CTRL_DOWN_MASK)
+                & evt.getModifiers()) != 0)) {
+      AbstractThreadedJssAction currentAction =
+          (AbstractThreadedJssAction) getCurrentAction();
+      currentAction.cancel(this, true);
+      this.removeEndedAction(currentAction);
+      return;
+    }
+    if (isCommandLineLocked()) {
+      evt.consume();
+      return;
+    }
+
+    // Actions depending on the key pressed
+    final int keyCode = evt.getKeyCode();
+    switch (keyCode) {
+      case KeyEvent.VK_ENTER:
+        evt.consume();
+        interpret();
+        break;
+
+      case KeyEvent.VK_UP:
+      case KeyEvent.VK_DOWN:
+        if (((KeyEvent.SHIFT_MASK | KeyEvent.SHIFT_DOWN_MASK)
+            & evt.getModifiers()) != 0) {
+          // Do not overwrite behavior if SHIFT key applied
+          break;
+        } else {
+          // Retrieve the appropriate command from the history
+          String commandFromHistory;
+          if (keyCode == KeyEvent.VK_UP) {
+            commandFromHistory = getPreviousCommand();
+          } else {
+            commandFromHistory = getNextCommand();
+          }
+
+          if (commandFromHistory == null) {
+            commandFromHistory = "";
+          }
+
+          // Cancel event and set command line
+          evt.consume();
+          setCommandLine(commandFromHistory);
+          // Set caret to the end of the document
+          setCaretToEndOfDocument();
+        }
+        break;
+
+      case KeyEvent.VK_HOME: {
+        int startOfCommandfLine = getCommandLinePosition();
+        // If we are inside the command line, go to command line start
+        if (getCaretPosition() >= startOfCommandfLine) {
+          if (((KeyEvent.SHIFT_MASK | KeyEvent.SHIFT_DOWN_MASK)
+              & evt.getModifiers()) == 0) {
+            setCaretPosition(startOfCommandfLine);
+          } else {
+            moveCaretPosition(startOfCommandfLine);
+          }
+          evt.consume();
+        }
+      }
+        break;
+
+      case KeyEvent.VK_LEFT:
+        // Consume if we already are at the start of the line
+        if (isCaretAtStartOfCommandLine()) {
+          evt.consume();
+        }
+        break;
+
+      case KeyEvent.VK_BACK_SPACE: {
+        // Make sure the shell line itself is never compromised
+        int startOfCommandfLine = getCommandLinePosition();
+        if (getView().getSelectionStart() < startOfCommandfLine) {
+          getView().setSelectionStart(startOfCommandfLine);
+        }
+        if (getView().getSelectedText() == null
+            && getCaretPosition() <= startOfCommandfLine) {
+          evt.consume();
+        }
+      }
+        break;
+
+      case KeyEvent.VK_CONTEXT_MENU:
+      case KeyEvent.VK_CONTROL:
+      case KeyEvent.VK_ALT:
+      case KeyEvent.VK_SHIFT:
+        // Keep default behavior and do nothing for mask keys
+        break;
+
+      case KeyEvent.VK_UNDEFINED:
+      default:
+        // If any mask different than Alt, AltGr or Shift in progress, let the event continue
+        if (evt.getModifiers() != 0
+            && ((KeyEvent.ALT_GRAPH_MASK | KeyEvent.ALT_GRAPH_DOWN_MASK
+                | KeyEvent.ALT_MASK | KeyEvent.ALT_DOWN_MASK
+                | KeyEvent.SHIFT_MASK | KeyEvent.SHIFT_DOWN_MASK)
+                & evt.getModifiers()) == 0) {
+          break;
+        } else {
+          fixSelection();
+        }
+        break;
+    }
+  }
+
+  /**
+   * <em>Fix</em> the current selection to ensure that any input will not edit the <em>past</em>
+   * shell data or compromise the command line itself.
+   */
+  protected void fixSelection() {
+    flushShell();
+    // Make sure the shell line itself is never compromised
+    int startOfCommandfLine = getCommandLinePosition();
+    if (getView().getSelectionStart() < startOfCommandfLine
+        && getView().getSelectionEnd() > startOfCommandfLine) {
+      getView().setSelectionStart(startOfCommandfLine);
+    } else if (getCaretPosition() < startOfCommandfLine) {
+      setCaretToEndOfDocument();
+    }
+    // Make sure the typed text is not rendered with the style of the last publication
+    getView().setCharacterAttributes(commandStyle, true);
+  }
+
+  // #########################################################################
+  // Implementation specific methods
+  /**
+   * Gets the background color of this component.
+   *
+   * @return this component's background color
+   * @see #setBackground(java.awt.Color)
+   */
+  public Color getBackground() {
+    return getView().getBackground();
+  }
+
+  /**
+   * Sets the background color and the current color used to render the selected text of this
+   * component.
+   *
+   * <p>
+   * Setting the color to {@code null} is the same as {@code Color.black}.
+   * </p>
+   *
+   * @param backgroundColor the desired background {@code Color}
+   * @see #getBackground()
+   */
+  public void setBackground(Color backgroundColor) {
+    if (backgroundColor == null) {
+      backgroundColor = Color.black;
+    }
+    getView().setBackground(backgroundColor);
+    getView().setSelectedTextColor(backgroundColor);
+  }
+
+  /**
+   * Gets the foreground color of this component.
+   *
+   * @return this component's foreground color
+   * @see #setForeground(java.awt.Color)
+   */
+  public Color getForeground() {
+    return getView().getForeground();
+  }
+
+  /**
+   * Sets the foreground color, the color of the command style and the current color used to render
+   * the selection of this component.
+   *
+   * <p>
+   * Setting the color to {@code null} is the same as setting {@code Color.white}. Publication
+   * levels without a specific foreground color inherit this one.
+   * </p>
+   *
+   * @param foregroundColor the desired foreground {@code Color}
+   * @see #getForeground()
+   */
+  public void setForeground(Color foregroundColor) {
+    if (foregroundColor == null) {
+      foregroundColor = Color.white;
+    }
+    getView().setForeground(foregroundColor);
+    getView().setCaretColor(foregroundColor);
+    getView().setSelectionColor(foregroundColor);
+    StyleConstants.setForeground(getView().getStyledDocument()
+        .getStyle(StyleContext.DEFAULT_STYLE), foregroundColor);
+  }
+
+  /**
+   * Gets the font of this component.
+   *
+   * @return this component's font
+   * @see #setFont(java.awt.Font)
+   */
+  public Font getFont() {
+    return getView().getFont();
+  }
+
+  /**
+   * Sets the current font.
+   *
+   * <p>
+   * The font is also applied to the document's default style, which all the shell styles inherit.
+   * </p>
+   *
+   * @param f the font to use as the current font
+   * @see #getFont()
+   */
+  public void setFont(Font f) {
+    getView().setFont(f);
+    if (f != null) {
+      Style defaultStyle =
+          getView().getStyledDocument().getStyle(StyleContext.DEFAULT_STYLE);
+      StyleConstants.setFontFamily(defaultStyle, f.getFamily());
+      StyleConstants.setFontSize(defaultStyle, f.getSize());
+      StyleConstants.setBold(defaultStyle, f.isBold());
+      StyleConstants.setItalic(defaultStyle, f.isItalic());
+    }
+  }
+
+  // #########################################################################
+  /**
+   * A run of text sharing the same style, waiting to be inserted in the document.
+   */
+  private static final class StyledRun {
+
+    private final AttributeSet style;
+
+    private final StringBuilder text;
+
+    private StyledRun(AttributeSet style, String text) {
+      this.style = style;
+      this.text = new StringBuilder(text);
+    }
+
+  }
+
+}
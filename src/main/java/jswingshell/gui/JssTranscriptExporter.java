@@ -0,0 +1,285 @@
+package jswingshell.gui;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.Segment;
+
+import jswingshell.gui.buffer.IJssLineStore;
+import jswingshell.gui.buffer.JssLineStoreException;
+
+/**
+ * Export a shell transcript to a file, without building the whole transcript in memory.
+ *
+ * <p>
+ * The transcript is read by chunks, directly from the shell storage: a {@code Document} is read
+ * through {@link Document#getText(int, int, Segment)} with partial returns, so that no copy of the
+ * text is made, and a line store is read line by line. Each chunk is encoded in a fixed size buffer
+ * which is written to the file through a {@code FileChannel}. Memory usage thus only depends on
+ * the chunk size, not on the size of the transcript.
+ * </p>
+ *
+ * <p>
+ * The transcript is exported up to the length it has when the export starts: text appended
+ * meanwhile is not exported.
+ * </p>
+ *
+ * @author Mathieu Brunot
+ *
+ * @since 1.4.5
+ */
+public class JssTranscriptExporter {
+
+  /**
+   * The default charset of the exported transcript.
+   */
+  public static final Charset DEFAULT_CHARSET = StandardCharsets.UTF_8;
+
+  /**
+   * The default size of a chunk, in characters.
+   */
+  public static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+
+  private static final char NEW_LINE = '\n';
+
+  private final Charset charset;
+
+  private final int chunkSize;
+
+  // #########################################################################
+  // Constructors
+  public JssTranscriptExporter() {
+    this(DEFAULT_CHARSET, DEFAULT_CHUNK_SIZE);
+  }
+
+  public JssTranscriptExporter(Charset charset) {
+    this(charset, DEFAULT_CHUNK_SIZE);
+  }
+
+  /**
+   * Create a transcript exporter.
+   *
+   * @param charset the charset of the exported transcript.
+   * @param chunkSize the number of characters read at once.
+   *
+   * @throws IllegalArgumentException if the charset is {@code null} or the chunk size is not
+   *         strictly positive.
+   */
+  public JssTranscriptExporter(Charset charset, int chunkSize) {
+    if (charset == null) {
+      throw new IllegalArgumentException("A charset is required!");
+    }
+    if (chunkSize <= 0) {
+      throw new IllegalArgumentException("Chunk size must be strictly positive: " + chunkSize);
+    }
+    this.charset = charset;
+    this.chunkSize = chunkSize;
+  }
+
+  public Charset getCharset() {
+    return charset;
+  }
+
+  public int getChunkSize() {
+    return chunkSize;
+  }
+
+  // #########################################################################
+  // Export methods
+  /**
+   * Export the text of a document.
+   *
+   * <p>
+   * The document is read within {@link Document#render(Runnable)}, which holds the read lock of the
+   * document: the text published or cleared meanwhile waits for the end of the export, so that the
+   * transcript is consistent.
+   * </p>
+   *
+   * @param document the document to export.
+   * @param file the file to write. It is created or overwritten.
+   *
+   * @return the number of bytes written.
+   *
+   * @throws IOException if the document could not be read or the file could not be written.
+   */
+  public long export(final Document document, File file) throws IOException {
+    try (final ChunkWriter writer = new ChunkWriter(file)) {
+      final IOException[] failure = new IOException[1];
+      document.render(new Runnable() {
+
+        @Override
+        public void run() {
+          try {
+            int length = document.getLength();
+            Segment segment = new Segment();
+            segment.setPartialReturn(true);
+            int offset = 0;
+            while (offset < length) {
+              document.getText(offset, Math.min(chunkSize, length - offset), segment);
+              writer.write(CharBuffer.wrap(segment.array, segment.offset, segment.count));
+              offset += segment.count;
+            }
+          } catch (BadLocationException e) {
+            failure[0] =
+                new IOException("Could not read the shell document: " + e.getMessage(), e);
+          } catch (IOException e) {
+            failure[0] = e;
+          }
+        }
+
+      });
+      if (failure[0] != null) {
+        throw failure[0];
+      }
+      return writer.finish();
+    }
+  }
+
+  /**
+   * Export the lines of a line store, followed by a last line.
+   *
+   * @param lineStore the line store to export.
+   * @param lastLine the last line, not held by the line store. May be {@code null}.
+   * @param file the file to write. It is created or overwritten.
+   *
+   * @return the number of bytes written.
+   *
+   * @throws IOException if the line store could not be read or the file could not be written.
+   */
+  public long export(IJssLineStore lineStore, CharSequence lastLine, File file)
+      throws IOException {
+    try (ChunkWriter writer = new ChunkWriter(file)) {
+      CharBuffer newLine = CharBuffer.wrap(String.valueOf(NEW_LINE));
+      int size = lineStore.size();
+      for (int i = 0; i < size; i++) {
+        writer.write(CharBuffer.wrap(lineStore.get(i)));
+        writer.write(newLine.duplicate());
+      }
+      if (lastLine != null) {
+        writer.write(CharBuffer.wrap(lastLine));
+      }
+      return writer.finish();
+    } catch (JssLineStoreException e) {
+      throw new IOException("Could not read the shell lines: " + e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Export some text.
+   *
+   * @param text the text to export.
+   * @param file the file to write. It is created or overwritten.
+   *
+   * @return the number of bytes written.
+   *
+   * @throws IOException if the file could not be written.
+   */
+  public long export(CharSequence text, File file) throws IOException {
+    try (ChunkWriter writer = new ChunkWriter(file)) {
+      if (text != null) {
+        writer.write(CharBuffer.wrap(text));
+      }
+      return writer.finish();
+    }
+  }
+
+  // #########################################################################
+  /**
+   * Encode characters in a fixed size buffer, written to the file each time it is full.
+   */
+  private final class ChunkWriter implements AutoCloseable {
+
+    private final FileOutputStream output;
+
+    private final FileChannel channel;
+
+    private final CharsetEncoder encoder;
+
+    private final ByteBuffer bytes;
+
+    /**
+     * Characters left aside by the encoder at the end of a chunk, such as the first half of a
+     * surrogate pair.
+     */
+    private final CharBuffer carry = CharBuffer.allocate(2);
+
+    private long written = 0;
+
+    ChunkWriter(File file) throws IOException {
+      this.output = new FileOutputStream(file);
+      this.channel = output.getChannel();
+      this.encoder = charset.newEncoder().onMalformedInput(CodingErrorAction.REPLACE)
+          .onUnmappableCharacter(CodingErrorAction.REPLACE);
+      // Leave room for at least a surrogate pair, which cannot be encoded in halves
+      long capacity =
+          (long) Math.ceil(Math.max(chunkSize, 2) * (double) encoder.maxBytesPerChar());
+      this.bytes = ByteBuffer.allocateDirect((int) Math.min(Integer.MAX_VALUE, capacity));
+    }
+
+    void write(CharBuffer chars) throws IOException {
+      while (carry.position() > 0 && chars.hasRemaining()) {
+        // Complete the characters left aside with the first ones of this chunk
+        carry.put(chars.get());
+        ((Buffer) carry).flip();
+        encode(carry, false);
+        carry.compact();
+      }
+      encode(chars, false);
+      if (chars.hasRemaining()) {
+        carry.put(chars);
+      }
+    }
+
+    long finish() throws IOException {
+      ((Buffer) carry).flip();
+      encode(carry, true);
+      while (encoder.flush(bytes).isOverflow()) {
+        drain();
+      }
+      drain();
+      return written;
+    }
+
+    private void encode(CharBuffer chars, boolean endOfInput) throws IOException {
+      while (true) {
+        CoderResult result = encoder.encode(chars, bytes, endOfInput);
+        if (result.isOverflow()) {
+          drain();
+        } else if (result.isUnderflow()) {
+          return;
+        } else {
+          // Should not happen with the REPLACE actions
+          throw new CharacterCodingException();
+        }
+      }
+    }
+
+    private void drain() throws IOException {
+      ((Buffer) bytes).flip();
+      while (bytes.hasRemaining()) {
+        written += channel.write(bytes);
+      }
+      ((Buffer) bytes).clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+      output.close();
+    }
+
+  }
+
+}
@@ -0,0 +1,539 @@
+package jswingshell.gui;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Toolkit;
+import java.awt.datatransfer.DataFlavor;
+import java.awt.datatransfer.Transferable;
+import java.awt.datatransfer.UnsupportedFlavorException;
+import java.awt.event.KeyEvent;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import jswingshell.AbstractJssController;
+import jswingshell.AbstractJssModel;
+import jswingshell.IJssView;
+import jswingshell.JssSimpleModel;
+import jswingshell.action.AbstractThreadedJssAction;
+import jswingshell.gui.buffer.IJssLineStore;
+
+/**
+ * A Shell controller for {@link JssVirtualShellView}.
+ *
+ * <p>
+ * Since the view is not a text component, this controller handles the edition of the command line
+ * itself: the command line always lies at the end of the last line of the view, and the caret
+ * position is expressed as a column of that last line.
+ * </p>
+ *
+ * @author Mathieu Brunot
+ *
+ * @since 1.4.5
+ */
+public class JssVirtualShellController extends AbstractJssController {
+
+  /**
+   * The {@code serialVersionUID}.
+   */
+  private static final long serialVersionUID = -4263617590125638861L;
+
+  /**
+   * Logger.
+   */
+  private static final Logger LOGGER =
+      Logger.getLogger(JssVirtualShellController.class.getName());
+
+  /**
+   * The new line separator.
+   */
+  protected static final String NEW_LINE = String.valueOf(JssVirtualShellView.NEW_LINE);
+
+  /**
+   * The default shell font.
+   *
+   * <p>
+   * The virtual view requires a fixed-pitch font.
+   * </p>
+   */
+  protected static final Font DEFAULT_FONT = new Font(Font.MONOSPACED, Font.BOLD, 12);
+
+  private transient JssVirtualShellView view;
+
+  private JssSimpleModel model;
+
+  /**
+   * Position of the command line in the last line of the view.
+   */
+  private transient int commandLineStart = -1;
+
+  // #########################################################################
+  // Constructors
+  public JssVirtualShellController() {
+    super();
+    this.view = new JssVirtualShellView(this);
+    this.model = new JssSimpleModel(this);
+    initView();
+  }
+
+  public JssVirtualShellController(JssVirtualShellView anotherView) {
+    super();
+    this.view = anotherView;
+    this.model = new JssSimpleModel(this);
+    initView();
+  }
+
+  public JssVirtualShellController(IJssLineStore lineStore) {
+    super();
+    this.view = new JssVirtualShellView(this, lineStore);
+    this.model = new JssSimpleModel(this);
+    initView();
+  }
+
+  public JssVirtualShellController(JssSimpleModel anotherModel) {
+    super();
+    this.view = new JssVirtualShellView(this);
+    this.model = anotherModel;
+    initView();
+  }
+
+  public JssVirtualShellController(JssVirtualShellView anotherView,
+      JssSimpleModel anotherModel) {
+    super();
+    this.view = anotherView;
+    this.model = anotherModel;
+    initView();
+  }
+
+  public JssVirtualShellController(JssVirtualShellController anotherController) {
+    super();
+    this.view = new JssVirtualShellView(this);
+    this.model = new JssSimpleModel(this, anotherController.model);
+    initView();
+  }
+
+  // #########################################################################
+  // MVC methods
+  @Override
+  public JssVirtualShellView getView() {
+    return view;
+  }
+
+  private void initView() {
+    if (getView() == null) {
+      return;
+    }
+
+    // Init display properties
+    setBackground(Color.black);
+    setForeground(Color.white);
+    setFont(DEFAULT_FONT);
+
+    addNewCommandLine();
+    unlockShellTextArea();
+
+    // Ensure the view is linked to this shell controller
+    getView().setController(this);
+  }
+
+  /**
+   * {@inheritDoc }.
+   */
+  @Override
+  protected void setView(IJssView anotherView) {
+    if (!(anotherView instanceof JssVirtualShellView)) {
+      throw new IllegalArgumentException("Not an instance of JssVirtualShellView!");
+    }
+    if (getView() != null) {
+      getView().setController(null);
+    }
+    this.view = (JssVirtualShellView) anotherView;
+    initView();
+  }
+
+  @Override
+  public AbstractJssModel getModel() {
+    return model;
+  }
+
+  /**
+   * {@inheritDoc }.
+   */
+  @Override
+  protected void setModel(AbstractJssModel anotherModel) {
+    if (!(anotherModel instanceof JssSimpleModel)) {
+      throw new IllegalArgumentException("Not an instance of JssSimpleModel!");
+    }
+    this.model = (JssSimpleModel) anotherModel;
+  }
+
+  // #########################################################################
+  // Shell methods
+  @Override
+  public void setShellText(String newShellText) {
+    super.setShellText(newShellText);
+    commandLineStart = -1;
+  }
+
+  /**
+   * Export the shell text to a file, reading the line store line by line.
+   *
+   * @since 1.4.5
+   */
+  @Override
+  public long exportShellText(File file, Charset charset) throws IOException {
+    return new JssTranscriptExporter(charset).export(getView().getLineStore(),
+        getView().getLastLine(), file);
+  }
+
+  /**
+   * {@inheritDoc }.
+   *
+   * @since 1.4.5
+   */
+  @Override
+  public long getShellTextLength() {
+    return getView().getShellTextLength();
+  }
+
+  @Override
+  public void addNewLineToShell() {
+    getView().append(NEW_LINE);
+    commandLineStart = -1;
+  }
+
+  @Override
+  public void addNewLineToShell(String text) {
+    getView().append(NEW_LINE + text);
+    commandLineStart = -1;
+  }
+
+  // #########################################################################
+  // Command line methods
+  @Override
+  public void addNewCommandLine() {
+    this.addNewCommandLine("");
+  }
+
+  @Override
+  public void addNewCommandLine(String newCommandLine) {
+    getView().append(NEW_LINE + getCommandLinePrefix());
+    commandLineStart = getView().getLastLine().length();
+    getView().append(newCommandLine);
+    setCaretToEndOfCommandLine();
+  }
+
+  @Override
+  public String getCommandLine() {
+    int commandLinePosition = getCommandLinePosition();
+    if (commandLinePosition == -1) {
+      return null;
+    }
+    return getView().getLastLine().substring(commandLinePosition);
+  }
+
+  @Override
+  public void setCommandLine(String newCommandLine) {
+    int commandLinePosition = getCommandLinePosition();
+    // If we could not find the command line, do nothing
+    if (commandLinePosition == -1) {
+      return;
+    }
+    String lastLine = getView().getLastLine().substring(0, commandLinePosition);
+    getView().setLastLine(newCommandLine == null ? lastLine
+        : lastLine + newCommandLine.replace(NEW_LINE, " "));
+    setCaretToEndOfCommandLine();
+  }
+
+  /**
+   * Get the position of the command line in the last line of the view.
+   *
+   * @return the position of the command line in the last line, {@code -1} if the last line is not
+   *         a command line.
+   */
+  public int getCommandLinePosition() {
+    if (commandLineStart == -1) {
+      String prefix = getCommandLinePrefix();
+      if (getView().getLastLine().startsWith(prefix)) {
+        commandLineStart = prefix.length();
+      }
+    }
+    return commandLineStart;
+  }
+
+  protected int getCaretPosition() {
+    return getView().getCaretColumn();
+  }
+
+  protected void setCaretPosition(int caretPosition) {
+    getView().setCaretColumn(caretPosition);
+  }
+
+  protected void setCaretToEndOfCommandLine() {
+    setCaretPosition(getView().getLastLine().length());
+  }
+
+  /**
+   * Insert some text in the command line, at the caret position.
+   *
+   * @param text the text to insert. Line separators are replaced by spaces.
+   */
+  protected void insertInCommandLine(String text) {
+    int commandLinePosition = getCommandLinePosition();
+    if (commandLinePosition == -1 || text == null || text.isEmpty()) {
+      return;
+    }
+    String lastLine = getView().getLastLine();
+    int caretPosition =
+        Math.max(commandLinePosition, Math.min(getCaretPosition(), lastLine.length()));
+    String insertedText = text.replace("\r", "").replace(NEW_LINE, " ");
+    getView().setLastLine(lastLine.substring(0, caretPosition) + insertedText
+        + lastLine.substring(caretPosition));
+    setCaretPosition(caretPosition + insertedText.length());
+  }
+
+  /**
+   * Remove a character of the command line.
+   *
+   * @param position the position of the character in the last line.
+   */
+  protected void removeFromCommandLine(int position) {
+    String lastLine = getView().getLastLine();
+    if (position < getCommandLinePosition() || position >= lastLine.length()) {
+      return;
+    }
+    getView().setLastLine(lastLine.substring(0, position) + lastLine.substring(position + 1));
+    setCaretPosition(position);
+  }
+
+  /**
+   * Paste the content of the system clipboard in the command line.
+   */
+  protected void pasteInCommandLine() {
+    try {
+      Transferable contents =
+          Toolkit.getDefaultToolkit().getSystemClipboard().getContents(this);
+      if (contents != null && contents.isDataFlavorSupported(DataFlavor.stringFlavor)) {
+        insertInCommandLine((String) contents.getTransferData(DataFlavor.stringFlavor));
+      }
+    } catch (IllegalStateException | UnsupportedFlavorException | IOException e) {
+      LOGGER.log(Level.WARNING, "Could not paste clipboard content: {0}", e.getMessage());
+    }
+  }
+
+  // #########################################################################
+  // Key handler methods
+  @Override
+  public void keyPressed(KeyEvent evt) {
+    if (evt == null) {
+      return;
+    }
+    // Ctrl+K shall kill every thread of the current action running in this shell
+    if (getCurrentAction() instanceof AbstractThreadedJssAction
+        && (evt.getKeyCode() == KeyEvent.VK_K
+            && ((KeyEvent.CTRL_MASK | KeyEvent.CTRL_DOWN_MASK)
+                & evt.getModifiers()) != 0)) {
+      AbstractThreadedJssAction currentAction =
+          (AbstractThreadedJssAction) getCurrentAction();
+      currentAction.cancel(this, true);
+      this.removeEndedAction(currentAction);
+      return;
+    }
+    if (isCommandLineLocked()) {
+      return;
+    }
+
+    boolean ctrlDown =
+        ((KeyEvent.CTRL_MASK | KeyEvent.CTRL_DOWN_MASK) & evt.getModifiers()) != 0;
+    // Actions depending on the key pressed
+    final int keyCode = evt.getKeyCode();
+    switch (keyCode) {
+      case KeyEvent.VK_ENTER:
+        evt.consume();
+        interpret();
+        break;
+
+      case KeyEvent.VK_UP:
+      case KeyEvent.VK_DOWN: {
+        // Retrieve the appropriate command from the history
+        String commandFromHistory;
+        if (keyCode == KeyEvent.VK_UP) {
+          commandFromHistory = getPreviousCommand();
+        } else {
+          commandFromHistory = getNextCommand();
+        }
+
+        if (commandFromHistory == null) {
+          commandFromHistory = "";
+        }
+
+        // Cancel event and set command line
+        evt.consume();
+        setCommandLine(commandFromHistory);
+      }
+        break;
+
+      case KeyEvent.VK_HOME:
+        if (!ctrlDown) {
+          evt.consume();
+          setCaretPosition(getCommandLinePosition());
+        }
+        break;
+
+      case KeyEvent.VK_END:
+        if (!ctrlDown) {
+          evt.consume();
+          setCaretToEndOfCommandLine();
+        }
+        break;
+
+      case KeyEvent.VK_LEFT:
+        evt.consume();
+        if (getCaretPosition() > getCommandLinePosition()) {
+          setCaretPosition(getCaretPosition() - 1);
+        }
+        break;
+
+      case KeyEvent.VK_RIGHT:
+        evt.consume();
+        setCaretPosition(getCaretPosition() + 1);
+        break;
+
+      case KeyEvent.VK_BACK_SPACE:
+        evt.consume();
+        if (getCaretPosition() > getCommandLinePosition()) {
+          removeFromCommandLine(getCaretPosition() - 1);
+        }
+        break;
+
+      case KeyEvent.VK_DELETE:
+        evt.consume();
+        removeFromCommandLine(getCaretPosition());
+        break;
+
+      case KeyEvent.VK_V:
+        if (ctrlDown) {
+          evt.consume();
+          pasteInCommandLine();
+        }
+        break;
+
+      case KeyEvent.VK_INSERT:
+        if (((KeyEvent.SHIFT_MASK | KeyEvent.SHIFT_DOWN_MASK) & evt.getModifiers()) != 0) {
+          evt.consume();
+          pasteInCommandLine();
+        }
+        break;
+
+      default:
+        // Keep default behavior, typed characters are handled by keyTyped
+        break;
+    }
+  }
+
+  @Override
+  public void keyTyped(KeyEvent evt) {
+    if (evt == null || isCommandLineLocked()) {
+      return;
+    }
+    char keyChar = evt.getKeyChar();
+    if (keyChar == KeyEvent.CHAR_UNDEFINED || Character.isISOControl(keyChar)) {
+      return;
+    }
+    // If any mask different than Alt, AltGr or Shift in progress, this is not a character
+    if (evt.getModifiers() != 0
+        && ((KeyEvent.ALT_GRAPH_MASK | KeyEvent.ALT_GRAPH_DOWN_MASK
+            | KeyEvent.ALT_MASK | KeyEvent.ALT_DOWN_MASK
+            | KeyEvent.SHIFT_MASK | KeyEvent.SHIFT_DOWN_MASK)
+            & evt.getModifiers()) == 0) {
+      return;
+    }
+    evt.consume();
+    insertInCommandLine(String.valueOf(keyChar));
+  }
+
+  // #########################################################################
+  // Implementation specific methods
+  /**
+   * Gets the background color of this component.
+   *
+   * @return this component's background color
+   * @see #setBackground(java.awt.Color)
+   */
+  public Color getBackground() {
+    return getView().getBackground();
+  }
+
+  /**
+   * Sets the background color of this component.
+   *
+   * <p>
+   * Setting the color to {@code null} is the same as {@code Color.black}.
+   * </p>
+   *
+   * @param backgroundColor the desired background {@code Color}
+   * @see #getBackground()
+   */
+  public void setBackground(Color backgroundColor) {
+    if (backgroundColor == null) {
+      backgroundColor = Color.black;
+    }
+    getView().setBackground(backgroundColor);
+  }
+
+  /**
+   * Gets the foreground color of this component.
+   *
+   * @return this component's foreground color
+   * @see #setForeground(java.awt.Color)
+   */
+  public Color getForeground() {
+    return getView().getForeground();
+  }
+
+  /**
+   * Sets the foreground color of this component, also used to paint the caret.
+   *
+   * <p>
+   * Setting the color to {@code null} is the same as {@code Color.white}.
+   * </p>
+   *
+   * @param foregroundColor the desired foreground {@code Color}
+   * @see #getForeground()
+   */
+  public void setForeground(Color foregroundColor) {
+    if (foregroundColor == null) {
+      foregroundColor = Color.white;
+    }
+    getView().setForeground(foregroundColor);
+  }
+
+  /**
+   * Gets the font of this component.
+   *
+   * @return this component's font
+   * @see #setFont(java.awt.Font)
+   */
+  public Font getFont() {
+    return getView().getFont();
+  }
+
+  /**
+   * Sets the current font.
+   *
+   * <p>
+   * The virtual view gives the same width to every character, so the font should be a fixed-pitch
+   * one.
+   * </p>
+   *
+   * @param f the font to use as the current font
+   * @see #getFont()
+   */
+  public void setFont(Font f) {
+    getView().setFont(f);
+    getView().revalidate();
+  }
+
+}
@@ -0,0 +1,596 @@
+package jswingshell.gui;
+
+import java.awt.Container;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Insets;
+import java.awt.Rectangle;
+import java.awt.event.FocusAdapter;
+import java.awt.event.FocusEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+
+import javax.swing.JComponent;
+import javax.swing.JViewport;
+import javax.swing.Scrollable;
+import javax.swing.SwingConstants;
+import javax.swing.SwingUtilities;
+
+import jswingshell.IJssController;
+import jswingshell.IJssView;
+import jswingshell.gui.buffer.IJssLineStore;
+import jswingshell.gui.buffer.JssDirectLineStore;
+import jswingshell.gui.buffer.JssLineStoreException;
+
+/**
+ * A virtualized Shell view, for sessions producing huge outputs.
+ *
+ * <p>
+ * Contrary to {@link JssTextArea}, this view is not backed by a Swing {@code Document}: completed
+ * lines are kept in an {@link IJssLineStore}, only the last line (the one holding the command line)
+ * is kept on the heap, and only the lines intersecting the visible viewport are laid out and
+ * painted. Scrolling and painting costs therefore do not depend on the size of the output.
+ * </p>
+ *
+ * <p>
+ * The line store defaults to a {@link JssDirectLineStore}. A
+ * {@link jswingshell.gui.buffer.JssSpillingLineStore} can be given instead for outputs too large to
+ * fit in memory: spilled lines are then only read back from disk when scrolled into view. The owner
+ * of the view is responsible for closing its line store once the view is no longer used.
+ * </p>
+ *
+ * <p>
+ * To keep the layout constant, this view assumes a fixed-pitch font: every character is given the
+ * same width. It is meant to be put in a {@code JScrollPane}, which provides the page by page
+ * navigation.
+ * </p>
+ *
+ * @author Mathieu Brunot
+ *
+ * @see JssVirtualShellController
+ *
+ * @since 1.4.5
+ */
+public class JssVirtualShellView extends JComponent implements IJssView, Scrollable {
+
+  /**
+   * The {@code serialVersionUID}.
+   */
+  private static final long serialVersionUID = 6514532908471254716L;
+
+  /**
+   * The line separator used by {@link #append(String)} and {@link #getShellText()}.
+   */
+  protected static final char NEW_LINE = '\n';
+
+  /**
+   * The text painted instead of a line which could not be read back from the line store.
+   */
+  protected static final String UNAVAILABLE_LINE = "<line unavailable>";
+
+  /**
+   * The number of columns of the preferred viewport.
+   */
+  protected static final int DEFAULT_COLUMNS = 80;
+
+  /**
+   * The number of rows of the preferred viewport.
+   */
+  protected static final int DEFAULT_ROWS = 24;
+
+  /**
+   * The default fixed-pitch font.
+   */
+  protected static final Font DEFAULT_FONT = new Font(Font.MONOSPACED, Font.PLAIN, 12);
+
+  private transient IJssController controller;
+
+  private transient IJssLineStore lineStore;
+
+  /**
+   * The last line, not yet completed.
+   */
+  private final StringBuilder lastLine = new StringBuilder();
+
+  /**
+   * Length of the longest line, used to compute the preferred width.
+   */
+  private int maxColumns = 0;
+
+  /**
+   * The position of the caret in the last line.
+   */
+  private int caretColumn = 0;
+
+  private boolean editable = true;
+
+  private transient boolean scrollToEndScheduled = false;
+
+  // #########################################################################
+  // Constructors
+  public JssVirtualShellView() {
+    this(null, new JssDirectLineStore());
+  }
+
+  public JssVirtualShellView(IJssLineStore lineStore) {
+    this(null, lineStore);
+  }
+
+  public JssVirtualShellView(JssVirtualShellController controller) {
+    this(controller, new JssDirectLineStore());
+  }
+
+  public JssVirtualShellView(IJssController controller, IJssLineStore lineStore) {
+    super();
+    if (lineStore == null) {
+      throw new IllegalArgumentException("A line store is required!");
+    }
+    this.controller = controller;
+    this.lineStore = lineStore;
+    setOpaque(true);
+    setFocusable(true);
+    setFont(DEFAULT_FONT);
+    addMouseListener(new MouseAdapter() {
+
+      @Override
+      public void mousePressed(MouseEvent e) {
+        requestFocusInWindow();
+      }
+
+    });
+    addFocusListener(new FocusAdapter() {
+
+      @Override
+      public void focusGained(FocusEvent e) {
+        repaintLastLine();
+      }
+
+      @Override
+      public void focusLost(FocusEvent e) {
+        repaintLastLine();
+      }
+
+    });
+  }
+
+  // #########################################################################
+  // MVC methods
+  @Override
+  public JssVirtualShellController getController() {
+    return (JssVirtualShellController) controller;
+  }
+
+  public void setController(IJssController controller) {
+    // Remove previous controller from key listeners
+    if (getController() != null) {
+      removeKeyListener(getController());
+    }
+
+    this.controller = controller;
+
+    // Initialize key listener for the new controller
+    if (controller instanceof JssVirtualShellController) {
+      addKeyListener((JssVirtualShellController) controller);
+    }
+  }
+
+  /**
+   * Get the store holding the completed lines of this view.
+   *
+   * @return the line store of this view.
+   */
+  public IJssLineStore getLineStore() {
+    return lineStore;
+  }
+
+  // #########################################################################
+  // Lines methods
+  /**
+   * Get the number of lines displayed by this view, the last line included.
+   *
+   * @return the number of lines of this view.
+   */
+  public int getLineCount() {
+    synchronized (lastLine) {
+      return lineStore.size() + 1;
+    }
+  }
+
+  /**
+   * Get a line of this view.
+   *
+   * @param index the index of the line.
+   *
+   * @return the line at the given index.
+   *
+   * @throws IndexOutOfBoundsException if the index is out of range
+   *         {@code (index < 0 || index >= getLineCount())}
+   * @throws JssLineStoreException if the line could not be read back from the line store.
+   */
+  public String getLine(int index) {
+    synchronized (lastLine) {
+      if (index == lineStore.size()) {
+        return lastLine.toString();
+      }
+      return lineStore.get(index);
+    }
+  }
+
+  /**
+   * Get the last line of this view, the one which has not been completed yet.
+   *
+   * @return the last line.
+   */
+  public String getLastLine() {
+    synchronized (lastLine) {
+      return lastLine.toString();
+    }
+  }
+
+  /**
+   * Replace the last line of this view.
+   *
+   * @param newLastLine the new last line. It should not contain any line separator.
+   */
+  public void setLastLine(String newLastLine) {
+    synchronized (lastLine) {
+      lastLine.setLength(0);
+      if (newLastLine != null) {
+        lastLine.append(newLastLine);
+      }
+      maxColumns = Math.max(maxColumns, lastLine.length());
+      caretColumn = Math.min(caretColumn, lastLine.length());
+    }
+    revalidate();
+    repaintLastLine();
+  }
+
+  /**
+   * Append some text at the end of this view.
+   *
+   * <p>
+   * Each line separator completes the last line, which is then moved to the line store.
+   * </p>
+   *
+   * @param text the text to append.
+   */
+  public void append(String text) {
+    if (text == null || text.isEmpty()) {
+      return;
+    }
+    synchronized (lastLine) {
+      int start = 0;
+      int end;
+      while ((end = text.indexOf(NEW_LINE, start)) != -1) {
+        lastLine.append(text, start, end);
+        completeLastLine();
+        start = end + 1;
+      }
+      lastLine.append(text, start, text.length());
+      maxColumns = Math.max(maxColumns, lastLine.length());
+    }
+    revalidate();
+    repaint();
+    scheduleScrollToEnd();
+  }
+
+  private void completeLastLine() {
+    int length = lastLine.length();
+    // Ignore carriage returns of Windows line separators
+    if (length > 0 && lastLine.charAt(length - 1) == '\r') {
+      lastLine.setLength(--length);
+    }
+    maxColumns = Math.max(maxColumns, length);
+    lineStore.append(lastLine);
+    lastLine.setLength(0);
+    caretColumn = 0;
+  }
+
+  /**
+   * Get the position of the caret in the last line.
+   *
+   * @return the position of the caret in the last line.
+   */
+  public int getCaretColumn() {
+    synchronized (lastLine) {
+      return caretColumn;
+    }
+  }
+
+  /**
+   * Set the position of the caret in the last line.
+   *
+   * @param column the new position of the caret, bounded to the last line.
+   */
+  public void setCaretColumn(int column) {
+    synchronized (lastLine) {
+      caretColumn = Math.max(0, Math.min(column, lastLine.length()));
+    }
+    repaintLastLine();
+  }
+
+  // #########################################################################
+  // Layout and painting methods
+  /**
+   * Get the height of a line.
+   *
+   * @return the height of a line, in pixels.
+   */
+  public int getRowHeight() {
+    return Math.max(1, getFontMetrics(getFont()).getHeight());
+  }
+
+  /**
+   * Get the width of a character.
+   *
+   * @return the width of a character, in pixels.
+   */
+  public int getColumnWidth() {
+    return Math.max(1, getFontMetrics(getFont()).charWidth('m'));
+  }
+
+  /**
+   * Get the bounds of a line in this view.
+   *
+   * @param index the index of the line.
+   *
+   * @return the bounds of the line.
+   */
+  public Rectangle getLineBounds(int index) {
+    Insets insets = getInsets();
+    int rowHeight = getRowHeight();
+    long y = insets.top + (long) index * rowHeight;
+    return new Rectangle(0, (int) Math.min(y, Integer.MAX_VALUE - rowHeight),
+        Math.max(getWidth(), 1), rowHeight);
+  }
+
+  /**
+   * Scroll this view so that its last line is visible.
+   */
+  public void scrollToEnd() {
+    Rectangle bounds = getLineBounds(getLineCount() - 1);
+    bounds.x = 0;
+    bounds.width = 1;
+    scrollRectToVisible(bounds);
+  }
+
+  /**
+   * Scroll to the end once the current event has been processed, as many lines may be appended in
+   * a row.
+   */
+  private void scheduleScrollToEnd() {
+    synchronized (lastLine) {
+      if (scrollToEndScheduled) {
+        return;
+      }
+      scrollToEndScheduled = true;
+    }
+    SwingUtilities.invokeLater(new Runnable() {
+
+      @Override
+      public void run() {
+        synchronized (lastLine) {
+          scrollToEndScheduled = false;
+        }
+        scrollToEnd();
+      }
+
+    });
+  }
+
+  private void repaintLastLine() {
+    repaint(getLineBounds(getLineCount() - 1));
+  }
+
+  @Override
+  public Dimension getPreferredSize() {
+    if (isPreferredSizeSet()) {
+      return super.getPreferredSize();
+    }
+    Insets insets = getInsets();
+    long width = insets.left + insets.right + (long) (maxColumns + 1) * getColumnWidth();
+    long height = insets.top + insets.bottom + (long) getLineCount() * getRowHeight();
+    return new Dimension((int) Math.min(width, Integer.MAX_VALUE),
+        (int) Math.min(height, Integer.MAX_VALUE));
+  }
+
+  @Override
+  protected void paintComponent(Graphics g) {
+    Rectangle clip = g.getClipBounds();
+    if (clip == null) {
+      clip = new Rectangle(0, 0, getWidth(), getHeight());
+    }
+    if (isOpaque()) {
+      g.setColor(getBackground());
+      g.fillRect(clip.x, clip.y, clip.width, clip.height);
+    }
+
+    g.setFont(getFont());
+    FontMetrics metrics = g.getFontMetrics();
+    Insets insets = getInsets();
+    int rowHeight = getRowHeight();
+    int columnWidth = getColumnWidth();
+
+    // Only the lines and columns intersecting the clip are painted
+    int lineCount = getLineCount();
+    int firstRow = Math.max(0, (clip.y - insets.top) / rowHeight);
+    int lastRow = Math.min(lineCount - 1, (clip.y + clip.height - insets.top) / rowHeight);
+    int firstColumn = Math.max(0, (clip.x - insets.left) / columnWidth);
+    int lastColumn = (clip.x + clip.width - insets.left) / columnWidth + 1;
+
+    g.setColor(getForeground());
+    for (int i = firstRow; i <= lastRow; i++) {
+      String line;
+      try {
+        line = getLine(i);
+      } catch (JssLineStoreException e) {
+        // Do not paint a lost line as if it were blank
+        line = UNAVAILABLE_LINE;
+      }
+      if (line.length() > firstColumn) {
+        String visible = line.substring(firstColumn, Math.min(line.length(), lastColumn));
+        g.drawString(visible, insets.left + firstColumn * columnWidth,
+            insets.top + i * rowHeight + metrics.getAscent());
+      }
+    }
+
+    // Paint the caret in the last line
+    if (isEditable() && hasFocus() && lastRow == lineCount - 1) {
+      g.fillRect(insets.left + getCaretColumn() * columnWidth,
+          insets.top + lastRow * rowHeight, 2, rowHeight);
+    }
+  }
+
+  // #########################################################################
+  // Scrollable methods
+  @Override
+  public Dimension getPreferredScrollableViewportSize() {
+    Insets insets = getInsets();
+    return new Dimension(insets.left + insets.right + DEFAULT_COLUMNS * getColumnWidth(),
+        insets.top + insets.bottom + DEFAULT_ROWS * getRowHeight());
+  }
+
+  @Override
+  public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation,
+      int direction) {
+    return orientation == SwingConstants.VERTICAL ? getRowHeight() : getColumnWidth();
+  }
+
+  @Override
+  public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation,
+      int direction) {
+    if (orientation == SwingConstants.VERTICAL) {
+      return Math.max(getRowHeight(), visibleRect.height - getRowHeight());
+    }
+    return Math.max(getColumnWidth(), visibleRect.width - getColumnWidth());
+  }
+
+  @Override
+  public boolean getScrollableTracksViewportWidth() {
+    Container parent = SwingUtilities.getUnwrappedParent(this);
+    return parent instanceof JViewport && parent.getWidth() > getPreferredSize().width;
+  }
+
+  @Override
+  public boolean getScrollableTracksViewportHeight() {
+    Container parent = SwingUtilities.getUnwrappedParent(this);
+    return parent instanceof JViewport && parent.getHeight() > getPreferredSize().height;
+  }
+
+  // #########################################################################
+  // Shell related methods
+  /**
+   * {@inheritDoc }.
+   *
+   * <p>
+   * <strong>Beware:</strong> this builds a single {@code String} out of the whole line store.
+   * </p>
+   */
+  @Override
+  public String getShellText() {
+    synchronized (lastLine) {
+      int size = lineStore.size();
+      StringBuilder shellText = new StringBuilder(
+          (int) Math.min(Integer.MAX_VALUE - 8, lineStore.length() + size + lastLine.length()));
+      for (int i = 0; i < size; i++) {
+        shellText.append(lineStore.get(i)).append(NEW_LINE);
+      }
+      return shellText.append(lastLine).toString();
+    }
+  }
+
+  /**
+   * Get the number of characters of the shell text, without building it.
+   *
+   * @return the number of characters of the shell text, line separators included.
+   *
+   * @since 1.4.5
+   */
+  public long getShellTextLength() {
+    synchronized (lastLine) {
+      return lineStore.length() + lineStore.size() + lastLine.length();
+    }
+  }
+
+  @Override
+  public void setShellText(String newShellText) {
+    synchronized (lastLine) {
+      lineStore.clear();
+      lastLine.setLength(0);
+      maxColumns = 0;
+      caretColumn = 0;
+    }
+    if (newShellText != null) {
+      append(newShellText);
+    } else {
+      revalidate();
+      repaint();
+    }
+  }
+
+  /**
+   * Is this view editable?
+   *
+   * @return {@code true} if the command line can be edited.
+   */
+  public boolean isEditable() {
+    return editable;
+  }
+
+  /**
+   * Set whether this view is editable.
+   *
+   * @param editable {@code true} if the command line can be edited.
+   */
+  public void setEditable(boolean editable) {
+    this.editable = editable;
+    repaintLastLine();
+  }
+
+  @Override
+  public boolean isShellTextAreaLocked() {
+    return !isEditable();
+  }
+
+  @Override
+  public void lockShellTextArea() {
+    setEditable(false);
+  }
+
+  @Override
+  public void unlockShellTextArea() {
+    setEditable(true);
+  }
+
+  // #########################################################################
+  // Command line related methods
+  @Override
+  public String getCommandLine() {
+    // For this kind of complicated view, delegate to controller
+    return getController().getCommandLine();
+  }
+
+  @Override
+  public void setCommandLine(String newCommandLine) {
+    // For this kind of complicated view, delegate to controller
+    getController().setCommandLine(newCommandLine);
+  }
+
+  @Override
+  public boolean isCommandLineLocked() {
+    return !isEditable();
+  }
+
+  @Override
+  public void lockCommandLine() {
+    setEditable(false);
+  }
+
+  @Override
+  public void unlockCommandLine() {
+    setEditable(true);
+  }
+
+}
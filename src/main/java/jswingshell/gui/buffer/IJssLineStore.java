@@ -0,0 +1,78 @@
+package jswingshell.gui.buffer;
+
+import java.io.Closeable;
+
+/**
+ * An append-only store of shell lines.
+ *
+ * <p>
+ * A line store holds the completed lines of a shell output, without their line separator, and
+ * gives random access to them by index. Implementations are free to keep the lines out of the Java
+ * heap so that a session can hold much more output than a Swing {@code Document} could.
+ * </p>
+ *
+ * <p>
+ * Implementations must be safe to use from several threads: lines may be appended by a worker
+ * while the Event Dispatch Thread reads them for painting.
+ * </p>
+ *
+ * @author Mathieu Brunot
+ *
+ * @since 1.4.5
+ */
+public interface IJssLineStore extends Closeable {
+
+  /**
+   * Append a line at the end of the store.
+   *
+   * @param line the line to append, without line separator. {@code null} is stored as an empty
+   *        line.
+   *
+   * @return the index of the appended line.
+   */
+  public int append(CharSequence line);
+
+  /**
+   * Get a line of the store.
+   *
+   * @param index the index of the line.
+   *
+   * @return the line at the given index.
+   *
+   * @throws IndexOutOfBoundsException if the index is out of range
+   *         {@code (index < 0 || index >= size())}
+   * @throws JssLineStoreException if the line could not be read back from the storage of the
+   *         store.
+   */
+  public String get(int index);
+
+  /**
+   * Get the number of lines in the store.
+   *
+   * @return the number of lines in the store.
+   */
+  public int size();
+
+  /**
+   * Get the total number of characters in the store, line separators excluded.
+   *
+   * @return the total number of characters in the store.
+   */
+  public long length();
+
+  /**
+   * Remove all the lines from the store.
+   */
+  public void clear();
+
+  /**
+   * Release the resources held by this store.
+   *
+   * <p>
+   * The store should not be used afterwards.
+   * </p>
+   */
+  @Override
+  public void close();
+
+}
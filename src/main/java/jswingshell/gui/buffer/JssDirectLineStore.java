@@ -0,0 +1,188 @@
+package jswingshell.gui.buffer;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A line store keeping its lines out of the Java heap.
+ *
+ * <p>
+ * Lines are encoded in {@code UTF-8} and written one after the other in fixed size chunks of
+ * direct memory. The start of each line is recorded in an index, itself stored in direct memory,
+ * so that the heap footprint of the store does not depend on the number of lines it holds.
+ * </p>
+ *
+ * <p>
+ * Chunks are allocated lazily, as the output grows, and released all at once when the store is
+ * {@link #clear() cleared}.
+ * </p>
+ *
+ * @author Mathieu Brunot
+ *
+ * @since 1.4.5
+ */
+public class JssDirectLineStore implements IJssLineStore {
+
+  /**
+   * The default size of a data chunk, in bytes.
+   */
+  public static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+
+  /**
+   * The number of line offsets held by an index chunk.
+   */
+  private static final int INDEX_CHUNK_LINES = 1 << 16;
+
+  /**
+   * The charset used to encode the lines.
+   */
+  protected static final Charset CHARSET = StandardCharsets.UTF_8;
+
+  private final int chunkSize;
+
+  private final List<ByteBuffer> dataChunks = new ArrayList<>();
+
+  private final List<LongBuffer> indexChunks = new ArrayList<>();
+
+  /**
+   * Number of bytes written in the data chunks.
+   */
+  private long position = 0;
+
+  private int size = 0;
+
+  private long length = 0;
+
+  // #########################################################################
+  // Constructors
+  public JssDirectLineStore() {
+    this(DEFAULT_CHUNK_SIZE);
+  }
+
+  /**
+   * Create a line store with a given data chunk size.
+   *
+   * @param chunkSize the size of each data chunk, in bytes.
+   *
+   * @throws IllegalArgumentException if {@code chunkSize} is not strictly positive.
+   */
+  public JssDirectLineStore(int chunkSize) {
+    if (chunkSize <= 0) {
+      throw new IllegalArgumentException("Chunk size must be strictly positive: " + chunkSize);
+    }
+    this.chunkSize = chunkSize;
+  }
+
+  // #########################################################################
+  // Line store methods
+  @Override
+  public synchronized int append(CharSequence line) {
+    if (size == Integer.MAX_VALUE) {
+      throw new IllegalStateException("Line store is full");
+    }
+    String text = line == null ? "" : line.toString();
+    setOffset(size, position);
+    write(text.getBytes(CHARSET));
+    length += text.length();
+    return size++;
+  }
+
+  @Override
+  public synchronized String get(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+    long start = getOffset(index);
+    long end = index + 1 < size ? getOffset(index + 1) : position;
+    return new String(read(start, (int) (end - start)), CHARSET);
+  }
+
+  @Override
+  public synchronized int size() {
+    return size;
+  }
+
+  @Override
+  public synchronized long length() {
+    return length;
+  }
+
+  @Override
+  public synchronized void clear() {
+    dataChunks.clear();
+    indexChunks.clear();
+    position = 0;
+    size = 0;
+    length = 0;
+  }
+
+  @Override
+  public void close() {
+    clear();
+  }
+
+  /**
+   * Get the number of bytes of direct memory currently allocated by this store.
+   *
+   * @return the number of bytes of direct memory allocated.
+   */
+  public synchronized long getAllocatedBytes() {
+    return (long) dataChunks.size() * chunkSize
+        + (long) indexChunks.size() * INDEX_CHUNK_LINES * 8;
+  }
+
+  // #########################################################################
+  // Chunk management
+  private void setOffset(int index, long offset) {
+    int chunk = index / INDEX_CHUNK_LINES;
+    if (chunk == indexChunks.size()) {
+      indexChunks.add(ByteBuffer.allocateDirect(INDEX_CHUNK_LINES * 8).asLongBuffer());
+    }
+    indexChunks.get(chunk).put(index % INDEX_CHUNK_LINES, offset);
+  }
+
+  private long getOffset(int index) {
+    return indexChunks.get(index / INDEX_CHUNK_LINES).get(index % INDEX_CHUNK_LINES);
+  }
+
+  private void write(byte[] bytes) {
+    int written = 0;
+    while (written < bytes.length) {
+      int chunk = (int) (position / chunkSize);
+      int offset = (int) (position % chunkSize);
+      if (chunk == dataChunks.size()) {
+        dataChunks.add(ByteBuffer.allocateDirect(chunkSize));
+      }
+      ByteBuffer buffer = dataChunks.get(chunk);
+      int count = Math.min(bytes.length - written, chunkSize - offset);
+      // Cast to Buffer to stay binary compatible with older runtimes
+      ((Buffer) buffer).position(offset);
+      buffer.put(bytes, written, count);
+      written += count;
+      position += count;
+    }
+  }
+
+  private byte[] read(long start, int count) {
+    byte[] bytes = new byte[count];
+    int read = 0;
+    long current = start;
+    while (read < count) {
+      int chunk = (int) (current / chunkSize);
+      int offset = (int) (current % chunkSize);
+      ByteBuffer buffer = dataChunks.get(chunk);
+      int length = Math.min(count - read, chunkSize - offset);
+      ((Buffer) buffer).position(offset);
+      buffer.get(bytes, read, length);
+      read += length;
+      current += length;
+    }
+    return bytes;
+  }
+
+}
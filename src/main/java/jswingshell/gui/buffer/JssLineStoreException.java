@@ -0,0 +1,21 @@
+package jswingshell.gui.buffer;
+
+/**
+ * Thrown when the lines of a {@link IJssLineStore} cannot be read back from its storage.
+ *
+ * @author Mathieu Brunot
+ *
+ * @since 1.4.5
+ */
+public class JssLineStoreException extends RuntimeException {
+
+  /**
+   * The {@code serialVersionUID}.
+   */
+  private static final long serialVersionUID = 2964187409917340211L;
+
+  public JssLineStoreException(String message, Throwable cause) {
+    super(message, cause);
+  }
+
+}
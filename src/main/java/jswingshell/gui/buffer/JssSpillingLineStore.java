@@ -0,0 +1,340 @@
+package jswingshell.gui.buffer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A line store keeping the most recent lines on the heap and spilling the older ones to disk.
+ *
+ * <p>
+ * Lines are grouped in segments of a fixed number of lines. Once more than a given number of
+ * segments are held on the heap, the oldest one is encoded in {@code UTF-8} and written at the end
+ * of a temporary file through a {@code FileChannel}. Spilled segments are read back on demand, a
+ * whole segment at a time, and the last ones read are kept in a small cache so that scrolling
+ * through them does not hit the disk for every line.
+ * </p>
+ *
+ * <p>
+ * The temporary file is created on the first spill, and deleted when the store is
+ * {@link #close() closed}.
+ * </p>
+ *
+ * @author Mathieu Brunot
+ *
+ * @since 1.4.5
+ */
+public class JssSpillingLineStore implements IJssLineStore {
+
+  /**
+   * Logger.
+   */
+  private static final Logger LOGGER =
+      Logger.getLogger(JssSpillingLineStore.class.getName());
+
+  /**
+   * The default number of lines of a segment.
+   */
+  public static final int DEFAULT_SEGMENT_LINES = 4096;
+
+  /**
+   * The default number of segments kept on the heap.
+   */
+  public static final int DEFAULT_HEAP_SEGMENTS = 4;
+
+  /**
+   * The default number of spilled segments cached on the heap once read back.
+   */
+  public static final int DEFAULT_CACHED_SEGMENTS = 4;
+
+  /**
+   * The charset used to encode the spilled lines.
+   */
+  protected static final Charset CHARSET = StandardCharsets.UTF_8;
+
+  private static final String TEMP_FILE_PREFIX = "jss-output-";
+
+  private static final String TEMP_FILE_SUFFIX = ".tmp";
+
+  private final int segmentLines;
+
+  private final int heapSegments;
+
+  private final File directory;
+
+  /**
+   * The lines not spilled yet.
+   */
+  private final List<String> recentLines = new ArrayList<>();
+
+  /**
+   * The position of each spilled segment in the file, the last element being the end of the file.
+   */
+  private long[] segmentOffsets = new long[16];
+
+  private int spilledSegments = 0;
+
+  private final Map<Integer, String[]> segmentCache;
+
+  private File spillFile;
+
+  private RandomAccessFile spillRandomAccessFile;
+
+  private FileChannel spillChannel;
+
+  private long length = 0;
+
+  // #########################################################################
+  // Constructors
+  public JssSpillingLineStore() {
+    this(DEFAULT_SEGMENT_LINES, DEFAULT_HEAP_SEGMENTS, DEFAULT_CACHED_SEGMENTS, null);
+  }
+
+  /**
+   * Create a line store spilling its lines to a temporary file.
+   *
+   * @param segmentLines the number of lines of a segment.
+   * @param heapSegments the number of segments kept on the heap before spilling.
+   * @param cachedSegments the number of spilled segments cached once read back.
+   * @param directory the directory of the temporary file, {@code null} for the default temporary
+   *        directory.
+   *
+   * @throws IllegalArgumentException if a size is not strictly positive.
+   */
+  public JssSpillingLineStore(int segmentLines, int heapSegments, final int cachedSegments,
+      File directory) {
+    if (segmentLines <= 0 || heapSegments <= 0 || cachedSegments <= 0) {
+      throw new IllegalArgumentException("Segment sizes must be strictly positive");
+    }
+    this.segmentLines = segmentLines;
+    this.heapSegments = heapSegments;
+    this.directory = directory;
+    this.segmentCache = new LinkedHashMap<Integer, String[]>(cachedSegments + 1, 1f, true) {
+
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Integer, String[]> eldest) {
+        return size() > cachedSegments;
+      }
+
+    };
+  }
+
+  // #########################################################################
+  // Line store methods
+  @Override
+  public synchronized int append(CharSequence line) {
+    if (size() == Integer.MAX_VALUE) {
+      throw new IllegalStateException("Line store is full");
+    }
+    String text = line == null ? "" : line.toString();
+    recentLines.add(text);
+    length += text.length();
+    if (recentLines.size() >= (heapSegments + 1) * segmentLines) {
+      spillOldestSegment();
+    }
+    return size() - 1;
+  }
+
+  /**
+   * {@inheritDoc }.
+   *
+   * @throws JssLineStoreException if the segment of the line could not be read from the spill
+   *         file.
+   */
+  @Override
+  public synchronized String get(int index) {
+    int spilledLines = getSpilledLineCount();
+    if (index < 0 || index >= spilledLines + recentLines.size()) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+    }
+    if (index >= spilledLines) {
+      return recentLines.get(index - spilledLines);
+    }
+    return getSpilledSegment(index / segmentLines)[index % segmentLines];
+  }
+
+  @Override
+  public synchronized int size() {
+    return getSpilledLineCount() + recentLines.size();
+  }
+
+  @Override
+  public synchronized long length() {
+    return length;
+  }
+
+  @Override
+  public synchronized void clear() {
+    recentLines.clear();
+    segmentCache.clear();
+    spilledSegments = 0;
+    length = 0;
+    if (spillChannel != null) {
+      try {
+        spillChannel.truncate(0);
+      } catch (IOException e) {
+        LOGGER.log(Level.WARNING, "Could not truncate spill file: {0}", e.getMessage());
+      }
+    }
+  }
+
+  @Override
+  public synchronized void close() {
+    clear();
+    if (spillRandomAccessFile != null) {
+      try {
+        spillRandomAccessFile.close();
+      } catch (IOException e) {
+        LOGGER.log(Level.WARNING, "Could not close spill file: {0}", e.getMessage());
+      }
+      if (!spillFile.delete()) {
+        LOGGER.log(Level.WARNING, "Could not delete spill file: {0}", spillFile);
+      }
+      spillRandomAccessFile = null;
+      spillChannel = null;
+      spillFile = null;
+    }
+  }
+
+  /**
+   * Get the number of lines spilled to disk.
+   *
+   * @return the number of lines spilled to disk.
+   */
+  public synchronized int getSpilledLineCount() {
+    return spilledSegments * segmentLines;
+  }
+
+  /**
+   * Get the number of bytes spilled to disk.
+   *
+   * @return the number of bytes spilled to disk.
+   */
+  public synchronized long getSpilledBytes() {
+    return spilledSegments == 0 ? 0 : segmentOffsets[spilledSegments];
+  }
+
+  /**
+   * Get the temporary file holding the spilled lines.
+   *
+   * @return the temporary file, {@code null} if no line was spilled yet.
+   */
+  public synchronized File getSpillFile() {
+    return spillFile;
+  }
+
+  // #########################################################################
+  // Spill management
+  /**
+   * Write the oldest segment held on the heap at the end of the spill file.
+   *
+   * <p>
+   * A segment is written as its number of lines, followed by the length in bytes of each line and
+   * the encoded lines themselves. If the segment cannot be written, it is kept on the heap.
+   * </p>
+   */
+  private void spillOldestSegment() {
+    List<String> segment = recentLines.subList(0, segmentLines);
+    try {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      DataOutputStream output = new DataOutputStream(bytes);
+      byte[][] encodedLines = new byte[segment.size()][];
+      output.writeInt(encodedLines.length);
+      for (int i = 0; i < encodedLines.length; i++) {
+        encodedLines[i] = segment.get(i).getBytes(CHARSET);
+        output.writeInt(encodedLines[i].length);
+      }
+      for (byte[] encodedLine : encodedLines) {
+        output.write(encodedLine);
+      }
+      output.flush();
+
+      long offset = getSpilledBytes();
+      ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+      FileChannel channel = getSpillChannel();
+      long position = offset;
+      while (buffer.hasRemaining()) {
+        position += channel.write(buffer, position);
+      }
+
+      if (spilledSegments + 1 >= segmentOffsets.length) {
+        segmentOffsets = Arrays.copyOf(segmentOffsets, segmentOffsets.length * 2);
+      }
+      segmentOffsets[spilledSegments] = offset;
+      segmentOffsets[++spilledSegments] = position;
+      segment.clear();
+    } catch (IOException e) {
+      LOGGER.log(Level.SEVERE, "Could not spill output lines to disk: {0}", e.getMessage());
+    }
+  }
+
+  private FileChannel getSpillChannel() throws IOException {
+    if (spillChannel == null) {
+      spillFile = File.createTempFile(TEMP_FILE_PREFIX, TEMP_FILE_SUFFIX, directory);
+      spillFile.deleteOnExit();
+      spillRandomAccessFile = new RandomAccessFile(spillFile, "rw");
+      spillChannel = spillRandomAccessFile.getChannel();
+    }
+    return spillChannel;
+  }
+
+  /**
+   * Get the lines of a spilled segment, from the cache or from the spill file.
+   *
+   * @param segmentIndex the index of the segment.
+   *
+   * @return the lines of the segment.
+   *
+   * @throws JssLineStoreException if the segment could not be read from the spill file.
+   */
+  private String[] getSpilledSegment(int segmentIndex) {
+    String[] lines = segmentCache.get(segmentIndex);
+    if (lines != null) {
+      return lines;
+    }
+
+    long offset = segmentOffsets[segmentIndex];
+    int size = (int) (segmentOffsets[segmentIndex + 1] - offset);
+    ByteBuffer buffer = ByteBuffer.allocate(size);
+    try {
+      long position = offset;
+      while (buffer.hasRemaining()) {
+        int read = spillChannel.read(buffer, position);
+        if (read < 0) {
+          throw new IOException("Unexpected end of spill file");
+        }
+        position += read;
+      }
+    } catch (IOException e) {
+      throw new JssLineStoreException("Could not read output lines from disk", e);
+    }
+
+    byte[] bytes = buffer.array();
+    int lineCount = buffer.getInt(0);
+    lines = new String[lineCount];
+    int lineOffset = 4 * (lineCount + 1);
+    for (int i = 0; i < lineCount; i++) {
+      int lineLength = buffer.getInt(4 * (i + 1));
+      lines[i] = new String(bytes, lineOffset, lineLength, CHARSET);
+      lineOffset += lineLength;
+    }
+    segmentCache.put(segmentIndex, lines);
+    return lines;
+  }
+
+}
@@ -0,0 +1,12 @@
+/**
+ * The <strong>JSwingShell</strong> <em>GUI</em> output buffers.
+ *
+ * <p>
+ * This package contains the line stores used by the virtualized shell views to hold huge outputs
+ * outside of a Swing {@code Document}.
+ * </p>
+ *
+ * @since 1.4.5
+ */
+
+package jswingshell.gui.buffer;
@@ -24,8 +24,15 @@ package jswingshell;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
 
 import java.beans.PropertyChangeListener;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
@@ -36,8 +43,11 @@ import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import jswingshell.action.AbstractJssAction;
 import jswingshell.action.AbstractThreadedJssAction;
 import jswingshell.action.IJssAction;
+import jswingshell.action.JssPipeline;
+import jswingshell.action.JssPipelineTest;
 import jswingshell.gui.AbstractJssTextArea;
 
 /**
@@ -246,6 +256,24 @@ public class AbstractJssControllerTest {
     instance.setShellText(newShellText);
   }
 
+  /**
+   * Test of exportShellText method, of class AbstractJssController.
+   */
+  @Test
+  public void testExportShellText() throws IOException {
+    System.out.println("exportShellText");
+    AbstractJssController instance = new AbstractJssControllerImpl();
+    File file = File.createTempFile("jss-test-", ".txt");
+    try {
+      long result = instance.exportShellText(file);
+      byte[] expResult = "".getBytes(StandardCharsets.UTF_8);
+      assertEquals(expResult.length, result);
+      assertArrayEquals(expResult, Files.readAllBytes(file.toPath()));
+    } finally {
+      file.delete();
+    }
+  }
+
   /**
    * Test of clearShell method, of class AbstractJssController.
    */
@@ -355,6 +383,49 @@ public class AbstractJssControllerTest {
     assertNotEquals(notExpResult, result);
   }
 
+  /**
+   * Test of extractPipelineCommands method, of class AbstractJssController.CommandLineParser.
+   */
+  @Test
+  public void testExtractPipelineCommands() {
+    System.out.println("extractPipelineCommands");
+    AbstractJssController.CommandLineParser instance =
+        new AbstractJssControllerImpl().getCommandLineParser();
+    assertEquals(Collections.emptyList(), instance.extractPipelineCommands(null));
+    assertEquals(Arrays.asList("cmd arg"), instance.extractPipelineCommands(" cmd arg "));
+    assertEquals(Arrays.asList("cmd1 \"a | b\"", "cmd2", ""),
+        instance.extractPipelineCommands("cmd1 \"a | b\" |cmd2|"));
+    assertEquals(Arrays.asList("cmd1 \"a\\\" | b\"", "cmd2 \\\\", "cmd3"),
+        instance.extractPipelineCommands("cmd1 \"a\\\" | b\" | cmd2 \\\\| cmd3"));
+  }
+
+  /**
+   * Test of extractChainedCommands method, of class AbstractJssController.CommandLineParser.
+   */
+  @Test
+  public void testExtractChainedCommands() {
+    System.out.println("extractChainedCommands");
+    AbstractJssController.CommandLineParser instance =
+        new AbstractJssControllerImpl().getCommandLineParser();
+    assertEquals(0, instance.extractChainedCommands("").size());
+
+    List<AbstractJssController.ChainedCommand> result =
+        instance.extractChainedCommands("cmd1 && cmd2 \"a || b\"||cmd3 | cmd4; cmd5 &arg;");
+    assertEquals(4, result.size());
+    assertEquals(AbstractJssController.ChainOperator.SEQUENCE, result.get(0).getOperator());
+    assertEquals("cmd1", result.get(0).getCommand());
+    assertEquals(AbstractJssController.ChainOperator.AND, result.get(1).getOperator());
+    assertEquals("cmd2 \"a || b\"", result.get(1).getCommand());
+    assertEquals(AbstractJssController.ChainOperator.OR, result.get(2).getOperator());
+    assertEquals("cmd3 | cmd4", result.get(2).getCommand());
+    assertEquals(AbstractJssController.ChainOperator.SEQUENCE, result.get(3).getOperator());
+    assertEquals("cmd5 &arg", result.get(3).getCommand());
+
+    result = instance.extractChainedCommands("cmd1 &&");
+    assertEquals(2, result.size());
+    assertEquals("", result.get(1).getCommand());
+  }
+
   /**
    * Test of getCommandParameterSeparator method, of class AbstractJssController.
    */
@@ -431,6 +502,136 @@ public class AbstractJssControllerTest {
     assertEquals(expResult, result);
   }
 
+  /**
+   * Test of interpretCommand method, of class AbstractJssController.
+   */
+  @Test
+  public void testInterpretCommand_pipeline() {
+    System.out.println("interpretCommand");
+    AbstractJssController instance = new AbstractJssControllerImpl();
+    instance.getModel().add(new JssPipelineTest.SeqAction());
+    instance.getModel().add(new JssPipelineTest.CountAction());
+    instance.getModel().add(new AbstractJssAction() {
+
+      @Override
+      public String[] getCommandIdentifiers() {
+        return new String[] {"notpiped"};
+      }
+
+      @Override
+      public int run(IJssController shellController, String... args) {
+        return IJssAction.SUCCESS;
+      }
+
+      @Override
+      public String getHelp(IJssController shellController) {
+        return "";
+      }
+
+      @Override
+      public String getBriefHelp() {
+        return "";
+      }
+
+    });
+
+    assertEquals(AbstractJssController.COMMAND_EMPTY_STATUS,
+        instance.interpretCommand("seq 3 | "));
+    assertEquals(AbstractJssController.COMMAND_NOT_FOUND_STATUS,
+        instance.interpretCommand("seq 3 | unknown"));
+    assertEquals(AbstractJssController.COMMAND_ERROR,
+        instance.interpretCommand("seq 3 | notpiped"));
+
+    int result = instance.interpretCommand("seq 3 | count");
+    assertEquals(AbstractJssController.COMMAND_IN_PROGRESS, result);
+    assertTrue(instance.getCurrentAction() instanceof JssPipeline);
+    assertEquals(2, ((JssPipeline) instance.getCurrentAction()).getStageActions().size());
+  }
+
+  /**
+   * Test of interpretCommand method, of class AbstractJssController.
+   */
+  @Test
+  public void testInterpretCommand_chain() {
+    System.out.println("interpretCommand");
+    AbstractJssController instance = new AbstractJssControllerImpl();
+    final List<String> interpreted = new ArrayList<>();
+    instance.getModel().add(new AbstractJssAction() {
+
+      @Override
+      public String[] getCommandIdentifiers() {
+        return new String[] {"status"};
+      }
+
+      @Override
+      public int run(IJssController shellController, String... args) {
+        interpreted.add(args[1]);
+        return Integer.parseInt(args[1]);
+      }
+
+      @Override
+      public String getHelp(IJssController shellController) {
+        return "";
+      }
+
+      @Override
+      public String getBriefHelp() {
+        return "";
+      }
+
+    });
+
+    int result = instance.interpretCommand(
+        "status 0 && status 1 || status 0 ; status 1 && status 0 || status 1 ; status 1");
+    assertEquals(IJssAction.ERROR, result);
+    assertEquals(Arrays.asList("0", "1", "0", "1", "1", "1"), interpreted);
+    // The whole chain is stored in history
+    assertEquals(1, instance.commandHistorySize());
+
+    interpreted.clear();
+    assertEquals(AbstractJssController.COMMAND_EMPTY_STATUS,
+        instance.interpretCommand("status 0 && "));
+    assertEquals(Collections.emptyList(), interpreted);
+
+    assertEquals(IJssAction.SUCCESS, instance.interpretCommand("status 0;"));
+    assertEquals(Arrays.asList("0"), interpreted);
+  }
+
+  /**
+   * Test of interpretCommand method, of class AbstractJssController.
+   */
+  @Test
+  public void testInterpretCommand_cache() {
+    System.out.println("interpretCommand");
+    AbstractJssController instance = new AbstractJssControllerImpl();
+    JssCommandCache cache = instance.getCommandCache();
+    assertNotEquals(null, cache);
+    instance.getModel().add(new JssPipelineTest.SeqAction());
+
+    assertEquals(IJssAction.SUCCESS, instance.interpretCommand("seq 3"));
+    assertEquals(IJssAction.SUCCESS, instance.interpretCommand("seq 3"));
+    assertEquals(1, cache.getHitCount());
+    assertEquals(1, cache.getMissCount());
+    assertEquals(1, cache.size());
+
+    // Unknown commands, chains and pipelines are not cached, but chained commands are
+    instance.interpretCommand("unknown");
+    instance.interpretCommand("seq 1 | seq 2");
+    assertEquals(1, cache.size());
+    instance.interpretCommand("seq 1 ; seq 2");
+    assertEquals(3, cache.size());
+
+    // Modifying the model invalidates the cache
+    instance.getModel().add(new JssPipelineTest.CountAction());
+    assertEquals(IJssAction.SUCCESS, instance.interpretCommand("seq 3"));
+    assertEquals(1, cache.getHitCount());
+
+    instance.setCommandCache(new JssCommandCache(0));
+    instance.interpretCommand("seq 3");
+    instance.interpretCommand("seq 3");
+    assertEquals(0, instance.getCommandCache().getHitCount());
+  }
+
   /**
    * Test of interpret method, of class AbstractJssController.
    */
@@ -619,6 +820,29 @@ public class AbstractJssControllerTest {
   public class AbstractJssModelImpl extends AbstractJssModel {
   }
 
+  /**
+   * Test of addAll method, of class CommandHistory.
+   */
+  @Test
+  public void testCommandHistoryAddAll() {
+    System.out.println("commandHistoryAddAll");
+    AbstractJssController.CommandHistory instance =
+        new AbstractJssController.CommandHistory(4, true, false);
+    instance.add("a");
+    instance.add("b");
+    assertTrue(instance.addAll(Arrays.asList("c", "d", "e")));
+    // The oldest commands are removed, as when added one by one
+    assertEquals(Arrays.asList("b", "c", "d", "e"), instance.getCommandBuffer());
+    assertTrue(instance.addAll(Arrays.asList("f", "g", "h", "i", "j")));
+    assertEquals(Arrays.asList("g", "h", "i", "j"), instance.getCommandBuffer());
+    assertEquals("j", instance.previous());
+
+    instance = new AbstractJssController.CommandHistory(2, false, false);
+    assertTrue(instance.addAll(Arrays.asList("c", "a", "b")));
+    assertEquals(2, instance.size());
+    assertEquals(false, instance.addAll(Collections.<String>emptyList()));
+  }
+
   public class AbstractJssControllerImpl extends AbstractJssController {
 
     private IJssView view;
@@ -26,6 +26,7 @@ import static org.junit.Assert.assertNotEquals;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -36,6 +37,9 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 
 import jswingshell.action.IJssAction;
+import jswingshell.action.JssActionStateSnapshot;
+import jswingshell.action.JssActionStateSnapshotTest;
+import jswingshell.action.JssPipelineTest;
 
 /**
  *
@@ -243,6 +247,91 @@ public class AbstractJssModelTest {
     assertEquals(expResult, result);
   }
 
+  /**
+   * Test of getModificationCount method, of class AbstractJssModel.
+   */
+  @Test
+  public void testGetModificationCount() {
+    System.out.println("getModificationCount");
+    AbstractJssModel instance = new AbstractJssModelImpl();
+    IJssAction action = new JssPipelineTest.SeqAction();
+    assertEquals(0, instance.getModificationCount());
+    assertEquals(null, instance.getActionForCommandIdentifier("seq"));
+
+    instance.add(action);
+    assertEquals(1, instance.getModificationCount());
+    assertEquals(action, instance.getActionForCommandIdentifier("seq"));
+    // Nothing changed
+    instance.add(action);
+    instance.remove(new JssPipelineTest.CountAction());
+    assertEquals(1, instance.getModificationCount());
+
+    instance.retainAll(Collections.<IJssAction>emptySet());
+    assertEquals(2, instance.getModificationCount());
+    assertEquals(null, instance.getActionForCommandIdentifier("seq"));
+
+    instance.addAll(Collections.singleton(action));
+    instance.removeAll(Collections.singleton(action));
+    instance.clear();
+    assertEquals(5, instance.getModificationCount());
+  }
+
+  /**
+   * Test of apropos method, of class AbstractJssModel.
+   */
+  @Test
+  public void testApropos() {
+    System.out.println("apropos");
+    AbstractJssModel instance = new AbstractJssModelImpl();
+    IJssAction seqAction = new JssPipelineTest.SeqAction();
+    IJssAction countAction = new JssPipelineTest.CountAction();
+    IJssAction grepAction = new JssPipelineTest.GrepAction();
+    instance.add(seqAction);
+    assertEquals(0, instance.apropos("records", 10).size());
+
+    // The index follows the available actions
+    instance.add(countAction);
+    instance.addAll(Collections.singleton(grepAction));
+    List<JssHelpSearchIndex.Match> result = instance.apropos("count records", 10);
+    assertEquals(2, result.size());
+    assertEquals(countAction, result.get(0).getAction());
+    assertEquals(grepAction, result.get(1).getAction());
+
+    instance.remove(countAction);
+    assertEquals(1, instance.apropos("count records", 10).size());
+    instance.retainAll(Collections.singleton(seqAction));
+    assertEquals(0, instance.apropos("records", 10).size());
+    assertEquals(1, instance.getHelpSearchIndex().size());
+    instance.clear();
+    assertEquals(0, instance.getHelpSearchIndex().size());
+  }
+
+  /**
+   * Test of captureActionStates and restoreActionStates methods, of class AbstractJssModel.
+   */
+  @Test
+  public void testCaptureRestoreActionStates() {
+    System.out.println("captureRestoreActionStates");
+    AbstractJssModel instance = new AbstractJssModelImpl();
+    JssActionStateSnapshotTest.SwitchAction switchAction =
+        new JssActionStateSnapshotTest.SwitchAction(true);
+    JssActionStateSnapshotTest.ComboAction comboAction =
+        new JssActionStateSnapshotTest.ComboAction("a", "b");
+    comboAction.setSelectedItem("a");
+    instance.add(switchAction);
+    instance.add(comboAction);
+    instance.add(new JssPipelineTest.SeqAction());
+
+    JssActionStateSnapshot snapshot = instance.captureActionStates();
+    assertEquals(2, snapshot.size());
+    switchAction.setSelected(false);
+    comboAction.setSelectedItem("b");
+    assertEquals(IJssAction.SUCCESS, instance.restoreActionStates(snapshot));
+    assertEquals(Boolean.TRUE, switchAction.isSelected());
+    assertEquals("a", comboAction.getSelectedItem());
+    assertEquals(IJssAction.ERROR, instance.restoreActionStates(null));
+  }
+
   public class AbstractJssModelImpl extends AbstractJssModel {
   }
 
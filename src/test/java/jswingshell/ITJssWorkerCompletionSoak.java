@@ -0,0 +1,180 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 brunot.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package jswingshell;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.SwingUtilities;
+
+import org.junit.Test;
+
+import jswingshell.action.AbstractThreadedJssAction;
+import jswingshell.action.IJssAction;
+import jswingshell.gui.JssVirtualShellController;
+
+/**
+ * Soak test of the threaded commands interpreted by a shell: the heap must stay stable over a
+ * million threaded commands.
+ *
+ * <p>
+ * Commands are interpreted by batches on the Event Dispatch Thread, with a timeout policy so that
+ * the timer wheel is exercised too. The used heap is sampled after each checkpoint. The shell text
+ * and the command history, which are unbounded, are cleared between batches, so that only leaked
+ * workers, listeners or timeouts make it grow. The number of commands can be set with the
+ * {@code jss.soak.commands} system property.
+ * </p>
+ *
+ * @author Mathieu Brunot
+ */
+public class ITJssWorkerCompletionSoak {
+
+  private static final int COMMANDS = Integer.getInteger("jss.soak.commands", 1000000);
+
+  private static final int BATCH = 1000;
+
+  private static final int CHECKPOINTS = 10;
+
+  /**
+   * The heap growth tolerated between the first and the last checkpoint.
+   */
+  private static final long MAX_HEAP_GROWTH = 16L * 1024 * 1024;
+
+  @Test
+  public void soakThreadedCommands() throws Exception {
+    System.out.println("interpret: " + COMMANDS + " threaded commands");
+    final JssVirtualShellController controller = new JssVirtualShellController();
+    final DoneAction action = new DoneAction();
+    controller.getModel().add(action);
+    controller.setTimeoutPolicy(new JssTimeoutPolicy(1, TimeUnit.MINUTES));
+
+    int checkpointInterval = Math.max(COMMANDS / CHECKPOINTS, BATCH);
+    long firstHeap = -1;
+    long lastHeap = -1;
+    long start = System.nanoTime();
+    for (int interpreted = 0; interpreted < COMMANDS; interpreted += BATCH) {
+      SwingUtilities.invokeAndWait(new Runnable() {
+
+        @Override
+        public void run() {
+          for (int i = 0; i < BATCH; i++) {
+            // Do not wait for the previous command to end
+            controller.addNewCommandLine("done");
+            controller.interpret();
+          }
+        }
+
+      });
+      awaitActionsInProgress(controller);
+
+      if ((interpreted + BATCH) % checkpointInterval == 0) {
+        lastHeap = usedHeap();
+        if (firstHeap < 0) {
+          firstHeap = lastHeap;
+        }
+        System.out.println(String.format("%8d commands: %6d KiB used", interpreted + BATCH,
+            lastHeap / 1024));
+      }
+    }
+    System.out.println(String.format("%d commands in %.1f s", COMMANDS,
+        (System.nanoTime() - start) / 1e9));
+
+    assertTrue(action.getActiveWorkers().isEmpty());
+    assertEquals(0, controller.getTimerWheel().getPendingCount());
+    assertEquals(COMMANDS,
+        controller.getCommandMetrics().getSnapshot("done").getInvocationCount());
+    assertTrue("Heap grew from " + firstHeap + " to " + lastHeap,
+        lastHeap - firstHeap < MAX_HEAP_GROWTH);
+  }
+
+  private static void awaitActionsInProgress(final JssVirtualShellController controller)
+      throws Exception {
+    final boolean[] inProgress = {true};
+    while (inProgress[0]) {
+      SwingUtilities.invokeAndWait(new Runnable() {
+
+        @Override
+        public void run() {
+          inProgress[0] = !controller.getActionsInProgress().isEmpty();
+          if (!inProgress[0]) {
+            controller.clearShell();
+            controller.clearCommandHistory();
+          }
+        }
+
+      });
+      if (inProgress[0]) {
+        Thread.sleep(1);
+      }
+    }
+  }
+
+  private static long usedHeap() throws InterruptedException {
+    Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 3; i++) {
+      System.gc();
+      Thread.sleep(50);
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+
+  // #########################################################################
+  /**
+   * End immediately in a worker.
+   */
+  public static class DoneAction extends AbstractThreadedJssAction {
+
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public String[] getCommandIdentifiers() {
+      return new String[] {"done"};
+    }
+
+    @Override
+    protected AbstractJssActionWorker prepareWorker(
+        IJssController shellController, String... args) {
+      return new AbstractJssActionWorker(shellController) {
+
+        @Override
+        protected Integer doInBackground() {
+          return IJssAction.SUCCESS;
+        }
+
+      };
+    }
+
+    @Override
+    public String getHelp(IJssController shellController) {
+      return getBriefHelp();
+    }
+
+    @Override
+    public String getBriefHelp() {
+      return "End immediately.";
+    }
+
+  }
+
+}
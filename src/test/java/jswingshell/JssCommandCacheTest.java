@@ -0,0 +1,168 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 brunot.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package jswingshell;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import jswingshell.action.IJssAction;
+import jswingshell.action.JssPipelineTest;
+
+/**
+ *
+ * @author brunot
+ */
+public class JssCommandCacheTest {
+
+  private final IJssAction action = new JssPipelineTest.SeqAction();
+
+  public JssCommandCacheTest() {}
+
+  @BeforeClass
+  public static void setUpClass() {}
+
+  @AfterClass
+  public static void tearDownClass() {}
+
+  @Before
+  public void setUp() {}
+
+  @After
+  public void tearDown() {}
+
+  /**
+   * Test of constructor, of class JssCommandCache.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testConstructor_invalidCapacity() {
+    System.out.println("JssCommandCache");
+    new JssCommandCache(-1);
+  }
+
+  /**
+   * Test of get method, of class JssCommandCache.
+   */
+  @Test
+  public void testGet() {
+    System.out.println("get");
+    JssSimpleModel model = new JssSimpleModel((IJssController) null);
+    JssCommandCache instance = new JssCommandCache();
+    assertEquals(null, instance.get("seq 3", model));
+    instance.put("seq 3", model, new String[] {"seq", "3"}, action);
+
+    JssCommandCache.ParsedCommand result = instance.get("seq 3", model);
+    assertNotEquals(null, result);
+    assertEquals(action, result.getAction());
+    assertArrayEquals(new String[] {"seq", "3"}, result.getArguments());
+    assertEquals(1, instance.getHitCount());
+    assertEquals(1, instance.getMissCount());
+
+    instance.resetStatistics();
+    assertEquals(0, instance.getHitCount());
+    assertEquals(0, instance.getMissCount());
+  }
+
+  /**
+   * Test of get method, of class JssCommandCache.
+   */
+  @Test
+  public void testGet_argumentsCopy() {
+    System.out.println("get");
+    JssSimpleModel model = new JssSimpleModel((IJssController) null);
+    JssCommandCache instance = new JssCommandCache();
+    String[] arguments = {"seq", "3"};
+    instance.put("seq 3", model, arguments, action);
+    arguments[1] = "4";
+    instance.get("seq 3", model).getArguments()[1] = "5";
+    assertArrayEquals(new String[] {"seq", "3"}, instance.get("seq 3", model).getArguments());
+  }
+
+  /**
+   * Test of get method, of class JssCommandCache.
+   */
+  @Test
+  public void testGet_modelModified() {
+    System.out.println("get");
+    JssSimpleModel model = new JssSimpleModel((IJssController) null);
+    JssCommandCache instance = new JssCommandCache();
+    instance.put("seq 3", model, new String[] {"seq", "3"}, action);
+    model.add(action);
+    assertEquals(null, instance.get("seq 3", model));
+    assertEquals(0, instance.size());
+
+    instance.put("seq 3", model, new String[] {"seq", "3"}, action);
+    assertEquals(null, instance.get("seq 3", new JssSimpleModel((IJssController) null)));
+  }
+
+  /**
+   * Test of put method, of class JssCommandCache.
+   */
+  @Test
+  public void testPut_evictLeastRecentlyUsed() {
+    System.out.println("put");
+    JssSimpleModel model = new JssSimpleModel((IJssController) null);
+    JssCommandCache instance = new JssCommandCache(2);
+    instance.put("seq 1", model, new String[] {"seq", "1"}, action);
+    instance.put("seq 2", model, new String[] {"seq", "2"}, action);
+    instance.get("seq 1", model);
+    instance.put("seq 3", model, new String[] {"seq", "3"}, action);
+    assertEquals(2, instance.size());
+    assertEquals(1, instance.getEvictionCount());
+    assertNotEquals(null, instance.get("seq 1", model));
+    assertEquals(null, instance.get("seq 2", model));
+    assertNotEquals(null, instance.get("seq 3", model));
+  }
+
+  /**
+   * Test of put method, of class JssCommandCache.
+   */
+  @Test
+  public void testPut_disabled() {
+    System.out.println("put");
+    JssSimpleModel model = new JssSimpleModel((IJssController) null);
+    JssCommandCache instance = new JssCommandCache(0);
+    instance.put("seq 1", model, new String[] {"seq", "1"}, action);
+    assertEquals(0, instance.size());
+    assertEquals(null, instance.get("seq 1", model));
+  }
+
+  /**
+   * Test of clear method, of class JssCommandCache.
+   */
+  @Test
+  public void testClear() {
+    System.out.println("clear");
+    JssSimpleModel model = new JssSimpleModel((IJssController) null);
+    JssCommandCache instance = new JssCommandCache();
+    instance.put("seq 1", model, new String[] {"seq", "1"}, action);
+    instance.clear();
+    assertEquals(0, instance.size());
+  }
+
+}
@@ -0,0 +1,198 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 brunot.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package jswingshell;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ *
+ * @author brunot
+ */
+public class JssCommandMetricsTest {
+
+  public JssCommandMetricsTest() {}
+
+  @BeforeClass
+  public static void setUpClass() {}
+
+  @AfterClass
+  public static void tearDownClass() {}
+
+  @Before
+  public void setUp() {}
+
+  @After
+  public void tearDown() {}
+
+  /**
+   * Test of bucketIndex method, of class JssCommandMetrics.
+   */
+  @Test
+  public void testBucketIndex() {
+    System.out.println("bucketIndex");
+    int previousIndex = -1;
+    for (long value = 0; value < 1L << 41; value = value * 5 / 4 + 1) {
+      int index = JssCommandMetrics.bucketIndex(value);
+      assertTrue(index >= previousIndex);
+      assertTrue(value <= JssCommandMetrics.bucketUpperBound(index));
+      if (index > 0) {
+        assertTrue(value > JssCommandMetrics.bucketUpperBound(index - 1));
+      }
+      previousIndex = index;
+    }
+    assertEquals(JssCommandMetrics.bucketIndex(Long.MAX_VALUE),
+        JssCommandMetrics.bucketIndex(1L << 50));
+  }
+
+  /**
+   * Test of record method, of class JssCommandMetrics.
+   */
+  @Test
+  public void testRecord() {
+    System.out.println("record");
+    JssCommandMetrics instance = new JssCommandMetrics();
+    for (int i = 1; i <= 1000; i++) {
+      instance.record("cmd", i * 1000L, i % 10 == 0);
+    }
+    instance.record(null, 1, false);
+
+    JssCommandMetrics.Snapshot result = instance.getSnapshot("cmd");
+    assertEquals("cmd", result.getCommandIdentifier());
+    assertEquals(1000, result.getInvocationCount());
+    assertEquals(100, result.getErrorCount());
+    assertEquals(1000000L, result.getMaxNanos());
+    assertEquals(500500.0, result.getMeanNanos(), 0.001);
+    assertEquals(1000000L, result.getPercentile(100));
+    long median = result.getPercentile(50);
+    assertTrue(median >= 500000L && median <= 500000L * 9 / 8);
+    long p99 = result.getPercentile(99);
+    assertTrue(p99 >= 990000L && p99 <= 1000000L);
+    assertEquals(null, instance.getSnapshot("unknown"));
+  }
+
+  /**
+   * Test of record method, of class JssCommandMetrics.
+   */
+  @Test
+  public void testRecord_concurrent() throws InterruptedException {
+    System.out.println("record");
+    final JssCommandMetrics instance = new JssCommandMetrics();
+    Thread[] threads = new Thread[4];
+    for (int i = 0; i < threads.length; i++) {
+      threads[i] = new Thread(new Runnable() {
+
+        @Override
+        public void run() {
+          for (int j = 0; j < 10000; j++) {
+            instance.record("cmd", j, false);
+          }
+        }
+
+      });
+      threads[i].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertEquals(40000, instance.getSnapshot("cmd").getInvocationCount());
+    assertEquals(9999, instance.getSnapshot("cmd").getMaxNanos());
+  }
+
+  /**
+   * Test of recordTimeout method, of class JssCommandMetrics.
+   */
+  @Test
+  public void testRecordTimeout() {
+    System.out.println("recordTimeout");
+    JssCommandMetrics instance = new JssCommandMetrics();
+    instance.recordTimeout("cmd");
+    instance.record("cmd", 1000, true);
+    instance.recordTimeout(null);
+
+    JssCommandMetrics.Snapshot result = instance.getSnapshot("cmd");
+    assertEquals(1, result.getTimeoutCount());
+    assertEquals(1, result.getErrorCount());
+    assertEquals(1, result.getInvocationCount());
+
+    instance.setEnabled(false);
+    instance.recordTimeout("cmd");
+    assertEquals(1, instance.getSnapshot("cmd").getTimeoutCount());
+  }
+
+  /**
+   * Test of getSlowestCommands method, of class JssCommandMetrics.
+   */
+  @Test
+  public void testGetSlowestCommands() {
+    System.out.println("getSlowestCommands");
+    JssCommandMetrics instance = new JssCommandMetrics();
+    instance.record("fast", 10, false);
+    instance.record("slow", 1000, false);
+    instance.record("medium", 100, false);
+
+    List<JssCommandMetrics.Snapshot> result = instance.getSlowestCommands(2);
+    assertEquals(2, result.size());
+    assertEquals("slow", result.get(0).getCommandIdentifier());
+    assertEquals("medium", result.get(1).getCommandIdentifier());
+    assertEquals(3, instance.getSlowestCommands(10).size());
+    assertEquals("fast", instance.getSnapshots().get(0).getCommandIdentifier());
+  }
+
+  /**
+   * Test of setEnabled method, of class JssCommandMetrics.
+   */
+  @Test
+  public void testSetEnabled() {
+    System.out.println("setEnabled");
+    JssCommandMetrics instance = new JssCommandMetrics();
+    instance.setEnabled(false);
+    instance.record("cmd", 10, false);
+    assertEquals(0, instance.getSnapshots().size());
+
+    instance.setEnabled(true);
+    instance.record("cmd", 10, false);
+    assertEquals(1, instance.getSnapshots().size());
+    instance.reset();
+    assertEquals(0, instance.getSnapshots().size());
+  }
+
+  /**
+   * Test of getPercentile method, of class JssCommandMetrics.Snapshot.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testGetPercentile_invalid() {
+    System.out.println("getPercentile");
+    JssCommandMetrics instance = new JssCommandMetrics();
+    instance.record("cmd", 10, false);
+    instance.getSnapshot("cmd").getPercentile(101);
+  }
+
+}
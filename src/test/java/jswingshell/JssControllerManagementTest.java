@@ -0,0 +1,183 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 brunot.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package jswingshell;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.Attribute;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.swing.SwingUtilities;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import jswingshell.action.JssPipelineTest;
+import jswingshell.gui.JssTextAreaController;
+
+/**
+ *
+ * @author brunot
+ */
+public class JssControllerManagementTest {
+
+  private final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+  private AbstractJssController controller;
+
+  public JssControllerManagementTest() {}
+
+  @BeforeClass
+  public static void setUpClass() {}
+
+  @AfterClass
+  public static void tearDownClass() {}
+
+  @Before
+  public void setUp() {
+    controller = new JssTextAreaController();
+    controller.getModel().add(new JssPipelineTest.SeqAction());
+  }
+
+  @After
+  public void tearDown() {
+    controller.unregisterMBean();
+  }
+
+  /**
+   * Test of register method, of class JssControllerManagement.
+   */
+  @Test
+  public void testRegister() {
+    System.out.println("register");
+    ObjectName name = controller.registerMBean();
+    assertEquals(true, server.isRegistered(name));
+    assertEquals(name, controller.registerMBean());
+    assertEquals(JssControllerManagement.DOMAIN, name.getDomain());
+
+    assertEquals(true, controller.unregisterMBean());
+    assertEquals(false, server.isRegistered(name));
+    assertEquals(false, controller.unregisterMBean());
+  }
+
+  /**
+   * Test of the attributes of class JssControllerManagement.
+   */
+  @Test
+  public void testAttributes() throws Exception {
+    System.out.println("attributes");
+    controller.interpretCommand("seq 3");
+    controller.interpretCommand("seq 4");
+    ObjectName name = controller.registerMBean();
+
+    assertEquals(JssTextAreaController.class.getName(),
+        server.getAttribute(name, "ControllerClassName"));
+    assertEquals(2, server.getAttribute(name, "CommandHistorySize"));
+    assertArrayEquals(new String[] {}, (String[]) server.getAttribute(name, "ActionsInProgress"));
+    assertEquals(controller.getShellTextLength(), server.getAttribute(name, "ShellTextLength"));
+
+    CompositeData[] statistics = (CompositeData[]) server.getAttribute(name, "CommandStatistics");
+    assertEquals(1, statistics.length);
+    assertEquals("seq", statistics[0].get("commandIdentifier"));
+    assertEquals(2L, statistics[0].get("invocationCount"));
+
+    assertEquals(AbstractJssController.DEFAULT_LEVEL.name(),
+        server.getAttribute(name, "PublicationLevel"));
+    server.setAttribute(name, new Attribute("PublicationLevel", "ERROR"));
+    assertEquals(IJssController.PublicationLevel.ERROR, controller.getPublicationLevel());
+  }
+
+  /**
+   * Test of the operations of class JssControllerManagement.
+   */
+  @Test
+  public void testOperations() throws Exception {
+    System.out.println("operations");
+    controller.interpretCommand("seq 3");
+    ObjectName name = controller.registerMBean();
+
+    assertEquals(0,
+        server.invoke(name, "cancelActionsInProgress", new Object[0], new String[0]));
+    assertEquals(false, server.invoke(name, "cancelAction", new Object[] {"seq"},
+        new String[] {String.class.getName()}));
+    server.invoke(name, "resetCommandMetrics", new Object[0], new String[0]);
+    assertEquals(null, controller.getCommandMetrics().getSnapshot("seq"));
+  }
+
+  /**
+   * Test of the attributes of class JssControllerManagement, with a blocked Event Dispatch Thread.
+   */
+  @Test
+  public void testAttributes_unresponsive() throws Exception {
+    System.out.println("attributes_unresponsive");
+    final CountDownLatch release = new CountDownLatch(1);
+    final CountDownLatch blocked = new CountDownLatch(1);
+    SwingUtilities.invokeLater(new Runnable() {
+
+      @Override
+      public void run() {
+        blocked.countDown();
+        try {
+          release.await(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+
+    });
+    try {
+      assertTrue(blocked.await(10, TimeUnit.SECONDS));
+      JssControllerManagement instance = new JssControllerManagement(controller);
+      long start = System.nanoTime();
+      try {
+        instance.getCommandHistorySize();
+        throw new AssertionError("Blocked Event Dispatch Thread not reported");
+      } catch (IllegalStateException e) {
+        // Expected
+      }
+      assertTrue(System.nanoTime() - start < TimeUnit.SECONDS
+          .toNanos(JssControllerManagement.EVENT_DISPATCH_TIMEOUT_SECONDS * 2));
+    } finally {
+      release.countDown();
+    }
+  }
+
+  /**
+   * Test of constructor, of class JssControllerManagement.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testConstructor_null() {
+    System.out.println("JssControllerManagement");
+    new JssControllerManagement(null);
+  }
+
+}
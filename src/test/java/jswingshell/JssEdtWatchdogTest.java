@@ -0,0 +1,171 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 brunot.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package jswingshell;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import javax.swing.SwingUtilities;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import jswingshell.action.AbstractJssAction;
+import jswingshell.action.IJssAction;
+import jswingshell.gui.JssTextAreaController;
+
+/**
+ *
+ * @author brunot
+ */
+public class JssEdtWatchdogTest {
+
+  public JssEdtWatchdogTest() {}
+
+  @BeforeClass
+  public static void setUpClass() {}
+
+  @AfterClass
+  public static void tearDownClass() {}
+
+  @Before
+  public void setUp() {}
+
+  @After
+  public void tearDown() {}
+
+  /**
+   * Test of constructor, of class JssEdtWatchdog.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testConstructor_invalidThreshold() {
+    System.out.println("JssEdtWatchdog");
+    new JssEdtWatchdog(0);
+  }
+
+  /**
+   * Test of sample method, of class JssEdtWatchdog.
+   */
+  @Test
+  public void testSample() throws InterruptedException {
+    System.out.println("sample");
+    JssEdtWatchdog instance = new JssEdtWatchdog(20);
+    Object token = instance.actionStarted(new SleepAction(), "sleep", "1");
+    instance.sample();
+    assertEquals(0, instance.getStallCount());
+
+    Thread.sleep(40);
+    instance.sample();
+    instance.sample();
+    assertEquals(1, instance.getStallCount());
+    JssEdtWatchdog.Stall stall = instance.getRecentStalls().get(0);
+    assertEquals("sleep", stall.getCommandIdentifier());
+    assertEquals("sleep 1", stall.getCommandLine());
+    assertTrue(stall.getDurationMillis() >= 20);
+    assertTrue(stall.getStackTrace().length > 0);
+
+    instance.actionEnded(token);
+    Thread.sleep(40);
+    instance.sample();
+    assertEquals(1, instance.getStallCount());
+  }
+
+  /**
+   * Test of start method, of class JssEdtWatchdog.
+   */
+  @Test
+  public void testStart() throws Exception {
+    System.out.println("start");
+    final JssEdtWatchdog instance = new JssEdtWatchdog(20);
+    final AbstractJssController controller = new JssTextAreaController();
+    controller.getModel().add(new SleepAction());
+    controller.setEdtWatchdog(instance);
+    instance.start();
+    assertEquals(true, instance.isStarted());
+    try {
+      // Not watched outside of the Event Dispatch Thread
+      assertEquals(IJssAction.SUCCESS, controller.interpretCommand("sleep 100"));
+      assertEquals(0, instance.getStallCount());
+
+      SwingUtilities.invokeAndWait(new Runnable() {
+
+        @Override
+        public void run() {
+          assertEquals(IJssAction.SUCCESS, controller.interpretCommand("sleep 200"));
+          assertEquals(IJssAction.SUCCESS, controller.interpretCommand("sleep 0"));
+        }
+
+      });
+      assertEquals(1, instance.getStallCount());
+      JssEdtWatchdog.Stall stall = instance.getRecentStalls().get(0);
+      assertEquals("sleep 200", stall.getCommandLine());
+      boolean inAction = false;
+      for (StackTraceElement element : stall.getStackTrace()) {
+        inAction |= SleepAction.class.getName().equals(element.getClassName());
+      }
+      assertTrue(inAction);
+    } finally {
+      instance.stop();
+    }
+    assertEquals(false, instance.isStarted());
+  }
+
+  // #########################################################################
+  /**
+   * Sleep on the calling thread.
+   */
+  public static class SleepAction extends AbstractJssAction {
+
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public String[] getCommandIdentifiers() {
+      return new String[] {"sleep"};
+    }
+
+    @Override
+    public String getHelp(IJssController shellController) {
+      return getBriefHelp();
+    }
+
+    @Override
+    public String getBriefHelp() {
+      return "Sleep on the calling thread.";
+    }
+
+    @Override
+    public int run(IJssController shellController, String... args) {
+      try {
+        Thread.sleep(Long.parseLong(args[1]));
+        return IJssAction.SUCCESS;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return IJssAction.ERROR;
+      }
+    }
+
+  }
+
+}
@@ -0,0 +1,149 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 brunot.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package jswingshell;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.List;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import jswingshell.action.IJssAction;
+import jswingshell.action.JssPipelineTest;
+
+/**
+ *
+ * @author brunot
+ */
+public class JssHelpIndexTest {
+
+  private final IJssAction seqAction = new JssPipelineTest.SeqAction();
+
+  private final IJssAction grepAction = new JssPipelineTest.GrepAction();
+
+  private final IJssAction headAction = new JssPipelineTest.HeadAction();
+
+  public JssHelpIndexTest() {}
+
+  @BeforeClass
+  public static void setUpClass() {}
+
+  @AfterClass
+  public static void tearDownClass() {}
+
+  @Before
+  public void setUp() {}
+
+  @After
+  public void tearDown() {}
+
+  /**
+   * Test of constructor, of class JssHelpIndex.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testConstructor_invalidPageSize() {
+    System.out.println("JssHelpIndex");
+    new JssHelpIndex(0);
+  }
+
+  /**
+   * Test of getPageCount method, of class JssHelpIndex.
+   */
+  @Test
+  public void testGetPageCount() {
+    System.out.println("getPageCount");
+    JssSimpleModel model = new JssSimpleModel((IJssController) null);
+    JssHelpIndex instance = new JssHelpIndex(2);
+    assertEquals(0, instance.getPageCount(model));
+    assertEquals(0, instance.getPageCount(null));
+
+    model.add(seqAction);
+    model.add(grepAction);
+    assertEquals(1, instance.getPageCount(model));
+    model.add(headAction);
+    assertEquals(2, instance.getPageCount(model));
+  }
+
+  /**
+   * Test of getPageActions method, of class JssHelpIndex.
+   */
+  @Test
+  public void testGetPageActions() {
+    System.out.println("getPageActions");
+    JssSimpleModel model = new JssSimpleModel((IJssController) null);
+    model.add(seqAction);
+    model.add(grepAction);
+    model.add(headAction);
+    JssHelpIndex instance = new JssHelpIndex(2);
+
+    List<IJssAction> result = instance.getPageActions(model, 0);
+    assertEquals(2, result.size());
+    assertEquals(grepAction, result.get(0));
+    assertEquals(headAction, result.get(1));
+    result = instance.getPageActions(model, 1);
+    assertEquals(1, result.size());
+    assertEquals(seqAction, result.get(0));
+    assertEquals(0, instance.getPageActions(model, 2).size());
+    assertEquals(0, instance.getPageActions(model, -1).size());
+  }
+
+  /**
+   * Test of renderPage method, of class JssHelpIndex.
+   */
+  @Test
+  public void testRenderPage() {
+    System.out.println("renderPage");
+    JssSimpleModel model = new JssSimpleModel((IJssController) null);
+    model.add(seqAction);
+    model.add(headAction);
+    JssHelpIndex instance = new JssHelpIndex(1);
+
+    assertEquals("{ seq }\t" + seqAction.getBriefHelp() + "\nPage 2/2",
+        instance.renderPage(model, 1));
+    assertNull(instance.renderPage(model, 2));
+  }
+
+  /**
+   * Test of renderPage method, of class JssHelpIndex, when the model is modified.
+   */
+  @Test
+  public void testRenderPage_modelModified() {
+    System.out.println("renderPage");
+    JssSimpleModel model = new JssSimpleModel((IJssController) null);
+    model.add(seqAction);
+    JssHelpIndex instance = new JssHelpIndex(1);
+    assertEquals(1, instance.getPageCount(model));
+
+    model.add(grepAction);
+    assertEquals("{ grep }\t" + grepAction.getBriefHelp() + "\nPage 1/2",
+        instance.renderPage(model, 0));
+    model.remove(grepAction);
+    assertEquals("{ seq }\t" + seqAction.getBriefHelp() + "\nPage 1/1",
+        instance.renderPage(model, 0));
+  }
+
+}
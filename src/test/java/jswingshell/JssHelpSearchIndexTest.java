@@ -0,0 +1,231 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 brunot.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package jswingshell;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import jswingshell.action.AbstractJssAction;
+import jswingshell.action.IJssAction;
+
+/**
+ *
+ * @author brunot
+ */
+public class JssHelpSearchIndexTest {
+
+  private final IJssAction copyAction = new HelpAction("copy", "Copy files.", "copy <from> <to>");
+
+  private final IJssAction moveAction = new HelpAction("move", "Move files.", "move <from> <to>");
+
+  private final IJssAction listAction =
+      new HelpAction("list", "List the files of a directory.", "list <directory>");
+
+  public JssHelpSearchIndexTest() {}
+
+  @BeforeClass
+  public static void setUpClass() {}
+
+  @AfterClass
+  public static void tearDownClass() {}
+
+  @Before
+  public void setUp() {}
+
+  @After
+  public void tearDown() {}
+
+  private JssHelpSearchIndex createIndex() {
+    JssHelpSearchIndex instance = new JssHelpSearchIndex();
+    instance.add(copyAction, null);
+    instance.add(moveAction, null);
+    instance.add(listAction, null);
+    return instance;
+  }
+
+  /**
+   * Test of tokenize method, of class JssHelpSearchIndex.
+   */
+  @Test
+  public void testTokenize() {
+    System.out.println("tokenize");
+    assertEquals(Arrays.asList("copy", "from", "to"),
+        JssHelpSearchIndex.tokenize("Copy <FROM> to..."));
+    assertEquals(0, JssHelpSearchIndex.tokenize(null).size());
+    assertEquals(0, JssHelpSearchIndex.tokenize(" - ").size());
+  }
+
+  /**
+   * Test of add method, of class JssHelpSearchIndex.
+   */
+  @Test
+  public void testAdd() {
+    System.out.println("add");
+    JssHelpSearchIndex instance = createIndex();
+    assertEquals(3, instance.size());
+    assertTrue(instance.contains(copyAction));
+    int termCount = instance.getTermCount();
+
+    // Indexing an action again replaces its terms
+    instance.add(copyAction, null);
+    assertEquals(3, instance.size());
+    assertEquals(termCount, instance.getTermCount());
+    instance.add(null, null);
+    assertEquals(3, instance.size());
+  }
+
+  /**
+   * Test of remove method, of class JssHelpSearchIndex.
+   */
+  @Test
+  public void testRemove() {
+    System.out.println("remove");
+    JssHelpSearchIndex instance = createIndex();
+    assertTrue(instance.remove(listAction));
+    assertFalse(instance.remove(listAction));
+    assertFalse(instance.contains(listAction));
+    assertEquals(0, instance.search("directory", 10).size());
+    assertEquals(2, instance.search("files", 10).size());
+
+    instance.clear();
+    assertEquals(0, instance.size());
+    assertEquals(0, instance.getTermCount());
+  }
+
+  /**
+   * Test of search method, of class JssHelpSearchIndex.
+   */
+  @Test
+  public void testSearch() {
+    System.out.println("search");
+    JssHelpSearchIndex instance = createIndex();
+
+    List<JssHelpSearchIndex.Match> result = instance.search("copy", 10);
+    assertEquals(1, result.size());
+    assertEquals(copyAction, result.get(0).getAction());
+
+    // Matches with the same score are listed alphabetically
+    result = instance.search("FILES", 10);
+    assertEquals(3, result.size());
+    assertEquals(copyAction, result.get(0).getAction());
+    assertEquals(moveAction, result.get(1).getAction());
+    assertEquals(listAction, result.get(2).getAction());
+
+    // Actions matching more keywords come first
+    result = instance.search("move files", 10);
+    assertEquals(moveAction, result.get(0).getAction());
+    assertTrue(result.get(0).getScore() > result.get(1).getScore());
+
+    assertEquals(2, instance.search("files", 2).size());
+    assertEquals(0, instance.search("files", 0).size());
+    assertEquals(0, instance.search("delete", 10).size());
+    assertEquals(0, instance.search("", 10).size());
+  }
+
+  /**
+   * Test of search method, of class JssHelpSearchIndex, with prefixes.
+   */
+  @Test
+  public void testSearch_prefix() {
+    System.out.println("search");
+    JssHelpSearchIndex instance = createIndex();
+    List<JssHelpSearchIndex.Match> result = instance.search("dir", 10);
+    assertEquals(1, result.size());
+    assertEquals(listAction, result.get(0).getAction());
+    // Too short to match a prefix
+    assertEquals(0, instance.search("di", 10).size());
+  }
+
+  /**
+   * Test of search method, of class JssHelpSearchIndex, with many actions.
+   */
+  @Test
+  public void testSearch_manyActions() {
+    System.out.println("search");
+    JssHelpSearchIndex instance = new JssHelpSearchIndex();
+    for (int i = 0; i < 20000; i++) {
+      instance.add(new HelpAction("action" + i, "Action number " + i + " of group " + (i % 100),
+          "action" + i + " [option]"), null);
+    }
+    List<JssHelpSearchIndex.Match> result = instance.search("number 12345", 5);
+    assertEquals(5, result.size());
+    assertEquals("action12345", result.get(0).getAction().getDefaultCommandIdentifier());
+    assertEquals(200, instance.search("42", 1000).size());
+    // All the actions of the group match both keywords
+    result = instance.search("group 42", 201);
+    assertTrue(result.get(199).getAction().getBriefHelp().endsWith(" group 42"));
+    assertFalse(result.get(200).getAction().getBriefHelp().endsWith(" group 42"));
+  }
+
+  // #########################################################################
+  /**
+   * An action with a given identifier and help.
+   */
+  public static class HelpAction extends AbstractJssAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String commandIdentifier;
+
+    private final String briefHelp;
+
+    private final String help;
+
+    public HelpAction(String commandIdentifier, String briefHelp, String help) {
+      this.commandIdentifier = commandIdentifier;
+      this.briefHelp = briefHelp;
+      this.help = help;
+    }
+
+    @Override
+    public String[] getCommandIdentifiers() {
+      return new String[] {commandIdentifier};
+    }
+
+    @Override
+    public String getBriefHelp() {
+      return briefHelp;
+    }
+
+    @Override
+    public String getHelp(IJssController shellController) {
+      return help;
+    }
+
+    @Override
+    public int run(IJssController shellController, String... args) {
+      return IJssAction.SUCCESS;
+    }
+
+  }
+
+}
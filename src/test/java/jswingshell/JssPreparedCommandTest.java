@@ -0,0 +1,210 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 brunot.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package jswingshell;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import jswingshell.action.AbstractJssComboAction;
+import jswingshell.action.AbstractJssSwitchAction;
+import jswingshell.action.IJssAction;
+import jswingshell.action.JssPipelineTest;
+import jswingshell.gui.JssTextAreaController;
+
+/**
+ *
+ * @author brunot
+ */
+public class JssPreparedCommandTest {
+
+  private AbstractJssController controller;
+
+  private LevelAction levelAction;
+
+  public JssPreparedCommandTest() {}
+
+  @BeforeClass
+  public static void setUpClass() {}
+
+  @AfterClass
+  public static void tearDownClass() {}
+
+  @Before
+  public void setUp() {
+    controller = new JssTextAreaController();
+    levelAction = new LevelAction();
+    controller.getModel().add(levelAction);
+    controller.getModel().add(new FlagAction());
+    controller.getModel().add(new JssPipelineTest.SeqAction());
+  }
+
+  @After
+  public void tearDown() {}
+
+  /**
+   * Test of execute method, of class JssPreparedCommand.
+   */
+  @Test
+  public void testExecute() {
+    System.out.println("execute");
+    JssPreparedCommand instance = controller.prepareCommand("level ?");
+    assertEquals(1, instance.getPlaceholderCount());
+    assertEquals(levelAction, instance.getAction());
+    assertEquals(false, instance.isValidated());
+
+    assertEquals(IJssAction.SUCCESS, instance.execute("high"));
+    assertEquals("high", levelAction.getSelectedItem());
+    assertEquals(IJssAction.SUCCESS, instance.execute("low"));
+    assertEquals("low", levelAction.getSelectedItem());
+    assertEquals(levelAction, controller.getCurrentAction());
+    // Not validated: the action handles invalid values itself
+    assertEquals(IJssAction.ERROR, instance.execute("medium"));
+    assertEquals(true, controller.isCommandHistoryEmpty());
+
+    instance = controller.prepareCommand("seq 3");
+    assertEquals(0, instance.getPlaceholderCount());
+    assertEquals(IJssAction.SUCCESS, instance.execute());
+  }
+
+  /**
+   * Test of execute method, of class JssPreparedCommand.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testExecute_wrongValueCount() {
+    System.out.println("execute");
+    controller.prepareCommand("level ?").execute("low", "high");
+  }
+
+  /**
+   * Test of execute method, of class JssPreparedCommand.
+   */
+  @Test
+  public void testExecute_validated() {
+    System.out.println("execute");
+    JssPreparedCommand instance = controller.prepareCommand("level ?", true);
+    assertEquals(true, instance.isValidated());
+    assertEquals(IJssAction.SUCCESS, instance.execute("HIGH"));
+    try {
+      instance.execute("medium");
+      throw new AssertionError("Invalid value accepted");
+    } catch (IllegalArgumentException e) {
+      assertEquals("high", levelAction.getSelectedItem());
+    }
+
+    instance = controller.prepareCommand("flag ?", true);
+    assertEquals(IJssAction.SUCCESS, instance.execute("on"));
+    assertEquals(IJssAction.SUCCESS, instance.execute("off"));
+  }
+
+  /**
+   * Test of execute method, of class JssPreparedCommand.
+   */
+  @Test
+  public void testExecute_modelModified() {
+    System.out.println("execute");
+    JssPreparedCommand instance = controller.prepareCommand("level ?");
+    controller.getModel().remove(levelAction);
+    assertEquals(AbstractJssController.COMMAND_NOT_FOUND_STATUS, instance.execute("high"));
+    assertEquals(null, instance.getAction());
+
+    controller.getModel().add(levelAction);
+    assertEquals(IJssAction.SUCCESS, instance.execute("high"));
+    assertEquals(levelAction, instance.getAction());
+  }
+
+  /**
+   * Test of prepareCommand method, of class AbstractJssController.
+   */
+  @Test
+  public void testPrepareCommand_invalid() {
+    System.out.println("prepareCommand");
+    String[] templates =
+        {"", "unknown ?", "? high", "seq 1 | seq 2", "seq 1 ; seq 2", "level medium", "level ? ?"};
+    for (String template : templates) {
+      try {
+        controller.prepareCommand(template, true);
+        throw new AssertionError("Invalid template prepared: " + template);
+      } catch (IllegalArgumentException e) {
+        // Expected
+      }
+    }
+  }
+
+  // #########################################################################
+  /**
+   * Select a level among low and high.
+   */
+  public static class LevelAction extends AbstractJssComboAction<String> {
+
+    private static final long serialVersionUID = 1L;
+
+    public LevelAction() {
+      super(new String[] {"low", "high"});
+    }
+
+    @Override
+    protected boolean doSwitch(IJssController shellController, String switchValue) {
+      return switchValue != null;
+    }
+
+    @Override
+    public String[] getCommandIdentifiers() {
+      return new String[] {"level"};
+    }
+
+    @Override
+    public String getBriefHelp() {
+      return "Select a level.";
+    }
+
+  }
+
+  /**
+   * Switch a flag on or off.
+   */
+  public static class FlagAction extends AbstractJssSwitchAction {
+
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    protected boolean doSwitch(IJssController shellController, Boolean switchValue) {
+      return true;
+    }
+
+    @Override
+    public String[] getCommandIdentifiers() {
+      return new String[] {"flag"};
+    }
+
+    @Override
+    public String getBriefHelp() {
+      return "Switch a flag.";
+    }
+
+  }
+
+}
@@ -0,0 +1,397 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 brunot.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package jswingshell;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.swing.DefaultComboBoxModel;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import jswingshell.action.AbstractJssComboAction;
+import jswingshell.action.AbstractJssSwitchAction;
+import jswingshell.action.ActionGroup;
+import jswingshell.action.IJssAction;
+import jswingshell.gui.JssTextAreaController;
+
+/**
+ *
+ * @author brunot
+ */
+public class JssStateSerializerTest {
+
+  public JssStateSerializerTest() {}
+
+  @BeforeClass
+  public static void setUpClass() {}
+
+  @AfterClass
+  public static void tearDownClass() {}
+
+  @Before
+  public void setUp() {}
+
+  @After
+  public void tearDown() {}
+
+  /**
+   * Test of toByteArray and fromByteArray methods, of class JssStateSerializer.
+   */
+  @Test
+  public void testRoundTrip() throws IOException {
+    System.out.println("roundTrip");
+    Shell saved = new Shell();
+    saved.controller.setPublicationLevel(IJssController.PublicationLevel.DEBUG);
+    saved.controller.addToCommandHistory("first on");
+    saved.controller.addToCommandHistory("level high");
+    saved.controller.addToCommandHistory("first on");
+    saved.first.setSelected(true);
+    saved.level.setSelectedItem("high");
+    saved.group.setSelected(saved.right, true);
+
+    byte[] data = JssStateSerializer.toByteArray(saved.controller, saved.group);
+
+    Shell restored = new Shell();
+    restored.controller.addToCommandHistory("other");
+    restored.group.setSelected(restored.left, true);
+    assertEquals(IJssAction.SUCCESS,
+        JssStateSerializer.fromByteArray(data, restored.controller, restored.group));
+
+    assertEquals(IJssController.PublicationLevel.DEBUG,
+        restored.controller.getPublicationLevel());
+    assertEquals(3, restored.controller.commandHistorySize());
+    assertEquals("first on", restored.controller.getPreviousCommand());
+    assertEquals("level high", restored.controller.getPreviousCommand());
+    assertEquals("first on", restored.controller.getPreviousCommand());
+    assertTrue(restored.first.isSelected());
+    assertFalse(restored.second.isSelected());
+    assertEquals("high", restored.level.getSelectedItem());
+    assertEquals(restored.right, restored.group.getSelection());
+    assertFalse(restored.left.isSelected());
+    assertEquals(Arrays.asList(restored.left, restored.right),
+        new ArrayList<>(restored.group.getElements()));
+    // Only the changed actions are switched
+    assertEquals(1, restored.first.switchCount);
+    assertEquals(0, restored.second.switchCount);
+    assertEquals(1, restored.left.switchCount);
+    assertEquals(1, restored.right.switchCount);
+    assertEquals(1, restored.level.switchCount);
+  }
+
+  /**
+   * Test of fromByteArray method, of class JssStateSerializer, with an action failing to switch.
+   */
+  @Test
+  public void testFromByteArray_switchFailure() throws IOException {
+    System.out.println("fromByteArray_switchFailure");
+    Shell saved = new Shell();
+    saved.first.setSelected(true);
+    saved.second.setSelected(true);
+    byte[] data = JssStateSerializer.toByteArray(saved.controller);
+
+    Shell restored = new Shell();
+    restored.first.switchable = false;
+    assertEquals(IJssAction.ERROR, JssStateSerializer.fromByteArray(data, restored.controller));
+    assertFalse(restored.first.isSelected());
+    assertTrue(restored.second.isSelected());
+  }
+
+  /**
+   * Test of write and read methods, of class JssStateSerializer.
+   */
+  @Test
+  public void testWriteRead() throws IOException {
+    System.out.println("writeRead");
+    Shell saved = new Shell();
+    saved.second.setSelected(true);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    JssStateSerializer.write(saved.controller, out);
+
+    Shell restored = new Shell();
+    restored.level.setSelectedItem("high");
+    JssStateSerializer.read(restored.controller, new ByteArrayInputStream(out.toByteArray()));
+    assertTrue(restored.second.isSelected());
+    assertEquals("low", restored.level.getSelectedItem());
+    // No group was saved
+    assertEquals(2, restored.group.getActionCount());
+  }
+
+  /**
+   * Test of fromByteArray method, of class JssStateSerializer, with a large command history.
+   */
+  @Test
+  public void testFromByteArray_largeHistory() throws IOException {
+    System.out.println("fromByteArray_largeHistory");
+    int historySize = 1000000;
+    List<String> commands = new ArrayList<>(historySize);
+    for (int i = 0; i < historySize; i++) {
+      commands.add("level " + (i % 1000));
+    }
+    Shell saved = new Shell();
+    AbstractJssController.CommandHistory history = saved.controller.getCommandHistory();
+    history.addAll(commands);
+    saved.controller.setCommandHistory(history);
+
+    byte[] data = JssStateSerializer.toByteArray(saved.controller);
+    // The commands are written once, then referred to by index
+    assertTrue(data.length < 3 * historySize);
+
+    Shell restored = new Shell();
+    long start = System.nanoTime();
+    JssStateSerializer.fromByteArray(data, restored.controller);
+    System.out.println(String.format("%d bytes restored in %.1f ms", data.length,
+        (System.nanoTime() - start) / 1e6));
+    assertEquals(historySize, restored.controller.commandHistorySize());
+    assertEquals("level 999", restored.controller.getPreviousCommand());
+  }
+
+  /**
+   * Test of fromByteArray method, of class JssStateSerializer, with invalid states.
+   */
+  @Test
+  public void testFromByteArray_invalid() throws IOException {
+    System.out.println("fromByteArray_invalid");
+    Shell shell = new Shell();
+    byte[] data = JssStateSerializer.toByteArray(shell.controller);
+
+    try {
+      JssStateSerializer.fromByteArray(new byte[] {1, 2, 3, 4, 5}, shell.controller);
+      throw new AssertionError("Invalid magic number accepted");
+    } catch (StreamCorruptedException e) {
+      // Expected
+    }
+    try {
+      JssStateSerializer.fromByteArray(Arrays.copyOf(data, data.length - 2), shell.controller);
+      throw new AssertionError("Truncated state accepted");
+    } catch (EOFException e) {
+      // Expected
+    }
+    byte[] newerVersion = data.clone();
+    newerVersion[4] = JssStateSerializer.VERSION + 1;
+    try {
+      JssStateSerializer.fromByteArray(newerVersion, shell.controller);
+      throw new AssertionError("Newer version accepted");
+    } catch (IOException e) {
+      // Expected
+    }
+  }
+
+  /**
+   * Test of fromByteArray method, of class JssStateSerializer, with combo items in another order.
+   */
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testFromByteArray_comboItemsChanged() throws IOException {
+    System.out.println("fromByteArray_comboItemsChanged");
+    Shell saved = new Shell();
+    saved.level.setSelectedItem("high");
+    byte[] data = JssStateSerializer.toByteArray(saved.controller);
+
+    Shell restored = new Shell();
+    DefaultComboBoxModel<String> model = (DefaultComboBoxModel<String>) restored.level.getModel();
+    model.insertElementAt("medium", 1);
+    model.removeElement("high");
+    model.insertElementAt("high", 0);
+    restored.level.setSelectedItem("medium");
+    assertEquals(IJssAction.SUCCESS, JssStateSerializer.fromByteArray(data, restored.controller));
+    assertEquals("high", restored.level.getSelectedItem());
+
+    // Items missing from the model are ignored
+    model.removeElement("high");
+    restored.level.setSelectedItem("medium");
+    assertEquals(IJssAction.SUCCESS, JssStateSerializer.fromByteArray(data, restored.controller));
+    assertEquals("medium", restored.level.getSelectedItem());
+  }
+
+  /**
+   * Test of fromByteArray method, of class JssStateSerializer, with a truncated state.
+   */
+  @Test
+  public void testFromByteArray_truncated() throws IOException {
+    System.out.println("fromByteArray_truncated");
+    Shell saved = new Shell();
+    saved.controller.setPublicationLevel(IJssController.PublicationLevel.DEBUG);
+    saved.controller.addToCommandHistory("first on");
+    saved.first.setSelected(true);
+    byte[] data = JssStateSerializer.toByteArray(saved.controller, saved.group);
+
+    Shell restored = new Shell();
+    restored.controller.setPublicationLevel(IJssController.PublicationLevel.ERROR);
+    restored.controller.addToCommandHistory("other");
+    try {
+      JssStateSerializer.fromByteArray(Arrays.copyOf(data, data.length - 2), restored.controller,
+          restored.group);
+      throw new AssertionError("Truncated state accepted");
+    } catch (EOFException e) {
+      // Expected
+    }
+    // Nothing was restored
+    assertEquals(IJssController.PublicationLevel.ERROR, restored.controller.getPublicationLevel());
+    assertEquals(1, restored.controller.commandHistorySize());
+    assertEquals("other", restored.controller.getPreviousCommand());
+    assertFalse(restored.first.isSelected());
+    assertEquals(0, restored.first.switchCount);
+  }
+
+  /**
+   * Test of fromByteArray method, of class JssStateSerializer, with more entries than bytes.
+   */
+  @Test
+  public void testFromByteArray_invalidCount() throws IOException {
+    System.out.println("fromByteArray_invalidCount");
+    Shell shell = new Shell();
+    byte[][] states = {
+        // String table
+        {0x4A, 0x53, 0x53, 0x54, 1, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07},
+        // History section
+        {0x4A, 0x53, 0x53, 0x54, 1, 0, 2, 7, 0, 0, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF,
+            (byte) 0xFF, 0x07, 0},
+        // Group section
+        {0x4A, 0x53, 0x53, 0x54, 1, 0, 4, 2, 2, 0, 0}};
+    for (byte[] state : states) {
+      try {
+        JssStateSerializer.fromByteArray(state, shell.controller, shell.group);
+        throw new AssertionError("Invalid number of entries accepted");
+      } catch (StreamCorruptedException e) {
+        // Expected
+      }
+    }
+  }
+
+  /**
+   * Test of fromByteArray method, of class JssStateSerializer, with an unknown section.
+   */
+  @Test
+  public void testFromByteArray_unknownSection() throws IOException {
+    System.out.println("fromByteArray_unknownSection");
+    Shell shell = new Shell();
+    shell.controller.setPublicationLevel(IJssController.PublicationLevel.ERROR);
+    byte[] data = {0x4A, 0x53, 0x53, 0x54, 1, 0, 42, 2, 1, 2, 0};
+    JssStateSerializer.fromByteArray(data, shell.controller);
+    assertEquals(IJssController.PublicationLevel.ERROR, shell.controller.getPublicationLevel());
+  }
+
+  // #########################################################################
+  private static class Shell {
+
+    final JssTextAreaController controller = new JssTextAreaController();
+
+    final SwitchAction first = new SwitchAction("first");
+
+    final SwitchAction second = new SwitchAction("second");
+
+    final SwitchAction left = new SwitchAction("left");
+
+    final SwitchAction right = new SwitchAction("right");
+
+    final ComboAction level = new ComboAction("level", "low", "high");
+
+    final ActionGroup group = new ActionGroup();
+
+    Shell() {
+      controller.getModel().addAll(Arrays.asList(first, second, left, right, level));
+      group.add(left);
+      group.add(right);
+    }
+
+  }
+
+  private static class SwitchAction extends AbstractJssSwitchAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String identifier;
+
+    boolean switchable = true;
+
+    int switchCount = 0;
+
+    SwitchAction(String identifier) {
+      super(false);
+      this.identifier = identifier;
+    }
+
+    @Override
+    protected boolean doSwitch(IJssController shellController, Boolean switchValue) {
+      switchCount++;
+      return switchable;
+    }
+
+    @Override
+    public String[] getCommandIdentifiers() {
+      return new String[] {identifier};
+    }
+
+    @Override
+    public String getBriefHelp() {
+      return "Switch " + identifier;
+    }
+
+  }
+
+  private static class ComboAction extends AbstractJssComboAction<String> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String identifier;
+
+    int switchCount = 0;
+
+    ComboAction(String identifier, String... items) {
+      super(items);
+      this.identifier = identifier;
+    }
+
+    @Override
+    protected boolean doSwitch(IJssController shellController, String switchValue) {
+      switchCount++;
+      return true;
+    }
+
+    @Override
+    public String[] getCommandIdentifiers() {
+      return new String[] {identifier};
+    }
+
+    @Override
+    public String getBriefHelp() {
+      return "Combo " + identifier;
+    }
+
+  }
+
+}
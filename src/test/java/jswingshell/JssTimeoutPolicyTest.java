@@ -0,0 +1,103 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 brunot.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package jswingshell;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import jswingshell.gui.JssVirtualShellControllerTest;
+
+/**
+ *
+ * @author brunot
+ */
+public class JssTimeoutPolicyTest {
+
+  public JssTimeoutPolicyTest() {}
+
+  @BeforeClass
+  public static void setUpClass() {}
+
+  @AfterClass
+  public static void tearDownClass() {}
+
+  @Before
+  public void setUp() {}
+
+  @After
+  public void tearDown() {}
+
+  /**
+   * Test of getTimeoutMillis method, of class JssTimeoutPolicy.
+   */
+  @Test
+  public void testGetTimeoutMillis() {
+    System.out.println("getTimeoutMillis");
+    JssVirtualShellControllerTest.WaitAction wait = new JssVirtualShellControllerTest.WaitAction();
+    JssVirtualShellControllerTest.HangAction hang = new JssVirtualShellControllerTest.HangAction();
+    JssTimeoutPolicy instance = new JssTimeoutPolicy();
+    assertEquals(0, instance.getDefaultTimeoutMillis());
+    assertEquals(0, instance.getTimeoutMillis(wait, "wait", "0"));
+
+    instance.setDefaultTimeout(2, TimeUnit.SECONDS);
+    instance.setCommandTimeout("hang", 100, TimeUnit.MILLISECONDS);
+    assertEquals(2000, instance.getTimeoutMillis(wait, "wait", "0"));
+    assertEquals(100, instance.getTimeoutMillis(hang, "hang"));
+    assertEquals(2000, instance.getTimeoutMillis(null));
+
+    // A command may never time out despite the default timeout
+    instance.setCommandTimeout("wait", 0, TimeUnit.SECONDS);
+    assertEquals(0, instance.getTimeoutMillis(wait, "wait", "0"));
+
+    assertTrue(instance.removeCommandTimeout("hang"));
+    assertFalse(instance.removeCommandTimeout("hang"));
+    assertEquals(2000, instance.getTimeoutMillis(hang, "hang"));
+  }
+
+  /**
+   * Test of setDefaultTimeout method, of class JssTimeoutPolicy.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testSetDefaultTimeout_negative() {
+    System.out.println("setDefaultTimeout");
+    new JssTimeoutPolicy(-1, TimeUnit.SECONDS);
+  }
+
+  /**
+   * Test of setCommandTimeout method, of class JssTimeoutPolicy.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testSetCommandTimeout_nullUnit() {
+    System.out.println("setCommandTimeout");
+    new JssTimeoutPolicy().setCommandTimeout("hang", 1, null);
+  }
+
+}
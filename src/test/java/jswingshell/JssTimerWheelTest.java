@@ -0,0 +1,227 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 brunot.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package jswingshell;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ *
+ * @author brunot
+ */
+public class JssTimerWheelTest {
+
+  private JssTimerWheel instance;
+
+  public JssTimerWheelTest() {}
+
+  @BeforeClass
+  public static void setUpClass() {}
+
+  @AfterClass
+  public static void tearDownClass() {}
+
+  @Before
+  public void setUp() {
+    instance = new JssTimerWheel(1, TimeUnit.MILLISECONDS);
+  }
+
+  @After
+  public void tearDown() {
+    instance.stop();
+  }
+
+  /**
+   * Test of schedule method, of class JssTimerWheel.
+   */
+  @Test(timeout = 10000)
+  public void testSchedule() throws Exception {
+    System.out.println("schedule");
+    final List<String> expired = new CopyOnWriteArrayList<>();
+    final CountDownLatch latch = new CountDownLatch(3);
+    // On each level of the wheel
+    long[] delays = {300, 5, 80};
+    long start = System.nanoTime();
+    final long[] elapsed = new long[delays.length];
+    for (int i = 0; i < delays.length; i++) {
+      final int index = i;
+      final long startNanos = start;
+      instance.schedule(new Runnable() {
+
+        @Override
+        public void run() {
+          elapsed[index] = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+          expired.add(String.valueOf(index));
+          latch.countDown();
+        }
+
+      }, delays[i], TimeUnit.MILLISECONDS);
+    }
+    assertEquals(3, instance.getPendingCount());
+    latch.await();
+    assertEquals("[1, 2, 0]", expired.toString());
+    for (int i = 0; i < delays.length; i++) {
+      assertTrue(elapsed[i] + " < " + delays[i], elapsed[i] >= delays[i]);
+    }
+    assertEquals(0, instance.getPendingCount());
+  }
+
+  /**
+   * Test of schedule method, of class JssTimerWheel, with many timeouts.
+   */
+  @Test(timeout = 20000)
+  public void testSchedule_many() throws Exception {
+    System.out.println("schedule");
+    final int timeoutCount = 10000;
+    final CountDownLatch latch = new CountDownLatch(timeoutCount);
+    final AtomicInteger early = new AtomicInteger();
+    Random random = new Random(42);
+    JssTimerWheel.Timeout[] timeouts = new JssTimerWheel.Timeout[timeoutCount];
+    for (int i = 0; i < timeoutCount; i++) {
+      final long delayMillis = random.nextInt(500);
+      final long startNanos = System.nanoTime();
+      timeouts[i] = instance.schedule(new Runnable() {
+
+        @Override
+        public void run() {
+          if (System.nanoTime() - startNanos < TimeUnit.MILLISECONDS.toNanos(delayMillis)) {
+            early.incrementAndGet();
+          }
+          latch.countDown();
+        }
+
+      }, delayMillis, TimeUnit.MILLISECONDS);
+    }
+    // Cancel half of them
+    for (int i = 0; i < timeoutCount; i += 2) {
+      if (timeouts[i].cancel()) {
+        latch.countDown();
+      }
+    }
+    latch.await();
+    assertEquals(0, early.get());
+    assertEquals(0, instance.getPendingCount());
+  }
+
+  /**
+   * Test of cancel method, of class JssTimerWheel.Timeout.
+   */
+  @Test
+  public void testCancel() throws Exception {
+    System.out.println("cancel");
+    final AtomicInteger runs = new AtomicInteger();
+    JssTimerWheel.Timeout timeout = instance.schedule(new Runnable() {
+
+      @Override
+      public void run() {
+        runs.incrementAndGet();
+      }
+
+    }, 20, TimeUnit.MILLISECONDS);
+    assertTrue(timeout.cancel());
+    assertFalse(timeout.cancel());
+    assertTrue(timeout.isCancelled());
+    assertEquals(0, instance.getPendingCount());
+    Thread.sleep(50);
+    assertEquals(0, runs.get());
+    assertFalse(timeout.isExpired());
+  }
+
+  /**
+   * Test of schedule method, of class JssTimerWheel, beyond the range of the wheel.
+   */
+  @Test(timeout = 10000)
+  public void testSchedule_longDelay() throws Exception {
+    System.out.println("schedule");
+    JssTimerWheel.Timeout timeout = instance.schedule(new Runnable() {
+
+      @Override
+      public void run() {
+        // Never run
+      }
+
+    }, 365, TimeUnit.DAYS);
+    final CountDownLatch latch = new CountDownLatch(1);
+    instance.schedule(new Runnable() {
+
+      @Override
+      public void run() {
+        latch.countDown();
+      }
+
+    }, 0, TimeUnit.MILLISECONDS);
+    latch.await();
+    assertEquals(1, instance.getPendingCount());
+    assertTrue(timeout.cancel());
+  }
+
+  /**
+   * Test of schedule method, of class JssTimerWheel.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testSchedule_nullTask() {
+    System.out.println("schedule");
+    instance.schedule(null, 1, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Test of schedule method, of class JssTimerWheel, once stopped.
+   */
+  @Test(expected = IllegalStateException.class)
+  public void testSchedule_stopped() {
+    System.out.println("schedule");
+    instance.stop();
+    assertTrue(instance.isStopped());
+    instance.schedule(new Runnable() {
+
+      @Override
+      public void run() {
+        // Never run
+      }
+
+    }, 1, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Test of constructor, of class JssTimerWheel.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testConstructor_invalidTick() {
+    System.out.println("JssTimerWheel");
+    new JssTimerWheel(0, TimeUnit.MILLISECONDS);
+  }
+
+}
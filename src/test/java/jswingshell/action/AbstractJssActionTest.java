@@ -23,8 +23,10 @@ package jswingshell.action;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 import java.awt.event.ActionEvent;
+import java.lang.ref.WeakReference;
 import java.util.Collection;
 
 import org.junit.After;
@@ -173,6 +175,45 @@ public class AbstractJssActionTest {
     assertEquals(expResult, result);
   }
 
+  /**
+   * Test of getCommandIdentifiersAsString method, of class AbstractJssAction, when the identifiers
+   * change.
+   */
+  @Test
+  public void testGetCommandIdentifiersAsString_identifiersChanged() {
+    System.out.println("getCommandIdentifiersAsString");
+    final String[] identifiers = new String[] {"a", "b"};
+    AbstractJssAction instance = new AbstractJssActionImpl() {
+
+      @Override
+      public String[] getCommandIdentifiers() {
+        return identifiers;
+      }
+
+    };
+    assertEquals("{ a | b }", instance.getCommandIdentifiersAsString());
+    identifiers[1] = "c";
+    assertEquals("{ a | c }", instance.getCommandIdentifiersAsString());
+  }
+
+  /**
+   * Test of getCommandIdentifiersAsString method, of class AbstractJssAction, when the action is
+   * discarded.
+   */
+  @Test
+  public void testGetCommandIdentifiersAsString_actionDiscarded() throws InterruptedException {
+    System.out.println("getCommandIdentifiersAsString");
+    AbstractJssAction instance = new AbstractJssActionImpl();
+    instance.getCommandIdentifiersAsString();
+    WeakReference<AbstractJssAction> reference = new WeakReference<>(instance);
+    instance = null;
+    for (int i = 0; i < 50 && reference.get() != null; i++) {
+      System.gc();
+      Thread.sleep(10);
+    }
+    assertNull(reference.get());
+  }
+
   /**
    * Test of getHelp method, of class AbstractJssAction.
    */
@@ -185,6 +226,44 @@ public class AbstractJssActionTest {
     assertEquals(expResult, result);
   }
 
+  /**
+   * Test of getCachedHelp method, of class AbstractJssAction.
+   */
+  @Test
+  public void testGetCachedHelp() {
+    System.out.println("getCachedHelp");
+    IJssController shellController = null;
+    AbstractJssAction instance = new AbstractJssActionImpl();
+    assertNull(instance.getCachedHelp(shellController));
+    assertEquals("help", instance.cacheHelp(shellController, "help"));
+    assertEquals("help", instance.getCachedHelp(shellController));
+
+    instance.invalidateHelp();
+    assertNull(instance.getCachedHelp(shellController));
+  }
+
+  /**
+   * Test of getCachedHelp method, of class AbstractJssAction, when the identifiers change.
+   */
+  @Test
+  public void testGetCachedHelp_identifiersChanged() {
+    System.out.println("getCachedHelp");
+    IJssController shellController = null;
+    final String[] identifiers = new String[] {"a"};
+    AbstractJssAction instance = new AbstractJssActionImpl() {
+
+      @Override
+      public String[] getCommandIdentifiers() {
+        return identifiers;
+      }
+
+    };
+    instance.cacheHelp(shellController, "help");
+    assertEquals("help", instance.getCachedHelp(shellController));
+    identifiers[0] = "b";
+    assertNull(instance.getCachedHelp(shellController));
+  }
+
   /**
    * Test of run method, of class AbstractJssAction.
    */
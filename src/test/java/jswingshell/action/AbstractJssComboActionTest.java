@@ -23,13 +23,27 @@ package jswingshell.action;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 import java.awt.event.ActionEvent;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
+import javax.swing.AbstractListModel;
 import javax.swing.ComboBoxModel;
+import javax.swing.DefaultComboBoxModel;
 import javax.swing.event.ListDataListener;
 
 import org.junit.After;
@@ -188,6 +202,27 @@ public class AbstractJssComboActionTest {
     assertNotEquals(notExpResult, result);
   }
 
+  /**
+   * Test of getHelp method, of class AbstractJssComboAction, when the items change.
+   */
+  @Test
+  public void testGetHelp_cached() {
+    System.out.println("getHelp");
+    IJssController shellController = null;
+    DefaultComboBoxModel<String> model = new DefaultComboBoxModel<>(new String[] {"a", "b"});
+    AbstractJssComboAction<String> instance = new AbstractJssComboActionImpl();
+    instance.setModel(model);
+    String result = instance.getHelp(shellController);
+    assertSame(result, instance.getHelp(shellController));
+
+    // Selecting an item does not change the help
+    model.setSelectedItem("b");
+    assertSame(result, instance.getHelp(shellController));
+
+    model.addElement("c");
+    assertNotSame(result, instance.getHelp(shellController));
+  }
+
   /**
    * Test of extractArgumentsFromEvent method, of class AbstractJssComboAction.
    */
@@ -239,6 +274,94 @@ public class AbstractJssComboActionTest {
     assertNotEquals(notExpResult, result);
   }
 
+  /**
+   * Test of getSwitchArgumentByValue method, of class AbstractJssComboAction.
+   */
+  @Test
+  public void testGetSwitchArgumentByValue() {
+    System.out.println("getSwitchArgumentByValue");
+    AbstractJssComboAction<String> instance = new AbstractJssComboActionImpl();
+    instance.setModel(new DefaultComboBoxModel<>(new String[] {"a", "b"}));
+    assertEquals("b", instance.getSwitchArgumentByValue("b"));
+    assertEquals("b", instance.getSwitchValuesByArgument()
+        .get(instance.getSwitchArgumentByValue("b").toUpperCase()));
+    assertEquals(null, instance.getSwitchArgumentByValue("c"));
+  }
+
+  /**
+   * Test of getSwitchArgumentsByValue method, of class AbstractJssComboAction, when the model
+   * changes.
+   */
+  @Test
+  public void testGetSwitchArgumentsByValue_modelChanged() {
+    System.out.println("getSwitchArgumentsByValue");
+    ListComboBoxModel model = new ListComboBoxModel("a", "b");
+    AbstractJssComboAction<String> instance = new AbstractJssComboActionImpl();
+    instance.setModel(model);
+    Map<String, Collection<String>> argumentsByValue = instance.getSwitchArgumentsByValue();
+    Map<String, String> valuesByArgument = instance.getSwitchValuesByArgument();
+    assertEquals(2, argumentsByValue.size());
+
+    // The maps are updated, not built again
+    model.add(2, "c");
+    assertSame(argumentsByValue, instance.getSwitchArgumentsByValue());
+    assertSame(valuesByArgument, instance.getSwitchValuesByArgument());
+    assertEquals(Collections.singleton("c"), argumentsByValue.get("c"));
+    assertEquals("c", valuesByArgument.get("C"));
+
+    model.set(0, "d");
+    assertFalse(argumentsByValue.containsKey("a"));
+    assertFalse(valuesByArgument.containsKey("A"));
+    assertEquals("d", valuesByArgument.get("D"));
+    assertEquals(0, instance.getIndexOf("d"));
+
+    // Duplicated items are kept until their last occurrence is removed
+    model.add(0, "b");
+    model.remove(0);
+    assertEquals("b", valuesByArgument.get("B"));
+    model.remove(1);
+    assertFalse(valuesByArgument.containsKey("B"));
+    assertEquals(2, argumentsByValue.size());
+    assertEquals(1, instance.getIndexOf("c"));
+    assertSame(argumentsByValue, instance.getSwitchArgumentsByValue());
+
+    // Changes which cannot be followed build the maps again
+    model.fireReset();
+    model.add(0, "e");
+    assertEquals("e", instance.getSwitchValuesByArgument().get("E"));
+    assertEquals(3, instance.getSwitchArgumentsByValue().size());
+  }
+
+  /**
+   * Test of the serialization of class AbstractJssComboAction, when the model changes afterwards.
+   */
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testSerialization_modelChanged() throws Exception {
+    System.out.println("serialization");
+    SerializableComboAction action = new SerializableComboAction("a", "b");
+    action.getSwitchValuesByArgument();
+    action.getHelp(null);
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(action);
+    }
+    SerializableComboAction instance;
+    try (ObjectInputStream in =
+        new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+      instance = (SerializableComboAction) in.readObject();
+    }
+    assertEquals(1, instance.getIndexOf("b"));
+    String help = instance.getHelp(null);
+
+    // The deserialized action still follows its model
+    ((DefaultComboBoxModel<String>) instance.getModel()).insertElementAt("c", 0);
+    assertEquals(0, instance.getIndexOf("c"));
+    assertEquals(2, instance.getIndexOf("b"));
+    assertEquals("c", instance.getSwitchValuesByArgument().get("C"));
+    assertNotSame(help, instance.getHelp(null));
+  }
+
   /**
    * Test of doSwitch method, of class AbstractJssComboAction.
    */
@@ -278,6 +401,74 @@ public class AbstractJssComboActionTest {
     assertNotEquals(notExpResult, result);
   }
 
+  /**
+   * Test of getIndexOf method, of class AbstractJssComboAction.
+   */
+  @Test
+  public void testGetIndexOf() {
+    System.out.println("getIndexOf");
+    DefaultComboBoxModel<String> model = new DefaultComboBoxModel<>(new String[] {"a", "b", "a"});
+    AbstractJssComboAction<String> instance = new AbstractJssComboActionImpl();
+    instance.setModel(model);
+    assertEquals(0, instance.getIndexOf("a"));
+    assertEquals(1, instance.getIndexOf("b"));
+    assertEquals(-1, instance.getIndexOf("c"));
+    assertEquals(-1, instance.getIndexOf(null));
+
+    // Items added or removed at the end
+    model.addElement("c");
+    assertEquals(3, instance.getIndexOf("c"));
+    model.removeElementAt(3);
+    model.removeElementAt(2);
+    assertEquals(-1, instance.getIndexOf("c"));
+    assertEquals(0, instance.getIndexOf("a"));
+
+    // Items added, removed or changed in the middle
+    model.insertElementAt("c", 0);
+    assertEquals(0, instance.getIndexOf("c"));
+    assertEquals(1, instance.getIndexOf("a"));
+    model.removeElementAt(0);
+    assertEquals(-1, instance.getIndexOf("c"));
+    assertEquals(0, instance.getIndexOf("a"));
+    model.removeAllElements();
+    assertEquals(-1, instance.getIndexOf("a"));
+
+    instance.setModel(new DefaultComboBoxModel<>(new String[] {"d"}));
+    assertEquals(0, instance.getIndexOf("d"));
+    instance.setModel(null);
+    assertEquals(-1, instance.getIndexOf("d"));
+    // The previous model is not listened to anymore
+    model.addElement("e");
+    assertEquals(-1, instance.getIndexOf("e"));
+  }
+
+  /**
+   * Test of setSelectedItem method, of class AbstractJssComboAction, with inner element actions.
+   */
+  @Test
+  public void testSetSelectedItem_innerElements() {
+    System.out.println("setSelectedItem");
+    AbstractJssComboAction<String> instance = new AbstractJssComboActionImpl();
+    instance.setModel(new DefaultComboBoxModel<>(new String[] {"a", "b", "c"}));
+    Collection<AbstractJssComboAction<String>.ComboElementAction<String>> elementActions =
+        instance.getInnerElementActions();
+    instance.setSelectedItem("b");
+    for (AbstractJssComboAction<String>.ComboElementAction<String> elementAction : elementActions) {
+      assertEquals("b".equals(elementAction.getDataItem()),
+          instance.getInnerGroup().isSelected(elementAction));
+    }
+
+    instance.setSelectedItem("c");
+    for (AbstractJssComboAction<String>.ComboElementAction<String> elementAction : elementActions) {
+      assertEquals("c".equals(elementAction.getDataItem()),
+          instance.getInnerGroup().isSelected(elementAction));
+    }
+
+    instance.resetInnerElements();
+    instance.setSelectedItem("a");
+    assertEquals("a", instance.getSelectedItem());
+  }
+
   /**
    * Test of getInnerGroup method, of class AbstractJssComboAction.
    */
@@ -315,6 +506,70 @@ public class AbstractJssComboActionTest {
     assertNotEquals(notExpResult, result);
   }
 
+  /**
+   * Test of getInnerElementAction method, of class AbstractJssComboAction.
+   */
+  @Test
+  public void testGetInnerElementAction() {
+    System.out.println("getInnerElementAction");
+    AbstractJssComboAction<String> instance = new AbstractJssComboActionImpl();
+    instance.setModel(new DefaultComboBoxModel<>(new String[] {"a", "b", "c"}));
+    assertFalse(instance.isLazyInnerElements());
+    AbstractJssComboAction<String>.ComboElementAction<String> result =
+        instance.getInnerElementAction(1);
+    assertEquals("b", result.getDataItem());
+    assertEquals(3, instance.getInnerElementActions().size());
+    assertEquals(null, instance.getInnerElementAction(3));
+    assertEquals(null, instance.getInnerElementAction(-1));
+  }
+
+  /**
+   * Test of getInnerElementAction method, of class AbstractJssComboAction, with lazy inner
+   * elements.
+   */
+  @Test
+  public void testGetInnerElementAction_lazy() {
+    System.out.println("getInnerElementAction");
+    String[] items = new String[10000];
+    for (int i = 0; i < items.length; i++) {
+      items[i] = "item" + i;
+    }
+    AbstractJssComboAction<String> instance = new AbstractJssComboActionImpl();
+    instance.setModel(new DefaultComboBoxModel<>(items));
+    instance.setLazyInnerElements(true);
+    assertTrue(instance.isLazyInnerElements());
+
+    AbstractJssComboAction<String>.ComboElementAction<String> result =
+        instance.getInnerElementAction(5000);
+    assertEquals("item5000", result.getDataItem());
+    assertSame(result, instance.getInnerElementAction(5000));
+    assertEquals(1, instance.getInnerElementActions().size());
+    assertEquals(instance.getInnerGroup(), result.getGroup());
+
+    // Only the created element actions are selected
+    instance.getInnerElementAction(5001);
+    instance.setSelectedItem("item5001");
+    assertTrue(instance.getInnerGroup().isSelected(instance.getInnerElementAction(5001)));
+    assertFalse(instance.getInnerGroup().isSelected(result));
+    instance.setSelectedItem("item1");
+    assertEquals(2, instance.getInnerElementActions().size());
+    assertEquals(null, instance.getInnerGroup().getSelection());
+    assertFalse(instance.getInnerElementAction(5001).isSelected());
+
+    // The element action of the selected item is created selected
+    AbstractJssComboAction<String>.ComboElementAction<String> selected =
+        instance.getInnerElementAction(1);
+    assertTrue(selected.isSelected());
+    assertTrue(instance.getInnerGroup().isSelected(selected));
+    assertFalse(result.isSelected());
+
+    // Release the element actions
+    instance.resetInnerElements();
+    assertFalse(instance.hasInnerElementActions());
+    assertEquals(null, result.getGroup());
+    assertEquals(0, instance.getInnerElementActions().size());
+  }
+
   /**
    * Test of hasInnerElementActions method, of class AbstractJssComboAction.
    */
@@ -351,6 +606,92 @@ public class AbstractJssComboActionTest {
     instance.resetInnerElements();
   }
 
+  /**
+   * A combo model backed by a list, signalling each change of an item.
+   */
+  public static class ListComboBoxModel extends AbstractListModel<String>
+      implements ComboBoxModel<String> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final List<String> items;
+
+    private Object selectedItem;
+
+    public ListComboBoxModel(String... items) {
+      this.items = new ArrayList<>(Arrays.asList(items));
+    }
+
+    public void add(int index, String item) {
+      items.add(index, item);
+      fireIntervalAdded(this, index, index);
+    }
+
+    public void set(int index, String item) {
+      items.set(index, item);
+      fireContentsChanged(this, index, index);
+    }
+
+    public void remove(int index) {
+      items.remove(index);
+      fireIntervalRemoved(this, index, index);
+    }
+
+    /**
+     * Signal a change of all the items, with an interval out of the model.
+     */
+    public void fireReset() {
+      fireContentsChanged(this, 0, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int getSize() {
+      return items.size();
+    }
+
+    @Override
+    public String getElementAt(int index) {
+      return items.get(index);
+    }
+
+    @Override
+    public void setSelectedItem(Object anItem) {
+      selectedItem = anItem;
+      fireContentsChanged(this, -1, -1);
+    }
+
+    @Override
+    public Object getSelectedItem() {
+      return selectedItem;
+    }
+
+  }
+
+  public static class SerializableComboAction extends AbstractJssComboAction<String> {
+
+    private static final long serialVersionUID = 1L;
+
+    public SerializableComboAction(String... items) {
+      super(items);
+    }
+
+    @Override
+    public boolean doSwitch(IJssController shellController, String switchValue) {
+      return true;
+    }
+
+    @Override
+    public String[] getCommandIdentifiers() {
+      return new String[] {"combo"};
+    }
+
+    @Override
+    public String getBriefHelp() {
+      return "Serializable combo.";
+    }
+
+  }
+
   public class AbstractJssComboActionImpl
       extends AbstractJssComboAction<String> {
 
@@ -0,0 +1,91 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 brunot.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package jswingshell.action;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import jswingshell.IJssController;
+import jswingshell.gui.JssVirtualShellController;
+
+/**
+ *
+ * @author brunot
+ */
+public class AbstractJssStreamActionTest {
+
+  public AbstractJssStreamActionTest() {}
+
+  @BeforeClass
+  public static void setUpClass() {}
+
+  @AfterClass
+  public static void tearDownClass() {}
+
+  @Before
+  public void setUp() {}
+
+  @After
+  public void tearDown() {}
+
+  /**
+   * Test of run method, of class AbstractJssStreamAction.
+   */
+  @Test
+  public void testRun_IJssController_StringArr() {
+    System.out.println("run");
+    JssVirtualShellController controller = new JssVirtualShellController();
+    AbstractJssStreamAction instance = new JssPipelineTest.SeqAction();
+    int result = instance.run(controller, "seq", "3");
+    assertEquals(IJssAction.SUCCESS, result);
+    assertEquals("\n> \n1\n2\n3", controller.getShellText());
+  }
+
+  /**
+   * Test of run method, of class AbstractJssStreamAction.
+   */
+  @Test
+  public void testRun_emptyInput() {
+    System.out.println("run");
+    JssVirtualShellController controller = new JssVirtualShellController();
+    AbstractJssStreamAction instance = new JssPipelineTest.CountAction();
+    int result = instance.run(controller, "count");
+    assertEquals(IJssAction.SUCCESS, result);
+    assertEquals("\n> \n0", controller.getShellText());
+  }
+
+  /**
+   * Test of run method, of class AbstractJssStreamAction.
+   */
+  @Test
+  public void testRun_noController() {
+    System.out.println("run");
+    AbstractJssStreamAction instance = new JssPipelineTest.SeqAction();
+    assertEquals(IJssAction.SUCCESS, instance.run((IJssController) null, "seq", "3"));
+  }
+
+}
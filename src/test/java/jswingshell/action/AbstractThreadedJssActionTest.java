@@ -0,0 +1,141 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 brunot.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package jswingshell.action;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.swing.SwingUtilities;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import jswingshell.gui.JssVirtualShellController;
+
+/**
+ *
+ * @author brunot
+ */
+public class AbstractThreadedJssActionTest {
+
+  private JssVirtualShellController controller;
+
+  public AbstractThreadedJssActionTest() {}
+
+  @BeforeClass
+  public static void setUpClass() {}
+
+  @AfterClass
+  public static void tearDownClass() {}
+
+  @Before
+  public void setUp() {
+    controller = new JssVirtualShellController();
+  }
+
+  @After
+  public void tearDown() {}
+
+  /**
+   * Test of setCompletionCallback method, of class AbstractJssActionWorker.
+   */
+  @Test(timeout = 10000)
+  public void testSetCompletionCallback() throws Exception {
+    System.out.println("setCompletionCallback");
+    JssCancellationTokenTest.PollAction action = new JssCancellationTokenTest.PollAction();
+    action.run(controller, "poll");
+    AbstractThreadedJssAction.AbstractJssActionWorker worker = action.getActiveWorkers().get(0);
+
+    final AtomicInteger replacedRuns = new AtomicInteger();
+    final AtomicInteger runs = new AtomicInteger();
+    final boolean[] onEventDispatchThread = new boolean[1];
+    worker.setCompletionCallback(new Runnable() {
+
+      @Override
+      public void run() {
+        replacedRuns.incrementAndGet();
+      }
+
+    });
+    // A worker has a single completion callback
+    worker.setCompletionCallback(new Runnable() {
+
+      @Override
+      public void run() {
+        onEventDispatchThread[0] = SwingUtilities.isEventDispatchThread();
+        runs.incrementAndGet();
+      }
+
+    });
+    action.cancel(controller, true);
+    while (runs.get() == 0) {
+      Thread.sleep(5);
+    }
+    assertEquals(0, replacedRuns.get());
+    assertTrue(onEventDispatchThread[0]);
+
+    // Once done, the callback is run immediately
+    worker.setCompletionCallback(new Runnable() {
+
+      @Override
+      public void run() {
+        runs.incrementAndGet();
+      }
+
+    });
+    assertEquals(2, runs.get());
+  }
+
+  /**
+   * Test of interpret method, of class AbstractJssController, with a threaded action.
+   */
+  @Test(timeout = 10000)
+  public void testInterpret_noListener() throws Exception {
+    System.out.println("interpret");
+    final JssCancellationTokenTest.PollAction action = new JssCancellationTokenTest.PollAction();
+    controller.getModel().add(action);
+    final AbstractThreadedJssAction.AbstractJssActionWorker[] worker =
+        new AbstractThreadedJssAction.AbstractJssActionWorker[1];
+    SwingUtilities.invokeAndWait(new Runnable() {
+
+      @Override
+      public void run() {
+        controller.setCommandLine("poll");
+        assertEquals(IJssAction.IN_PROGRESS, controller.interpret());
+        worker[0] = action.getActiveWorkers().get(0);
+        action.cancel(controller, true);
+      }
+
+    });
+    assertTrue(worker[0].isCancelled());
+    assertTrue(!controller.isCommandLineLocked());
+    assertTrue(controller.getActionsInProgress().isEmpty());
+    // Completion does not rely on listeners, which would keep the shell reachable
+    assertEquals(0, worker[0].getPropertyChangeSupport().getPropertyChangeListeners().length);
+  }
+
+}
@@ -22,6 +22,11 @@
 package jswingshell.action;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
 
 import org.junit.After;
 import org.junit.AfterClass;
@@ -210,4 +215,90 @@ public class ActionGroupTest {
     instance.setEnabled(newValue);
   }
 
+  /**
+   * Test of clear method, of class ActionGroup.
+   */
+  @Test
+  public void testClear() {
+    System.out.println("clear");
+    ActionGroup instance = new ActionGroup();
+    instance.clear();
+    AbstractJssSwitchAction a = new DummyAction();
+    AbstractJssSwitchAction b = new DummyAction();
+    instance.add(a);
+    instance.add(b);
+    instance.setSelected(b, true);
+
+    instance.clear();
+    assertEquals(0, instance.getActionCount());
+    assertEquals(null, instance.getSelection());
+    assertEquals(null, a.getGroup());
+    assertEquals(null, b.getGroup());
+    assertTrue(b.isSelected());
+  }
+
+  /**
+   * Test of contains method, of class ActionGroup.
+   */
+  @Test
+  public void testContains() {
+    System.out.println("contains");
+    ActionGroup instance = new ActionGroup();
+    AbstractJssSwitchAction a = new DummyAction();
+    assertFalse(instance.contains(null));
+    assertFalse(instance.contains(a));
+    instance.add(a);
+    assertTrue(instance.contains(a));
+    // Adding an action twice keeps a single occurrence
+    instance.add(a);
+    assertEquals(1, instance.getActionCount());
+    instance.remove(a);
+    assertFalse(instance.contains(a));
+  }
+
+  /**
+   * Test of getElements method, of class ActionGroup, with many actions.
+   */
+  @Test
+  public void testGetElements_order() {
+    System.out.println("getElements");
+    ActionGroup instance = new ActionGroup();
+    List<AbstractJssSwitchAction> actions = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      AbstractJssSwitchAction action = new DummyAction();
+      actions.add(action);
+      instance.add(action);
+    }
+    assertEquals(actions, new ArrayList<>(instance.getElements()));
+    for (int i = 0; i < 1000; i += 2) {
+      instance.remove(actions.get(i));
+    }
+    assertEquals(500, instance.getActionCount());
+    assertEquals(actions.get(1), instance.getElements().iterator().next());
+  }
+
+  /**
+   * A switch action doing nothing.
+   */
+  private static class DummyAction extends AbstractJssSwitchAction {
+
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    protected boolean doSwitch(IJssController shellController, Boolean switchValue) {
+      return true;
+    }
+
+    @Override
+    public String[] getCommandIdentifiers() {
+      return new String[] {};
+    }
+
+    @Override
+    public String getBriefHelp() {
+      return "DummyAction";
+    }
+
+  }
+
 }
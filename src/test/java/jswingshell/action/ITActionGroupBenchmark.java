@@ -0,0 +1,145 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 brunot.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package jswingshell.action;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+import javax.swing.DefaultComboBoxModel;
+
+import org.junit.Test;
+
+import jswingshell.IJssController;
+
+/**
+ * Benchmark of the reset of the inner element actions of a large combo action, with an action
+ * group backed by a hash set and by a list as it used to be.
+ *
+ * <p>
+ * Resetting the element actions removes them one by one from their group: removing from a list is
+ * linear, so the reset is quadratic with a list. The number of items can be set with the
+ * {@code jss.benchmark.items} system property.
+ * </p>
+ *
+ * @author Mathieu Brunot
+ */
+public class ITActionGroupBenchmark {
+
+  private static final int ITEMS = Integer.getInteger("jss.benchmark.items", 50000);
+
+  private static final int RUNS = 3;
+
+  @Test
+  public void benchmarkResetInnerElements() {
+    System.out.println("resetInnerElements: " + ITEMS + " items");
+    String[] items = new String[ITEMS];
+    for (int i = 0; i < ITEMS; i++) {
+      items[i] = "item" + i;
+    }
+
+    long listNanos = Long.MAX_VALUE;
+    long setNanos = Long.MAX_VALUE;
+    for (int run = 0; run < RUNS; run++) {
+      listNanos = Math.min(listNanos, timeReset(new BenchmarkComboAction(items, true)));
+      setNanos = Math.min(setNanos, timeReset(new BenchmarkComboAction(items, false)));
+    }
+    System.out.println(String.format("list group: %8.1f ms", listNanos / 1e6));
+    System.out.println(String.format("set group:  %8.1f ms", setNanos / 1e6));
+    assertTrue("Reset with a set group took " + setNanos + " ns", setNanos < listNanos);
+  }
+
+  private static long timeReset(BenchmarkComboAction action) {
+    Collection<AbstractJssComboAction<String>.ComboElementAction<String>> elements =
+        action.getInnerElementActions();
+    assertEquals(ITEMS, elements.size());
+    ActionGroup group = action.getInnerGroup();
+    assertEquals(ITEMS, group.getActionCount());
+
+    long start = System.nanoTime();
+    action.resetInnerElements();
+    long elapsed = System.nanoTime() - start;
+    assertEquals(0, group.getActionCount());
+    return elapsed;
+  }
+
+  // #########################################################################
+  /**
+   * An action group backed by a list, as it used to be.
+   */
+  private static class ListActionGroup extends ActionGroup {
+
+    private static final long serialVersionUID = 1L;
+
+    ListActionGroup() {
+      actions = new ArrayList<>();
+    }
+
+  }
+
+  /**
+   * A combo action whose inner element actions belong to a list or set action group.
+   */
+  private static class BenchmarkComboAction extends AbstractJssComboAction<String> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final boolean listGroup;
+
+    BenchmarkComboAction(String[] items, boolean listGroup) {
+      super(new DefaultComboBoxModel<>(items));
+      this.listGroup = listGroup;
+    }
+
+    @Override
+    protected Collection<ComboElementAction<String>> initInnerElements() {
+      Collection<ComboElementAction<String>> elements = super.initInnerElements();
+      if (listGroup) {
+        ActionGroup group = new ListActionGroup();
+        for (ComboElementAction<String> element : elements) {
+          group.add(element);
+        }
+        setInnerGroup(group);
+      }
+      return elements;
+    }
+
+    @Override
+    protected boolean doSwitch(IJssController shellController, String switchValue) {
+      return true;
+    }
+
+    @Override
+    public String[] getCommandIdentifiers() {
+      return new String[] {"benchmark"};
+    }
+
+    @Override
+    public String getBriefHelp() {
+      return "Benchmark combo";
+    }
+
+  }
+
+}
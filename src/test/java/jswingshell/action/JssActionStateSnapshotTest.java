@@ -0,0 +1,341 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 brunot.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package jswingshell.action;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import jswingshell.IJssController;
+
+/**
+ * Test action state snapshots.
+ *
+ * @author Mathieu Brunot
+ */
+public class JssActionStateSnapshotTest {
+
+  public JssActionStateSnapshotTest() {}
+
+  @BeforeClass
+  public static void setUpClass() {}
+
+  @AfterClass
+  public static void tearDownClass() {}
+
+  @Before
+  public void setUp() {}
+
+  @After
+  public void tearDown() {}
+
+  /**
+   * Test of capture method, of class JssActionStateSnapshot.
+   */
+  @Test
+  public void testCapture() {
+    System.out.println("capture");
+    SwitchAction selected = new SwitchAction(true);
+    SwitchAction unselected = new SwitchAction(false);
+    ComboAction combo = new ComboAction("a", "b", "c");
+    combo.setSelectedItem("b");
+    IJssAction other = new JssPipelineTest.SeqAction();
+
+    JssActionStateSnapshot instance = JssActionStateSnapshot
+        .capture(Arrays.<IJssAction>asList(selected, other, unselected, combo));
+    assertEquals(3, instance.size());
+    assertEquals(Arrays.<IJssAction>asList(selected, unselected, combo), instance.getActions());
+    assertEquals(Boolean.TRUE, instance.getState(0));
+    assertEquals(Boolean.FALSE, instance.getState(1));
+    assertEquals("b", instance.getState(2));
+
+    assertEquals(0, JssActionStateSnapshot.capture(null).size());
+  }
+
+  /**
+   * Test of of method, of class JssActionStateSnapshot.
+   */
+  @Test
+  public void testOf() {
+    System.out.println("of");
+    SwitchAction action = new SwitchAction(false);
+    ComboAction combo = new ComboAction("a", "b", "c");
+
+    JssActionStateSnapshot instance = JssActionStateSnapshot
+        .of(Arrays.<IJssAction>asList(action, combo), Arrays.<Object>asList(true, "c"));
+    assertEquals(2, instance.size());
+    assertEquals(IJssAction.SUCCESS, instance.restore(null));
+    assertTrue(action.isSelected());
+    assertEquals("c", combo.getSelectedItem());
+  }
+
+  /**
+   * Test of of method, of class JssActionStateSnapshot, with invalid states.
+   */
+  @Test
+  public void testOf_invalid() {
+    System.out.println("of_invalid");
+    SwitchAction action = new SwitchAction(false);
+    IJssAction other = new JssPipelineTest.SeqAction();
+    List<List<?>> invalidStates = Arrays.<List<?>>asList(
+        Arrays.<Object>asList(true, false), Arrays.<Object>asList("on"));
+    for (List<?> states : invalidStates) {
+      try {
+        JssActionStateSnapshot.of(Arrays.<IJssAction>asList(action), states);
+        throw new AssertionError("Invalid states accepted: " + states);
+      } catch (IllegalArgumentException e) {
+        // Expected
+      }
+    }
+    try {
+      JssActionStateSnapshot.of(Arrays.asList(other), Arrays.<Object>asList(true));
+      throw new AssertionError("Not a switch or combo action accepted");
+    } catch (IllegalArgumentException e) {
+      // Expected
+    }
+  }
+
+  /**
+   * Test of restore method, of class JssActionStateSnapshot.
+   */
+  @Test
+  public void testRestore() {
+    System.out.println("restore");
+    SwitchAction first = new SwitchAction(true);
+    SwitchAction second = new SwitchAction(false);
+    ComboAction combo = new ComboAction("a", "b", "c");
+    combo.setSelectedItem("b");
+    JssActionStateSnapshot instance =
+        JssActionStateSnapshot.capture(Arrays.<IJssAction>asList(first, second, combo));
+
+    // Nothing to switch
+    assertEquals(IJssAction.SUCCESS, instance.restore(null));
+    assertEquals(0, first.switchCount.get() + second.switchCount.get());
+
+    first.setSelected(false);
+    combo.setSelectedItem("c");
+    assertEquals(IJssAction.SUCCESS, instance.restore(null));
+    assertTrue(first.isSelected());
+    assertFalse(second.isSelected());
+    assertEquals("b", combo.getSelectedItem());
+    // Only the changed actions are switched
+    assertEquals(1, first.switchCount.get());
+    assertEquals(0, second.switchCount.get());
+    assertEquals(Collections.singletonList("b"), combo.switchValues);
+  }
+
+  /**
+   * Test of restore method, of class JssActionStateSnapshot, with independent actions.
+   */
+  @Test
+  public void testRestore_independent() {
+    System.out.println("restore_independent");
+    int actionCount = 4;
+    // Each switch waits for the others: they only complete if they run concurrently
+    CountDownLatch latch = new CountDownLatch(actionCount);
+    List<IJssAction> actions = new ArrayList<>();
+    for (int i = 0; i < actionCount; i++) {
+      actions.add(new IndependentSwitchAction(latch));
+    }
+    JssActionStateSnapshot instance = JssActionStateSnapshot.capture(actions);
+    for (IJssAction action : actions) {
+      ((AbstractJssSwitchAction) action).setSelected(true);
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(actionCount);
+    try {
+      assertEquals(IJssAction.SUCCESS, instance.restore(null, executor));
+    } finally {
+      executor.shutdownNow();
+    }
+    Set<String> threadNames = new HashSet<>();
+    for (IJssAction action : actions) {
+      assertFalse(((AbstractJssSwitchAction) action).isSelected());
+      threadNames.add(((IndependentSwitchAction) action).threadName);
+    }
+    assertEquals(actionCount, threadNames.size());
+    assertFalse(threadNames.contains(Thread.currentThread().getName()));
+  }
+
+  /**
+   * Test of restore method, of class JssActionStateSnapshot, with failing switches.
+   */
+  @Test
+  public void testRestore_failed() {
+    System.out.println("restore_failed");
+    SwitchAction action = new SwitchAction(true);
+    SwitchAction failing = new SwitchAction(true);
+    failing.failing = true;
+    JssActionStateSnapshot instance =
+        JssActionStateSnapshot.capture(Arrays.<IJssAction>asList(action, failing));
+    action.setSelected(false);
+    failing.setSelected(false);
+
+    assertEquals(IJssAction.ERROR, instance.restore(null));
+    assertTrue(action.isSelected());
+    // The failing action keeps its current state
+    assertFalse(failing.isSelected());
+  }
+
+  /**
+   * Test that the selections of a group are restored in a single batch.
+   */
+  @Test
+  public void testRestore_group() {
+    System.out.println("restore_group");
+    ActionGroup group = new ActionGroup();
+    final SwitchAction first = new SwitchAction(false);
+    final SwitchAction second = new SwitchAction(false);
+    group.add(first);
+    group.add(second);
+    group.setSelected(first, true);
+    JssActionStateSnapshot instance =
+        JssActionStateSnapshot.capture(Arrays.<IJssAction>asList(first, second));
+    group.setSelected(second, true);
+
+    final AtomicInteger inconsistentEvents = new AtomicInteger();
+    PropertyChangeListener listener = new PropertyChangeListener() {
+
+      @Override
+      public void propertyChange(PropertyChangeEvent evt) {
+        if (!first.isSelected() || second.isSelected()) {
+          inconsistentEvents.incrementAndGet();
+        }
+      }
+
+    };
+    first.addPropertyChangeListener(listener);
+    second.addPropertyChangeListener(listener);
+
+    assertEquals(IJssAction.SUCCESS, instance.restore(null));
+    assertEquals(first, group.getSelection());
+    assertEquals(0, inconsistentEvents.get());
+  }
+
+  // #########################################################################
+  public static class SwitchAction extends AbstractJssSwitchAction {
+
+    private static final long serialVersionUID = 1L;
+
+    final AtomicInteger switchCount = new AtomicInteger();
+
+    boolean failing = false;
+
+    public SwitchAction(Boolean selected) {
+      super(selected);
+    }
+
+    @Override
+    protected boolean doSwitch(IJssController shellController, Boolean switchValue) {
+      switchCount.incrementAndGet();
+      return !failing;
+    }
+
+    @Override
+    public String[] getCommandIdentifiers() {
+      return new String[] {"switch"};
+    }
+
+    @Override
+    public String getBriefHelp() {
+      return "Switch";
+    }
+
+  }
+
+  public static class IndependentSwitchAction extends SwitchAction
+      implements IJssIndependentAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient CountDownLatch latch;
+
+    volatile String threadName;
+
+    public IndependentSwitchAction(CountDownLatch latch) {
+      super(false);
+      this.latch = latch;
+    }
+
+    @Override
+    protected boolean doSwitch(IJssController shellController, Boolean switchValue) {
+      threadName = Thread.currentThread().getName();
+      latch.countDown();
+      try {
+        return latch.await(10, TimeUnit.SECONDS) && super.doSwitch(shellController, switchValue);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return false;
+      }
+    }
+
+  }
+
+  public static class ComboAction extends AbstractJssComboAction<String> {
+
+    private static final long serialVersionUID = 1L;
+
+    final List<String> switchValues = new ArrayList<>();
+
+    public ComboAction(String... items) {
+      super(items);
+    }
+
+    @Override
+    protected boolean doSwitch(IJssController shellController, String switchValue) {
+      switchValues.add(switchValue);
+      return true;
+    }
+
+    @Override
+    public String[] getCommandIdentifiers() {
+      return new String[] {"combo"};
+    }
+
+    @Override
+    public String getBriefHelp() {
+      return "Combo";
+    }
+
+  }
+
+}
@@ -0,0 +1,413 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 brunot.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package jswingshell.action;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.swing.SwingUtilities;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import jswingshell.IJssController;
+import jswingshell.gui.JssVirtualShellController;
+
+/**
+ *
+ * @author brunot
+ */
+public class JssCancellationTokenTest {
+
+  private JssVirtualShellController controller;
+
+  public JssCancellationTokenTest() {}
+
+  @BeforeClass
+  public static void setUpClass() {}
+
+  @AfterClass
+  public static void tearDownClass() {}
+
+  @Before
+  public void setUp() {
+    controller = new JssVirtualShellController();
+  }
+
+  @After
+  public void tearDown() {}
+
+  /**
+   * Test of cancel method, of class JssCancellationToken.
+   */
+  @Test
+  public void testCancel() {
+    System.out.println("cancel");
+    JssCancellationToken instance = new JssCancellationToken();
+    final AtomicInteger runs = new AtomicInteger();
+    instance.addCancellationListener(new Runnable() {
+
+      @Override
+      public void run() {
+        runs.incrementAndGet();
+      }
+
+    });
+    assertFalse(instance.isCancellationRequested());
+    assertFalse(instance.hasDeadline());
+    assertEquals(Long.MAX_VALUE, instance.getRemainingTime(TimeUnit.MILLISECONDS));
+    instance.throwIfCancellationRequested();
+
+    assertTrue(instance.cancel());
+    assertFalse(instance.cancel());
+    assertTrue(instance.isCancellationRequested());
+    assertFalse(instance.isDeadlineExceeded());
+    assertEquals(1, runs.get());
+
+    // Listeners added once cancelled are run immediately
+    instance.addCancellationListener(new Runnable() {
+
+      @Override
+      public void run() {
+        runs.incrementAndGet();
+      }
+
+    });
+    assertEquals(2, runs.get());
+  }
+
+  /**
+   * Test of throwIfCancellationRequested method, of class JssCancellationToken.
+   */
+  @Test(expected = CancellationException.class)
+  public void testThrowIfCancellationRequested() {
+    System.out.println("throwIfCancellationRequested");
+    JssCancellationToken instance = new JssCancellationToken();
+    instance.cancel();
+    instance.throwIfCancellationRequested();
+  }
+
+  /**
+   * Test of addCancellationListener method, of class JssCancellationToken.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testAddCancellationListener_null() {
+    System.out.println("addCancellationListener");
+    new JssCancellationToken().addCancellationListener(null);
+  }
+
+  /**
+   * Test of addCancellationListener method, of class JssCancellationToken, while cancelling.
+   */
+  @Test
+  public void testAddCancellationListener_concurrent() throws Exception {
+    System.out.println("addCancellationListener");
+    final int listenerCount = 1000;
+    final JssCancellationToken instance = new JssCancellationToken();
+    final AtomicInteger runs = new AtomicInteger();
+    final CountDownLatch started = new CountDownLatch(1);
+    Thread adder = new Thread(new Runnable() {
+
+      @Override
+      public void run() {
+        started.countDown();
+        for (int i = 0; i < listenerCount; i++) {
+          instance.addCancellationListener(new Runnable() {
+
+            @Override
+            public void run() {
+              runs.incrementAndGet();
+            }
+
+          });
+        }
+      }
+
+    });
+    adder.start();
+    started.await();
+    instance.cancel();
+    adder.join();
+    assertEquals(listenerCount, runs.get());
+  }
+
+  /**
+   * Test of the parent of a token, of class JssCancellationToken.
+   */
+  @Test
+  public void testParent() {
+    System.out.println("parent");
+    JssCancellationToken parent = new JssCancellationToken();
+    JssCancellationToken child = new JssCancellationToken(parent);
+    JssCancellationToken detached = new JssCancellationToken(parent);
+    final AtomicInteger runs = new AtomicInteger();
+    Runnable listener = new Runnable() {
+
+      @Override
+      public void run() {
+        runs.incrementAndGet();
+      }
+
+    };
+    child.addCancellationListener(listener);
+    detached.addCancellationListener(listener);
+    detached.detach();
+
+    child.cancel();
+    assertFalse(parent.isCancellationRequested());
+    assertEquals(1, runs.get());
+
+    parent.cancel();
+    assertTrue(detached.isCancellationRequested());
+    // The listeners of a detached token are not run with its parent
+    assertEquals(1, runs.get());
+  }
+
+  /**
+   * Test of isDeadlineExceeded method, of class JssCancellationToken.
+   */
+  @Test
+  public void testIsDeadlineExceeded() throws Exception {
+    System.out.println("isDeadlineExceeded");
+    JssCancellationToken instance = new JssCancellationToken(null, 20, TimeUnit.MILLISECONDS);
+    assertTrue(instance.hasDeadline());
+    assertFalse(instance.isDeadlineExceeded());
+    assertTrue(instance.getRemainingTime(TimeUnit.MILLISECONDS) <= 20);
+    Thread.sleep(30);
+    assertTrue(instance.isDeadlineExceeded());
+    assertTrue(instance.isCancellationRequested());
+    assertEquals(0, instance.getRemainingTime(TimeUnit.NANOSECONDS));
+
+    JssCancellationToken expired = new JssCancellationToken(null, -1, TimeUnit.SECONDS);
+    assertTrue(expired.isCancellationRequested());
+
+    JssCancellationToken unlimited =
+        new JssCancellationToken(null, Long.MAX_VALUE, TimeUnit.SECONDS);
+    assertFalse(unlimited.isDeadlineExceeded());
+    assertFalse(unlimited.isCancellationRequested());
+    assertTrue(unlimited.getRemainingTime(TimeUnit.DAYS) > 0);
+  }
+
+  /**
+   * Test of constructor, of class JssCancellationToken.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testConstructor_nullUnit() {
+    System.out.println("JssCancellationToken");
+    new JssCancellationToken(null, 1, null);
+  }
+
+  /**
+   * Test of interpretCommand method with a timeout, of class AbstractJssController.
+   */
+  @Test
+  public void testInterpretCommand_timeout() throws Exception {
+    System.out.println("interpretCommand");
+    PollAction action = new PollAction();
+    controller.getModel().add(action);
+    assertEquals(IJssAction.IN_PROGRESS,
+        controller.interpretCommand("poll", 50, TimeUnit.MILLISECONDS));
+    AbstractThreadedJssAction.AbstractJssActionWorker worker = action.getActiveWorkers().get(0);
+    // The worker either stops by itself or is cancelled once its deadline has passed
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (!worker.isDone() && System.nanoTime() < deadline) {
+      Thread.sleep(5);
+    }
+    assertTrue(worker.isDone());
+    assertTrue(worker.getCancellationToken().isDeadlineExceeded());
+    // The worker is removed on the Event Dispatch Thread once done
+    while (!action.getActiveWorkers().isEmpty() && System.nanoTime() < deadline) {
+      flushEventDispatchThread();
+    }
+
+    // The deadline only applies to the timed command
+    assertEquals(IJssAction.IN_PROGRESS, controller.interpretCommand("poll"));
+    worker = action.getActiveWorkers().get(action.getActiveWorkers().size() - 1);
+    assertFalse(worker.getCancellationToken().hasDeadline());
+    assertTrue(action.cancel(controller, true));
+    assertTrue(worker.isCancellationRequested());
+  }
+
+  /**
+   * Test of interpretCommand method with a timeout, of class AbstractJssController.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testInterpretCommand_negativeTimeout() {
+    System.out.println("interpretCommand");
+    controller.interpretCommand("poll", -1, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Test of cancelActionsInProgress method, of class AbstractJssController.
+   */
+  @Test
+  public void testCancelActionsInProgress() throws Exception {
+    System.out.println("cancelActionsInProgress");
+    final PollAction action = new PollAction();
+    controller.getModel().add(action);
+    final int[] cancelled = new int[1];
+    SwingUtilities.invokeAndWait(new Runnable() {
+
+      @Override
+      public void run() {
+        controller.setCommandLine("poll");
+        controller.interpret();
+      }
+
+    });
+    assertEquals(1, controller.getActionsInProgress().size());
+    AbstractThreadedJssAction.AbstractJssActionWorker worker = action.getActiveWorkers().get(0);
+
+    // Workers not tracked by the shell are cancelled with it too
+    for (int i = 0; i < 100; i++) {
+      action.run(controller, "poll");
+    }
+    final List<AbstractThreadedJssAction.AbstractJssActionWorker> workers =
+        new ArrayList<>(action.getActiveWorkers());
+    SwingUtilities.invokeAndWait(new Runnable() {
+
+      @Override
+      public void run() {
+        cancelled[0] = controller.cancelActionsInProgress();
+      }
+
+    });
+    assertEquals(1, cancelled[0]);
+    assertTrue(controller.getActionsInProgress().isEmpty());
+    assertTrue(worker.isCancelled());
+    for (AbstractThreadedJssAction.AbstractJssActionWorker other : workers) {
+      assertTrue(other.isCancellationRequested());
+    }
+
+    // New actions get a new cancellation scope
+    action.run(controller, "poll");
+    List<AbstractThreadedJssAction.AbstractJssActionWorker> activeWorkers =
+        action.getActiveWorkers();
+    assertFalse(activeWorkers.get(activeWorkers.size() - 1).isCancellationRequested());
+    action.cancel(controller, true);
+  }
+
+  /**
+   * Test of cancel method, of class AbstractThreadedJssAction, with many actions in progress.
+   */
+  @Test
+  public void testCancel_manyWorkers() throws Exception {
+    System.out.println("cancel");
+    final int workerCount = 1000;
+    PollAction action = new PollAction();
+    for (int i = 0; i < workerCount; i++) {
+      action.run(controller, "poll");
+    }
+    List<AbstractThreadedJssAction.AbstractJssActionWorker> workers =
+        new ArrayList<>(action.getActiveWorkers());
+    assertEquals(workerCount, workers.size());
+
+    long start = System.nanoTime();
+    assertTrue(action.cancel(controller, true));
+    long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    assertTrue("Cancelled in " + elapsedMillis + " ms", elapsedMillis < 1000);
+    assertTrue(action.getActiveWorkers().isEmpty());
+
+    // The running computations stop by themselves
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (action.running.get() > 0 && System.nanoTime() < deadline) {
+      Thread.sleep(5);
+    }
+    assertEquals(0, action.running.get());
+    for (AbstractThreadedJssAction.AbstractJssActionWorker worker : workers) {
+      assertTrue(worker.isCancelled());
+      assertTrue(worker.getCancellationToken().isCancellationRequested());
+    }
+  }
+
+  private static void flushEventDispatchThread() throws Exception {
+    SwingUtilities.invokeAndWait(new Runnable() {
+
+      @Override
+      public void run() {
+        // Wait for the pending events
+      }
+
+    });
+  }
+
+  // #########################################################################
+  /**
+   * Poll its cancellation token until cancelled.
+   */
+  public static class PollAction extends AbstractThreadedJssAction {
+
+    private static final long serialVersionUID = 1L;
+
+    final AtomicInteger running = new AtomicInteger();
+
+    @Override
+    public String[] getCommandIdentifiers() {
+      return new String[] {"poll"};
+    }
+
+    @Override
+    public String getHelp(IJssController shellController) {
+      return getBriefHelp();
+    }
+
+    @Override
+    public String getBriefHelp() {
+      return "Wait until cancelled.";
+    }
+
+    @Override
+    protected AbstractJssActionWorker prepareWorker(IJssController shellController,
+        String... args) {
+      return new AbstractJssActionWorker(shellController) {
+
+        @Override
+        protected Integer doInBackground() throws Exception {
+          running.incrementAndGet();
+          try {
+            while (!isCancellationRequested()) {
+              LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+            }
+            return IJssAction.ERROR;
+          } finally {
+            running.decrementAndGet();
+          }
+        }
+
+      };
+    }
+
+  }
+
+}
@@ -0,0 +1,308 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 brunot.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package jswingshell.action;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.SwingUtilities;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import jswingshell.AbstractJssController;
+import jswingshell.IJssController;
+import jswingshell.gui.JssVirtualShellController;
+
+/**
+ *
+ * @author brunot
+ */
+public class JssOffloadedActionTest {
+
+  private JssVirtualShellController controller;
+
+  public JssOffloadedActionTest() {}
+
+  @BeforeClass
+  public static void setUpClass() {}
+
+  @AfterClass
+  public static void tearDownClass() {}
+
+  @Before
+  public void setUp() {
+    controller = new JssVirtualShellController();
+    controller.setPublicationLevel(IJssController.PublicationLevel.INFO);
+    controller.getModel().add(new PrintAction());
+  }
+
+  @After
+  public void tearDown() {}
+
+  /**
+   * Test of constructor, of class JssOffloadedAction.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testConstructor_null() {
+    System.out.println("JssOffloadedAction");
+    new JssOffloadedAction(null);
+  }
+
+  /**
+   * Test of run method, of class JssOffloadedAction.
+   */
+  @Test
+  public void testRun() throws Exception {
+    System.out.println("run");
+    PrintAction action = new PrintAction();
+    JssOffloadedAction instance = new JssOffloadedAction(action);
+    assertEquals(action, instance.getAction());
+    assertEquals("print", instance.getDefaultCommandIdentifier());
+
+    controller.setCommandLine("line");
+    assertEquals(IJssAction.IN_PROGRESS, instance.run(controller, "print", "hello"));
+    assertEquals(Integer.valueOf(IJssAction.SUCCESS),
+        instance.getActiveWorkers().get(0).get(5, TimeUnit.SECONDS));
+    flushEventDispatchThread();
+    assertTrue(controller.getShellText().endsWith("\nhello\nline"));
+    assertEquals(false, action.ranOnEventDispatchThread);
+  }
+
+  /**
+   * Test of shouldOffload method, of class AbstractJssController.
+   */
+  @Test
+  public void testShouldOffload() throws Exception {
+    System.out.println("shouldOffload");
+    for (int i = 0; i < AbstractJssController.OFFLOAD_MINIMUM_INVOCATIONS; i++) {
+      controller.getCommandMetrics().record("print", TimeUnit.MILLISECONDS.toNanos(100), false);
+    }
+    assertEquals(0, controller.getOffloadThresholdMillis());
+    final int[] status = new int[2];
+    SwingUtilities.invokeAndWait(new Runnable() {
+
+      @Override
+      public void run() {
+        status[0] = controller.interpretCommand("print disabled");
+        controller.setOffloadThresholdMillis(50);
+        status[1] = controller.interpretCommand("print offloaded");
+      }
+
+    });
+    assertEquals(IJssAction.SUCCESS, status[0]);
+    assertEquals(IJssAction.IN_PROGRESS, status[1]);
+    assertTrue(controller.getCurrentAction() instanceof JssOffloadedAction);
+
+    // Not offloaded outside of the Event Dispatch Thread
+    assertEquals(IJssAction.SUCCESS, controller.interpretCommand("print synchronous"));
+
+    controller.setOffloadThresholdMillis(1000);
+    SwingUtilities.invokeAndWait(new Runnable() {
+
+      @Override
+      public void run() {
+        status[0] = controller.interpretCommand("print fast");
+      }
+
+    });
+    assertEquals(IJssAction.SUCCESS, status[0]);
+  }
+
+  /**
+   * Test of shouldOffload method, of class AbstractJssController, with actions not offloadable.
+   */
+  @Test
+  public void testShouldOffload_notOffloadable() throws Exception {
+    System.out.println("shouldOffload_notOffloadable");
+    final IJssAction plainAction = new AbstractJssAction() {
+
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      public String[] getCommandIdentifiers() {
+        return new String[] {"plain"};
+      }
+
+      @Override
+      public String getHelp(IJssController shellController) {
+        return getBriefHelp();
+      }
+
+      @Override
+      public String getBriefHelp() {
+        return "Plain action.";
+      }
+
+      @Override
+      public int run(IJssController shellController, String... args) {
+        return IJssAction.SUCCESS;
+      }
+
+    };
+    controller.getModel().add(plainAction);
+    controller.getModel().add(new OffloadableSwitchAction());
+    controller.getModel().add(new OffloadableComboAction());
+    final String[] commands = new String[] {"plain", "switch on", "combo"};
+    for (String command : commands) {
+      for (int i = 0; i < AbstractJssController.OFFLOAD_MINIMUM_INVOCATIONS; i++) {
+        controller.getCommandMetrics().record(command.split(" ")[0],
+            TimeUnit.MILLISECONDS.toNanos(100), false);
+      }
+    }
+    controller.setOffloadThresholdMillis(50);
+    final int[] status = new int[commands.length];
+    final boolean[] offloaded = new boolean[commands.length];
+    SwingUtilities.invokeAndWait(new Runnable() {
+
+      @Override
+      public void run() {
+        for (int i = 0; i < commands.length; i++) {
+          status[i] = controller.interpretCommand(commands[i]);
+          offloaded[i] = controller.getCurrentAction() instanceof JssOffloadedAction;
+        }
+      }
+
+    });
+    for (int i = 0; i < commands.length; i++) {
+      assertTrue(commands[i], status[i] != IJssAction.IN_PROGRESS);
+      assertFalse(commands[i], offloaded[i]);
+    }
+  }
+
+  /**
+   * Test of setOffloadThresholdMillis method, of class AbstractJssController.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testSetOffloadThresholdMillis_negative() {
+    System.out.println("setOffloadThresholdMillis");
+    controller.setOffloadThresholdMillis(-1);
+  }
+
+  private static void flushEventDispatchThread() throws Exception {
+    SwingUtilities.invokeAndWait(new Runnable() {
+
+      @Override
+      public void run() {
+        // Wait for the pending events
+      }
+
+    });
+  }
+
+  // #########################################################################
+  /**
+   * A switch action wrongly declared offloadable.
+   */
+  private static class OffloadableSwitchAction extends AbstractJssSwitchAction
+      implements IJssOffloadableAction {
+
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    protected boolean doSwitch(IJssController shellController, Boolean switchValue) {
+      return true;
+    }
+
+    @Override
+    public String[] getCommandIdentifiers() {
+      return new String[] {"switch"};
+    }
+
+    @Override
+    public String getBriefHelp() {
+      return "Switch action.";
+    }
+
+  }
+
+  /**
+   * A combo action wrongly declared offloadable.
+   */
+  private static class OffloadableComboAction extends AbstractJssComboAction<String>
+      implements IJssOffloadableAction {
+
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    protected boolean doSwitch(IJssController shellController, String switchValue) {
+      return true;
+    }
+
+    @Override
+    public String[] getCommandIdentifiers() {
+      return new String[] {"combo"};
+    }
+
+    @Override
+    public String getBriefHelp() {
+      return "Combo action.";
+    }
+
+  }
+
+  /**
+   * Publish its argument and the command line.
+   */
+  public static class PrintAction extends AbstractJssAction implements IJssOffloadableAction {
+
+    private static final long serialVersionUID = 1L;
+
+    volatile boolean ranOnEventDispatchThread;
+
+
+    @Override
+    public String[] getCommandIdentifiers() {
+      return new String[] {"print"};
+    }
+
+    @Override
+    public String getHelp(IJssController shellController) {
+      return getBriefHelp();
+    }
+
+    @Override
+    public String getBriefHelp() {
+      return "Publish a message.";
+    }
+
+    @Override
+    public int run(IJssController shellController, String... args) {
+      ranOnEventDispatchThread = SwingUtilities.isEventDispatchThread();
+      String commandLine = shellController.getCommandLine();
+      shellController.publish(IJssController.PublicationLevel.SUCCESS, args[1]);
+      shellController.publish(IJssController.PublicationLevel.TRACE, "hidden");
+      if (commandLine != null) {
+        shellController.publish(IJssController.PublicationLevel.INFO, commandLine);
+      }
+      return IJssAction.SUCCESS;
+    }
+
+  }
+
+}
@@ -0,0 +1,164 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 brunot.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package jswingshell.action;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ *
+ * @author brunot
+ */
+public class JssPipeTest {
+
+  public JssPipeTest() {}
+
+  @BeforeClass
+  public static void setUpClass() {}
+
+  @AfterClass
+  public static void tearDownClass() {}
+
+  @Before
+  public void setUp() {}
+
+  @After
+  public void tearDown() {}
+
+  /**
+   * Test of constructor, of class JssPipe.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testConstructor_invalidCapacity() {
+    System.out.println("JssPipe");
+    new JssPipe(0);
+  }
+
+  /**
+   * Test of write method, of class JssPipe.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testWrite_null() throws InterruptedException {
+    System.out.println("write");
+    new JssPipe().write(null);
+  }
+
+  /**
+   * Test of write method, of class JssPipe.
+   */
+  @Test(expected = IllegalStateException.class)
+  public void testWrite_writerClosed() throws InterruptedException {
+    System.out.println("write");
+    JssPipe instance = new JssPipe();
+    instance.closeWriter();
+    instance.write("record");
+  }
+
+  /**
+   * Test of read method, of class JssPipe.
+   */
+  @Test
+  public void testRead() throws InterruptedException {
+    System.out.println("read");
+    JssPipe instance = new JssPipe(2);
+    assertEquals(true, instance.write("first"));
+    assertEquals(true, instance.write("second"));
+    assertEquals(2, instance.size());
+    instance.closeWriter();
+    assertEquals("first", instance.read());
+    assertEquals("second", instance.read());
+    assertEquals(null, instance.read());
+    assertEquals(true, instance.isWriterClosed());
+  }
+
+  /**
+   * Test of read and write methods, of class JssPipe.
+   */
+  @Test(timeout = 10000)
+  public void testRead_concurrentWriter() throws InterruptedException {
+    System.out.println("read");
+    final JssPipe instance = new JssPipe(4);
+    final int recordCount = 10000;
+    final AtomicInteger maxSize = new AtomicInteger();
+    Thread writer = new Thread(new Runnable() {
+
+      @Override
+      public void run() {
+        try {
+          for (int i = 0; i < recordCount; i++) {
+            instance.write(Integer.toString(i));
+            maxSize.set(Math.max(maxSize.get(), instance.size()));
+          }
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        } finally {
+          instance.closeWriter();
+        }
+      }
+
+    });
+    writer.start();
+
+    int expResult = 0;
+    String record;
+    while ((record = instance.read()) != null) {
+      assertEquals(Integer.toString(expResult++), record);
+    }
+    writer.join();
+    assertEquals(recordCount, expResult);
+    assertTrue(maxSize.get() <= instance.getCapacity());
+  }
+
+  /**
+   * Test of closeReader method, of class JssPipe.
+   */
+  @Test(timeout = 10000)
+  public void testCloseReader() throws InterruptedException {
+    System.out.println("closeReader");
+    final JssPipe instance = new JssPipe(1);
+    instance.write("pending");
+    Thread reader = new Thread(new Runnable() {
+
+      @Override
+      public void run() {
+        instance.closeReader();
+      }
+
+    });
+    reader.start();
+    // Blocks until the reader is closed
+    assertEquals(false, instance.write("blocked"));
+    reader.join();
+    assertEquals(0, instance.size());
+    assertEquals(true, instance.isReaderClosed());
+    assertEquals(null, instance.read());
+  }
+
+}
@@ -0,0 +1,333 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 brunot.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package jswingshell.action;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.SwingWorker;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import jswingshell.IJssController;
+import jswingshell.gui.JssVirtualShellController;
+
+/**
+ *
+ * @author brunot
+ */
+public class JssPipelineTest {
+
+  public JssPipelineTest() {}
+
+  @BeforeClass
+  public static void setUpClass() {}
+
+  @AfterClass
+  public static void tearDownClass() {}
+
+  @Before
+  public void setUp() {}
+
+  @After
+  public void tearDown() {}
+
+  private static int runAndWait(JssPipeline pipeline, IJssController controller)
+      throws Exception {
+    AbstractThreadedJssAction.AbstractJssActionWorker worker = pipeline.prepareWorker(controller);
+    final CountDownLatch done = new CountDownLatch(1);
+    worker.addPropertyChangeListener(new PropertyChangeListener() {
+
+      @Override
+      public void propertyChange(PropertyChangeEvent evt) {
+        if (SwingWorker.StateValue.DONE == evt.getNewValue()) {
+          done.countDown();
+        }
+      }
+
+    });
+    worker.execute();
+    assertTrue(done.await(10, TimeUnit.SECONDS));
+    return worker.get();
+  }
+
+  /**
+   * Test of constructor, of class JssPipeline.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testConstructor_invalidCapacity() {
+    System.out.println("JssPipeline");
+    new JssPipeline(0);
+  }
+
+  /**
+   * Test of addStage method, of class JssPipeline.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testAddStage_null() {
+    System.out.println("addStage");
+    new JssPipeline().addStage(null);
+  }
+
+  /**
+   * Test of getStageActions method, of class JssPipeline.
+   */
+  @Test
+  public void testGetStageActions() {
+    System.out.println("getStageActions");
+    JssPipeline instance = new JssPipeline();
+    SeqAction seq = new SeqAction();
+    CountAction count = new CountAction();
+    instance.addStage(seq, "seq");
+    instance.addStage(count, "count");
+    assertEquals(2, instance.getStageActions().size());
+    assertEquals(seq, instance.getStageActions().get(0));
+    assertEquals(count, instance.getStageActions().get(1));
+  }
+
+  /**
+   * Test of prepareWorker method, of class JssPipeline.
+   */
+  @Test
+  public void testPrepareWorker_noStage() {
+    System.out.println("prepareWorker");
+    JssPipeline instance = new JssPipeline();
+    assertEquals(null, instance.prepareWorker(new JssVirtualShellController()));
+    assertEquals(IJssAction.ERROR, instance.run(new JssVirtualShellController()));
+  }
+
+  /**
+   * Test of run method, of class JssPipeline.
+   */
+  @Test
+  public void testRun() throws Exception {
+    System.out.println("run");
+    JssVirtualShellController controller = new JssVirtualShellController();
+    JssPipeline instance = new JssPipeline(8);
+    instance.addStage(new SeqAction(), "seq", "1000");
+    instance.addStage(new GrepAction(), "grep", "7");
+    instance.addStage(new CountAction(), "count");
+    assertEquals(IJssAction.SUCCESS, runAndWait(instance, controller));
+    // Numbers from 1 to 1000 with a 7
+    assertTrue(controller.getShellText().endsWith("\n271"));
+  }
+
+  /**
+   * Test of run method, of class JssPipeline.
+   */
+  @Test
+  public void testRun_publishedRecords() throws Exception {
+    System.out.println("run");
+    JssVirtualShellController controller = new JssVirtualShellController();
+    JssPipeline instance = new JssPipeline(2);
+    instance.addStage(new SeqAction(), "seq", "100");
+    instance.addStage(new GrepAction(), "grep", "9");
+    assertEquals(IJssAction.SUCCESS, runAndWait(instance, controller));
+    String shellText = controller.getShellText();
+    assertTrue(shellText.contains("\n9\n19\n29\n"));
+    assertTrue(shellText.endsWith("\n99"));
+  }
+
+  /**
+   * Test of run method, of class JssPipeline.
+   */
+  @Test
+  public void testRun_downstreamStops() throws Exception {
+    System.out.println("run");
+    JssVirtualShellController controller = new JssVirtualShellController();
+    JssPipeline instance = new JssPipeline(4);
+    // The sequence never ends by itself
+    instance.addStage(new SeqAction(), "seq");
+    instance.addStage(new HeadAction(), "head", "3");
+    assertEquals(IJssAction.SUCCESS, runAndWait(instance, controller));
+    assertTrue(controller.getShellText().endsWith("\n1\n2\n3"));
+  }
+
+  /**
+   * Test of run method, of class JssPipeline.
+   */
+  @Test
+  public void testRun_stageFailed() throws Exception {
+    System.out.println("run");
+    JssVirtualShellController controller = new JssVirtualShellController();
+    JssPipeline instance = new JssPipeline();
+    instance.addStage(new SeqAction(), "seq", "10");
+    // Missing pattern
+    instance.addStage(new GrepAction(), "grep");
+    instance.addStage(new CountAction(), "count");
+    assertEquals(IJssAction.ERROR, runAndWait(instance, controller));
+  }
+
+  // #########################################################################
+  /**
+   * Write numbers from 1 to the given count, or until the output is closed.
+   */
+  public static class SeqAction extends AbstractJssStreamAction {
+
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public String[] getCommandIdentifiers() {
+      return new String[] {"seq"};
+    }
+
+    @Override
+    public String getHelp(IJssController shellController) {
+      return getBriefHelp();
+    }
+
+    @Override
+    public String getBriefHelp() {
+      return "Write a sequence of numbers.";
+    }
+
+    @Override
+    public int run(IJssController shellController, IJssRecordReader input,
+        IJssRecordWriter output, String... args) throws InterruptedException {
+      long count = args.length > 1 ? Long.parseLong(args[1]) : Long.MAX_VALUE;
+      for (long i = 1; i <= count && output.write(Long.toString(i)); i++) {
+        // Write until done or not read anymore
+      }
+      return IJssAction.SUCCESS;
+    }
+
+  }
+
+  /**
+   * Write the records containing a pattern.
+   */
+  public static class GrepAction extends AbstractJssStreamAction {
+
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public String[] getCommandIdentifiers() {
+      return new String[] {"grep"};
+    }
+
+    @Override
+    public String getHelp(IJssController shellController) {
+      return getBriefHelp();
+    }
+
+    @Override
+    public String getBriefHelp() {
+      return "Filter records.";
+    }
+
+    @Override
+    public int run(IJssController shellController, IJssRecordReader input,
+        IJssRecordWriter output, String... args) throws InterruptedException {
+      if (args.length < 2) {
+        return IJssAction.ERROR;
+      }
+      String record;
+      while ((record = input.read()) != null) {
+        if (record.contains(args[1]) && !output.write(record)) {
+          break;
+        }
+      }
+      return IJssAction.SUCCESS;
+    }
+
+  }
+
+  /**
+   * Write the first records.
+   */
+  public static class HeadAction extends AbstractJssStreamAction {
+
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public String[] getCommandIdentifiers() {
+      return new String[] {"head"};
+    }
+
+    @Override
+    public String getHelp(IJssController shellController) {
+      return getBriefHelp();
+    }
+
+    @Override
+    public String getBriefHelp() {
+      return "Write the first records.";
+    }
+
+    @Override
+    public int run(IJssController shellController, IJssRecordReader input,
+        IJssRecordWriter output, String... args) throws InterruptedException {
+      int count = Integer.parseInt(args[1]);
+      String record;
+      for (int i = 0; i < count && (record = input.read()) != null; i++) {
+        output.write(record);
+      }
+      return IJssAction.SUCCESS;
+    }
+
+  }
+
+  /**
+   * Write the number of records.
+   */
+  public static class CountAction extends AbstractJssStreamAction {
+
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public String[] getCommandIdentifiers() {
+      return new String[] {"count"};
+    }
+
+    @Override
+    public String getHelp(IJssController shellController) {
+      return getBriefHelp();
+    }
+
+    @Override
+    public String getBriefHelp() {
+      return "Count records.";
+    }
+
+    @Override
+    public int run(IJssController shellController, IJssRecordReader input,
+        IJssRecordWriter output, String... args) throws InterruptedException {
+      int count = 0;
+      while (input.read() != null) {
+        count++;
+      }
+      output.write(Integer.toString(count));
+      return IJssAction.SUCCESS;
+    }
+
+  }
+
+}
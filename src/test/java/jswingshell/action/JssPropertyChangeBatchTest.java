@@ -0,0 +1,233 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 brunot.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package jswingshell.action;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.swing.Action;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import jswingshell.IJssController;
+
+/**
+ * Test property change batches.
+ *
+ * @author Mathieu Brunot
+ */
+public class JssPropertyChangeBatchTest {
+
+  public JssPropertyChangeBatchTest() {}
+
+  @BeforeClass
+  public static void setUpClass() {}
+
+  @AfterClass
+  public static void tearDownClass() {}
+
+  @Before
+  public void setUp() {}
+
+  @After
+  public void tearDown() {}
+
+  /**
+   * Test of begin and end methods, of class JssPropertyChangeBatch.
+   */
+  @Test
+  public void testBeginEnd() {
+    System.out.println("beginEnd");
+    assertFalse(JssPropertyChangeBatch.isActive());
+    JssPropertyChangeBatch.begin();
+    JssPropertyChangeBatch.begin();
+    assertTrue(JssPropertyChangeBatch.isActive());
+    JssPropertyChangeBatch.end();
+    assertTrue(JssPropertyChangeBatch.isActive());
+    JssPropertyChangeBatch.end();
+    assertFalse(JssPropertyChangeBatch.isActive());
+  }
+
+  /**
+   * Test of end method, of class JssPropertyChangeBatch, without batch.
+   */
+  @Test(expected = IllegalStateException.class)
+  public void testEnd_noBatch() {
+    System.out.println("end_noBatch");
+    JssPropertyChangeBatch.end();
+  }
+
+  /**
+   * Test that the changes of a property are coalesced, from its first to its last value.
+   */
+  @Test
+  public void testBatch_coalesced() {
+    System.out.println("batch_coalesced");
+    DummyAction action = new DummyAction();
+    EventRecorder recorder = new EventRecorder();
+    action.addPropertyChangeListener(recorder);
+
+    JssPropertyChangeBatch.begin();
+    try {
+      action.putValue(Action.NAME, "first");
+      action.putValue(Action.NAME, "second");
+      action.putValue(Action.NAME, "third");
+      assertTrue(recorder.events.isEmpty());
+    } finally {
+      JssPropertyChangeBatch.end();
+    }
+
+    assertEquals(1, recorder.events.size());
+    PropertyChangeEvent event = recorder.events.get(0);
+    assertEquals(Action.NAME, event.getPropertyName());
+    assertEquals(null, event.getOldValue());
+    assertEquals("third", event.getNewValue());
+  }
+
+  /**
+   * Test that a property getting back its initial value fires no change.
+   */
+  @Test
+  public void testBatch_revertedValue() {
+    System.out.println("batch_revertedValue");
+    DummyAction action = new DummyAction();
+    EventRecorder recorder = new EventRecorder();
+    action.addPropertyChangeListener(recorder);
+
+    JssPropertyChangeBatch.begin();
+    try {
+      action.setEnabled(false);
+      action.setEnabled(true);
+    } finally {
+      JssPropertyChangeBatch.end();
+    }
+
+    assertTrue(recorder.events.isEmpty());
+    assertTrue(action.isEnabled());
+  }
+
+  /**
+   * Test that nested batches fire the changes at the end of the outermost batch.
+   */
+  @Test
+  public void testBatch_nested() {
+    System.out.println("batch_nested");
+    DummyAction action = new DummyAction();
+    EventRecorder recorder = new EventRecorder();
+    action.addPropertyChangeListener(recorder);
+
+    JssPropertyChangeBatch.begin();
+    try {
+      JssPropertyChangeBatch.begin();
+      try {
+        action.setEnabled(false);
+      } finally {
+        JssPropertyChangeBatch.end();
+      }
+      assertTrue(recorder.events.isEmpty());
+    } finally {
+      JssPropertyChangeBatch.end();
+    }
+
+    assertEquals(1, recorder.events.size());
+    assertEquals("enabled", recorder.events.get(0).getPropertyName());
+  }
+
+  /**
+   * Test that an action group fires the selection changes once both actions are updated.
+   */
+  @Test
+  public void testActionGroup_setSelected() {
+    System.out.println("actionGroup_setSelected");
+    ActionGroup group = new ActionGroup();
+    final DummyAction first = new DummyAction();
+    final DummyAction second = new DummyAction();
+    group.add(first);
+    group.add(second);
+    group.setSelected(first, true);
+
+    final List<Boolean> consistentStates = new ArrayList<>();
+    PropertyChangeListener listener = new PropertyChangeListener() {
+
+      @Override
+      public void propertyChange(PropertyChangeEvent evt) {
+        if (Action.SELECTED_KEY.equals(evt.getPropertyName())) {
+          consistentStates.add(!first.isSelected() && second.isSelected());
+        }
+      }
+
+    };
+    first.addPropertyChangeListener(listener);
+    second.addPropertyChangeListener(listener);
+
+    group.setSelected(second, true);
+
+    assertEquals(2, consistentStates.size());
+    assertTrue(consistentStates.get(0));
+    assertTrue(consistentStates.get(1));
+    assertFalse(JssPropertyChangeBatch.isActive());
+  }
+
+  // #########################################################################
+  private static class EventRecorder implements PropertyChangeListener {
+
+    private final List<PropertyChangeEvent> events = new ArrayList<>();
+
+    @Override
+    public void propertyChange(PropertyChangeEvent evt) {
+      events.add(evt);
+    }
+
+  }
+
+  private static class DummyAction extends AbstractJssSwitchAction {
+
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    protected boolean doSwitch(IJssController shellController, Boolean switchValue) {
+      return true;
+    }
+
+    @Override
+    public String[] getCommandIdentifiers() {
+      return new String[] {};
+    }
+
+    @Override
+    public String getBriefHelp() {
+      return "DummyAction";
+    }
+
+  }
+
+}
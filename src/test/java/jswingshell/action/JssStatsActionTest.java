@@ -0,0 +1,105 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 brunot.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package jswingshell.action;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import jswingshell.AbstractJssController;
+import jswingshell.IJssController;
+import jswingshell.gui.JssTextAreaController;
+
+/**
+ *
+ * @author brunot
+ */
+public class JssStatsActionTest {
+
+  private AbstractJssController controller;
+
+  public JssStatsActionTest() {}
+
+  @BeforeClass
+  public static void setUpClass() {}
+
+  @AfterClass
+  public static void tearDownClass() {}
+
+  @Before
+  public void setUp() {
+    controller = new JssTextAreaController();
+    controller.getModel().add(new JssStatsAction());
+    controller.getModel().add(new JssPipelineTest.SeqAction());
+  }
+
+  @After
+  public void tearDown() {}
+
+  /**
+   * Test of run method, of class JssStatsAction.
+   */
+  @Test
+  public void testRun() {
+    System.out.println("run");
+    controller.interpretCommand("seq 3");
+    controller.interpretCommand("seq 5");
+    assertEquals(2, controller.getCommandMetrics().getSnapshot("seq").getInvocationCount());
+
+    controller.clearShell();
+    assertEquals(IJssAction.SUCCESS, controller.interpretCommand("stats 1"));
+    String shellText = controller.getShellText();
+    assertTrue(shellText, shellText.contains("command"));
+    assertTrue(shellText, shellText.contains("seq"));
+    assertEquals(1, controller.getCommandMetrics().getSnapshot("stats").getInvocationCount());
+  }
+
+  /**
+   * Test of run method, of class JssStatsAction.
+   */
+  @Test
+  public void testRun_reset() {
+    System.out.println("run");
+    controller.interpretCommand("seq 3");
+    assertEquals(IJssAction.SUCCESS, controller.interpretCommand("stats reset"));
+    assertEquals(null, controller.getCommandMetrics().getSnapshot("seq"));
+  }
+
+  /**
+   * Test of run method, of class JssStatsAction.
+   */
+  @Test
+  public void testRun_invalid() {
+    System.out.println("run");
+    JssStatsAction instance = new JssStatsAction();
+    assertEquals(IJssAction.ERROR, instance.run(controller, "stats", "none"));
+    assertEquals(IJssAction.ERROR, instance.run(controller, "stats", "0"));
+    assertEquals(IJssAction.ERROR, instance.run((IJssController) null, "stats"));
+    assertEquals(0, controller.getCommandMetrics().getSnapshots().size());
+  }
+
+}
@@ -0,0 +1,101 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 brunot.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package jswingshell.gui;
+
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.InvocationTargetException;
+
+import javax.swing.SwingUtilities;
+
+import org.junit.Test;
+
+import jswingshell.AbstractJssController;
+import jswingshell.IJssController.PublicationLevel;
+
+/**
+ * Output throughput benchmark of the styled {@link JssTextPaneController} against the plain
+ * {@link JssTextAreaController} append path.
+ *
+ * <p>
+ * Both controllers publish the same messages from the Event Dispatch Thread, alternating levels
+ * every few messages so that the styled controller has to create several runs.
+ * </p>
+ *
+ * @author Mathieu Brunot
+ */
+public class ITJssTextPaneControllerBenchmark {
+
+  private static final int WARMUP_ITERATIONS = 3;
+
+  private static final int ITERATIONS = 5;
+
+  private static final int MESSAGES = 20000;
+
+  private static final int RUN_LENGTH = 8;
+
+  private static final PublicationLevel[] LEVELS =
+      {PublicationLevel.INFO, PublicationLevel.WARNING, PublicationLevel.ERROR};
+
+  @Test
+  public void benchmarkPublish() throws Exception {
+    System.out.println("publish: plain vs styled");
+    for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+      measure(new JssTextAreaController());
+      measure(new JssTextPaneController());
+    }
+
+    long plain = Long.MAX_VALUE;
+    long styled = Long.MAX_VALUE;
+    for (int i = 0; i < ITERATIONS; i++) {
+      plain = Math.min(plain, measure(new JssTextAreaController()));
+      styled = Math.min(styled, measure(new JssTextPaneController()));
+    }
+
+    System.out.println(String.format("plain  (JssTextAreaController): %8.2f ms for %d messages",
+        plain / 1e6, MESSAGES));
+    System.out.println(String.format("styled (JssTextPaneController): %8.2f ms for %d messages",
+        styled / 1e6, MESSAGES));
+    System.out.println(String.format("styled / plain ratio: %.2f", (double) styled / plain));
+    assertTrue(plain > 0 && styled > 0);
+  }
+
+  private static long measure(final AbstractJssController controller)
+      throws InvocationTargetException, InterruptedException {
+    final long[] elapsed = new long[1];
+    controller.setPublicationLevel(PublicationLevel.TRACE);
+    SwingUtilities.invokeAndWait(new Runnable() {
+      @Override
+      public void run() {
+        long start = System.nanoTime();
+        for (int i = 0; i < MESSAGES; i++) {
+          controller.publish(LEVELS[(i / RUN_LENGTH) % LEVELS.length], "Message number " + i);
+        }
+        // Make sure everything is in the document before stopping the clock
+        controller.getShellText();
+        elapsed[0] = System.nanoTime() - start;
+      }
+    });
+    return elapsed[0];
+  }
+
+}
@@ -0,0 +1,118 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 brunot.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package jswingshell.gui;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import javax.swing.text.AttributeSet;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.SimpleAttributeSet;
+import javax.swing.text.StyleConstants;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ *
+ * @author brunot
+ */
+public class JssStyledDocumentTest {
+
+  public JssStyledDocumentTest() {}
+
+  @BeforeClass
+  public static void setUpClass() {}
+
+  @AfterClass
+  public static void tearDownClass() {}
+
+  @Before
+  public void setUp() {}
+
+  @After
+  public void tearDown() {}
+
+  /**
+   * Test of appendRuns method, of class JssStyledDocument.
+   */
+  @Test
+  public void testAppendRuns() throws BadLocationException {
+    System.out.println("appendRuns");
+    SimpleAttributeSet bold = new SimpleAttributeSet();
+    StyleConstants.setBold(bold, true);
+    SimpleAttributeSet italic = new SimpleAttributeSet();
+    StyleConstants.setItalic(italic, true);
+    JssStyledDocument instance = new JssStyledDocument();
+    instance.insertString(0, "> ", null);
+    instance.appendRuns(Arrays.asList("cmd\nfirst", "\nsecond\n", "third"),
+        Arrays.<AttributeSet>asList(bold, italic, bold));
+
+    String expResult = "> cmd\nfirst\nsecond\nthird";
+    assertEquals(expResult, instance.getText(0, instance.getLength()));
+    assertEquals(4, instance.getDefaultRootElement().getElementCount());
+    assertEquals(true, StyleConstants.isBold(
+        instance.getCharacterElement(expResult.indexOf("first")).getAttributes()));
+    assertEquals(true, StyleConstants.isItalic(
+        instance.getCharacterElement(expResult.indexOf("second")).getAttributes()));
+    assertEquals(true, StyleConstants.isBold(
+        instance.getCharacterElement(expResult.indexOf("third")).getAttributes()));
+  }
+
+  /**
+   * Test of appendRuns method, of class JssStyledDocument.
+   */
+  @Test
+  public void testAppendRuns_afterNewLine() throws BadLocationException {
+    System.out.println("appendRuns");
+    SimpleAttributeSet bold = new SimpleAttributeSet();
+    StyleConstants.setBold(bold, true);
+    JssStyledDocument instance = new JssStyledDocument();
+    instance.insertString(0, "first\n", null);
+    instance.appendRuns(Arrays.asList("second"), Arrays.asList(bold));
+    instance.appendRuns(Arrays.asList("\n", "third"),
+        Arrays.<AttributeSet>asList(bold, bold));
+
+    String expResult = "first\nsecond\nthird";
+    assertEquals(expResult, instance.getText(0, instance.getLength()));
+    assertEquals(3, instance.getDefaultRootElement().getElementCount());
+    assertEquals(true, StyleConstants.isBold(
+        instance.getCharacterElement(expResult.indexOf("second")).getAttributes()));
+  }
+
+  /**
+   * Test of appendRuns method, of class JssStyledDocument.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testAppendRuns_missingStyle() throws BadLocationException {
+    System.out.println("appendRuns");
+    JssStyledDocument instance = new JssStyledDocument();
+    instance.appendRuns(Arrays.asList("text"),
+        Collections.<AttributeSet>emptyList());
+  }
+
+}
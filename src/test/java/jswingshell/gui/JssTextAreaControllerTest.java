@@ -21,6 +21,7 @@
 
 package jswingshell.gui;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertTrue;
@@ -28,6 +29,10 @@ import static org.junit.Assert.assertTrue;
 import java.awt.Color;
 import java.awt.Font;
 import java.awt.event.KeyEvent;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 
 import org.junit.After;
 import org.junit.AfterClass;
@@ -117,6 +122,39 @@ public class JssTextAreaControllerTest {
     instance.setShellText(newShellText);
   }
 
+  /**
+   * Test of getShellTextLength method, of class JssTextAreaController.
+   */
+  @Test
+  public void testGetShellTextLength() {
+    System.out.println("getShellTextLength");
+    JssTextAreaController instance = new JssTextAreaController();
+    instance.addNewLineToShell("first");
+    instance.addNewLineToShell("second line");
+    instance.addNewCommandLine("cmd");
+    long result = instance.getShellTextLength();
+    assertEquals(instance.getShellText().length(), result);
+  }
+
+  /**
+   * Test of exportShellText method, of class JssTextAreaController.
+   */
+  @Test
+  public void testExportShellText() throws IOException {
+    System.out.println("exportShellText");
+    JssTextAreaController instance = new JssTextAreaController(new JssTextArea());
+    instance.setShellText("été\n> ");
+    File file = File.createTempFile("jss-test-", ".txt");
+    try {
+      long result = instance.exportShellText(file);
+      byte[] expResult = "été\n> ".getBytes(StandardCharsets.UTF_8);
+      assertEquals(expResult.length, result);
+      assertArrayEquals(expResult, Files.readAllBytes(file.toPath()));
+    } finally {
+      file.delete();
+    }
+  }
+
   /**
    * Test of addNewLineToShell method, of class JssTextAreaController.
    */
@@ -0,0 +1,306 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 brunot.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package jswingshell.gui;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Color;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import javax.swing.text.AttributeSet;
+import javax.swing.text.StyleConstants;
+import javax.swing.text.StyledDocument;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import jswingshell.IJssController.PublicationLevel;
+
+/**
+ *
+ * @author brunot
+ */
+public class JssTextPaneControllerTest {
+
+  public JssTextPaneControllerTest() {}
+
+  @BeforeClass
+  public static void setUpClass() {}
+
+  @AfterClass
+  public static void tearDownClass() {}
+
+  @Before
+  public void setUp() {}
+
+  @After
+  public void tearDown() {}
+
+  /**
+   * Test of getView method, of class JssTextPaneController.
+   */
+  @Test
+  public void testGetView() {
+    System.out.println("getView");
+    JssTextPaneController instance = new JssTextPaneController();
+    JssTextPane notExpResult = null;
+    JssTextPane result = instance.getView();
+    assertNotEquals(notExpResult, result);
+  }
+
+  /**
+   * Test of getLevelStyle method, of class JssTextPaneController.
+   */
+  @Test
+  public void testGetLevelStyle() {
+    System.out.println("getLevelStyle");
+    JssTextPaneController instance = new JssTextPaneController();
+    for (PublicationLevel level : PublicationLevel.values()) {
+      assertNotEquals(null, instance.getLevelStyle(level));
+    }
+    assertEquals(null, instance.getLevelStyle(null));
+  }
+
+  /**
+   * Test of publish method, of class JssTextPaneController.
+   */
+  @Test
+  public void testPublish() {
+    System.out.println("publish");
+    JssTextPaneController instance = new JssTextPaneController();
+    instance.setPublicationLevel(PublicationLevel.TRACE);
+    instance.publish(PublicationLevel.ERROR, "error");
+    instance.publish(PublicationLevel.ERROR, "error");
+    instance.publish(PublicationLevel.INFO, "info");
+    instance.flushShell();
+
+    StyledDocument doc = instance.getView().getStyledDocument();
+    String shellText = instance.getShellText();
+    int errorIndex = shellText.indexOf("error");
+    int infoIndex = shellText.indexOf("info");
+    AttributeSet errorAttributes =
+        doc.getCharacterElement(errorIndex).getAttributes();
+    AttributeSet infoAttributes =
+        doc.getCharacterElement(infoIndex).getAttributes();
+    assertEquals(
+        StyleConstants
+            .getForeground(instance.getLevelStyle(PublicationLevel.ERROR)),
+        StyleConstants.getForeground(errorAttributes));
+    assertNotEquals(StyleConstants.getForeground(errorAttributes),
+        StyleConstants.getForeground(infoAttributes));
+    assertEquals(StyleConstants.getForeground(errorAttributes),
+        StyleConstants.getForeground(doc
+            .getCharacterElement(shellText.lastIndexOf("error")).getAttributes()));
+  }
+
+  /**
+   * Test of publish method, of class JssTextPaneController.
+   */
+  @Test
+  public void testPublish_belowLevel() {
+    System.out.println("publish");
+    JssTextPaneController instance = new JssTextPaneController();
+    boolean expResult = false;
+    boolean result = instance.publish(PublicationLevel.TRACE, "trace");
+    assertEquals(expResult, result);
+    assertEquals(-1, instance.getShellText().indexOf("trace"));
+  }
+
+  /**
+   * Test of getShellText method, of class JssTextPaneController.
+   */
+  @Test
+  public void testGetShellText() {
+    System.out.println("getShellText");
+    JssTextPaneController instance = new JssTextPaneController();
+    instance.addNewLineToShell("text");
+    String expResult = "\n> \ntext";
+    String result = instance.getShellText();
+    assertEquals(expResult, result);
+  }
+
+  /**
+   * Test of setShellText method, of class JssTextPaneController.
+   */
+  @Test
+  public void testSetShellText() {
+    System.out.println("setShellText");
+    JssTextPaneController instance = new JssTextPaneController();
+    instance.addNewLineToShell("pending");
+    instance.setShellText("text");
+    assertEquals("text", instance.getShellText());
+  }
+
+  /**
+   * Test of getShellTextLength method, of class JssTextPaneController.
+   */
+  @Test
+  public void testGetShellTextLength() {
+    System.out.println("getShellTextLength");
+    JssTextPaneController instance = new JssTextPaneController();
+    instance.addNewLineToShell("first");
+    instance.addNewLineToShell("second line");
+    instance.addNewCommandLine("cmd");
+    long result = instance.getShellTextLength();
+    assertEquals(instance.getShellText().length(), result);
+  }
+
+  /**
+   * Test of exportShellText method, of class JssTextPaneController.
+   */
+  @Test
+  public void testExportShellText() throws IOException {
+    System.out.println("exportShellText");
+    JssTextPaneController instance = new JssTextPaneController();
+    instance.addNewLineToShell("pending");
+    File file = File.createTempFile("jss-test-", ".txt");
+    try {
+      long result = instance.exportShellText(file);
+      byte[] expResult = "\n> \npending".getBytes(StandardCharsets.UTF_8);
+      assertEquals(expResult.length, result);
+      assertArrayEquals(expResult, Files.readAllBytes(file.toPath()));
+    } finally {
+      file.delete();
+    }
+  }
+
+  /**
+   * Test of addNewCommandLine method, of class JssTextPaneController.
+   */
+  @Test
+  public void testAddNewCommandLine_String() {
+    System.out.println("addNewCommandLine");
+    JssTextPaneController instance = new JssTextPaneController();
+    instance.addNewCommandLine("cmd");
+    assertEquals("cmd", instance.getCommandLine());
+    assertEquals(instance.getView().getDocument().getLength(),
+        instance.getView().getCaretPosition());
+  }
+
+  /**
+   * Test of getCommandLine method, of class JssTextPaneController.
+   */
+  @Test
+  public void testGetCommandLine() {
+    System.out.println("getCommandLine");
+    JssTextPaneController instance = new JssTextPaneController();
+    String expResult = "";
+    String result = instance.getCommandLine();
+    assertEquals(expResult, result);
+  }
+
+  /**
+   * Test of setCommandLine method, of class JssTextPaneController.
+   */
+  @Test
+  public void testSetCommandLine() {
+    System.out.println("setCommandLine");
+    JssTextPaneController instance = new JssTextPaneController();
+    instance.setCommandLine("first");
+    instance.setCommandLine("second");
+    assertEquals("second", instance.getCommandLine());
+    assertEquals("\n> second", instance.getShellText());
+  }
+
+  /**
+   * Test of getCommandLinePosition method, of class JssTextPaneController.
+   */
+  @Test
+  public void testGetCommandLinePosition() {
+    System.out.println("getCommandLinePosition");
+    JssTextPaneController instance = new JssTextPaneController();
+    int expResult = 3;
+    int result = instance.getCommandLinePosition();
+    assertEquals(expResult, result);
+  }
+
+  /**
+   * Test of interpret method, of class JssTextPaneController.
+   */
+  @Test
+  public void testInterpret() {
+    System.out.println("interpret");
+    JssTextPaneController instance = new JssTextPaneController();
+    instance.setCommandLine("unknown");
+    instance.interpret();
+    String result = instance.getShellText();
+    assertTrue(result.contains("Command not found: unknown"));
+    assertEquals("", instance.getCommandLine());
+  }
+
+  /**
+   * Test of setForeground method, of class JssTextPaneController.
+   */
+  @Test
+  public void testSetForeground() {
+    System.out.println("setForeground");
+    JssTextPaneController instance = new JssTextPaneController();
+    instance.setForeground(null);
+    assertEquals(Color.white, instance.getForeground());
+    assertEquals(Color.white,
+        StyleConstants.getForeground(instance.getCommandStyle()));
+  }
+
+  /**
+   * Test of setBackground method, of class JssTextPaneController.
+   */
+  @Test
+  public void testSetBackground() {
+    System.out.println("setBackground");
+    JssTextPaneController instance = new JssTextPaneController();
+    instance.setBackground(null);
+    assertEquals(Color.black, instance.getBackground());
+  }
+
+  /**
+   * Test of keyPressed method, of class JssTextPaneController.
+   */
+  @Test
+  public void testKeyPressed() {
+    System.out.println("keyPressed");
+    JssTextPaneController instance = new JssTextPaneController();
+    instance.keyPressed(null);
+  }
+
+  /**
+   * Test of fixSelection method, of class JssTextPaneController.
+   */
+  @Test
+  public void testFixSelection() {
+    System.out.println("fixSelection");
+    JssTextPaneController instance = new JssTextPaneController();
+    instance.getView().setCaretPosition(0);
+    instance.fixSelection();
+    assertEquals(instance.getView().getDocument().getLength(),
+        instance.getView().getCaretPosition());
+  }
+
+}
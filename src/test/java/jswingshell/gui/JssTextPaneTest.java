@@ -0,0 +1,171 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 brunot.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package jswingshell.gui;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import jswingshell.IJssController;
+
+/**
+ *
+ * @author brunot
+ */
+public class JssTextPaneTest {
+
+  public JssTextPaneTest() {}
+
+  @BeforeClass
+  public static void setUpClass() {}
+
+  @AfterClass
+  public static void tearDownClass() {}
+
+  @Before
+  public void setUp() {}
+
+  @After
+  public void tearDown() {}
+
+  /**
+   * Test of getController method, of class JssTextPane.
+   */
+  @Test
+  public void testGetController() {
+    System.out.println("getController");
+    JssTextPane instance = new JssTextPane();
+    JssTextPaneController expResult = null;
+    JssTextPaneController result = instance.getController();
+    assertEquals(expResult, result);
+  }
+
+  /**
+   * Test of setController method, of class JssTextPane.
+   */
+  @Test
+  public void testSetController() {
+    System.out.println("setController");
+    IJssController controller = null;
+    JssTextPane instance = new JssTextPane();
+    instance.setController(controller);
+  }
+
+  /**
+   * Test of getShellText method, of class JssTextPane.
+   */
+  @Test
+  public void testGetShellText() {
+    System.out.println("getShellText");
+    JssTextPane instance = new JssTextPane();
+    String expResult = "";
+    String result = instance.getShellText();
+    assertEquals(expResult, result);
+  }
+
+  /**
+   * Test of setShellText method, of class JssTextPane.
+   */
+  @Test
+  public void testSetShellText() {
+    System.out.println("setShellText");
+    String newShellText = "text";
+    JssTextPane instance = new JssTextPane();
+    instance.setShellText(newShellText);
+    assertEquals(newShellText, instance.getShellText());
+  }
+
+  /**
+   * Test of isShellTextAreaLocked method, of class JssTextPane.
+   */
+  @Test
+  public void testIsShellTextAreaLocked() {
+    System.out.println("isShellTextAreaLocked");
+    JssTextPane instance = new JssTextPane();
+    boolean expResult = false;
+    boolean result = instance.isShellTextAreaLocked();
+    assertEquals(expResult, result);
+  }
+
+  /**
+   * Test of lockShellTextArea method, of class JssTextPane.
+   */
+  @Test
+  public void testLockShellTextArea() {
+    System.out.println("lockShellTextArea");
+    JssTextPane instance = new JssTextPane();
+    instance.lockShellTextArea();
+    assertEquals(true, instance.isShellTextAreaLocked());
+  }
+
+  /**
+   * Test of unlockShellTextArea method, of class JssTextPane.
+   */
+  @Test
+  public void testUnlockShellTextArea() {
+    System.out.println("unlockShellTextArea");
+    JssTextPane instance = new JssTextPane();
+    instance.lockShellTextArea();
+    instance.unlockShellTextArea();
+    assertEquals(false, instance.isShellTextAreaLocked());
+  }
+
+  /**
+   * Test of getCommandLine method, of class JssTextPane.
+   */
+  @Test
+  public void testGetCommandLine() {
+    System.out.println("getCommandLine");
+    JssTextPane instance = new JssTextPaneController().getView();
+    String expResult = "";
+    String result = instance.getCommandLine();
+    assertEquals(expResult, result);
+  }
+
+  /**
+   * Test of isCommandLineLocked method, of class JssTextPane.
+   */
+  @Test
+  public void testIsCommandLineLocked() {
+    System.out.println("isCommandLineLocked");
+    JssTextPane instance = new JssTextPane();
+    boolean expResult = false;
+    boolean result = instance.isCommandLineLocked();
+    assertEquals(expResult, result);
+  }
+
+  /**
+   * Test of lockCommandLine method, of class JssTextPane.
+   */
+  @Test
+  public void testLockCommandLine() {
+    System.out.println("lockCommandLine");
+    JssTextPane instance = new JssTextPane();
+    instance.lockCommandLine();
+    assertEquals(true, instance.isCommandLineLocked());
+  }
+
+}
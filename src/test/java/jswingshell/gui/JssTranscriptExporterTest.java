@@ -0,0 +1,235 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 brunot.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package jswingshell.gui;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import javax.swing.text.BadLocationException;
+import javax.swing.text.PlainDocument;
+import javax.swing.text.Segment;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import jswingshell.gui.buffer.JssDirectLineStore;
+import jswingshell.gui.buffer.JssSpillingLineStore;
+
+/**
+ *
+ * @author brunot
+ */
+public class JssTranscriptExporterTest {
+
+  private File file;
+
+  public JssTranscriptExporterTest() {}
+
+  @BeforeClass
+  public static void setUpClass() {}
+
+  @AfterClass
+  public static void tearDownClass() {}
+
+  @Before
+  public void setUp() throws IOException {
+    file = File.createTempFile("jss-test-", ".txt");
+  }
+
+  @After
+  public void tearDown() {
+    file.delete();
+  }
+
+  private void assertFileContent(String expResult, long written) throws IOException {
+    byte[] expBytes = expResult.getBytes(StandardCharsets.UTF_8);
+    assertEquals(expBytes.length, written);
+    assertArrayEquals(expBytes, Files.readAllBytes(file.toPath()));
+  }
+
+  /**
+   * Test of constructor, of class JssTranscriptExporter.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testConstructor_noCharset() {
+    System.out.println("JssTranscriptExporter");
+    new JssTranscriptExporter(null);
+  }
+
+  /**
+   * Test of constructor, of class JssTranscriptExporter.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testConstructor_invalidChunkSize() {
+    System.out.println("JssTranscriptExporter");
+    new JssTranscriptExporter(StandardCharsets.UTF_8, 0);
+  }
+
+  /**
+   * Test of export method, of class JssTranscriptExporter.
+   */
+  @Test
+  public void testExport_Document() throws BadLocationException, IOException {
+    System.out.println("export");
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; i < 1000; i++) {
+      text.append("\nLine ").append(i).append(" été 😀");
+    }
+    PlainDocument document = new PlainDocument();
+    document.insertString(0, text.toString(), null);
+
+    // Use tiny chunks so that surrogate pairs are split between chunks
+    JssTranscriptExporter instance = new JssTranscriptExporter(StandardCharsets.UTF_8, 3);
+    assertFileContent(text.toString(), instance.export(document, file));
+  }
+
+  /**
+   * Test of export method, of class JssTranscriptExporter, with a document modified meanwhile.
+   */
+  @Test
+  public void testExport_concurrentDocument()
+      throws BadLocationException, IOException, InterruptedException {
+    System.out.println("export_concurrentDocument");
+    final String text = "Line 1\nLine 2\nLine 3";
+    final Thread[] writer = new Thread[1];
+    final boolean[] exporting = new boolean[1];
+    final PlainDocument document = new PlainDocument() {
+
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      public void getText(int offset, int length, Segment txt) throws BadLocationException {
+        if (exporting[0] && writer[0] == null) {
+          // Clear the document while the first chunk is exported
+          writer[0] = new Thread(new Runnable() {
+
+            @Override
+            public void run() {
+              try {
+                remove(0, getLength());
+              } catch (BadLocationException e) {
+                throw new IllegalStateException(e);
+              }
+            }
+
+          });
+          writer[0].start();
+          try {
+            writer[0].join(200);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        }
+        super.getText(offset, length, txt);
+      }
+
+    };
+    document.insertString(0, text, null);
+
+    JssTranscriptExporter instance = new JssTranscriptExporter(StandardCharsets.UTF_8, 4);
+    exporting[0] = true;
+    assertFileContent(text, instance.export(document, file));
+    writer[0].join();
+    assertEquals(0, document.getLength());
+  }
+
+  /**
+   * Test of export method, of class JssTranscriptExporter.
+   */
+  @Test
+  public void testExport_emptyDocument() throws IOException {
+    System.out.println("export");
+    JssTranscriptExporter instance = new JssTranscriptExporter();
+    assertFileContent("", instance.export(new PlainDocument(), file));
+  }
+
+  /**
+   * Test of export method, of class JssTranscriptExporter.
+   */
+  @Test
+  public void testExport_IJssLineStore() throws IOException {
+    System.out.println("export");
+    JssDirectLineStore lineStore = new JssDirectLineStore();
+    lineStore.append("");
+    lineStore.append("> cmd");
+    lineStore.append("😀 result");
+    JssTranscriptExporter instance = new JssTranscriptExporter(StandardCharsets.UTF_8, 1);
+    assertFileContent("\n> cmd\n😀 result\n> ", instance.export(lineStore, "> ", file));
+    assertFileContent("\n> cmd\n😀 result\n", instance.export(lineStore, null, file));
+    lineStore.close();
+  }
+
+  /**
+   * Test of export method, of class JssTranscriptExporter, with lines that cannot be read.
+   */
+  @Test(expected = IOException.class)
+  public void testExport_unreadableLineStore() throws IOException {
+    System.out.println("export_unreadableLineStore");
+    JssSpillingLineStore lineStore = new JssSpillingLineStore(4, 1, 1, null);
+    try {
+      for (int i = 0; i < 20; i++) {
+        lineStore.append("Line " + i);
+      }
+      try (RandomAccessFile spillFile = new RandomAccessFile(lineStore.getSpillFile(), "rw")) {
+        spillFile.setLength(0);
+      }
+      new JssTranscriptExporter().export(lineStore, null, file);
+    } finally {
+      lineStore.close();
+    }
+  }
+
+  /**
+   * Test of export method, of class JssTranscriptExporter.
+   */
+  @Test
+  public void testExport_CharSequence() throws IOException {
+    System.out.println("export");
+    JssTranscriptExporter instance = new JssTranscriptExporter(StandardCharsets.ISO_8859_1);
+    long result = instance.export("été", file);
+    assertEquals(3, result);
+    assertArrayEquals("été".getBytes(StandardCharsets.ISO_8859_1),
+        Files.readAllBytes(file.toPath()));
+  }
+
+  /**
+   * Test of export method, of class JssTranscriptExporter.
+   */
+  @Test
+  public void testExport_unpairedSurrogate() throws IOException {
+    System.out.println("export");
+    JssTranscriptExporter instance = new JssTranscriptExporter(StandardCharsets.UTF_8, 1);
+    assertFileContent("a?b", instance.export("a\uD83Db", file));
+    assertFileContent("a?", instance.export("a\uD83D", file));
+    assertFileContent("?😀", instance.export("\uD83D😀", file));
+  }
+
+}
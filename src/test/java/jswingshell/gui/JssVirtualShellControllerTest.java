@@ -0,0 +1,645 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 brunot.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package jswingshell.gui;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Color;
+import java.awt.event.KeyEvent;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.SwingUtilities;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import jswingshell.IJssController;
+import jswingshell.IJssController.PublicationLevel;
+import jswingshell.JssCommandMetrics;
+import jswingshell.JssSimpleModel;
+import jswingshell.JssTimeoutPolicy;
+import jswingshell.JssTimerWheel;
+import jswingshell.action.AbstractJssAction;
+import jswingshell.action.AbstractThreadedJssAction;
+import jswingshell.action.IJssAction;
+import jswingshell.action.JssPipeline;
+import jswingshell.action.JssPipelineTest;
+import jswingshell.gui.buffer.JssDirectLineStore;
+
+/**
+ *
+ * @author brunot
+ */
+public class JssVirtualShellControllerTest {
+
+  public JssVirtualShellControllerTest() {}
+
+  @BeforeClass
+  public static void setUpClass() {}
+
+  @AfterClass
+  public static void tearDownClass() {}
+
+  @Before
+  public void setUp() {}
+
+  @After
+  public void tearDown() {}
+
+  private static KeyEvent keyPressed(JssVirtualShellController controller, int keyCode) {
+    return new KeyEvent(controller.getView(), KeyEvent.KEY_PRESSED, 0, 0, keyCode,
+        KeyEvent.CHAR_UNDEFINED);
+  }
+
+  private static void type(JssVirtualShellController controller, String text) {
+    for (char c : text.toCharArray()) {
+      controller.keyTyped(new KeyEvent(controller.getView(), KeyEvent.KEY_TYPED, 0, 0,
+          KeyEvent.VK_UNDEFINED, c));
+    }
+  }
+
+  /**
+   * Test of getView method, of class JssVirtualShellController.
+   */
+  @Test
+  public void testGetView() {
+    System.out.println("getView");
+    JssVirtualShellController instance = new JssVirtualShellController();
+    JssVirtualShellView notExpResult = null;
+    JssVirtualShellView result = instance.getView();
+    assertNotEquals(notExpResult, result);
+    assertEquals(instance, result.getController());
+  }
+
+  /**
+   * Test of constructors, of class JssVirtualShellController.
+   */
+  @Test
+  public void testConstructors() {
+    System.out.println("JssVirtualShellController");
+    JssDirectLineStore lineStore = new JssDirectLineStore();
+    JssVirtualShellController instance = new JssVirtualShellController(lineStore);
+    assertEquals(lineStore, instance.getView().getLineStore());
+
+    JssSimpleModel model = new JssSimpleModel(instance);
+    instance = new JssVirtualShellController(model);
+    assertEquals(model, instance.getModel());
+
+    JssVirtualShellView view = new JssVirtualShellView();
+    instance = new JssVirtualShellController(view);
+    assertEquals(view, instance.getView());
+  }
+
+  /**
+   * Test of getShellText method, of class JssVirtualShellController.
+   */
+  @Test
+  public void testGetShellText() {
+    System.out.println("getShellText");
+    JssVirtualShellController instance = new JssVirtualShellController();
+    instance.addNewLineToShell("text");
+    String expResult = "\n> \ntext";
+    String result = instance.getShellText();
+    assertEquals(expResult, result);
+  }
+
+  /**
+   * Test of publish method, of class JssVirtualShellController.
+   */
+  @Test
+  public void testPublish() {
+    System.out.println("publish");
+    JssVirtualShellController instance = new JssVirtualShellController();
+    instance.setPublicationLevel(PublicationLevel.INFO);
+    assertEquals(true, instance.publish(PublicationLevel.INFO, "info"));
+    assertEquals(false, instance.publish(PublicationLevel.TRACE, "trace"));
+    assertEquals("\n> \ninfo", instance.getShellText());
+  }
+
+  /**
+   * Test of setShellText method, of class JssVirtualShellController.
+   */
+  @Test
+  public void testSetShellText() {
+    System.out.println("setShellText");
+    JssVirtualShellController instance = new JssVirtualShellController();
+    instance.setShellText("text");
+    assertEquals("text", instance.getShellText());
+    assertEquals(null, instance.getCommandLine());
+  }
+
+  /**
+   * Test of getShellTextLength method, of class JssVirtualShellController.
+   */
+  @Test
+  public void testGetShellTextLength() {
+    System.out.println("getShellTextLength");
+    JssVirtualShellController instance = new JssVirtualShellController();
+    instance.addNewLineToShell("first");
+    instance.addNewLineToShell("second line");
+    instance.addNewCommandLine("cmd");
+    long result = instance.getShellTextLength();
+    assertEquals(instance.getShellText().length(), result);
+  }
+
+  /**
+   * Test of exportShellText method, of class JssVirtualShellController.
+   */
+  @Test
+  public void testExportShellText() throws IOException {
+    System.out.println("exportShellText");
+    JssVirtualShellController instance = new JssVirtualShellController();
+    instance.addNewLineToShell("text");
+    instance.setCommandLine("cmd");
+    File file = File.createTempFile("jss-test-", ".txt");
+    try {
+      long result = instance.exportShellText(file);
+      byte[] expResult = instance.getShellText().getBytes(StandardCharsets.UTF_8);
+      assertEquals(expResult.length, result);
+      assertArrayEquals(expResult, Files.readAllBytes(file.toPath()));
+    } finally {
+      file.delete();
+    }
+  }
+
+  /**
+   * Test of addNewCommandLine method, of class JssVirtualShellController.
+   */
+  @Test
+  public void testAddNewCommandLine_String() {
+    System.out.println("addNewCommandLine");
+    JssVirtualShellController instance = new JssVirtualShellController();
+    instance.addNewCommandLine("cmd");
+    assertEquals("cmd", instance.getCommandLine());
+    assertEquals("> cmd".length(), instance.getCaretPosition());
+  }
+
+  /**
+   * Test of getCommandLine method, of class JssVirtualShellController.
+   */
+  @Test
+  public void testGetCommandLine() {
+    System.out.println("getCommandLine");
+    JssVirtualShellController instance = new JssVirtualShellController();
+    String expResult = "";
+    String result = instance.getCommandLine();
+    assertEquals(expResult, result);
+  }
+
+  /**
+   * Test of setCommandLine method, of class JssVirtualShellController.
+   */
+  @Test
+  public void testSetCommandLine() {
+    System.out.println("setCommandLine");
+    JssVirtualShellController instance = new JssVirtualShellController();
+    instance.setCommandLine("first");
+    instance.setCommandLine("second");
+    assertEquals("second", instance.getCommandLine());
+    assertEquals("\n> second", instance.getShellText());
+    instance.setCommandLine(null);
+    assertEquals("", instance.getCommandLine());
+  }
+
+  /**
+   * Test of getCommandLinePosition method, of class JssVirtualShellController.
+   */
+  @Test
+  public void testGetCommandLinePosition() {
+    System.out.println("getCommandLinePosition");
+    JssVirtualShellController instance = new JssVirtualShellController();
+    assertEquals(2, instance.getCommandLinePosition());
+    instance.addNewLineToShell("text");
+    assertEquals(-1, instance.getCommandLinePosition());
+  }
+
+  /**
+   * Test of interpret method, of class JssVirtualShellController.
+   */
+  @Test
+  public void testInterpret() {
+    System.out.println("interpret");
+    JssVirtualShellController instance = new JssVirtualShellController();
+    instance.setCommandLine("unknown");
+    instance.interpret();
+    String result = instance.getShellText();
+    assertTrue(result.contains("Command not found: unknown"));
+    assertEquals("", instance.getCommandLine());
+    assertEquals(false, instance.isCommandLineLocked());
+  }
+
+  /**
+   * Test of interpret method, of class JssVirtualShellController.
+   */
+  @Test(timeout = 10000)
+  public void testInterpret_chain() throws Exception {
+    System.out.println("interpret");
+    final JssVirtualShellController instance = new JssVirtualShellController();
+    instance.getModel().add(new EchoAction());
+    instance.getModel().add(new WaitAction());
+    SwingUtilities.invokeAndWait(new Runnable() {
+
+      @Override
+      public void run() {
+        instance.setCommandLine(
+            "wait 0 && echo a || echo b ; wait 1 && echo c || echo d ; echo e");
+        assertEquals(IJssAction.IN_PROGRESS, instance.interpret());
+      }
+
+    });
+
+    final boolean[] locked = {true};
+    while (locked[0]) {
+      Thread.sleep(10);
+      SwingUtilities.invokeAndWait(new Runnable() {
+
+        @Override
+        public void run() {
+          locked[0] = instance.isCommandLineLocked();
+        }
+
+      });
+    }
+    assertTrue(instance.getShellText().endsWith("\n\na\nd\ne\n> "));
+    assertEquals(0, instance.getActionsInProgress().size());
+
+    // Threaded actions are recorded by their worker
+    JssCommandMetrics.Snapshot waitMetrics = instance.getCommandMetrics().getSnapshot("wait");
+    assertEquals(2, waitMetrics.getInvocationCount());
+    assertEquals(1, waitMetrics.getErrorCount());
+    assertTrue(waitMetrics.getMeanNanos() >= 50000000);
+    assertEquals(3, instance.getCommandMetrics().getSnapshot("echo").getInvocationCount());
+  }
+
+  /**
+   * Test of interpret method with a timeout policy, of class JssVirtualShellController.
+   */
+  @Test(timeout = 10000)
+  public void testInterpret_timeout() throws Exception {
+    System.out.println("interpret");
+    final JssVirtualShellController instance = new JssVirtualShellController();
+    instance.getModel().add(new EchoAction());
+    instance.getModel().add(new WaitAction());
+    instance.getModel().add(new HangAction());
+    JssTimerWheel timerWheel = new JssTimerWheel(1, TimeUnit.MILLISECONDS);
+    instance.setTimerWheel(timerWheel);
+    JssTimeoutPolicy policy = new JssTimeoutPolicy(20, TimeUnit.MILLISECONDS);
+    policy.setCommandTimeout("wait", 0, TimeUnit.MILLISECONDS);
+    instance.setTimeoutPolicy(policy);
+    SwingUtilities.invokeAndWait(new Runnable() {
+
+      @Override
+      public void run() {
+        instance.setCommandLine("wait 0 && hang || echo timeout");
+        assertEquals(IJssAction.IN_PROGRESS, instance.interpret());
+      }
+
+    });
+
+    final boolean[] locked = {true};
+    while (locked[0]) {
+      Thread.sleep(10);
+      SwingUtilities.invokeAndWait(new Runnable() {
+
+        @Override
+        public void run() {
+          locked[0] = instance.isCommandLineLocked();
+        }
+
+      });
+    }
+    // Like a cancelled action, a timed out action stops the chain
+    assertTrue(
+        instance.getShellText().endsWith("\nCommand timed out after 20 ms: hang\n> "));
+    assertEquals(0, instance.getActionsInProgress().size());
+
+    JssCommandMetrics.Snapshot hangMetrics = instance.getCommandMetrics().getSnapshot("hang");
+    assertEquals(1, hangMetrics.getTimeoutCount());
+    assertEquals(1, hangMetrics.getErrorCount());
+    assertEquals(0, instance.getCommandMetrics().getSnapshot("wait").getTimeoutCount());
+    assertEquals(0, timerWheel.getPendingCount());
+    timerWheel.stop();
+  }
+
+  /**
+   * Test of keyTyped method, of class JssVirtualShellController.
+   */
+  @Test
+  public void testKeyTyped() {
+    System.out.println("keyTyped");
+    JssVirtualShellController instance = new JssVirtualShellController();
+    instance.keyTyped(null);
+    type(instance, "hlo");
+    instance.keyPressed(keyPressed(instance, KeyEvent.VK_LEFT));
+    instance.keyPressed(keyPressed(instance, KeyEvent.VK_LEFT));
+    type(instance, "el");
+    assertEquals("hello", instance.getCommandLine());
+
+    instance.lockCommandLine();
+    type(instance, "!");
+    assertEquals("hello", instance.getCommandLine());
+  }
+
+  /**
+   * Test of keyPressed method, of class JssVirtualShellController.
+   */
+  @Test
+  public void testKeyPressed() {
+    System.out.println("keyPressed");
+    JssVirtualShellController instance = new JssVirtualShellController();
+    instance.keyPressed(null);
+    type(instance, "abc");
+
+    instance.keyPressed(keyPressed(instance, KeyEvent.VK_BACK_SPACE));
+    assertEquals("ab", instance.getCommandLine());
+
+    instance.keyPressed(keyPressed(instance, KeyEvent.VK_HOME));
+    assertEquals(instance.getCommandLinePosition(), instance.getCaretPosition());
+    instance.keyPressed(keyPressed(instance, KeyEvent.VK_BACK_SPACE));
+    instance.keyPressed(keyPressed(instance, KeyEvent.VK_LEFT));
+    assertEquals("ab", instance.getCommandLine());
+    assertEquals(instance.getCommandLinePosition(), instance.getCaretPosition());
+
+    instance.keyPressed(keyPressed(instance, KeyEvent.VK_DELETE));
+    assertEquals("b", instance.getCommandLine());
+
+    instance.keyPressed(keyPressed(instance, KeyEvent.VK_END));
+    assertEquals("> b".length(), instance.getCaretPosition());
+  }
+
+  /**
+   * Test of keyPressed method, of class JssVirtualShellController.
+   */
+  @Test
+  public void testKeyPressed_history() {
+    System.out.println("keyPressed");
+    JssVirtualShellController instance = new JssVirtualShellController();
+    type(instance, "unknown");
+    instance.keyPressed(keyPressed(instance, KeyEvent.VK_ENTER));
+    assertEquals("", instance.getCommandLine());
+
+    instance.keyPressed(keyPressed(instance, KeyEvent.VK_UP));
+    assertEquals("unknown", instance.getCommandLine());
+    instance.keyPressed(keyPressed(instance, KeyEvent.VK_DOWN));
+    assertEquals("", instance.getCommandLine());
+  }
+
+  /**
+   * Test of setBackground method, of class JssVirtualShellController.
+   */
+  @Test
+  public void testSetBackground() {
+    System.out.println("setBackground");
+    JssVirtualShellController instance = new JssVirtualShellController();
+    instance.setBackground(null);
+    assertEquals(Color.black, instance.getBackground());
+  }
+
+  /**
+   * Test of setForeground method, of class JssVirtualShellController.
+   */
+  @Test
+  public void testSetForeground() {
+    System.out.println("setForeground");
+    JssVirtualShellController instance = new JssVirtualShellController();
+    instance.setForeground(null);
+    assertEquals(Color.white, instance.getForeground());
+  }
+
+  /**
+   * Test of interpret method with pipelines, of class JssVirtualShellController.
+   */
+  @Test(timeout = 10000)
+  public void testInterpret_pipeline() throws Exception {
+    System.out.println("interpret");
+    final JssVirtualShellController instance = new JssVirtualShellController();
+    instance.getModel().add(new EchoAction());
+    instance.getModel().add(new JssPipelineTest.SeqAction());
+    instance.getModel().add(new JssPipelineTest.CountAction());
+    final String[] commandLines = {"seq 3 | count", "seq 2 | count && echo a ; echo b"};
+    for (final String commandLine : commandLines) {
+      SwingUtilities.invokeAndWait(new Runnable() {
+
+        @Override
+        public void run() {
+          instance.setCommandLine(commandLine);
+          assertEquals(IJssAction.IN_PROGRESS, instance.interpret());
+          assertTrue(instance.isCommandLineLocked());
+        }
+
+      });
+
+      final boolean[] locked = {true};
+      while (locked[0]) {
+        Thread.sleep(10);
+        SwingUtilities.invokeAndWait(new Runnable() {
+
+          @Override
+          public void run() {
+            locked[0] = instance.isCommandLineLocked();
+          }
+
+        });
+      }
+      assertEquals(0, instance.getActionsInProgress().size());
+    }
+    // The chain waits for the pipeline before going on
+    assertTrue(instance.getShellText()
+        .endsWith("\n\n3\n> seq 2 | count && echo a ; echo b\n\n2\na\nb\n> "));
+
+    JssCommandMetrics.Snapshot pipelineMetrics =
+        instance.getCommandMetrics().getSnapshot(JssPipeline.COMMAND_IDENTIFIER);
+    assertEquals(2, pipelineMetrics.getInvocationCount());
+    assertEquals(0, pipelineMetrics.getErrorCount());
+  }
+
+  /**
+   * Test of interpret method with a pipeline timing out, of class JssVirtualShellController.
+   */
+  @Test(timeout = 10000)
+  public void testInterpret_pipelineTimeout() throws Exception {
+    System.out.println("interpret");
+    final JssVirtualShellController instance = new JssVirtualShellController();
+    instance.getModel().add(new EchoAction());
+    instance.getModel().add(new JssPipelineTest.SeqAction());
+    instance.getModel().add(new JssPipelineTest.CountAction());
+    JssTimerWheel timerWheel = new JssTimerWheel(1, TimeUnit.MILLISECONDS);
+    instance.setTimerWheel(timerWheel);
+    instance.setTimeoutPolicy(new JssTimeoutPolicy(20, TimeUnit.MILLISECONDS));
+    SwingUtilities.invokeAndWait(new Runnable() {
+
+      @Override
+      public void run() {
+        instance.setCommandLine("seq 1000000000 | count || echo timeout");
+        assertEquals(IJssAction.IN_PROGRESS, instance.interpret());
+      }
+
+    });
+
+    final boolean[] locked = {true};
+    while (locked[0]) {
+      Thread.sleep(10);
+      SwingUtilities.invokeAndWait(new Runnable() {
+
+        @Override
+        public void run() {
+          locked[0] = instance.isCommandLineLocked();
+        }
+
+      });
+    }
+    assertTrue(instance.getShellText()
+        .endsWith("\nCommand timed out after 20 ms: " + JssPipeline.COMMAND_IDENTIFIER + "\n> "));
+    assertEquals(0, instance.getActionsInProgress().size());
+    assertEquals(1, instance.getCommandMetrics().getSnapshot(JssPipeline.COMMAND_IDENTIFIER)
+        .getTimeoutCount());
+    timerWheel.stop();
+  }
+
+  /**
+   * Test of getFont method, of class JssVirtualShellController.
+   */
+  @Test
+  public void testGetFont() {
+    System.out.println("getFont");
+    JssVirtualShellController instance = new JssVirtualShellController();
+    assertEquals(JssVirtualShellController.DEFAULT_FONT, instance.getFont());
+  }
+
+  // #########################################################################
+  /**
+   * Publish its arguments.
+   */
+  public static class EchoAction extends AbstractJssAction {
+
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public String[] getCommandIdentifiers() {
+      return new String[] {"echo"};
+    }
+
+    @Override
+    public int run(IJssController shellController, String... args) {
+      shellController.publish(PublicationLevel.SUCCESS, args[1]);
+      return IJssAction.SUCCESS;
+    }
+
+    @Override
+    public String getHelp(IJssController shellController) {
+      return getBriefHelp();
+    }
+
+    @Override
+    public String getBriefHelp() {
+      return "Publish its arguments.";
+    }
+
+  }
+
+  /**
+   * Sleep in a worker until interrupted.
+   */
+  public static class HangAction extends AbstractThreadedJssAction {
+
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public String[] getCommandIdentifiers() {
+      return new String[] {"hang"};
+    }
+
+    @Override
+    protected AbstractJssActionWorker prepareWorker(IJssController shellController,
+        final String... args) {
+      return new AbstractJssActionWorker(shellController) {
+
+        @Override
+        protected Integer doInBackground() throws Exception {
+          Thread.sleep(60000);
+          return IJssAction.SUCCESS;
+        }
+
+      };
+    }
+
+    @Override
+    public String getHelp(IJssController shellController) {
+      return getBriefHelp();
+    }
+
+    @Override
+    public String getBriefHelp() {
+      return "Wait until interrupted.";
+    }
+
+  }
+
+  /**
+   * Wait a little in a worker and return the status given as argument.
+   */
+  public static class WaitAction extends AbstractThreadedJssAction {
+
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public String[] getCommandIdentifiers() {
+      return new String[] {"wait"};
+    }
+
+    @Override
+    protected AbstractJssActionWorker prepareWorker(IJssController shellController,
+        final String... args) {
+      return new AbstractJssActionWorker(shellController) {
+
+        @Override
+        protected Integer doInBackground() throws Exception {
+          Thread.sleep(50);
+          return Integer.valueOf(args[1]);
+        }
+
+      };
+    }
+
+    @Override
+    public String getHelp(IJssController shellController) {
+      return getBriefHelp();
+    }
+
+    @Override
+    public String getBriefHelp() {
+      return "Wait and return a status.";
+    }
+
+  }
+
+}
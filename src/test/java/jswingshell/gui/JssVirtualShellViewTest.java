@@ -0,0 +1,316 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 brunot.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package jswingshell.gui;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import jswingshell.IJssController;
+import jswingshell.gui.buffer.JssDirectLineStore;
+import jswingshell.gui.buffer.JssSpillingLineStore;
+
+/**
+ *
+ * @author brunot
+ */
+public class JssVirtualShellViewTest {
+
+  public JssVirtualShellViewTest() {}
+
+  @BeforeClass
+  public static void setUpClass() {}
+
+  @AfterClass
+  public static void tearDownClass() {}
+
+  @Before
+  public void setUp() {}
+
+  @After
+  public void tearDown() {}
+
+  /**
+   * Test of constructor, of class JssVirtualShellView.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testConstructor_noLineStore() {
+    System.out.println("JssVirtualShellView");
+    new JssVirtualShellView(null, null);
+  }
+
+  /**
+   * Test of getController method, of class JssVirtualShellView.
+   */
+  @Test
+  public void testGetController() {
+    System.out.println("getController");
+    JssVirtualShellView instance = new JssVirtualShellView();
+    JssVirtualShellController expResult = null;
+    JssVirtualShellController result = instance.getController();
+    assertEquals(expResult, result);
+  }
+
+  /**
+   * Test of setController method, of class JssVirtualShellView.
+   */
+  @Test
+  public void testSetController() {
+    System.out.println("setController");
+    IJssController controller = new JssVirtualShellController();
+    JssVirtualShellView instance = new JssVirtualShellView();
+    instance.setController(controller);
+    assertEquals(controller, instance.getController());
+    assertEquals(1, instance.getKeyListeners().length);
+    instance.setController(null);
+    assertEquals(0, instance.getKeyListeners().length);
+  }
+
+  /**
+   * Test of getLineStore method, of class JssVirtualShellView.
+   */
+  @Test
+  public void testGetLineStore() {
+    System.out.println("getLineStore");
+    JssDirectLineStore lineStore = new JssDirectLineStore();
+    JssVirtualShellView instance = new JssVirtualShellView(lineStore);
+    assertEquals(lineStore, instance.getLineStore());
+  }
+
+  /**
+   * Test of append method, of class JssVirtualShellView.
+   */
+  @Test
+  public void testAppend() {
+    System.out.println("append");
+    JssVirtualShellView instance = new JssVirtualShellView();
+    instance.append("first");
+    instance.append(" line\r\nsecond\n");
+    instance.append("third");
+    assertEquals(3, instance.getLineCount());
+    assertEquals(2, instance.getLineStore().size());
+    assertEquals("first line", instance.getLine(0));
+    assertEquals("second", instance.getLine(1));
+    assertEquals("third", instance.getLine(2));
+    assertEquals("third", instance.getLastLine());
+  }
+
+  /**
+   * Test of getLine method, of class JssVirtualShellView.
+   */
+  @Test
+  public void testGetLine_spilled() {
+    System.out.println("getLine");
+    JssSpillingLineStore lineStore = new JssSpillingLineStore(16, 1, 1, null);
+    try {
+      JssVirtualShellView instance = new JssVirtualShellView(lineStore);
+      for (int i = 0; i < 100; i++) {
+        instance.append("Line " + i + "\n");
+      }
+      assertTrue(lineStore.getSpilledLineCount() > 0);
+      assertEquals(101, instance.getLineCount());
+      assertEquals("Line 0", instance.getLine(0));
+      assertEquals("Line 99", instance.getLine(99));
+      assertEquals("", instance.getLine(100));
+    } finally {
+      lineStore.close();
+    }
+  }
+
+  /**
+   * Test of setLastLine method, of class JssVirtualShellView.
+   */
+  @Test
+  public void testSetLastLine() {
+    System.out.println("setLastLine");
+    JssVirtualShellView instance = new JssVirtualShellView();
+    instance.append("first\nsecond");
+    instance.setCaretColumn(6);
+    instance.setLastLine("2nd");
+    assertEquals("2nd", instance.getLastLine());
+    assertEquals(3, instance.getCaretColumn());
+    assertEquals(2, instance.getLineCount());
+  }
+
+  /**
+   * Test of setCaretColumn method, of class JssVirtualShellView.
+   */
+  @Test
+  public void testSetCaretColumn() {
+    System.out.println("setCaretColumn");
+    JssVirtualShellView instance = new JssVirtualShellView();
+    instance.append("text");
+    instance.setCaretColumn(-1);
+    assertEquals(0, instance.getCaretColumn());
+    instance.setCaretColumn(10);
+    assertEquals(4, instance.getCaretColumn());
+  }
+
+  /**
+   * Test of getPreferredSize method, of class JssVirtualShellView.
+   */
+  @Test
+  public void testGetPreferredSize() {
+    System.out.println("getPreferredSize");
+    JssVirtualShellView instance = new JssVirtualShellView();
+    Dimension emptySize = instance.getPreferredSize();
+    instance.append("a long line of text\nshort");
+    Dimension result = instance.getPreferredSize();
+    assertEquals(2 * instance.getRowHeight(), result.height);
+    assertEquals(20 * instance.getColumnWidth(), result.width);
+    assertTrue(result.height > emptySize.height);
+  }
+
+  /**
+   * Test of paintComponent method, of class JssVirtualShellView.
+   */
+  @Test
+  public void testPaintComponent() {
+    System.out.println("paintComponent");
+    JssVirtualShellView instance = new JssVirtualShellView();
+    instance.setBackground(Color.black);
+    instance.setForeground(Color.white);
+    for (int i = 0; i < 10000; i++) {
+      instance.append("\nLine " + i);
+    }
+    instance.setSize(instance.getPreferredSize());
+
+    // Paint a viewport in the middle of the output
+    BufferedImage image = new BufferedImage(200, 100, BufferedImage.TYPE_INT_RGB);
+    Graphics2D g = image.createGraphics();
+    g.translate(0, -5000 * instance.getRowHeight());
+    g.setClip(0, 5000 * instance.getRowHeight(), 200, 100);
+    instance.paint(g);
+    g.dispose();
+
+    boolean textPainted = false;
+    for (int x = 0; x < image.getWidth() && !textPainted; x++) {
+      for (int y = 0; y < image.getHeight() && !textPainted; y++) {
+        textPainted = image.getRGB(x, y) != Color.black.getRGB();
+      }
+    }
+    assertTrue(textPainted);
+  }
+
+  /**
+   * Test of getLineBounds method, of class JssVirtualShellView.
+   */
+  @Test
+  public void testGetLineBounds() {
+    System.out.println("getLineBounds");
+    JssVirtualShellView instance = new JssVirtualShellView();
+    assertEquals(3 * instance.getRowHeight(), instance.getLineBounds(3).y);
+    assertEquals(instance.getRowHeight(), instance.getLineBounds(3).height);
+  }
+
+  /**
+   * Test of getShellText method, of class JssVirtualShellView.
+   */
+  @Test
+  public void testGetShellText() {
+    System.out.println("getShellText");
+    JssVirtualShellView instance = new JssVirtualShellView();
+    assertEquals("", instance.getShellText());
+    instance.append("\n> cmd\nresult");
+    String expResult = "\n> cmd\nresult";
+    String result = instance.getShellText();
+    assertEquals(expResult, result);
+  }
+
+  /**
+   * Test of setShellText method, of class JssVirtualShellView.
+   */
+  @Test
+  public void testSetShellText() {
+    System.out.println("setShellText");
+    JssVirtualShellView instance = new JssVirtualShellView();
+    instance.append("previous\ntext");
+    instance.setShellText("new\ntext");
+    assertEquals("new\ntext", instance.getShellText());
+    instance.setShellText(null);
+    assertEquals("", instance.getShellText());
+    assertEquals(1, instance.getLineCount());
+  }
+
+  /**
+   * Test of lockShellTextArea method, of class JssVirtualShellView.
+   */
+  @Test
+  public void testLockShellTextArea() {
+    System.out.println("lockShellTextArea");
+    JssVirtualShellView instance = new JssVirtualShellView();
+    assertEquals(false, instance.isShellTextAreaLocked());
+    instance.lockShellTextArea();
+    assertEquals(true, instance.isShellTextAreaLocked());
+    instance.unlockShellTextArea();
+    assertEquals(false, instance.isShellTextAreaLocked());
+  }
+
+  /**
+   * Test of lockCommandLine method, of class JssVirtualShellView.
+   */
+  @Test
+  public void testLockCommandLine() {
+    System.out.println("lockCommandLine");
+    JssVirtualShellView instance = new JssVirtualShellView();
+    assertEquals(false, instance.isCommandLineLocked());
+    instance.lockCommandLine();
+    assertEquals(true, instance.isCommandLineLocked());
+    instance.unlockCommandLine();
+    assertEquals(false, instance.isCommandLineLocked());
+  }
+
+  /**
+   * Test of getCommandLine method, of class JssVirtualShellView.
+   */
+  @Test
+  public void testGetCommandLine() {
+    System.out.println("getCommandLine");
+    JssVirtualShellView instance = new JssVirtualShellController().getView();
+    instance.setCommandLine("cmd");
+    assertEquals("cmd", instance.getCommandLine());
+  }
+
+  /**
+   * Test of getPreferredScrollableViewportSize method, of class JssVirtualShellView.
+   */
+  @Test
+  public void testGetPreferredScrollableViewportSize() {
+    System.out.println("getPreferredScrollableViewportSize");
+    JssVirtualShellView instance = new JssVirtualShellView();
+    Dimension result = instance.getPreferredScrollableViewportSize();
+    assertNotEquals(0, result.width);
+    assertEquals(24 * instance.getRowHeight(), result.height);
+  }
+
+}
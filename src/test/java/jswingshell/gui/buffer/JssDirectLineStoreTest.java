@@ -0,0 +1,150 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 brunot.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package jswingshell.gui.buffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ *
+ * @author brunot
+ */
+public class JssDirectLineStoreTest {
+
+  public JssDirectLineStoreTest() {}
+
+  @BeforeClass
+  public static void setUpClass() {}
+
+  @AfterClass
+  public static void tearDownClass() {}
+
+  @Before
+  public void setUp() {}
+
+  @After
+  public void tearDown() {}
+
+  /**
+   * Test of constructor, of class JssDirectLineStore.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testConstructor_invalidChunkSize() {
+    System.out.println("JssDirectLineStore");
+    new JssDirectLineStore(0);
+  }
+
+  /**
+   * Test of append method, of class JssDirectLineStore.
+   */
+  @Test
+  public void testAppend() {
+    System.out.println("append");
+    JssDirectLineStore instance = new JssDirectLineStore();
+    assertEquals(0, instance.append("first"));
+    assertEquals(1, instance.append(null));
+    assertEquals(2, instance.append(new StringBuilder("third")));
+    assertEquals(3, instance.size());
+    assertEquals(10, instance.length());
+  }
+
+  /**
+   * Test of get method, of class JssDirectLineStore.
+   */
+  @Test
+  public void testGet() {
+    System.out.println("get");
+    // Use tiny chunks so that lines span several chunks
+    JssDirectLineStore instance = new JssDirectLineStore(3);
+    String[] lines = {"first line", "", "été €", "last"};
+    for (String line : lines) {
+      instance.append(line);
+    }
+    for (int i = 0; i < lines.length; i++) {
+      assertEquals(lines[i], instance.get(i));
+    }
+  }
+
+  /**
+   * Test of get method, of class JssDirectLineStore.
+   */
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testGet_outOfBounds() {
+    System.out.println("get");
+    JssDirectLineStore instance = new JssDirectLineStore();
+    instance.append("line");
+    instance.get(1);
+  }
+
+  /**
+   * Test of get method, of class JssDirectLineStore.
+   */
+  @Test
+  public void testGet_manyLines() {
+    System.out.println("get");
+    JssDirectLineStore instance = new JssDirectLineStore(1024);
+    int lineCount = 200000;
+    for (int i = 0; i < lineCount; i++) {
+      instance.append("Line " + i);
+    }
+    assertEquals(lineCount, instance.size());
+    assertEquals("Line 0", instance.get(0));
+    assertEquals("Line 65536", instance.get(65536));
+    assertEquals("Line " + (lineCount - 1), instance.get(lineCount - 1));
+  }
+
+  /**
+   * Test of clear method, of class JssDirectLineStore.
+   */
+  @Test
+  public void testClear() {
+    System.out.println("clear");
+    JssDirectLineStore instance = new JssDirectLineStore();
+    instance.append("line");
+    assertTrue(instance.getAllocatedBytes() > 0);
+    instance.clear();
+    assertEquals(0, instance.size());
+    assertEquals(0, instance.length());
+    assertEquals(0, instance.getAllocatedBytes());
+    instance.append("new line");
+    assertEquals("new line", instance.get(0));
+  }
+
+  /**
+   * Test of close method, of class JssDirectLineStore.
+   */
+  @Test
+  public void testClose() {
+    System.out.println("close");
+    JssDirectLineStore instance = new JssDirectLineStore();
+    instance.append("line");
+    instance.close();
+    assertEquals(0, instance.size());
+  }
+
+}
@@ -0,0 +1,176 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 brunot.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the "Software"), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package jswingshell.gui.buffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ *
+ * @author brunot
+ */
+public class JssSpillingLineStoreTest {
+
+  private JssSpillingLineStore instance;
+
+  public JssSpillingLineStoreTest() {}
+
+  @BeforeClass
+  public static void setUpClass() {}
+
+  @AfterClass
+  public static void tearDownClass() {}
+
+  @Before
+  public void setUp() {
+    // Tiny segments so that lines are spilled quickly
+    instance = new JssSpillingLineStore(4, 1, 1, null);
+  }
+
+  @After
+  public void tearDown() {
+    instance.close();
+  }
+
+  /**
+   * Test of constructor, of class JssSpillingLineStore.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testConstructor_invalidSegmentLines() {
+    System.out.println("JssSpillingLineStore");
+    new JssSpillingLineStore(0, 1, 1, null);
+  }
+
+  /**
+   * Test of append method, of class JssSpillingLineStore.
+   */
+  @Test
+  public void testAppend() {
+    System.out.println("append");
+    for (int i = 0; i < 7; i++) {
+      assertEquals(i, instance.append("Line " + i));
+    }
+    assertEquals(0, instance.getSpilledLineCount());
+    assertEquals(null, instance.getSpillFile());
+
+    assertEquals(7, instance.append(null));
+    assertEquals(8, instance.size());
+    assertEquals(4, instance.getSpilledLineCount());
+    assertTrue(instance.getSpillFile().exists());
+    assertEquals(instance.getSpillFile().length(), instance.getSpilledBytes());
+    assertEquals(7 * "Line 0".length(), instance.length());
+  }
+
+  /**
+   * Test of get method, of class JssSpillingLineStore.
+   */
+  @Test
+  public void testGet() {
+    System.out.println("get");
+    int lineCount = 1000;
+    for (int i = 0; i < lineCount; i++) {
+      instance.append(i % 7 == 0 ? "" : "Ligne n° " + i + " €");
+    }
+    assertTrue(instance.getSpilledLineCount() > lineCount / 2);
+    // Read back lines in both directions, crossing segments and the cache
+    for (int i = lineCount - 1; i >= 0; i -= 3) {
+      assertEquals(i % 7 == 0 ? "" : "Ligne n° " + i + " €", instance.get(i));
+    }
+    for (int i = 0; i < lineCount; i += 5) {
+      assertEquals(i % 7 == 0 ? "" : "Ligne n° " + i + " €", instance.get(i));
+    }
+  }
+
+  /**
+   * Test of get method, of class JssSpillingLineStore.
+   */
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testGet_outOfBounds() {
+    System.out.println("get");
+    instance.append("line");
+    instance.get(-1);
+  }
+
+  /**
+   * Test of get method, of class JssSpillingLineStore, when the spill file cannot be read.
+   */
+  @Test(expected = JssLineStoreException.class)
+  public void testGet_unreadableSpillFile() throws IOException {
+    System.out.println("get_unreadableSpillFile");
+    for (int i = 0; i < 20; i++) {
+      instance.append("Line " + i);
+    }
+    try (RandomAccessFile spillFile = new RandomAccessFile(instance.getSpillFile(), "rw")) {
+      spillFile.setLength(0);
+    }
+    instance.get(0);
+  }
+
+  /**
+   * Test of clear method, of class JssSpillingLineStore.
+   */
+  @Test
+  public void testClear() {
+    System.out.println("clear");
+    for (int i = 0; i < 20; i++) {
+      instance.append("Line " + i);
+    }
+    instance.clear();
+    assertEquals(0, instance.size());
+    assertEquals(0, instance.length());
+    assertEquals(0, instance.getSpilledBytes());
+    assertEquals(0, instance.getSpillFile().length());
+
+    for (int i = 0; i < 20; i++) {
+      instance.append("New line " + i);
+    }
+    assertEquals("New line 0", instance.get(0));
+    assertEquals("New line 19", instance.get(19));
+  }
+
+  /**
+   * Test of close method, of class JssSpillingLineStore.
+   */
+  @Test
+  public void testClose() {
+    System.out.println("close");
+    for (int i = 0; i < 20; i++) {
+      instance.append("Line " + i);
+    }
+    File spillFile = instance.getSpillFile();
+    assertTrue(spillFile.exists());
+    instance.close();
+    assertEquals(false, spillFile.exists());
+    assertEquals(null, instance.getSpillFile());
+  }
+
+}